@@ -0,0 +1,417 @@
+/*--------------------------------------------------------------------------
+ *  Copyright 2011 Taro L. Saito
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *--------------------------------------------------------------------------*/
+//--------------------------------------
+// XerialJ
+//
+// FrozenJSONObject.java
+// Since: 2026/10/17
+//
+// $URL$
+// $Author$
+//--------------------------------------
+package org.xerial.json;
+
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Read-only {@link JSONObject} with a compact memory layout. The keys are held
+ * in a {@link JSONKeyLayout} shared among the objects having the same keys,
+ * and the values are held in an array parallel to the keys. Integer and
+ * double values are stored unboxed, and {@link #get(String)} creates their
+ * {@link JSONNumber} on demand.
+ *
+ * <p>
+ * Use {@link JSONPullParser#getFrozenValue()} to build frozen objects. The
+ * modification methods throw {@link UnsupportedOperationException}.
+ * </p>
+ *
+ * @author leo
+ *
+ */
+public final class FrozenJSONObject extends JSONObject
+{
+    /**
+     * Markers in the value array for the numbers stored in the bits array
+     */
+    private static final Object INTEGER = new Object();
+    private static final Object DOUBLE  = new Object();
+
+    private final JSONKeyLayout layout;
+    /**
+     * String, JSONValue, {@link #INTEGER} or {@link #DOUBLE}
+     */
+    private final Object[]      values;
+    /**
+     * long values or double bits of the numbers. null if no number is
+     * contained.
+     */
+    private final long[]        bits;
+
+    private FrozenJSONObject(JSONKeyLayout layout, Object[] values, long[] bits) {
+        super((JSONObjectContent) null);
+        this.layout = layout;
+        this.values = values;
+        this.bits = bits;
+    }
+
+    private JSONValue valueAt(int i) {
+        Object v = values[i];
+        if (v == INTEGER) {
+            long n = bits[i];
+            if (n >= Integer.MIN_VALUE && n <= Integer.MAX_VALUE)
+                return new JSONInteger((int) n);
+            else
+                return new JSONLong(n);
+        }
+        else if (v == DOUBLE)
+            return new JSONDouble(Double.longBitsToDouble(bits[i]));
+        else if (v instanceof String)
+            return JSONString.wrap((String) v);
+        else
+            return (JSONValue) v;
+    }
+
+    @Override
+    public void put(String key, JSONValue obj) {
+        throw new UnsupportedOperationException("FrozenJSONObject is read-only");
+    }
+
+    @Override
+    public void put(String key, Object value) throws JSONException {
+        throw new UnsupportedOperationException("FrozenJSONObject is read-only");
+    }
+
+    @Override
+    public void remove(String nodeName) {
+        throw new UnsupportedOperationException("FrozenJSONObject is read-only");
+    }
+
+    @Override
+    public String toJSONString() {
+        StringBuilder jsonBuilder = new StringBuilder();
+        jsonBuilder.append("{");
+        for (int i = 0; i < values.length; ++i) {
+            if (i > 0)
+                jsonBuilder.append(",");
+            jsonBuilder.append("\"").append(layout.keys[i]).append("\":");
+            Object v = values[i];
+            if (v == INTEGER)
+                jsonBuilder.append(bits[i]);
+            else if (v == DOUBLE)
+                jsonBuilder.append(Double.longBitsToDouble(bits[i]));
+            else if (v instanceof String)
+                jsonBuilder.append(JSONString.toJSONString((String) v));
+            else
+                jsonBuilder.append(((JSONValue) v).toJSONString());
+        }
+        jsonBuilder.append("}");
+        return jsonBuilder.toString();
+    }
+
+    @Override
+    public int elementSize() {
+        return values.length;
+    }
+
+    @Override
+    public JSONValue get(String key) {
+        int i = layout.indexOf(key);
+        return i < 0 ? null : valueAt(i);
+    }
+
+    /**
+     * @return the read-only key set in the insertion order
+     */
+    @Override
+    public Set<String> keys() {
+        return new AbstractSet<String>() {
+            @Override
+            public Iterator<String> iterator() {
+                return new Iterator<String>() {
+                    int cursor = 0;
+
+                    public boolean hasNext() {
+                        return cursor < values.length;
+                    }
+
+                    public String next() {
+                        if (cursor >= values.length)
+                            throw new NoSuchElementException();
+                        return layout.keys[cursor++];
+                    }
+
+                    public void remove() {
+                        throw new UnsupportedOperationException("FrozenJSONObject is read-only");
+                    }
+                };
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                return o instanceof String && layout.indexOf((String) o) >= 0;
+            }
+
+            @Override
+            public int size() {
+                return values.length;
+            }
+        };
+    }
+
+    @Override
+    public int getInt(String key) throws JSONException {
+        int i = layout.indexOf(key);
+        if (i >= 0 && values[i] == INTEGER)
+            return (int) bits[i];
+        else if (i >= 0 && values[i] == DOUBLE)
+            return (int) Double.longBitsToDouble(bits[i]);
+        else
+            throw notANumber(key);
+    }
+
+    /**
+     * @param key
+     * @return the long value of the number associated with the key
+     * @throws JSONException
+     *             when the key is not found or the value is not a number
+     */
+    public long getLong(String key) throws JSONException {
+        int i = layout.indexOf(key);
+        if (i >= 0 && values[i] == INTEGER)
+            return bits[i];
+        else if (i >= 0 && values[i] == DOUBLE)
+            return (long) Double.longBitsToDouble(bits[i]);
+        else
+            throw notANumber(key);
+    }
+
+    /**
+     * @param key
+     * @return the double value of the number associated with the key
+     * @throws JSONException
+     *             when the key is not found or the value is not a number
+     */
+    public double getDouble(String key) throws JSONException {
+        int i = layout.indexOf(key);
+        if (i >= 0 && values[i] == INTEGER)
+            return bits[i];
+        else if (i >= 0 && values[i] == DOUBLE)
+            return Double.longBitsToDouble(bits[i]);
+        else
+            throw notANumber(key);
+    }
+
+    private JSONException notANumber(String key) {
+        int i = layout.indexOf(key);
+        if (i < 0)
+            return new JSONException(JSONErrorCode.KeyIsNotFound, key);
+        else
+            return new JSONException(JSONErrorCode.NotAJSONNumber, valueAt(i).toString());
+    }
+
+    @Override
+    public String getString(String key) throws JSONException {
+        int i = layout.indexOf(key);
+        if (i >= 0 && values[i] instanceof String)
+            return (String) values[i];
+        else
+            return super.getString(key);
+    }
+
+    @Override
+    public boolean hasKey(String key) {
+        return layout.indexOf(key) >= 0;
+    }
+
+    /**
+     * @return a read-only copy of the entries
+     */
+    @Override
+    public Map<String, JSONValue> getKeyValueMap() {
+        LinkedHashMap<String, JSONValue> map = new LinkedHashMap<String, JSONValue>();
+        for (int i = 0; i < values.length; ++i)
+            map.put(layout.keys[i], valueAt(i));
+        return Collections.unmodifiableMap(map);
+    }
+
+    /**
+     * Collects the entries of the objects being parsed, and shares the key
+     * layouts among the frozen objects built by the same builder. This class
+     * is not thread-safe.
+     *
+     * @author leo
+     *
+     */
+    static class Builder
+    {
+        private final JSONKeyLayout    root  = new JSONKeyLayout();
+        private final ArrayList<Frame> stack = new ArrayList<Frame>();
+        private int                    depth = 0;
+
+        /**
+         * Starts a new object. Nested objects can be started before ending
+         * the current one.
+         */
+        void start() {
+            if (depth == stack.size())
+                stack.add(new Frame());
+            stack.get(depth++).reset(root);
+        }
+
+        void put(String key, JSONValue value) {
+            stack.get(depth - 1).put(key, value, 0L);
+        }
+
+        void put(String key, String value) {
+            stack.get(depth - 1).put(key, value, 0L);
+        }
+
+        void putLong(String key, long value) {
+            stack.get(depth - 1).put(key, INTEGER, value);
+        }
+
+        void putDouble(String key, double value) {
+            stack.get(depth - 1).put(key, DOUBLE, Double.doubleToRawLongBits(value));
+        }
+
+        FrozenJSONObject end() {
+            return stack.get(--depth).freeze();
+        }
+    }
+
+    private static class Frame
+    {
+        /**
+         * The shared layout of the keys put so far, or null if the object has
+         * too many keys to share the layout
+         */
+        JSONKeyLayout            layout;
+        /**
+         * The keys and their positions when the layout is not shared
+         */
+        String[]                 keys;
+        HashMap<String, Integer> keyIndex;
+        int                      size;
+        Object[]                 values = new Object[8];
+        long[]                   bits   = new long[8];
+        boolean                  hasNumber;
+
+        void reset(JSONKeyLayout root) {
+            layout = root;
+            keys = null;
+            keyIndex = null;
+            size = 0;
+            hasNumber = false;
+        }
+
+        void put(String key, Object value, long bit) {
+            int i;
+            if (layout != null) {
+                JSONKeyLayout next = layout.cachedExtension(key);
+                if (next == null && (i = layout.scan(key)) >= 0) {
+                    // a duplicate key overwrites the value as in JSONObject
+                }
+                else if (next != null || size < JSONKeyLayout.MAX_SHARED_KEYS) {
+                    i = size++;
+                    ensureCapacity(size);
+                    layout = next != null ? next : layout.extend(key);
+                }
+                else {
+                    unshare();
+                    i = addKey(key);
+                }
+            }
+            else {
+                Integer pos = keyIndex.get(key);
+                i = pos != null ? pos : addKey(key);
+            }
+            values[i] = value;
+            bits[i] = bit;
+            if (value == INTEGER || value == DOUBLE)
+                hasNumber = true;
+        }
+
+        /**
+         * Copies the keys of the shared layout to the key array of this object
+         */
+        private void unshare() {
+            keys = new String[values.length];
+            keyIndex = new HashMap<String, Integer>(size * 2);
+            for (int i = 0; i < size; ++i) {
+                keys[i] = layout.keys[i];
+                keyIndex.put(keys[i], i);
+            }
+            layout = null;
+        }
+
+        private int addKey(String key) {
+            int i = size++;
+            ensureCapacity(size);
+            keys[i] = key;
+            keyIndex.put(key, i);
+            return i;
+        }
+
+        private void ensureCapacity(int n) {
+            if (n <= values.length)
+                return;
+
+            int capacity = values.length * 2;
+            Object[] newValues = new Object[capacity];
+            System.arraycopy(values, 0, newValues, 0, values.length);
+            values = newValues;
+            long[] newBits = new long[capacity];
+            System.arraycopy(bits, 0, newBits, 0, bits.length);
+            bits = newBits;
+            if (keys != null) {
+                String[] newKeys = new String[capacity];
+                System.arraycopy(keys, 0, newKeys, 0, keys.length);
+                keys = newKeys;
+            }
+        }
+
+        FrozenJSONObject freeze() {
+            JSONKeyLayout l = layout;
+            if (l == null) {
+                String[] k = new String[size];
+                System.arraycopy(keys, 0, k, 0, size);
+                l = JSONKeyLayout.newUnsharedLayout(k);
+            }
+            Object[] v = new Object[size];
+            System.arraycopy(values, 0, v, 0, size);
+            long[] b = null;
+            if (hasNumber) {
+                b = new long[size];
+                System.arraycopy(bits, 0, b, 0, size);
+            }
+            // release the references to the nested values
+            for (int i = 0; i < size; ++i)
+                values[i] = null;
+            keys = null;
+            keyIndex = null;
+            return new FrozenJSONObject(l, v, b);
+        }
+    }
+
+}
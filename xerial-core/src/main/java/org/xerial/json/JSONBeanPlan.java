@@ -0,0 +1,147 @@
+/*--------------------------------------------------------------------------
+ *  Copyright 2011 Taro L. Saito
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *--------------------------------------------------------------------------*/
+//--------------------------------------
+// XerialJ
+//
+// JSONBeanPlan.java
+// Since: 2026/10/17
+//
+// $URL$
+// $Author$
+//--------------------------------------
+package org.xerial.json;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.xerial.util.TypeInfo;
+import org.xerial.util.lens.ObjectLens;
+import org.xerial.util.lens.impl.ParameterGetter;
+
+/**
+ * How {@link JSONByteWriter} outputs the objects of a class. A plan holds the
+ * getters of the {@link ObjectLens} together with their pre-encoded keys, and
+ * is built once per class.
+ *
+ * @author leo
+ *
+ */
+final class JSONBeanPlan
+{
+    enum Shape {
+        /**
+         * basic types other than numbers, booleans and strings, e.g., enums
+         * and dates
+         */
+        BASIC,
+        /**
+         * array of basic types
+         */
+        ARRAY,
+        COLLECTION,
+        MAP,
+        /**
+         * object with getters
+         */
+        BEAN,
+        /**
+         * object without getters, which is output as toString()
+         */
+        TEXT
+    }
+
+    /**
+     * Value types known from the getter return types
+     */
+    static final int                                              OBJECT  = 0;
+    static final int                                              INT     = 1;
+    static final int                                              LONG    = 2;
+    static final int                                              DOUBLE  = 3;
+    static final int                                              FLOAT   = 4;
+    static final int                                              BOOLEAN = 5;
+    static final int                                              STRING  = 6;
+
+    private static final ConcurrentHashMap<Class< ? >, JSONBeanPlan> cache   = new ConcurrentHashMap<Class< ? >, JSONBeanPlan>();
+
+    final Shape                                                   shape;
+    /**
+     * true if a collection or a map has its own parameters
+     */
+    final boolean                                                 hasAttributes;
+    final ParameterGetter[]                                       getters;
+    /**
+     * UTF-8 bytes of "key":
+     */
+    final byte[][]                                                keys;
+    final int[]                                                   types;
+
+    static JSONBeanPlan getPlan(Class< ? > c) {
+        JSONBeanPlan plan = cache.get(c);
+        if (plan == null) {
+            plan = new JSONBeanPlan(c);
+            JSONBeanPlan prev = cache.putIfAbsent(c, plan);
+            if (prev != null)
+                plan = prev;
+        }
+        return plan;
+    }
+
+    private JSONBeanPlan(Class< ? > c) {
+        if (TypeInfo.isBasicType(c)) {
+            shape = c.isArray() ? Shape.ARRAY : Shape.BASIC;
+            hasAttributes = false;
+            getters = new ParameterGetter[0];
+        }
+        else {
+            ObjectLens lens = ObjectLens.getObjectLens(c);
+            List<ParameterGetter> getterList = lens.getGetterContainer();
+            getters = getterList.toArray(new ParameterGetter[getterList.size()]);
+            hasAttributes = lens.hasAttributes();
+            if (TypeInfo.isCollection(c))
+                shape = Shape.COLLECTION;
+            else if (TypeInfo.isMap(c))
+                shape = Shape.MAP;
+            else
+                shape = getters.length > 0 ? Shape.BEAN : Shape.TEXT;
+        }
+
+        keys = new byte[getters.length][];
+        types = new int[getters.length];
+        for (int i = 0; i < getters.length; ++i) {
+            keys[i] = JSONByteWriter.encodeKey(getters[i].getCanonicalParamName());
+            types[i] = typeOf(getters[i].getReturnType());
+        }
+    }
+
+    static int typeOf(Class< ? > c) {
+        if (c == int.class || c == Integer.class || c == short.class || c == Short.class || c == byte.class
+                || c == Byte.class)
+            return INT;
+        else if (c == long.class || c == Long.class)
+            return LONG;
+        else if (c == double.class || c == Double.class)
+            return DOUBLE;
+        else if (c == float.class || c == Float.class)
+            return FLOAT;
+        else if (c == boolean.class || c == Boolean.class)
+            return BOOLEAN;
+        else if (c == String.class)
+            return STRING;
+        else
+            return OBJECT;
+    }
+
+}
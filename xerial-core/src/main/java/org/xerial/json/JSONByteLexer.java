@@ -0,0 +1,645 @@
+/*--------------------------------------------------------------------------
+ *  Copyright 2011 Taro L. Saito
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *--------------------------------------------------------------------------*/
+//--------------------------------------
+// XerialJ
+//
+// JSONByteLexer.java
+// Since: 2026/10/17
+//
+//--------------------------------------
+package org.xerial.json;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.xerial.core.XerialErrorCode;
+import org.xerial.core.XerialException;
+import org.xerial.json.impl.JSONToken;
+
+/**
+ * JSON lexer working directly on UTF-8 bytes. Unlike {@link JSONLexer}, this
+ * lexer creates no object per token: {@link #next()} returns the token type,
+ * and the other properties of the current token are available from the
+ * accessors until the next call of next(). Numbers are decoded while
+ * scanning ({@link #getLong()}, {@link #getDouble()}), and strings are
+ * decoded and unescaped only when {@link #getText()} is called.
+ *
+ * <pre>
+ * JSONByteLexer lexer = new JSONByteLexer(in);
+ * for (JSONToken t; (t = lexer.next()) != null;) {
+ *     switch (t) {
+ *     case String:
+ *         String s = lexer.getText();
+ *     ...
+ * </pre>
+ *
+ * @author leo
+ *
+ */
+public class JSONByteLexer {
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    private static final int EOF = -1;
+    private static final double[] POW10 = { 1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9,
+            1e10, 1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22 };
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+    private static final char REPLACEMENT_CHAR = '\uFFFD';
+
+    private final InputStream in;
+    private byte[] buf;
+    private int limit;
+    private int cursor = 0;
+    // input offset of buf[0]
+    private long bufferOffset = 0;
+    private boolean reachedEOF;
+    private long lineCount = 0;
+
+    // the current token
+    private JSONToken type = null;
+    private int mark = 0;
+    private int start = 0;
+    private int end = 0;
+    private boolean hasEscape = false;
+    private boolean needsSlowNumberParse = false;
+    private long longValue = 0;
+    private double doubleValue = 0;
+
+    private final StringBuilder text = new StringBuilder();
+    private boolean hasDecodedText = false;
+
+    /**
+     * Creates a lexer of the UTF-8 JSON data in the byte array
+     *
+     * @param json
+     */
+    public JSONByteLexer(byte[] json) {
+        this(json, 0, json.length);
+    }
+
+    public JSONByteLexer(byte[] json, int offset, int length) {
+        this.in = null;
+        this.buf = new byte[length];
+        System.arraycopy(json, offset, buf, 0, length);
+        this.limit = length;
+        this.reachedEOF = true;
+    }
+
+    /**
+     * Creates a lexer reading the UTF-8 JSON stream
+     *
+     * @param in
+     */
+    public JSONByteLexer(InputStream in) {
+        this(in, DEFAULT_BUFFER_SIZE);
+    }
+
+    public JSONByteLexer(InputStream in, int bufferSize) {
+        this.in = in;
+        this.buf = new byte[Math.max(16, bufferSize)];
+        this.limit = 0;
+        this.reachedEOF = false;
+    }
+
+    public void close() throws IOException {
+        if (in != null)
+            in.close();
+    }
+
+    /**
+     * Reads more bytes into the buffer, keeping the current token
+     *
+     * @return false if no more byte is available
+     */
+    private boolean fill() throws XerialException {
+        if (reachedEOF)
+            return false;
+
+        if (mark > 0) {
+            // discard the bytes before the current token
+            System.arraycopy(buf, mark, buf, 0, limit - mark);
+            limit -= mark;
+            cursor -= mark;
+            start -= mark;
+            end -= mark;
+            bufferOffset += mark;
+            mark = 0;
+        }
+        if (limit == buf.length) {
+            // the current token is larger than the buffer
+            byte[] newBuf = new byte[buf.length * 2];
+            System.arraycopy(buf, 0, newBuf, 0, limit);
+            buf = newBuf;
+        }
+
+        try {
+            int readLen = in.read(buf, limit, buf.length - limit);
+            if (readLen == -1) {
+                reachedEOF = true;
+                return false;
+            }
+            limit += readLen;
+            return true;
+        }
+        catch (IOException e) {
+            throw XerialException.convert(e);
+        }
+    }
+
+    private int peek() throws XerialException {
+        if (cursor < limit || fill())
+            return buf[cursor] & 0xFF;
+        else
+            return EOF;
+    }
+
+    /**
+     * Reads the next token
+     *
+     * @return the type of the next token, or null if no more token is
+     *         available
+     * @throws XerialException
+     */
+    public JSONToken next() throws XerialException {
+        hasDecodedText = false;
+        hasEscape = false;
+        // the previous token is no longer necessary
+        mark = cursor;
+
+        int c = skipWhiteSpaces();
+        mark = cursor;
+        start = cursor;
+        switch (c) {
+        case EOF:
+            end = cursor;
+            type = null;
+            return null;
+        case '{':
+            return symbol(JSONToken.LBrace);
+        case '}':
+            return symbol(JSONToken.RBrace);
+        case '[':
+            return symbol(JSONToken.LBracket);
+        case ']':
+            return symbol(JSONToken.RBracket);
+        case ':':
+            return symbol(JSONToken.Colon);
+        case ',':
+            return symbol(JSONToken.Comma);
+        case '"':
+            scanString();
+            return type;
+        case 't':
+            return keyword(TRUE, JSONToken.True);
+        case 'f':
+            return keyword(FALSE, JSONToken.False);
+        case 'n':
+            return keyword(NULL, JSONToken.Null);
+        default:
+            if (c == '-' || c >= '0' && c <= '9') {
+                scanNumber();
+                return type;
+            }
+            throw error("value", c);
+        }
+    }
+
+    private int skipWhiteSpaces() throws XerialException {
+        for (;;) {
+            int c = peek();
+            switch (c) {
+            case '\n':
+                lineCount++;
+            case ' ':
+            case '\t':
+            case '\r':
+                cursor++;
+                break;
+            default:
+                return c;
+            }
+        }
+    }
+
+    /**
+     * Skips the next value, including nested objects and arrays, by counting
+     * the brackets. No token is created for the skipped value, and only the
+     * string boundaries and the number of the brackets are checked. After
+     * skipping, {@link #getTokenType()} returns null until the next call of
+     * {@link #next()}.
+     *
+     * @throws XerialException
+     */
+    public void skipValue() throws XerialException {
+        hasDecodedText = false;
+        hasEscape = false;
+        mark = cursor;
+
+        int c = skipWhiteSpaces();
+        mark = cursor;
+        start = cursor;
+        switch (c) {
+        case '"':
+            scanString();
+            break;
+        case '{':
+        case '[':
+            skipContainer();
+            break;
+        case EOF:
+            throw error("value", c);
+        default:
+            // number, true, false or null
+            for (; c != EOF && c != ',' && c != '}' && c != ']' && c > ' '; c = peek())
+                cursor++;
+            break;
+        }
+        end = cursor;
+        type = null;
+    }
+
+    private void skipContainer() throws XerialException {
+        int depth = 0;
+        for (;;) {
+            if (cursor >= limit) {
+                // no need to keep the skipped bytes in the buffer
+                mark = cursor;
+                if (!fill())
+                    throw new XerialException(XerialErrorCode.PARSE_ERROR, "unterminated object or array");
+            }
+            switch (buf[cursor]) {
+            case '"':
+                mark = cursor;
+                scanString();
+                continue;
+            case '{':
+            case '[':
+                depth++;
+                break;
+            case '}':
+            case ']':
+                if (--depth == 0) {
+                    cursor++;
+                    return;
+                }
+                break;
+            case '\n':
+                lineCount++;
+                break;
+            }
+            cursor++;
+        }
+    }
+
+    private JSONToken symbol(JSONToken t) {
+        cursor++;
+        end = cursor;
+        type = t;
+        return t;
+    }
+
+    private final static byte[] NULL = { 'n', 'u', 'l', 'l' };
+    private final static byte[] TRUE = { 't', 'r', 'u', 'e' };
+    private final static byte[] FALSE = { 'f', 'a', 'l', 's', 'e' };
+
+    private JSONToken keyword(byte[] word, JSONToken t) throws XerialException {
+        for (int i = 0; i < word.length; i++) {
+            int c = peek();
+            if (c != word[i])
+                throw error(t.name(), c);
+            cursor++;
+        }
+        end = cursor;
+        type = t;
+        return t;
+    }
+
+    private void scanString() throws XerialException {
+        cursor++; // opening quote
+        start = cursor;
+        for (;;) {
+            if (cursor >= limit && !fill())
+                throw new XerialException(XerialErrorCode.PARSE_ERROR, "unterminated string");
+
+            byte b = buf[cursor];
+            if (b == '"')
+                break;
+            if (b == '\\') {
+                hasEscape = true;
+                cursor++;
+                if (peek() == EOF)
+                    throw new XerialException(XerialErrorCode.PARSE_ERROR, "unterminated string");
+            }
+            cursor++;
+        }
+        end = cursor;
+        cursor++; // closing quote
+        type = JSONToken.String;
+    }
+
+    private void scanNumber() throws XerialException {
+        boolean negative = false;
+        long mantissa = 0;
+        int numDigits = 0;
+        int exp10 = 0;
+        needsSlowNumberParse = false;
+
+        if (peek() == '-') {
+            negative = true;
+            cursor++;
+        }
+
+        int c = peek();
+        if (c == '0') {
+            cursor++;
+        }
+        else if (c >= '1' && c <= '9') {
+            for (; c >= '0' && c <= '9'; c = peek()) {
+                if (numDigits < 18) {
+                    mantissa = mantissa * 10 + (c - '0');
+                    numDigits++;
+                }
+                else {
+                    // loses the precision
+                    exp10++;
+                    needsSlowNumberParse = true;
+                }
+                cursor++;
+            }
+        }
+        else
+            throw error("Number", c);
+
+        boolean isDouble = false;
+        c = peek();
+        if (c == '.') {
+            isDouble = true;
+            cursor++;
+            c = peek();
+            if (!(c >= '0' && c <= '9'))
+                throw error("Digit+", c);
+            for (; c >= '0' && c <= '9'; c = peek()) {
+                if (numDigits < 18) {
+                    mantissa = mantissa * 10 + (c - '0');
+                    numDigits++;
+                    exp10--;
+                }
+                else
+                    needsSlowNumberParse = true;
+                cursor++;
+            }
+        }
+
+        c = peek();
+        if (c == 'e' || c == 'E') {
+            isDouble = true;
+            cursor++;
+            boolean negativeExp = false;
+            c = peek();
+            if (c == '+' || c == '-') {
+                negativeExp = c == '-';
+                cursor++;
+                c = peek();
+            }
+            if (!(c >= '0' && c <= '9'))
+                throw error("Digit+", c);
+            int exp = 0;
+            for (; c >= '0' && c <= '9'; c = peek()) {
+                if (exp < 10000)
+                    exp = exp * 10 + (c - '0');
+                cursor++;
+            }
+            exp10 += negativeExp ? -exp : exp;
+        }
+        end = cursor;
+
+        if (isDouble) {
+            type = JSONToken.Double;
+            if (!needsSlowNumberParse && mantissa <= MAX_EXACT_MANTISSA && exp10 >= -22 && exp10 <= 22) {
+                // exact: both the mantissa and the power of ten are representable in double
+                double d = exp10 >= 0 ? mantissa * POW10[exp10] : mantissa / POW10[-exp10];
+                doubleValue = negative ? -d : d;
+            }
+            else
+                doubleValue = Double.parseDouble(asciiString());
+            longValue = (long) doubleValue;
+        }
+        else {
+            type = JSONToken.Integer;
+            if (!needsSlowNumberParse) {
+                longValue = negative ? -mantissa : mantissa;
+                doubleValue = longValue;
+            }
+            else {
+                String s = asciiString();
+                try {
+                    longValue = Long.parseLong(s);
+                    doubleValue = longValue;
+                }
+                catch (NumberFormatException e) {
+                    // out of the long range
+                    doubleValue = Double.parseDouble(s);
+                    longValue = (long) doubleValue;
+                }
+            }
+        }
+    }
+
+    private String asciiString() {
+        text.setLength(0);
+        for (int i = start; i < end; i++)
+            text.append((char) buf[i]);
+        return text.toString();
+    }
+
+    private XerialException error(String tokenType, int foundChar) {
+        return new XerialException(XerialErrorCode.PARSE_ERROR, String.format(
+                "<%s> invalid char '%s' at offset %d (line %d)", tokenType,
+                foundChar == EOF ? "EOF" : (char) foundChar, bufferOffset + cursor, lineCount + 1));
+    }
+
+    /**
+     * @return the type of the current token, or null at the end of the input
+     */
+    public JSONToken getTokenType() {
+        return type;
+    }
+
+    /**
+     * @return the byte offset of the current token in the input. For strings,
+     *         the offset of the first byte after the opening quote.
+     */
+    public long getOffset() {
+        return bufferOffset + start;
+    }
+
+    /**
+     * @return the byte length of the current token. For strings, the length
+     *         of the raw (escaped) contents between the quotes.
+     */
+    public int getLength() {
+        return end - start;
+    }
+
+    /**
+     * @return the value of the current Integer or Double token. Double values
+     *         are truncated.
+     */
+    public long getLong() {
+        return longValue;
+    }
+
+    /**
+     * @return the value of the current Integer or Double token
+     */
+    public double getDouble() {
+        return doubleValue;
+    }
+
+    /**
+     * Decodes the current token. The returned sequence is reused by the
+     * lexer, and valid until the next call of {@link #next()}.
+     *
+     * @return the unescaped string for String tokens, or the source text of
+     *         the other tokens
+     */
+    public CharSequence getChars() {
+        if (hasDecodedText)
+            return text;
+
+        text.setLength(0);
+        if (type == JSONToken.String && hasEscape)
+            decodeEscapedString();
+        else
+            decodeUTF8(start, end);
+
+        hasDecodedText = true;
+        return text;
+    }
+
+    /**
+     * @return the unescaped string for String tokens, or the source text of
+     *         the other tokens
+     */
+    public String getText() {
+        return getChars().toString();
+    }
+
+    private void decodeEscapedString() {
+        int i = start;
+        while (i < end) {
+            int segmentStart = i;
+            while (i < end && buf[i] != '\\')
+                i++;
+            decodeUTF8(segmentStart, i);
+            if (i >= end)
+                break;
+
+            // escape sequence
+            byte e = i + 1 < end ? buf[i + 1] : (byte) '\\';
+            i += 2;
+            switch (e) {
+            case 'b':
+                text.append('\b');
+                break;
+            case 'f':
+                text.append('\f');
+                break;
+            case 'n':
+                text.append('\n');
+                break;
+            case 'r':
+                text.append('\r');
+                break;
+            case 't':
+                text.append('\t');
+                break;
+            case 'u': {
+                int code = 0;
+                int k = 0;
+                for (; k < 4 && i < end; k++, i++) {
+                    int h = Character.digit((char) buf[i], 16);
+                    if (h < 0)
+                        break;
+                    code = (code << 4) | h;
+                }
+                text.append(k == 4 ? (char) code : REPLACEMENT_CHAR);
+                break;
+            }
+            default:
+                // '"', '\\', '/', and the others
+                text.append((char) (e & 0xFF));
+                break;
+            }
+        }
+    }
+
+    private void decodeUTF8(int from, int to) {
+        int i = from;
+        while (i < to) {
+            int b = buf[i];
+            if (b >= 0) {
+                text.append((char) b);
+                i++;
+                continue;
+            }
+
+            b &= 0xFF;
+            int n;
+            int codePoint;
+            if ((b >> 5) == 0x6) {
+                n = 1;
+                codePoint = b & 0x1F;
+            }
+            else if ((b >> 4) == 0xE) {
+                n = 2;
+                codePoint = b & 0x0F;
+            }
+            else if ((b >> 3) == 0x1E) {
+                n = 3;
+                codePoint = b & 0x07;
+            }
+            else {
+                text.append(REPLACEMENT_CHAR);
+                i++;
+                continue;
+            }
+
+            if (i + n >= to) {
+                // truncated sequence
+                text.append(REPLACEMENT_CHAR);
+                break;
+            }
+            for (int k = 1; k <= n; k++)
+                codePoint = (codePoint << 6) | (buf[i + k] & 0x3F);
+            i += n + 1;
+
+            if (codePoint < Character.MIN_SUPPLEMENTARY_CODE_POINT)
+                text.append((char) codePoint);
+            else if (codePoint <= Character.MAX_CODE_POINT)
+                text.appendCodePoint(codePoint);
+            else
+                text.append(REPLACEMENT_CHAR);
+        }
+    }
+
+    /**
+     * @return the number of the line breaks before the current token
+     */
+    public long getLineNumber() {
+        return lineCount;
+    }
+
+}
@@ -0,0 +1,729 @@
+/*--------------------------------------------------------------------------
+ *  Copyright 2011 Taro L. Saito
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *--------------------------------------------------------------------------*/
+//--------------------------------------
+// XerialJ
+//
+// JSONByteWriter.java
+// Since: 2026/10/17
+//
+// $URL$
+// $Author$
+//--------------------------------------
+package org.xerial.json;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Array;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.xerial.core.XerialError;
+import org.xerial.util.lens.ObjectLens;
+
+/**
+ * JSON writer that encodes the output directly into a UTF-8 byte buffer,
+ * which is flushed to an {@link OutputStream} or a
+ * {@link WritableByteChannel}. This class has the same methods as
+ * {@link JSONWriter}, but escapes the strings, and writes the objects given to
+ * {@link #addObject(Object)} and {@link #putObject(String, Object)} using the
+ * cached getters of {@link ObjectLens} without creating intermediate strings.
+ *
+ * <p>
+ * This class is not thread-safe.
+ * </p>
+ *
+ * @author leo
+ *
+ */
+public class JSONByteWriter
+{
+    public static final int      DEFAULT_BUFFER_SIZE = 8 * 1024;
+
+    private static final byte[]  DIGIT_TENS          = new byte[100];
+    private static final byte[]  DIGIT_ONES          = new byte[100];
+    private static final byte[]  HEX                 = { '0', '1', '2', '3', '4', '5', '6', '7', '8', '9',
+            'a', 'b', 'c', 'd', 'e', 'f'            };
+    private static final byte[]  TRUE                = { 't', 'r', 'u', 'e' };
+    private static final byte[]  FALSE               = { 'f', 'a', 'l', 's', 'e' };
+    private static final byte[]  NULL                = { 'n', 'u', 'l', 'l' };
+    private static final byte[]  MIN_LONG            = { '-', '9', '2', '2', '3', '3', '7', '2', '0', '3', '6',
+            '8', '5', '4', '7', '7', '5', '8', '0', '8' };
+
+    static {
+        for (int i = 0; i < 100; ++i) {
+            DIGIT_TENS[i] = (byte) ('0' + i / 10);
+            DIGIT_ONES[i] = (byte) ('0' + i % 10);
+        }
+    }
+
+    private static final byte    IN_OBJECT           = 1;
+    private static final byte    IN_ARRAY            = 2;
+
+    private final OutputStream        out;
+    private final WritableByteChannel channel;
+    private final byte[]              buf;
+    private int                       pos                 = 0;
+
+    // container types and whether an element is already written, for each depth
+    private byte[]                    containerStack      = new byte[16];
+    private boolean[]                 hasElementStack     = new boolean[16];
+    private int                       depth               = 0;
+
+    public JSONByteWriter(OutputStream out) {
+        this(out, DEFAULT_BUFFER_SIZE);
+    }
+
+    public JSONByteWriter(OutputStream out, int bufferSize) {
+        this.out = out;
+        this.channel = null;
+        this.buf = new byte[Math.max(64, bufferSize)];
+    }
+
+    public JSONByteWriter(WritableByteChannel channel) {
+        this(channel, DEFAULT_BUFFER_SIZE);
+    }
+
+    public JSONByteWriter(WritableByteChannel channel, int bufferSize) {
+        this.out = null;
+        this.channel = channel;
+        this.buf = new byte[Math.max(64, bufferSize)];
+    }
+
+    private void flushBuffer() throws IOException {
+        if (pos == 0)
+            return;
+        if (out != null)
+            out.write(buf, 0, pos);
+        else {
+            ByteBuffer bb = ByteBuffer.wrap(buf, 0, pos);
+            while (bb.hasRemaining())
+                channel.write(bb);
+        }
+        pos = 0;
+    }
+
+    private void ensure(int len) throws IOException {
+        if (pos + len > buf.length)
+            flushBuffer();
+    }
+
+    private void writeByte(int b) throws IOException {
+        if (pos == buf.length)
+            flushBuffer();
+        buf[pos++] = (byte) b;
+    }
+
+    private void writeBytes(byte[] b) throws IOException {
+        if (b.length > buf.length - pos) {
+            flushBuffer();
+            if (b.length > buf.length) {
+                if (out != null)
+                    out.write(b);
+                else {
+                    ByteBuffer bb = ByteBuffer.wrap(b);
+                    while (bb.hasRemaining())
+                        channel.write(bb);
+                }
+                return;
+            }
+        }
+        System.arraycopy(b, 0, buf, pos, b.length);
+        pos += b.length;
+    }
+
+    private void writeAscii(String s) throws IOException {
+        int len = s.length();
+        ensure(len);
+        for (int i = 0; i < len; ++i)
+            buf[pos++] = (byte) s.charAt(i);
+    }
+
+    /**
+     * Writes a quoted and escaped JSON string
+     */
+    private void writeString(String s) throws IOException {
+        writeByte('"');
+        final int len = s.length();
+        for (int i = 0; i < len;) {
+            if (buf.length - pos < 12)
+                flushBuffer();
+            // each char needs at most 6 bytes
+            final int end = Math.min(len, i + (buf.length - pos) / 6);
+            final byte[] buf = this.buf;
+            int p = pos;
+            for (; i < end; ++i) {
+                char c = s.charAt(i);
+                if (c >= 0x20 && c < 0x80 && c != '"' && c != '\\') {
+                    buf[p++] = (byte) c;
+                    continue;
+                }
+
+                switch (c) {
+                case '"':
+                case '\\':
+                    buf[p++] = '\\';
+                    buf[p++] = (byte) c;
+                    break;
+                case '\n':
+                    buf[p++] = '\\';
+                    buf[p++] = 'n';
+                    break;
+                case '\r':
+                    buf[p++] = '\\';
+                    buf[p++] = 'r';
+                    break;
+                case '\t':
+                    buf[p++] = '\\';
+                    buf[p++] = 't';
+                    break;
+                default:
+                    if (c < 0x20) {
+                        buf[p++] = '\\';
+                        buf[p++] = 'u';
+                        buf[p++] = '0';
+                        buf[p++] = '0';
+                        buf[p++] = HEX[c >> 4];
+                        buf[p++] = HEX[c & 0xF];
+                    }
+                    else if (c < 0x800) {
+                        buf[p++] = (byte) (0xC0 | (c >> 6));
+                        buf[p++] = (byte) (0x80 | (c & 0x3F));
+                    }
+                    else if (Character.isHighSurrogate(c) && i + 1 < len
+                            && Character.isLowSurrogate(s.charAt(i + 1))) {
+                        int cp = Character.toCodePoint(c, s.charAt(++i));
+                        buf[p++] = (byte) (0xF0 | (cp >> 18));
+                        buf[p++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+                        buf[p++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+                        buf[p++] = (byte) (0x80 | (cp & 0x3F));
+                    }
+                    else if (c >= Character.MIN_SURROGATE && c <= Character.MAX_SURROGATE) {
+                        // unpaired surrogate
+                        buf[p++] = '?';
+                    }
+                    else {
+                        buf[p++] = (byte) (0xE0 | (c >> 12));
+                        buf[p++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                        buf[p++] = (byte) (0x80 | (c & 0x3F));
+                    }
+                    break;
+                }
+            }
+            pos = p;
+        }
+        writeByte('"');
+    }
+
+    private void writeInt(int v) throws IOException {
+        if (v == Integer.MIN_VALUE) {
+            writeLong(v);
+            return;
+        }
+        ensure(11);
+        if (v < 0) {
+            buf[pos++] = '-';
+            v = -v;
+        }
+        int p = pos + numDigits(v);
+        pos = p;
+        while (v >= 100) {
+            int r = v % 100;
+            v /= 100;
+            buf[--p] = DIGIT_ONES[r];
+            buf[--p] = DIGIT_TENS[r];
+        }
+        if (v >= 10) {
+            buf[--p] = DIGIT_ONES[v];
+            buf[--p] = DIGIT_TENS[v];
+        }
+        else
+            buf[--p] = (byte) ('0' + v);
+    }
+
+    private void writeLong(long v) throws IOException {
+        if (v >= Integer.MIN_VALUE + 1 && v <= Integer.MAX_VALUE) {
+            writeInt((int) v);
+            return;
+        }
+        if (v == Long.MIN_VALUE) {
+            writeBytes(MIN_LONG);
+            return;
+        }
+        ensure(20);
+        if (v < 0) {
+            buf[pos++] = '-';
+            v = -v;
+        }
+        int p = pos + numDigits(v);
+        pos = p;
+        while (v > Integer.MAX_VALUE) {
+            int r = (int) (v % 100);
+            v /= 100;
+            buf[--p] = DIGIT_ONES[r];
+            buf[--p] = DIGIT_TENS[r];
+        }
+        int iv = (int) v;
+        while (iv >= 100) {
+            int r = iv % 100;
+            iv /= 100;
+            buf[--p] = DIGIT_ONES[r];
+            buf[--p] = DIGIT_TENS[r];
+        }
+        if (iv >= 10) {
+            buf[--p] = DIGIT_ONES[iv];
+            buf[--p] = DIGIT_TENS[iv];
+        }
+        else
+            buf[--p] = (byte) ('0' + iv);
+    }
+
+    private static int numDigits(long v) {
+        long x = 10;
+        for (int i = 1; i < 19; ++i) {
+            if (v < x)
+                return i;
+            x *= 10;
+        }
+        return 19;
+    }
+
+    /**
+     * Writes the same text as {@link Double#toString(double)}
+     */
+    private void writeDouble(double v) throws IOException {
+        long l = (long) v;
+        if (l == v && l > -10000000L && l < 10000000L && (l != 0 || Double.doubleToRawLongBits(v) == 0L)) {
+            // integral values less than 10^7 are written as "123.0"
+            writeLong(l);
+            ensure(2);
+            buf[pos++] = '.';
+            buf[pos++] = '0';
+        }
+        else
+            writeAscii(Double.toString(v));
+    }
+
+    private void writeFloat(float v) throws IOException {
+        int i = (int) v;
+        if (i == v && i > -10000000 && i < 10000000 && (i != 0 || Float.floatToRawIntBits(v) == 0)) {
+            writeInt(i);
+            ensure(2);
+            buf[pos++] = '.';
+            buf[pos++] = '0';
+        }
+        else
+            writeAscii(Float.toString(v));
+    }
+
+    private void writeBoolean(boolean v) throws IOException {
+        writeBytes(v ? TRUE : FALSE);
+    }
+
+    /**
+     * @param key
+     * @return the UTF-8 bytes of the quoted key followed by a colon
+     */
+    static byte[] encodeKey(String key) {
+        try {
+            ByteArrayOutputStream b = new ByteArrayOutputStream(key.length() + 3);
+            JSONByteWriter w = new JSONByteWriter(b, 64);
+            w.writeString(key);
+            w.writeByte(':');
+            w.flushBuffer();
+            return b.toByteArray();
+        }
+        catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void pushState(byte state) {
+        if (depth == containerStack.length) {
+            byte[] newContainerStack = new byte[depth * 2];
+            System.arraycopy(containerStack, 0, newContainerStack, 0, depth);
+            containerStack = newContainerStack;
+            boolean[] newHasElementStack = new boolean[depth * 2];
+            System.arraycopy(hasElementStack, 0, newHasElementStack, 0, depth);
+            hasElementStack = newHasElementStack;
+        }
+        containerStack[depth] = state;
+        hasElementStack[depth] = false;
+        depth++;
+    }
+
+    /**
+     * Writes a comma if the current container already has an element
+     */
+    private void beginElement() throws IOException {
+        if (depth == 0)
+            return;
+        if (hasElementStack[depth - 1])
+            writeByte(',');
+        else
+            hasElementStack[depth - 1] = true;
+    }
+
+    private void beginValue() throws IOException {
+        if (depth > 0 && containerStack[depth - 1] == IN_OBJECT)
+            throw new XerialError(JSONErrorCode.NotInAJSONArray, "cannot add a value without a key in the JSON object");
+        beginElement();
+    }
+
+    private void putKeyPart(String key) throws IOException {
+        if (depth == 0 || containerStack[depth - 1] != IN_OBJECT)
+            throw new XerialError(JSONErrorCode.NotInAJSONObject,
+                    "cannot add key and value pair outside of the JSON object");
+        beginElement();
+        writeString(key);
+        writeByte(':');
+    }
+
+    private void putKeyPart(byte[] encodedKey) throws IOException {
+        beginElement();
+        writeBytes(encodedKey);
+    }
+
+    public void startObject() throws IOException {
+        beginValue();
+        writeByte('{');
+        pushState(IN_OBJECT);
+    }
+
+    public void startObject(String key) throws IOException {
+        putKeyPart(key);
+        writeByte('{');
+        pushState(IN_OBJECT);
+    }
+
+    public void endObject() throws IOException {
+        if (depth == 0 || containerStack[depth - 1] != IN_OBJECT)
+            throw new XerialError(JSONErrorCode.NotInAJSONObject, "cannot end the object outside of the JSON object");
+        writeByte('}');
+        depth--;
+    }
+
+    public void startArray() throws IOException {
+        beginValue();
+        writeByte('[');
+        pushState(IN_ARRAY);
+    }
+
+    public void startArray(String key) throws IOException {
+        putKeyPart(key);
+        writeByte('[');
+        pushState(IN_ARRAY);
+    }
+
+    public void endArray() throws IOException {
+        if (depth == 0 || containerStack[depth - 1] != IN_ARRAY)
+            throw new XerialError(JSONErrorCode.NotInAJSONArray, "cannot end the array outside of the JSON array");
+        writeByte(']');
+        depth--;
+    }
+
+    public void add(String value) throws IOException {
+        beginValue();
+        if (value == null)
+            writeBytes(NULL);
+        else
+            writeString(value);
+    }
+
+    public void add(int value) throws IOException {
+        beginValue();
+        writeInt(value);
+    }
+
+    public void add(long value) throws IOException {
+        beginValue();
+        writeLong(value);
+    }
+
+    public void add(double value) throws IOException {
+        beginValue();
+        writeDouble(value);
+    }
+
+    public void add(float value) throws IOException {
+        beginValue();
+        writeFloat(value);
+    }
+
+    public void add(boolean value) throws IOException {
+        beginValue();
+        writeBoolean(value);
+    }
+
+    public void addNull() throws IOException {
+        beginValue();
+        writeBytes(NULL);
+    }
+
+    /**
+     * Adds a bean, collection, map or basic type value to the current array
+     *
+     * @param obj
+     * @throws IOException
+     */
+    public void addObject(Object obj) throws IOException {
+        beginValue();
+        writeObject(obj);
+    }
+
+    public void put(String key, String value) throws IOException {
+        putKeyPart(key);
+        if (value == null)
+            writeBytes(NULL);
+        else
+            writeString(value);
+    }
+
+    public void put(String key, int value) throws IOException {
+        putKeyPart(key);
+        writeInt(value);
+    }
+
+    public void put(String key, long value) throws IOException {
+        putKeyPart(key);
+        writeLong(value);
+    }
+
+    public void put(String key, double value) throws IOException {
+        putKeyPart(key);
+        writeDouble(value);
+    }
+
+    public void put(String key, float value) throws IOException {
+        putKeyPart(key);
+        writeFloat(value);
+    }
+
+    public void put(String key, boolean value) throws IOException {
+        putKeyPart(key);
+        writeBoolean(value);
+    }
+
+    public void putNull(String key) throws IOException {
+        putKeyPart(key);
+        writeBytes(NULL);
+    }
+
+    /**
+     * Puts a bean, collection, map or basic type value. As in
+     * {@link JSONWriter#putObject(String, Object)}, nothing is written for a
+     * null value.
+     *
+     * @param key
+     * @param obj
+     * @throws IOException
+     */
+    public void putObject(String key, Object obj) throws IOException {
+        if (obj == null)
+            return;
+        putKeyPart(key);
+        writeObject(obj);
+    }
+
+    private void writeObject(Object obj) throws IOException {
+        if (obj == null) {
+            writeBytes(NULL);
+            return;
+        }
+
+        // fast paths for the frequently used types
+        if (obj instanceof String) {
+            writeString((String) obj);
+            return;
+        }
+        if (obj instanceof Integer) {
+            writeInt(((Integer) obj).intValue());
+            return;
+        }
+        if (obj instanceof Long) {
+            writeLong(((Long) obj).longValue());
+            return;
+        }
+        if (obj instanceof Double) {
+            writeDouble(((Double) obj).doubleValue());
+            return;
+        }
+        if (obj instanceof Boolean) {
+            writeBoolean(((Boolean) obj).booleanValue());
+            return;
+        }
+        if (obj instanceof Float) {
+            writeFloat(((Float) obj).floatValue());
+            return;
+        }
+        if (obj instanceof Short || obj instanceof Byte) {
+            writeInt(((Number) obj).intValue());
+            return;
+        }
+
+        JSONBeanPlan plan = JSONBeanPlan.getPlan(obj.getClass());
+        switch (plan.shape) {
+        case BASIC:
+        case TEXT:
+            writeString(obj.toString());
+            break;
+        case ARRAY:
+            writeArray(obj);
+            break;
+        case COLLECTION: {
+            Collection< ? > collection = (Collection< ? >) obj;
+            if (plan.hasAttributes) {
+                writeByte('{');
+                pushState(IN_OBJECT);
+                writeParameters(plan, obj);
+                if (!collection.isEmpty())
+                    startArray("entry");
+            }
+            else
+                startArrayValue();
+            for (Object elem : collection) {
+                beginElement();
+                writeObject(elem);
+            }
+            if (!plan.hasAttributes || !collection.isEmpty())
+                endArray();
+            if (plan.hasAttributes)
+                endObject();
+            break;
+        }
+        case MAP: {
+            Map< ? , ? > map = (Map< ? , ? >) obj;
+            if (plan.hasAttributes) {
+                writeByte('{');
+                pushState(IN_OBJECT);
+                writeParameters(plan, obj);
+                if (!map.isEmpty())
+                    startArray("entry");
+            }
+            else
+                startArrayValue();
+            for (Entry< ? , ? > each : map.entrySet()) {
+                beginElement();
+                writeByte('{');
+                pushState(IN_OBJECT);
+                putObject("key", each.getKey());
+                putObject("value", each.getValue());
+                endObject();
+            }
+            if (!plan.hasAttributes || !map.isEmpty())
+                endArray();
+            if (plan.hasAttributes)
+                endObject();
+            break;
+        }
+        case BEAN:
+            writeByte('{');
+            pushState(IN_OBJECT);
+            writeParameters(plan, obj);
+            endObject();
+            break;
+        }
+    }
+
+    private void startArrayValue() throws IOException {
+        writeByte('[');
+        pushState(IN_ARRAY);
+    }
+
+    private void writeParameters(JSONBeanPlan plan, Object obj) throws IOException {
+        for (int i = 0; i < plan.getters.length; ++i) {
+            Object value = plan.getters[i].get(obj);
+            if (value == null)
+                continue;
+
+            putKeyPart(plan.keys[i]);
+            switch (plan.types[i]) {
+            case JSONBeanPlan.INT:
+                writeInt(((Number) value).intValue());
+                break;
+            case JSONBeanPlan.LONG:
+                writeLong(((Long) value).longValue());
+                break;
+            case JSONBeanPlan.DOUBLE:
+                writeDouble(((Double) value).doubleValue());
+                break;
+            case JSONBeanPlan.FLOAT:
+                writeFloat(((Float) value).floatValue());
+                break;
+            case JSONBeanPlan.BOOLEAN:
+                writeBoolean(((Boolean) value).booleanValue());
+                break;
+            case JSONBeanPlan.STRING:
+                writeString((String) value);
+                break;
+            default:
+                writeObject(value);
+                break;
+            }
+        }
+    }
+
+    private void writeArray(Object array) throws IOException {
+        startArrayValue();
+        int len = Array.getLength(array);
+        for (int i = 0; i < len; ++i) {
+            beginElement();
+            writeObject(Array.get(array, i));
+        }
+        endArray();
+    }
+
+    /**
+     * Writes the buffered data to the output
+     *
+     * @throws IOException
+     */
+    public void flush() throws IOException {
+        flushBuffer();
+        if (out != null)
+            out.flush();
+    }
+
+    /**
+     * Closes the open objects and arrays, then flushes the output
+     *
+     * @throws IOException
+     */
+    public void endJSON() throws IOException {
+        while (depth > 0) {
+            writeByte(containerStack[depth - 1] == IN_OBJECT ? '}' : ']');
+            depth--;
+        }
+        flush();
+    }
+
+    /**
+     * Flushes the buffered data and closes the output
+     *
+     * @throws IOException
+     */
+    public void close() throws IOException {
+        flushBuffer();
+        if (out != null)
+            out.close();
+        else
+            channel.close();
+    }
+
+}
@@ -0,0 +1,187 @@
+/*--------------------------------------------------------------------------
+ *  Copyright 2011 Taro L. Saito
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *--------------------------------------------------------------------------*/
+//--------------------------------------
+// XerialJ
+//
+// JSONKeyLayout.java
+// Since: 2026/10/17
+//
+// $URL$
+// $Author$
+//--------------------------------------
+package org.xerial.json;
+
+import java.util.HashMap;
+
+/**
+ * An ordered key list shared by the {@link FrozenJSONObject}s having the same
+ * keys in the same order. A layout is extended one key at a time, and the
+ * extended layouts are cached, so that sibling objects (e.g., the records in a
+ * JSON array) share a single key array, a single lookup index and the key
+ * strings. Objects having more than {@link #MAX_SHARED_KEYS} keys (e.g., maps
+ * with arbitrary keys) do not share layouts. Each of them has its own layout
+ * created by {@link #newUnsharedLayout(String[])}, since extending a layout
+ * one key at a time costs quadratic time and memory for such wide objects.
+ *
+ * <p>
+ * Layouts are created by a single parser thread. Once the objects are built,
+ * {@link #indexOf(String)} can be called from any thread.
+ * </p>
+ *
+ * @author leo
+ *
+ */
+final class JSONKeyLayout
+{
+    /**
+     * Layouts having at most this number of keys are looked up by linear scan
+     */
+    private static final int                 MAX_LINEAR_SCAN   = 8;
+    /**
+     * The maximum number of cached extensions of a layout. Objects used as
+     * maps with arbitrary keys stop sharing layouts beyond this limit.
+     */
+    private static final int                 MAX_TRANSITIONS   = 256;
+    /**
+     * Layouts having at most this number of keys are shared and extended
+     */
+    static final int                         MAX_SHARED_KEYS   = 64;
+
+    final String[]                           keys;
+    private HashMap<String, JSONKeyLayout>   transitions;
+    /**
+     * Open-addressed table of (key index + 1). 0 denotes an empty slot.
+     */
+    private volatile int[]                   index;
+
+    JSONKeyLayout() {
+        this(new String[0]);
+    }
+
+    private JSONKeyLayout(String[] keys) {
+        this.keys = keys;
+    }
+
+    /**
+     * Creates a layout of the given keys, which is not extended nor shared
+     * with the other objects
+     *
+     * @param keys
+     *            distinct keys
+     * @return
+     */
+    static JSONKeyLayout newUnsharedLayout(String[] keys) {
+        return new JSONKeyLayout(keys);
+    }
+
+    int size() {
+        return keys.length;
+    }
+
+    /**
+     * Returns the layout that has the given key appended to this layout. The
+     * key must not be contained in this layout, and this layout must have
+     * less than {@link #MAX_SHARED_KEYS} keys.
+     *
+     * @param key
+     * @return
+     */
+    JSONKeyLayout extend(String key) {
+        JSONKeyLayout next = transitions == null ? null : transitions.get(key);
+        if (next != null)
+            return next;
+
+        String[] newKeys = new String[keys.length + 1];
+        System.arraycopy(keys, 0, newKeys, 0, keys.length);
+        newKeys[keys.length] = key;
+        next = new JSONKeyLayout(newKeys);
+
+        if (transitions == null)
+            transitions = new HashMap<String, JSONKeyLayout>(4);
+        if (transitions.size() < MAX_TRANSITIONS)
+            transitions.put(key, next);
+        return next;
+    }
+
+    /**
+     * @param key
+     * @return the cached layout extended with the key, or null if no object
+     *         has used the extension yet
+     */
+    JSONKeyLayout cachedExtension(String key) {
+        return transitions == null ? null : transitions.get(key);
+    }
+
+    /**
+     * @param key
+     * @return the position of the key, or -1 if the key is not found
+     */
+    int indexOf(String key) {
+        if (key == null)
+            return -1;
+
+        if (keys.length <= MAX_LINEAR_SCAN)
+            return scan(key);
+
+        int[] table = index;
+        if (table == null)
+            index = table = buildIndex(keys);
+        final int mask = table.length - 1;
+        for (int pos = hash(key) & mask;; pos = (pos + 1) & mask) {
+            int slot = table[pos];
+            if (slot == 0)
+                return -1;
+            String k = keys[slot - 1];
+            if (k == key || k.equals(key))
+                return slot - 1;
+        }
+    }
+
+    /**
+     * Finds the key by linear scan, without building the lookup index
+     *
+     * @param key
+     * @return the position of the key, or -1 if the key is not found
+     */
+    int scan(String key) {
+        final String[] keys = this.keys;
+        for (int i = 0; i < keys.length; ++i) {
+            String k = keys[i];
+            if (k == key || k.equals(key))
+                return i;
+        }
+        return -1;
+    }
+
+    private static int[] buildIndex(String[] keys) {
+        int capacity = Integer.highestOneBit(keys.length * 2 - 1) << 1;
+        int[] table = new int[capacity];
+        final int mask = capacity - 1;
+        for (int i = 0; i < keys.length; ++i) {
+            int pos = hash(keys[i]) & mask;
+            while (table[pos] != 0)
+                pos = (pos + 1) & mask;
+            table[pos] = i + 1;
+        }
+        return table;
+    }
+
+    private static int hash(String key) {
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+}
@@ -136,6 +136,81 @@ public class JSONLexer {
         return nextToken();
     }
 
+    /**
+     * Skips the next value, including nested objects and arrays, without
+     * creating tokens. In the skipped data, only the string boundaries and
+     * the number of the brackets are checked.
+     * 
+     * @throws XerialException
+     */
+    public void skipValue() throws XerialException {
+        matchWhiteSpaces();
+        scanner.resetMarks();
+
+        int c = LA(1);
+        switch (c) {
+            case '"':
+                skipString();
+                return;
+            case '{':
+            case '[':
+                break;
+            case BufferedScanner.EOF:
+                throw error("value", c);
+            default:
+                // number, true, false or null
+                for (; c != BufferedScanner.EOF && c != ',' && c != '}' && c != ']' && c > ' '; c = LA(1))
+                    consume();
+                return;
+        }
+
+        int depth = 0;
+        for (;;) {
+            c = LA(1);
+            switch (c) {
+                case BufferedScanner.EOF:
+                    throw new XerialException(XerialErrorCode.PARSE_ERROR, "unterminated object or array");
+                case '"':
+                    skipString();
+                    continue;
+                case '{':
+                case '[':
+                    depth++;
+                    break;
+                case '}':
+                case ']':
+                    if (--depth == 0) {
+                        consume();
+                        return;
+                    }
+                    break;
+            }
+            consume();
+        }
+    }
+
+    private void skipString() throws XerialException {
+        match('"');
+        for (;;) {
+            int c = LA(1);
+            switch (c) {
+                case BufferedScanner.EOF:
+                    throw new XerialException(XerialErrorCode.PARSE_ERROR, "unterminated string");
+                case '"':
+                    consume();
+                    return;
+                case '\\':
+                    consume();
+                    if (LA(1) == BufferedScanner.EOF)
+                        throw new XerialException(XerialErrorCode.PARSE_ERROR, "unterminated string");
+                    consume();
+                    break;
+                default:
+                    consume();
+            }
+        }
+    }
+
     void matchWhiteSpaces() throws XerialException {
         loop: for (;;) {
             int c = LA(1);
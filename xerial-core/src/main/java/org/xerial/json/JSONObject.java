@@ -46,16 +46,26 @@ public class JSONObject extends JSONValueBase
     {
     }
 
-    JSONObjectContent content = new JSONObjectContent();
+    JSONObjectContent content;
 
     /**
      * 
      */
     public JSONObject() {
+        this.content = new JSONObjectContent();
+    }
 
+    /**
+     * For subclasses that hold the entries in their own representation
+     * 
+     * @param content
+     */
+    JSONObject(JSONObjectContent content) {
+        this.content = content;
     }
 
     public JSONObject(String jsonStr) throws JSONException {
+        this();
         new JSONPullParser(jsonStr).populateJSONObject(this);
     }
 
@@ -64,6 +74,7 @@ public class JSONObject extends JSONValueBase
     }
 
     public JSONObject(List<JSONElement> elemList) {
+        this();
         for (JSONElement e : elemList)
             put(e.getKey(), e.getValue());
     }
@@ -0,0 +1,121 @@
+/*--------------------------------------------------------------------------
+ *  Copyright 2011 Taro L. Saito
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *--------------------------------------------------------------------------*/
+//--------------------------------------
+// XerialJ
+//
+// JSONProjection.java
+// Since: 2026/10/17
+//
+// $URL$
+// $Author$
+//--------------------------------------
+package org.xerial.json;
+
+import java.util.HashMap;
+
+/**
+ * A set of key paths to be read by {@link JSONPullParser}. A key path is a
+ * dot-separated list of object keys, e.g., "gene.start". Array elements are
+ * addressed by the key of the array, so the path "gene.exon.start" selects
+ * the start values of all exon objects in the exon array. Paths are relative
+ * to the top-level value, or to the elements when the top-level value is an
+ * array.
+ *
+ * <p>
+ * The parser reports the values of the selected paths with their whole
+ * subtrees, and the objects and arrays enclosing them. The other values are
+ * skipped by the lexer without creating tokens.
+ * </p>
+ *
+ * <pre>
+ * JSONPullParser parser = new JSONPullParser(new JSONByteLexer(in));
+ * parser.setProjection(new JSONProjection(&quot;id&quot;, &quot;gene.start&quot;));
+ * </pre>
+ *
+ * @author leo
+ *
+ */
+public class JSONProjection
+{
+    static class Node
+    {
+        private HashMap<String, Node> children;
+        private boolean               selected = false;
+
+        /**
+         * @return true if the whole subtree of this node is reported
+         */
+        boolean isSelected() {
+            return selected;
+        }
+
+        /**
+         * @param key
+         * @return the child node, or null if the key is not projected
+         */
+        Node get(String key) {
+            return children == null ? null : children.get(key);
+        }
+
+        private Node getOrCreate(String key) {
+            if (children == null)
+                children = new HashMap<String, Node>();
+            Node child = children.get(key);
+            if (child == null) {
+                child = new Node();
+                children.put(key, child);
+            }
+            return child;
+        }
+    }
+
+    private final Node root = new Node();
+
+    /**
+     * @param keyPaths
+     *            dot-separated key paths
+     */
+    public JSONProjection(String... keyPaths) {
+        for (String each : keyPaths)
+            add(each);
+    }
+
+    /**
+     * Adds a dot-separated key path
+     *
+     * @param keyPath
+     * @return this projection
+     */
+    public JSONProjection add(String keyPath) {
+        if (keyPath == null || keyPath.length() == 0)
+            throw new IllegalArgumentException("empty key path");
+
+        Node node = root;
+        for (String key : keyPath.split("\\.")) {
+            if (node.selected)
+                return this;
+            node = node.getOrCreate(key);
+        }
+        node.selected = true;
+        node.children = null;
+        return this;
+    }
+
+    Node getRoot() {
+        return root;
+    }
+
+}
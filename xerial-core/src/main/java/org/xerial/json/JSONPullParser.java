@@ -33,6 +33,7 @@ import org.xerial.core.XerialException;
 import org.xerial.json.JSONLexer.Token;
 import org.xerial.json.impl.JSONToken;
 import org.xerial.util.ArrayDeque;
+import org.xerial.util.StringUtil;
 import org.xerial.util.log.Logger;
 
 /**
@@ -48,12 +49,22 @@ public class JSONPullParser {
 
     private static Logger _logger = Logger.getLogger(JSONPullParser.class);
     private JSONLexer _lexer;
+    private JSONByteLexer _byteLexer;
 
     private ArrayDeque<ParseState> parseStateStack = new ArrayDeque<ParseState>();
     private ArrayDeque<String> keyStack = new ArrayDeque<String>();
 
-    private JSONPullParserEvent lastReportedEvent = null;
+    private JSONEvent lastReportedEvent = null;
+    private Token lastReportedToken = null;
+    private Token currentToken = null;
     private int currentDepth = 0;
+    private FrozenJSONObject.Builder frozenBuilder = null;
+
+    private JSONProjection projection = null;
+    // projection nodes of the enclosing objects and arrays
+    private ArrayDeque<JSONProjection.Node> projectionStack = new ArrayDeque<JSONProjection.Node>();
+    // projection node of the value following the current key
+    private JSONProjection.Node keyedNode = null;
 
     public JSONPullParser(String jsonString) {
         _lexer = new JSONLexer(jsonString);
@@ -74,11 +85,36 @@ public class JSONPullParser {
         this(jsonObject.toJSONString());
     }
 
+    /**
+     * Creates a parser using the byte-level lexer. Use this constructor for
+     * UTF-8 JSON data to avoid creating objects for each token.
+     * 
+     * @param lexer
+     */
+    public JSONPullParser(JSONByteLexer lexer) {
+        _byteLexer = lexer;
+        init();
+    }
+
+    /**
+     * Reports only the values of the given key paths, and the objects and
+     * arrays enclosing them. The other values are skipped by the lexer. Set
+     * the projection before reading the first event.
+     * 
+     * @param projection
+     *            the key paths to read, or null to read all values
+     */
+    public void setProjection(JSONProjection projection) {
+        this.projection = projection;
+    }
+
     private void init() {
         parseStateStack.clear();
         keyStack.clear();
+        projectionStack.clear();
 
         lastReportedEvent = null;
+        lastReportedToken = null;
         currentDepth = 0;
 
         parseStateStack.addLast(ParseState.Root);
@@ -95,7 +131,8 @@ public class JSONPullParser {
                 return;
         }
         throw new JSONException(JSONErrorCode.InvalidJSONData, "invalid parse state: "
-                + current.name() + " line = " + _lexer.getLineNumber());
+                + current.name() + " line = "
+                + (_byteLexer != null ? _byteLexer.getLineNumber() : _lexer.getLineNumber()));
     }
 
     private void popKeyStack() {
@@ -113,6 +150,42 @@ public class JSONPullParser {
         // _logger.trace("pop : " + StringUtil.join(parseStateStack, ", "));
     }
 
+    /**
+     * @return the projection node of the value to be read
+     */
+    private JSONProjection.Node projectedNode() {
+        if (getCurrentParseState() == ParseState.Key)
+            return keyedNode;
+        else
+            return projectionStack.isEmpty() ? projection.getRoot() : projectionStack.getLast();
+    }
+
+    /**
+     * Skips the value of the current key if the key is not projected
+     * 
+     * @return true if the value is skipped
+     */
+    private boolean skipUnprojectedValue() throws XerialException {
+        JSONProjection.Node node = projectionStack.isEmpty() ? projection.getRoot() : projectionStack
+                .getLast();
+        if (node.isSelected()) {
+            keyedNode = node;
+            return false;
+        }
+
+        keyedNode = node.get(keyStack.getLast());
+        if (keyedNode != null)
+            return false;
+
+        if (_byteLexer != null)
+            _byteLexer.skipValue();
+        else
+            _lexer.skipValue();
+        keyStack.removeLast();
+        popParseState();
+        return true;
+    }
+
     private void valueWithKeyTest() {
         if (getCurrentParseState() == ParseState.Key)
             pushParseState(ParseState.KeyedValue);
@@ -132,8 +205,8 @@ public class JSONPullParser {
         if (lastReportedEvent == null)
             next();
 
-        while (lastReportedEvent.getEvent() != JSONEvent.EndJSON) {
-            switch (lastReportedEvent.getEvent()) {
+        while (lastReportedEvent != JSONEvent.EndJSON) {
+            switch (lastReportedEvent) {
                 case String:
                     return new JSONString(getText());
                 case Integer:
@@ -157,6 +230,36 @@ public class JSONPullParser {
         throw new JSONException(JSONErrorCode.JSONValueIsNotFound);
     }
 
+    /**
+     * Reads the current value as in {@link #getValue()}, but builds the JSON
+     * objects as {@link FrozenJSONObject}s. The frozen objects built by this
+     * parser share the key strings and the key lookup tables.
+     * 
+     * @return the current JSONValue
+     * @throws JSONException
+     *             when the current token is not a {@link JSONValue}
+     */
+    public JSONValue getFrozenValue() throws JSONException {
+        if (lastReportedEvent == null)
+            next();
+
+        while (lastReportedEvent != JSONEvent.EndJSON) {
+            switch (lastReportedEvent) {
+                case StartObject:
+                    return readFrozenObject(getDepth());
+                case StartArray:
+                    return readFrozenArray(new JSONArray(), getDepth());
+                case EndObject:
+                case EndArray:
+                    next();
+                    break;
+                default:
+                    return getValue();
+            }
+        }
+        throw new JSONException(JSONErrorCode.JSONValueIsNotFound);
+    }
+
     /**
      * Reads the current JSONValue as String data
      * 
@@ -167,8 +270,8 @@ public class JSONPullParser {
         if (lastReportedEvent == null)
             next();
 
-        while (lastReportedEvent.getEvent() != JSONEvent.EndJSON) {
-            switch (lastReportedEvent.getEvent()) {
+        while (lastReportedEvent != JSONEvent.EndJSON) {
+            switch (lastReportedEvent) {
                 case String:
                 case Integer:
                 case Double:
@@ -195,7 +298,7 @@ public class JSONPullParser {
         if (lastReportedEvent == null)
             next();
 
-        if (lastReportedEvent.getEvent() != JSONEvent.StartObject)
+        if (lastReportedEvent != JSONEvent.StartObject)
             throw new JSONException(JSONErrorCode.InvalidJSONData);
 
         readJSONObject(obj, getDepth());
@@ -205,7 +308,7 @@ public class JSONPullParser {
         if (lastReportedEvent == null)
             next();
 
-        if (lastReportedEvent.getEvent() != JSONEvent.StartArray)
+        if (lastReportedEvent != JSONEvent.StartArray)
             throw new JSONException(JSONErrorCode.InvalidJSONData);
 
         readJSONArray(array, getDepth());
@@ -287,6 +390,84 @@ public class JSONPullParser {
         }
     }
 
+    private FrozenJSONObject readFrozenObject(int baseObjectDepth) throws JSONException {
+        if (frozenBuilder == null)
+            frozenBuilder = new FrozenJSONObject.Builder();
+
+        frozenBuilder.start();
+        while (true) {
+            JSONEvent event = next();
+            switch (event) {
+                case StartObject:
+                    frozenBuilder.put(getKeyName(), readFrozenObject(getDepth()));
+                    break;
+                case EndObject:
+                    if (getDepth() < baseObjectDepth)
+                        return frozenBuilder.end();
+                    else
+                        throw new JSONException(JSONErrorCode.ParseError);
+                case StartArray:
+                    frozenBuilder.put(getKeyName(), readFrozenArray(new JSONArray(), getDepth()));
+                    break;
+                case EndArray:
+                    throw new JSONException(JSONErrorCode.NotInAJSONObject);
+                case True:
+                    frozenBuilder.put(getKeyName(), JSONBoolean.True);
+                    break;
+                case False:
+                    frozenBuilder.put(getKeyName(), JSONBoolean.False);
+                    break;
+                case Null:
+                    frozenBuilder.put(getKeyName(), JSONNull.NULL);
+                    break;
+                case String:
+                    frozenBuilder.put(getKeyName(), StringUtil.unquote(getText()));
+                    break;
+                case Double:
+                    frozenBuilder.putDouble(getKeyName(), getDouble());
+                    break;
+                case Integer:
+                    try {
+                        frozenBuilder.putLong(getKeyName(), getLong());
+                    }
+                    catch (NumberFormatException e) {
+                        // out of the long range
+                        frozenBuilder.putDouble(getKeyName(), getDouble());
+                    }
+                    break;
+                case EndJSON:
+                default:
+                    throw new JSONException(JSONErrorCode.UnexpectedEndOfJSON);
+            }
+        }
+    }
+
+    private JSONArray readFrozenArray(JSONArray jsonArray, int baseArrayDepth) throws JSONException {
+        while (true) {
+            JSONEvent event = next();
+            switch (event) {
+                case StartObject:
+                    jsonArray.add(readFrozenObject(getDepth()));
+                    break;
+                case StartArray:
+                    jsonArray.add(readFrozenArray(new JSONArray(), getDepth()));
+                    break;
+                case EndArray:
+                    if (getDepth() < baseArrayDepth)
+                        return jsonArray;
+                    else
+                        throw new JSONException(JSONErrorCode.ParseError);
+                case EndObject:
+                    throw new JSONException(JSONErrorCode.ParseError);
+                case EndJSON:
+                    throw new JSONException(JSONErrorCode.UnexpectedEndOfJSON);
+                default:
+                    jsonArray.add(getValue());
+                    break;
+            }
+        }
+    }
+
     /**
      * Reads the next {@link JSONEvent}
      * 
@@ -298,7 +479,21 @@ public class JSONPullParser {
     public JSONEvent next() throws JSONException {
 
         try {
-            for (Token token = null; (token = _lexer.nextToken()) != null;) {
+            for (;;) {
+                JSONToken tokenType;
+                if (_byteLexer != null) {
+                    tokenType = _byteLexer.next();
+                    if (tokenType == null)
+                        break;
+                }
+                else {
+                    Token token = _lexer.nextToken();
+                    if (token == null)
+                        break;
+                    currentToken = token;
+                    tokenType = token.type;
+                }
+
                 if (getCurrentParseState() == ParseState.KeyedValue) {
                     keyStack.removeLast();
                     popParseState();
@@ -308,62 +503,89 @@ public class JSONPullParser {
                         throw new JSONException(JSONErrorCode.ParseError);
                 }
 
-                JSONToken tokenType = token.type;
+                if (projection != null) {
+                    switch (tokenType) {
+                        case LBrace:
+                        case LBracket:
+                            projectionStack.addLast(projectedNode());
+                            break;
+                        case RBrace:
+                        case RBracket:
+                            projectionStack.removeLast();
+                            break;
+                        case String:
+                            if (getCurrentParseState() == ParseState.InObject)
+                                break;
+                        case Integer:
+                        case Double:
+                        case True:
+                        case False:
+                        case Null:
+                            if (!projectedNode().isSelected()) {
+                                // a primitive value on the path to the projected keys
+                                valueWithKeyTest();
+                                continue;
+                            }
+                            break;
+                    }
+                }
 
                 switch (tokenType) {
                     case LBrace:
                         valueWithKeyTest();
                         currentDepth++;
                         pushParseState(ParseState.InObject);
-                        return reportEvent(token, JSONEvent.StartObject);
+                        return reportEvent(JSONEvent.StartObject);
                     case RBrace:
                         currentDepth--;
                         validateParseState(ParseState.InObject);
                         popParseState();
                         popKeyStack();
-                        return reportEvent(token, JSONEvent.EndObject);
+                        return reportEvent(JSONEvent.EndObject);
                     case LBracket:
                         valueWithKeyTest();
                         currentDepth++;
                         pushParseState(ParseState.InArray);
-                        return reportEvent(token, JSONEvent.StartArray);
+                        return reportEvent(JSONEvent.StartArray);
                     case RBracket:
                         currentDepth--;
                         validateParseState(ParseState.InArray);
                         popParseState();
                         popKeyStack();
-                        return reportEvent(token, JSONEvent.EndArray);
+                        return reportEvent(JSONEvent.EndArray);
                     case Comma:
                         validateParseState(ParseState.InArray, ParseState.InObject);
                         continue;
                     case Colon:
                         validateParseState(ParseState.Key); // next sequence will be a
                         // keyed value
+                        if (projection != null)
+                            skipUnprojectedValue();
                         continue;
                     case String:
                         if (getCurrentParseState() == ParseState.InObject) {
                             // key
                             pushParseState(ParseState.Key);
-                            keyStack.addLast(unescapeString(token.str));
+                            keyStack.addLast(currentString());
                             continue;
                         }
                         valueWithKeyTest();
-                        return reportEvent(token, JSONEvent.String);
+                        return reportEvent(JSONEvent.String);
                     case Integer:
                         valueWithKeyTest();
-                        return reportEvent(token, JSONEvent.Integer);
+                        return reportEvent(JSONEvent.Integer);
                     case Double:
                         valueWithKeyTest();
-                        return reportEvent(token, JSONEvent.Double);
+                        return reportEvent(JSONEvent.Double);
                     case True:
                         valueWithKeyTest();
-                        return reportEvent(token, JSONEvent.True);
+                        return reportEvent(JSONEvent.True);
                     case False:
                         valueWithKeyTest();
-                        return reportEvent(token, JSONEvent.False);
+                        return reportEvent(JSONEvent.False);
                     case Null:
                         valueWithKeyTest();
-                        return reportEvent(token, JSONEvent.Null);
+                        return reportEvent(JSONEvent.Null);
                 }
             }
         }
@@ -383,9 +605,17 @@ public class JSONPullParser {
         return JSONEvent.EndJSON;
     }
 
-    protected JSONEvent reportEvent(Token token, JSONEvent e) {
-        lastReportedEvent = new JSONPullParserEvent(token, e);
-        return lastReportedEvent.getEvent();
+    private JSONEvent reportEvent(JSONEvent e) {
+        lastReportedEvent = e;
+        lastReportedToken = currentToken;
+        return e;
+    }
+
+    private String currentString() {
+        if (_byteLexer != null)
+            return _byteLexer.getText();
+        else
+            return unescapeString(currentToken.str);
     }
 
     /**
@@ -403,9 +633,18 @@ public class JSONPullParser {
     }
 
     public String getText() {
-        switch (lastReportedEvent.getEvent()) {
+        if (_byteLexer != null) {
+            switch (lastReportedEvent) {
+                case String:
+                case Integer:
+                case Double:
+                    return _byteLexer.getText();
+            }
+        }
+
+        switch (lastReportedEvent) {
             case String:
-                return unescapeString(lastReportedEvent.getToken().str);
+                return unescapeString(lastReportedToken.str);
             case True:
                 return "true";
             case False:
@@ -413,10 +652,32 @@ public class JSONPullParser {
             case Null:
                 return "null";
             default:
-                return lastReportedEvent.getToken().str.toString();
+                return lastReportedToken.str.toString();
         }
     }
 
+    /**
+     * @return the value of the current Integer or Double event
+     */
+    public long getLong() {
+        if (_byteLexer != null)
+            return _byteLexer.getLong();
+        else if (lastReportedEvent == JSONEvent.Double)
+            return (long) Double.parseDouble(getText());
+        else
+            return Long.parseLong(getText());
+    }
+
+    /**
+     * @return the value of the current Integer or Double event
+     */
+    public double getDouble() {
+        if (_byteLexer != null)
+            return _byteLexer.getDouble();
+        else
+            return Double.parseDouble(getText());
+    }
+
     private static String unescapeString(CharSequence text) {
         if (text == null)
             return null;
@@ -473,35 +734,3 @@ public class JSONPullParser {
     }
 
 }
-
-/**
- * A pull parser event
- * 
- * @author leo
- * 
- */
-class JSONPullParserEvent {
-    private Token t;
-    private JSONEvent event;
-
-    public JSONPullParserEvent(Token t, JSONEvent event) {
-        this.t = t;
-        this.event = event;
-    }
-
-    public Token getToken() {
-        return t;
-    }
-
-    public void setToken(Token t) {
-        this.t = t;
-    }
-
-    public JSONEvent getEvent() {
-        return event;
-    }
-
-    public void setEvent(JSONEvent event) {
-        this.event = event;
-    }
-}
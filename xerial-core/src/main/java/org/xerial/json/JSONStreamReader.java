@@ -31,10 +31,12 @@ import java.io.Reader;
 import org.xerial.core.XerialException;
 import org.xerial.util.ArrayDeque;
 import org.xerial.util.log.Logger;
+import org.xerial.util.tree.InternedTreeStreamReader;
+import org.xerial.util.tree.MutableTreeEvent;
+import org.xerial.util.tree.NodeNameTable;
 import org.xerial.util.tree.TreeEvent;
+import org.xerial.util.tree.TreeEventPool;
 import org.xerial.util.tree.TreeEvent.EventType;
-import org.xerial.util.tree.TreeStreamReader;
-import org.xerial.util.tree.impl.TreeEventQueue;
 
 /**
  * JSON stream reader
@@ -42,14 +44,18 @@ import org.xerial.util.tree.impl.TreeEventQueue;
  * @author leo
  * 
  */
-public class JSONStreamReader implements TreeStreamReader {
+public class JSONStreamReader implements InternedTreeStreamReader {
     private static Logger _logger = Logger.getLogger(JSONStreamReader.class);
 
     private final JSONPullParser jsonPullParser;
-    private final TreeEventQueue eventQueue = new TreeEventQueue();
+    private final ArrayDeque<MutableTreeEvent> eventQueue = new ArrayDeque<MutableTreeEvent>();
     private JSONEvent lastEvent = null;
+    private final NodeNameTable nodeNameTable = new NodeNameTable();
+    private final TreeEventPool eventPool = new TreeEventPool(nodeNameTable, 64);
+    // the event at the cursor
+    private MutableTreeEvent current = null;
 
-    private ArrayDeque<TreeEvent> pendingEventQueue = new ArrayDeque<TreeEvent>();
+    private ArrayDeque<MutableTreeEvent> pendingEventQueue = new ArrayDeque<MutableTreeEvent>();
 
     /**
      * Create a JSON stream reader
@@ -66,9 +72,32 @@ public class JSONStreamReader implements TreeStreamReader {
         jsonPullParser = new JSONPullParser(jsonStream);
     }
 
+    /**
+     * Create a JSON stream reader using the byte-level lexer
+     * 
+     * @param lexer
+     */
+    public JSONStreamReader(JSONByteLexer lexer) {
+        jsonPullParser = new JSONPullParser(lexer);
+    }
+
+    /**
+     * Reads only the given key paths. See
+     * {@link JSONPullParser#setProjection(JSONProjection)}.
+     * 
+     * @param projection
+     */
+    public void setProjection(JSONProjection projection) {
+        jsonPullParser.setProjection(projection);
+    }
+
+    public NodeNameTable getNodeNameTable() {
+        return nodeNameTable;
+    }
+
     public TreeEvent peekNext() throws XerialException {
         if (!eventQueue.isEmpty()) {
-            return eventQueue.peekFirst();
+            return eventQueue.peekFirst().toTreeEvent();
         }
 
         if (lastEvent == JSONEvent.EndJSON)
@@ -80,23 +109,50 @@ public class JSONStreamReader implements TreeStreamReader {
     }
 
     public TreeEvent next() throws XerialException {
-        if (!eventQueue.isEmpty()) {
-            TreeEvent e = eventQueue.pop();
-            return e;
-        }
-
-        if (lastEvent == JSONEvent.EndJSON)
+        MutableTreeEvent e = nextEvent();
+        if (e == null)
             return null;
 
-        readNext();
+        TreeEvent result = e.toTreeEvent();
+        eventPool.release(e);
+        return result;
+    }
+
+    public boolean advance() throws XerialException {
+        eventPool.release(current);
+        current = nextEvent();
+        return current != null;
+    }
+
+    public EventType getEventType() {
+        return current != null ? current.getEventType() : null;
+    }
 
-        return next();
+    public int getNodeId() {
+        return current != null ? current.getNodeId() : NodeNameTable.NO_ID;
+    }
+
+    public String getNodeName() {
+        return current != null ? current.getNodeName() : null;
+    }
 
+    public String getNodeValue() {
+        return current != null ? current.getNodeValue() : null;
+    }
+
+    private MutableTreeEvent nextEvent() throws XerialException {
+        while (eventQueue.isEmpty()) {
+            if (lastEvent == JSONEvent.EndJSON)
+                return null;
+
+            readNext();
+        }
+        return eventQueue.removeFirst();
     }
 
     private void flushPendingEvent() {
         while (!pendingEventQueue.isEmpty())
-            eventQueue.push(pendingEventQueue.removeFirst());
+            eventQueue.addLast(pendingEventQueue.removeFirst());
 
     }
 
@@ -110,13 +166,13 @@ public class JSONStreamReader implements TreeStreamReader {
             flushPendingEvent();
 
             String key = jsonPullParser.getKeyName();
-            pendingEventQueue.addLast(TreeEvent.newVisitEvent(key, null));
+            pendingEventQueue.addLast(eventPool.newVisitEvent(key, null));
             break;
         }
         case EndObject: {
             flushPendingEvent();
             String key = jsonPullParser.getKeyName();
-            eventQueue.push(TreeEvent.newLeaveEvent(key));
+            eventQueue.addLast(eventPool.newLeaveEvent(key));
             break;
         }
         case String:
@@ -131,18 +187,17 @@ public class JSONStreamReader implements TreeStreamReader {
             // if first child element is value attribute
             if (key != null) {
                 if (key.equals("value") && !pendingEventQueue.isEmpty()) {
-                    TreeEvent e = pendingEventQueue.peekLast();
-                    if (e.event == EventType.VISIT) {
-                        pendingEventQueue.removeLast();
-                        pendingEventQueue.addLast(TreeEvent.newVisitEvent(e.nodeName, value));
+                    MutableTreeEvent e = pendingEventQueue.peekLast();
+                    if (e.getEventType() == EventType.VISIT) {
+                        e.setNodeValue(value);
                         break;
                     }
                 }
             }
 
             flushPendingEvent();
-            eventQueue.push(TreeEvent.newVisitEvent(key, value));
-            eventQueue.push(TreeEvent.newLeaveEvent(key));
+            eventQueue.addLast(eventPool.newVisitEvent(key, value));
+            eventQueue.addLast(eventPool.newLeaveEvent(key));
             break;
         }
         case StartArray:
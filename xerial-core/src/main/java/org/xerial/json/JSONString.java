@@ -39,6 +39,19 @@ public class JSONString extends JSONValueBase
         this.s = StringUtil.unquote(s);
     }
 
+    /**
+     * Creates a JSONString without unquoting the given string
+     * 
+     * @param s
+     * @return
+     */
+    static JSONString wrap(String s)
+    {
+        JSONString js = new JSONString();
+        js.s = s;
+        return js;
+    }
+
     public String toString()
     {
         return s;
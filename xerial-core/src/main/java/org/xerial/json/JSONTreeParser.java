@@ -54,6 +54,16 @@ public class JSONTreeParser implements TreeParser
         jsonPullParser = new JSONPullParser(input);
     }
 
+    /**
+     * Reads only the given key paths. See
+     * {@link JSONPullParser#setProjection(JSONProjection)}.
+     * 
+     * @param projection
+     */
+    public void setProjection(JSONProjection projection) {
+        jsonPullParser.setProjection(projection);
+    }
+
     public void parse(TreeEventHandler handler) throws Exception {
         handler.init();
         parseJSON(handler);
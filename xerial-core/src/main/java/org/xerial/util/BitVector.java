@@ -24,8 +24,7 @@
 //--------------------------------------
 package org.xerial.util;
 
-import java.util.ArrayList;
-import java.util.List;
+import org.xerial.util.primitive.BitArray;
 
 /**
  * bit array, which consists of zero (false) or one (true) values
@@ -35,71 +34,68 @@ import java.util.List;
  */
 public class BitVector
 {
-    private final static int   BIT_LENGTH = 32;
-    private ArrayList<Integer> bitVector  = new ArrayList<Integer>();
-    private int                size       = 0;
+    private final BitArray bits;
 
     public BitVector()
-    {}
+    {
+        bits = new BitArray(0);
+    }
 
     public BitVector(int size)
     {
-        extend(size - 1);
+        bits = new BitArray(Math.max(size, 0));
+    }
+
+    private BitVector(BitArray bits)
+    {
+        this.bits = bits;
     }
 
     public void on(int index)
     {
-        set(index, true);
+        bits.set(index);
     }
 
     public void off(int index)
     {
-        set(index, false);
+        bits.clear(index);
     }
 
     public void set(int index, boolean flag)
     {
-        extend(index);
-
-        int pos = pos(index);
-        int mask = 0x01 << offset(index);
-
-        int value = bitVector.get(pos);
-        bitVector.set(pos, flag ? (value |= mask) : (value &= ~mask));
+        bits.set(index, flag);
     }
 
     public boolean get(int index)
     {
-        int pos = pos(index);
-        if (pos >= bitVector.size())
-            return false;
-
-        int value = bitVector.get(pos);
-        int mask = 0x01 << offset(index);
-        return (value &= mask) != 0;
+        return bits.get(index);
     }
 
-    private static int pos(int index)
+    /**
+     * @return the number of on bits
+     */
+    public int count()
     {
-        return index / BIT_LENGTH;
+        return bits.count();
     }
 
-    private static int offset(int index)
+    /**
+     * @param index
+     * @return the number of on bits in the range [0, index)
+     */
+    public int rank(int index)
     {
-        return index % BIT_LENGTH;
+        return bits.rank(index);
     }
 
-    private void extend(int index)
+    /**
+     * @param k
+     * @return the index of the k-th (0-origin) on bit, or -1 if no such bit
+     *         exists
+     */
+    public int select(int k)
     {
-        if (size <= index)
-            size = index + 1;
-
-        int pos = pos(index);
-        if (pos < bitVector.size())
-            return;
-
-        while (bitVector.size() <= pos)
-            bitVector.add(0);
+        return bits.select(k);
     }
 
     @Override
@@ -109,21 +105,7 @@ public class BitVector
             return false;
 
         BitVector other = BitVector.class.cast(obj);
-
-        // compare the size
-        if (size() != other.size())
-            return false;
-
-        // compare each byte
-        int byteLength = byteLength();
-
-        for (int i = 0; i < byteLength; i++)
-        {
-            if (!this.bitVector.get(i).equals(other.bitVector.get(i)))
-                return false;
-        }
-
-        return true;
+        return bits.equals(other.bits);
     }
 
     private int byteLength()
@@ -131,7 +113,7 @@ public class BitVector
         int maxBitPos = size() - 1;
         if (maxBitPos < 0)
             maxBitPos = 0;
-        return pos(maxBitPos) + (offset(maxBitPos) == 0 ? 0 : 1);
+        return maxBitPos / 32 + (maxBitPos % 32 == 0 ? 0 : 1);
     }
 
     @Override
@@ -139,58 +121,43 @@ public class BitVector
     {
         int hashValue = 3;
 
+        // hash each 32-bit block
         int byteLength = byteLength();
         for (int i = 0; i < byteLength; i++)
         {
-            hashValue += hashValue * 137 + bitVector.get(i);
+            int block = (int) (bits.getWord(i >>> 1) >>> ((i & 1) << 5));
+            hashValue += hashValue * 137 + block;
         }
 
         return hashValue % 1987;
     }
 
-    /**
-     * @param array
-     */
-    private BitVector(List<Integer> array, int bitSize)
-    {
-        this.size = bitSize;
-        // copy the array
-        for (int v : array)
-        {
-            this.bitVector.add(v);
-        }
-    }
-
     public static BitVector newInstance(BitVector source)
     {
-        return new BitVector(source.bitVector, source.size);
+        return new BitVector(new BitArray(source.bits));
     }
 
     public static BitVector newInstanceWithAnAdditionalBit(BitVector source, int bitIndexToAdd)
     {
-        BitVector newInstance = new BitVector(source.bitVector, source.size);
+        BitVector newInstance = newInstance(source);
         newInstance.on(bitIndexToAdd);
         return newInstance;
     }
 
     public int size()
     {
-        return size;
+        return bits.size();
     }
 
     public void clear()
     {
-        bitVector.clear();
-        size = 0;
+        bits.clear();
     }
 
     @Override
     public String toString()
     {
-        StringBuilder buf = new StringBuilder();
-        for (int i = 0; i < size; i++)
-            buf.append(get(i) ? "1" : "0");
-        return buf.toString();
+        return bits.toString();
     }
 
 }
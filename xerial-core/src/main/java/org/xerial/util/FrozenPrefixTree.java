@@ -0,0 +1,283 @@
+/*--------------------------------------------------------------------------
+ *  Copyright 2011 Taro L. Saito
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *--------------------------------------------------------------------------*/
+//--------------------------------------
+// XerialJ
+//
+// FrozenPrefixTree.java
+// Since: 2026/10/17
+//
+// $URL$
+// $Author$
+//--------------------------------------
+package org.xerial.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.Set;
+
+import org.xerial.core.XerialErrorCode;
+import org.xerial.core.XerialException;
+
+/**
+ * Read-only {@link PrefixTree} stored in a few arrays. The nodes are numbered
+ * in the breadth-first order, so that the children of each node have
+ * consecutive node IDs, and the edge labels are concatenated into a single
+ * byte array. A frozen tree is serializable, and can be saved with
+ * {@link #writeTo(OutputStream)} to avoid rebuilding the tree at startup. The
+ * values must be {@link Serializable} to save the tree.
+ * 
+ * @author leo
+ * 
+ * @param <T>
+ */
+public class FrozenPrefixTree<T> extends RadixTrie<T> implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int         size;
+    /**
+     * children of node i are the nodes [childBegin[i], childBegin[i + 1])
+     */
+    private final int[]       childBegin;
+    /**
+     * label of node i is labels[labelBegin[i], labelBegin[i + 1])
+     */
+    private final int[]       labelBegin;
+    private final byte[]      labels;
+    /**
+     * index of the value of each node, or -1 for nodes without value
+     */
+    private final int[]       valueIndex;
+    private final Object[]    values;
+
+    FrozenPrefixTree(PrefixTree.Node root, int size) {
+        this.size = size;
+
+        ArrayList<PrefixTree.Node> order = new ArrayList<PrefixTree.Node>();
+        order.add(root);
+        int labelSize = 0;
+        for (int i = 0; i < order.size(); i++) {
+            PrefixTree.Node node = order.get(i);
+            labelSize += node.label.length;
+            for (int c = 0; c < node.numChildren; c++)
+                order.add(node.child[c]);
+        }
+
+        final int numNodes = order.size();
+        childBegin = new int[numNodes + 1];
+        labelBegin = new int[numNodes + 1];
+        labels = new byte[labelSize];
+        valueIndex = new int[numNodes];
+        values = new Object[size];
+        childBegin[0] = 1;
+        int numValues = 0;
+        for (int i = 0; i < numNodes; i++) {
+            PrefixTree.Node node = order.get(i);
+            childBegin[i + 1] = childBegin[i] + node.numChildren;
+            System.arraycopy(node.label, 0, labels, labelBegin[i], node.label.length);
+            labelBegin[i + 1] = labelBegin[i] + node.label.length;
+            if (node.hasValue) {
+                valueIndex[i] = numValues;
+                values[numValues++] = node.value;
+            }
+            else
+                valueIndex[i] = -1;
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    @Override
+    int root() {
+        return 0;
+    }
+
+    @Override
+    int childOf(int node, int b) {
+        int low = childBegin[node];
+        int high = childBegin[node + 1] - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int c = labels[labelBegin[mid]] & 0xFF;
+            if (c < b)
+                low = mid + 1;
+            else if (c > b)
+                high = mid - 1;
+            else
+                return mid;
+        }
+        return NONE;
+    }
+
+    @Override
+    int numChildren(int node) {
+        return childBegin[node + 1] - childBegin[node];
+    }
+
+    @Override
+    int childAt(int node, int index) {
+        return childBegin[node] + index;
+    }
+
+    @Override
+    int labelLength(int node) {
+        return labelBegin[node + 1] - labelBegin[node];
+    }
+
+    @Override
+    byte labelAt(int node, int index) {
+        return labels[labelBegin[node] + index];
+    }
+
+    @Override
+    void copyLabel(int node, byte[] buffer, int offset) {
+        System.arraycopy(labels, labelBegin[node], buffer, offset, labelLength(node));
+    }
+
+    @Override
+    boolean hasValue(int node) {
+        return valueIndex[node] != -1;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    T valueOf(int node) {
+        return (T) values[valueIndex[node]];
+    }
+
+    public T get(String key) {
+        if (key == null)
+            return null;
+        return get(PrefixTree.encode(key));
+    }
+
+    public T get(byte[] key) {
+        return get(key, 0, key.length);
+    }
+
+    /**
+     * Looks up the key stored in a range of a byte array
+     * 
+     * @param buffer
+     * @param offset
+     * @param length
+     * @return
+     */
+    public T get(byte[] buffer, int offset, int length) {
+        int node = lookup(buffer, offset, length);
+        return node == NONE ? null : valueOf(node);
+    }
+
+    public boolean containsKey(String key) {
+        return key != null && containsKey(PrefixTree.encode(key));
+    }
+
+    public boolean containsKey(byte[] key) {
+        return lookup(key, 0, key.length) != NONE;
+    }
+
+    /**
+     * Finds the entry of the smallest key that starts with the given prefix
+     * 
+     * @param prefix
+     * @return the found entry, or null if no key starts with the prefix
+     */
+    public T findBy(String prefix) {
+        if (prefix == null)
+            return null;
+        return findBy(PrefixTree.encode(prefix));
+    }
+
+    public T findBy(byte[] prefix) {
+        if (prefix == null)
+            return null;
+        return first(prefix);
+    }
+
+    /**
+     * @return the keys in the ascending order
+     */
+    public Set<String> keySet() {
+        return sortedKeys(size);
+    }
+
+    /**
+     * Enumerates the entries whose keys start with the given prefix in the
+     * ascending order of the keys
+     * 
+     * @param prefix
+     * @return
+     */
+    public Iterable<Map.Entry<String, T>> entries(String prefix) {
+        return PrefixTree.decodeKeys(entries(PrefixTree.encode(prefix)));
+    }
+
+    /**
+     * Enumerates the entries whose keys start with the given prefix in the
+     * ascending order of the keys
+     * 
+     * @param prefix
+     * @return
+     */
+    public Iterable<Map.Entry<byte[], T>> entries(byte[] prefix) {
+        return entryView(prefix);
+    }
+
+    /**
+     * Saves this tree to the output stream
+     * 
+     * @param out
+     * @throws IOException
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        ObjectOutputStream oos = new ObjectOutputStream(out);
+        oos.writeObject(this);
+        oos.flush();
+    }
+
+    /**
+     * Loads the tree saved by {@link #writeTo(OutputStream)}
+     * 
+     * @param <T>
+     * @param in
+     * @return
+     * @throws IOException
+     * @throws XerialException
+     *             when the stream does not contain a {@link FrozenPrefixTree}
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> FrozenPrefixTree<T> readFrom(InputStream in) throws IOException, XerialException {
+        try {
+            Object obj = new ObjectInputStream(in).readObject();
+            if (!(obj instanceof FrozenPrefixTree))
+                throw new XerialException(XerialErrorCode.LOAD_FAILURE,
+                        "the stream does not contain a FrozenPrefixTree");
+            return (FrozenPrefixTree<T>) obj;
+        }
+        catch (ClassNotFoundException e) {
+            throw new XerialException(XerialErrorCode.LOAD_FAILURE, e);
+        }
+    }
+
+}
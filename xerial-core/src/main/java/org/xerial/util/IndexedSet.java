@@ -25,11 +25,12 @@
 package org.xerial.util;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Set;
-import java.util.TreeSet;
+
+import org.xerial.util.primitive.ObjectIntMap;
 
 /**
  * Set container, each element of which is assigned an unique ID in the set.
@@ -43,12 +44,24 @@ public class IndexedSet<T> implements Set<T>
 {
     public final static int INVALID_ID = -1;
     private int elementCount = 0;
-    private HashMap<T, Integer> elementToID = new HashMap<T, Integer>();
+    private ObjectIntMap<T> elementToID = new ObjectIntMap<T>();
     private ArrayList<T> elementArray = new ArrayList<T>();
 
+    /**
+     * @return the IDs of the elements in the ascending order
+     */
     public Collection<Integer> getIDSet()
     {
-        return elementToID.values();
+        int[] idArray = new int[elementToID.size()];
+        int n = 0;
+        for (ObjectIntMap<T>.Cursor c = elementToID.cursor(); c.next();)
+            idArray[n++] = c.value();
+        Arrays.sort(idArray);
+
+        ArrayList<Integer> idSet = new ArrayList<Integer>(idArray.length);
+        for (int id : idArray)
+            idSet.add(id);
+        return idSet;
     }
 
     public boolean containsID(int id)
@@ -65,8 +78,7 @@ public class IndexedSet<T> implements Set<T>
      */
     public int getID(T element)
     {
-        Integer id = elementToID.get(element);
-        return (id == null) ? INVALID_ID : id;
+        return elementToID.get(element, INVALID_ID);
     }
 
     /**
@@ -78,8 +90,9 @@ public class IndexedSet<T> implements Set<T>
      */
     public int getIDwithAddition(T element)
     {
-        if (contains(element))
-            return getID(element);
+        int id = elementToID.get(element, INVALID_ID);
+        if (id != INVALID_ID)
+            return id;
         else
         {
             return addNewElement(element);
@@ -122,7 +135,7 @@ public class IndexedSet<T> implements Set<T>
 
     public boolean add(T element)
     {
-        if (elementToID.containsKey(element))
+        if (contains(element))
         {
             return false;
         }
@@ -194,10 +207,9 @@ public class IndexedSet<T> implements Set<T>
         };
     }
 
-    @SuppressWarnings("unchecked")
     public boolean remove(Object element)
     {
-        int id = getID((T) element);
+        int id = elementToID.get(element, INVALID_ID);
         if (id == INVALID_ID)
             return false;
 
@@ -228,21 +240,20 @@ public class IndexedSet<T> implements Set<T>
 
     public Object[] toArray()
     {
-        return elementToID.keySet().toArray();
+        return elementToID.keys();
     }
 
     @SuppressWarnings("hiding")
     public <T> T[] toArray(T[] array)
     {
-        return elementToID.keySet().toArray(array);
+        return Arrays.asList(elementToID.keys()).toArray(array);
     }
 
     @Override
     public String toString()
     {
         ArrayList<String> elementList = new ArrayList<String>();
-        TreeSet<Integer> sortedIDSet = new TreeSet<Integer>(getIDSet());
-        for (int elementID : sortedIDSet)
+        for (int elementID : getIDSet())
         {
             elementList.add(String.format("%d:%s", elementID, getByID(elementID)));
         }
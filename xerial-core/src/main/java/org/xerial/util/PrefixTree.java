@@ -24,52 +24,361 @@
 //--------------------------------------
 package org.xerial.util;
 
+import java.io.UnsupportedEncodingException;
+import java.util.Iterator;
+import java.util.Map;
 import java.util.Set;
-import java.util.SortedMap;
-import java.util.TreeMap;
+
+import org.xerial.core.XerialError;
+import org.xerial.core.XerialErrorCode;
 
 /**
- * Tree with prefix-search capability
+ * Tree with prefix-search capability.
+ * 
+ * <p>
+ * Keys are stored in a radix trie of bytes, in which each edge holds the byte
+ * sequence shared by the keys below it. String keys are encoded in UTF-8, and
+ * byte[] keys can be used as they are. Keys are ordered by their unsigned
+ * bytes, which is the code point order for String keys. Use {@link #freeze()}
+ * to obtain a compact read-only copy that can be saved to disk.
+ * </p>
  * 
  * @author leo
  * 
  * @param <T>
  */
-public class PrefixTree<T> {
+public class PrefixTree<T> extends RadixTrie<T> {
+
+    static class Node {
+        private static final Node[] NO_CHILD = new Node[0];
+
+        /**
+         * handle of this node, the index in {@link PrefixTree#nodes}
+         */
+        final int                   id;
+        /**
+         * label of the edge from the parent node. empty for the root
+         */
+        byte[]                      label;
+        /**
+         * child nodes sorted by the first byte of their labels
+         */
+        Node[]                      child    = NO_CHILD;
+        int                         numChildren;
+        boolean                     hasValue;
+        Object                      value;
+
+        Node(int id, byte[] label) {
+            this.id = id;
+            this.label = label;
+        }
+
+        /**
+         * @param b
+         *            unsigned byte
+         * @return index of the child whose label starts with b, or
+         *         -(insertion point) - 1
+         */
+        int childIndex(int b) {
+            int low = 0;
+            int high = numChildren - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                int c = child[mid].label[0] & 0xFF;
+                if (c < b)
+                    low = mid + 1;
+                else if (c > b)
+                    high = mid - 1;
+                else
+                    return mid;
+            }
+            return -(low + 1);
+        }
+
+        void insertChild(int index, Node node) {
+            if (numChildren == child.length) {
+                Node[] newChild = new Node[Math.max(2, numChildren * 2)];
+                System.arraycopy(child, 0, newChild, 0, numChildren);
+                child = newChild;
+            }
+            System.arraycopy(child, index, child, index + 1, numChildren - index);
+            child[index] = node;
+            numChildren++;
+        }
+    }
 
-    private TreeMap<String, T> holder = new TreeMap<String, T>();
+    /**
+     * all nodes indexed by their handles
+     */
+    private Node[] nodes    = new Node[16];
+    private int    numNodes = 0;
+    private Node   root     = newNode(new byte[0]);
+    private int    size     = 0;
 
     public void clear() {
-        holder.clear();
+        nodes = new Node[16];
+        numNodes = 0;
+        root = newNode(new byte[0]);
+        size = 0;
+    }
+
+    private Node newNode(byte[] label) {
+        if (numNodes == nodes.length) {
+            Node[] newNodes = new Node[numNodes * 2];
+            System.arraycopy(nodes, 0, newNodes, 0, numNodes);
+            nodes = newNodes;
+        }
+        Node node = new Node(numNodes, label);
+        nodes[numNodes++] = node;
+        return node;
+    }
+
+    public int size() {
+        return size;
     }
 
     public void add(String key, T entry) {
-        holder.put(key, entry);
+        add(encode(key), entry);
+    }
+
+    public void add(byte[] key, T entry) {
+        Node node = root;
+        int pos = 0;
+        while (pos < key.length) {
+            int c = node.childIndex(key[pos] & 0xFF);
+            if (c < 0) {
+                Node leaf = newNode(copyOfRange(key, pos, key.length));
+                leaf.hasValue = true;
+                leaf.value = entry;
+                node.insertChild(-c - 1, leaf);
+                size++;
+                return;
+            }
+
+            Node next = node.child[c];
+            int common = 1;
+            while (common < next.label.length && pos + common < key.length
+                    && next.label[common] == key[pos + common])
+                common++;
+            if (common < next.label.length) {
+                // split the edge at the end of the common prefix
+                Node mid = newNode(copyOfRange(next.label, 0, common));
+                next.label = copyOfRange(next.label, common, next.label.length);
+                mid.insertChild(0, next);
+                node.child[c] = mid;
+                next = mid;
+            }
+            node = next;
+            pos += common;
+        }
+
+        if (!node.hasValue)
+            size++;
+        node.hasValue = true;
+        node.value = entry;
+    }
+
+    @Override
+    int root() {
+        return root.id;
+    }
+
+    @Override
+    int childOf(int node, int b) {
+        Node n = nodes[node];
+        int c = n.childIndex(b);
+        return c < 0 ? NONE : n.child[c].id;
+    }
+
+    @Override
+    int numChildren(int node) {
+        return nodes[node].numChildren;
+    }
+
+    @Override
+    int childAt(int node, int index) {
+        return nodes[node].child[index].id;
     }
 
+    @Override
+    int labelLength(int node) {
+        return nodes[node].label.length;
+    }
+
+    @Override
+    byte labelAt(int node, int index) {
+        return nodes[node].label[index];
+    }
+
+    @Override
+    void copyLabel(int node, byte[] buffer, int offset) {
+        byte[] label = nodes[node].label;
+        System.arraycopy(label, 0, buffer, offset, label.length);
+    }
+
+    @Override
+    boolean hasValue(int node) {
+        return nodes[node].hasValue;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    T valueOf(int node) {
+        return (T) nodes[node].value;
+    }
+
+    /**
+     * Finds the entry of the smallest key that starts with the given prefix
+     * 
+     * @param prefix
+     * @return the found entry, or null if no key starts with the prefix
+     */
     public T findBy(String prefix) {
         if (prefix == null)
             return null;
+        return findBy(encode(prefix));
+    }
+
+    public T findBy(byte[] prefix) {
+        if (prefix == null)
+            return null;
+        return first(prefix);
+    }
 
-        String nextKey = holder.ceilingKey(prefix);
-        if (nextKey == null)
+    public T get(String key) {
+        if (key == null)
             return null;
+        return get(encode(key));
+    }
 
-        SortedMap<String, T> tail = holder.tailMap(nextKey);
-        for (String key : tail.keySet()) {
-            if (key.startsWith(prefix)) {
-                return tail.get(key);
-            }
-        }
-        return null;
+    public T get(byte[] key) {
+        int node = lookup(key, 0, key.length);
+        return node == NONE ? null : valueOf(node);
     }
 
-    public T get(String key) {
-        return holder.get(key);
+    public boolean containsKey(String key) {
+        return key != null && containsKey(encode(key));
+    }
+
+    public boolean containsKey(byte[] key) {
+        return lookup(key, 0, key.length) != NONE;
     }
 
+    /**
+     * @return the keys in the ascending order
+     */
     public Set<String> keySet() {
-        return holder.keySet();
+        return sortedKeys(size);
+    }
+
+    /**
+     * Enumerates the entries whose keys start with the given prefix in the
+     * ascending order of the keys
+     * 
+     * @param prefix
+     * @return
+     */
+    public Iterable<Map.Entry<String, T>> entries(String prefix) {
+        return decodeKeys(entries(encode(prefix)));
+    }
+
+    /**
+     * Enumerates the entries whose keys start with the given prefix in the
+     * ascending order of the keys
+     * 
+     * @param prefix
+     * @return
+     */
+    public Iterable<Map.Entry<byte[], T>> entries(byte[] prefix) {
+        return entryView(prefix);
+    }
+
+    /**
+     * Creates a read-only copy of this tree in compact arrays
+     * 
+     * @return
+     */
+    public FrozenPrefixTree<T> freeze() {
+        return new FrozenPrefixTree<T>(root, size);
+    }
+
+    static byte[] encode(String key) {
+        try {
+            return key.getBytes("UTF-8");
+        }
+        catch (UnsupportedEncodingException e) {
+            throw new XerialError(XerialErrorCode.ENCODE_ERROR, e);
+        }
+    }
+
+    static String decode(byte[] key) {
+        try {
+            return new String(key, "UTF-8");
+        }
+        catch (UnsupportedEncodingException e) {
+            throw new XerialError(XerialErrorCode.DECODE_ERROR, e);
+        }
+    }
+
+    static byte[] copyOfRange(byte[] array, int from, int to) {
+        byte[] copy = new byte[to - from];
+        System.arraycopy(array, from, copy, 0, copy.length);
+        return copy;
+    }
+
+    static <T> Iterable<Map.Entry<String, T>> decodeKeys(final Iterable<Map.Entry<byte[], T>> entries) {
+        return new Iterable<Map.Entry<String, T>>() {
+            public Iterator<Map.Entry<String, T>> iterator() {
+                final Iterator<Map.Entry<byte[], T>> it = entries.iterator();
+                return new Iterator<Map.Entry<String, T>>() {
+                    public boolean hasNext() {
+                        return it.hasNext();
+                    }
+
+                    public Map.Entry<String, T> next() {
+                        Map.Entry<byte[], T> e = it.next();
+                        return new KeyValue<String, T>(decode(e.getKey()), e.getValue());
+                    }
+
+                    public void remove() {
+                        throw new UnsupportedOperationException("remove");
+                    }
+                };
+            }
+        };
+    }
+
+    /**
+     * Read-only entry of a prefix tree
+     * 
+     * @author leo
+     * 
+     */
+    static class KeyValue<K, V> implements Map.Entry<K, V> {
+        private final K key;
+        private final V value;
+
+        KeyValue(K key, V value) {
+            this.key = key;
+            this.value = value;
+        }
+
+        public K getKey() {
+            return key;
+        }
+
+        public V getValue() {
+            return value;
+        }
+
+        public V setValue(V value) {
+            throw new UnsupportedOperationException("setValue");
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s=%s", key, value);
+        }
     }
 
 }
@@ -0,0 +1,257 @@
+/*--------------------------------------------------------------------------
+ *  Copyright 2011 Taro L. Saito
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *--------------------------------------------------------------------------*/
+//--------------------------------------
+// XerialJ
+//
+// RadixTrie.java
+// Since: 2026/10/17
+//
+// $URL$
+// $Author$
+//--------------------------------------
+package org.xerial.util;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import org.xerial.util.primitive.IntArrayList;
+
+/**
+ * Lookup and traversal of a radix trie of bytes, shared by {@link PrefixTree}
+ * and {@link FrozenPrefixTree}. Each edge holds a label, the byte sequence
+ * shared by the keys below it, and the children of a node are sorted by the
+ * first byte of their labels. The subclasses define how the nodes are stored,
+ * and give each node an int handle, so that a traversal creates no object.
+ * 
+ * @author leo
+ * 
+ * @param <T>
+ *            value type
+ */
+abstract class RadixTrie<T> {
+
+    /**
+     * The handle meaning no node
+     */
+    static final int   NONE      = -1;
+    /**
+     * Returned by {@link #locate(byte[], int, int)} when no node is found
+     */
+    static final long  NOT_FOUND = -1L;
+
+    abstract int root();
+
+    /**
+     * @param node
+     * @param b
+     *            unsigned byte
+     * @return the child node whose label starts with b, or {@link #NONE}
+     */
+    abstract int childOf(int node, int b);
+
+    abstract int numChildren(int node);
+
+    /**
+     * @param node
+     * @param index
+     * @return the index-th child node in the order of the labels
+     */
+    abstract int childAt(int node, int index);
+
+    abstract int labelLength(int node);
+
+    abstract byte labelAt(int node, int index);
+
+    /**
+     * Copies the label of the node to the buffer
+     * 
+     * @param node
+     * @param buffer
+     * @param offset
+     */
+    abstract void copyLabel(int node, byte[] buffer, int offset);
+
+    abstract boolean hasValue(int node);
+
+    abstract T valueOf(int node);
+
+    /**
+     * Finds the node whose key starts with the given prefix and is the
+     * shortest among such nodes
+     * 
+     * @param prefix
+     * @param offset
+     * @param length
+     * @return the found node in the lower 32 bits and the length of its key in
+     *         the upper 32 bits (see {@link #nodeOf(long)} and
+     *         {@link #depthOf(long)}), or {@link #NOT_FOUND}
+     */
+    final long locate(byte[] prefix, int offset, int length) {
+        int node = root();
+        int pos = 0;
+        while (pos < length) {
+            node = childOf(node, prefix[offset + pos] & 0xFF);
+            if (node == NONE)
+                return NOT_FOUND;
+            int labelLength = labelLength(node);
+            int len = Math.min(labelLength, length - pos);
+            for (int i = 1; i < len; i++) {
+                if (labelAt(node, i) != prefix[offset + pos + i])
+                    return NOT_FOUND;
+            }
+            pos += labelLength;
+        }
+        return ((long) pos << 32) | node;
+    }
+
+    static int nodeOf(long location) {
+        return (int) location;
+    }
+
+    static int depthOf(long location) {
+        return (int) (location >>> 32);
+    }
+
+    /**
+     * @param key
+     * @param offset
+     * @param length
+     * @return the node of the key, or {@link #NONE} if the key is not found
+     */
+    final int lookup(byte[] key, int offset, int length) {
+        long location = locate(key, offset, length);
+        if (location == NOT_FOUND || depthOf(location) != length)
+            return NONE;
+        int node = nodeOf(location);
+        return hasValue(node) ? node : NONE;
+    }
+
+    /**
+     * @param prefix
+     * @return the value of the smallest key that starts with the given prefix,
+     *         or null
+     */
+    final T first(byte[] prefix) {
+        long location = locate(prefix, 0, prefix.length);
+        if (location == NOT_FOUND)
+            return null;
+        int node = nodeOf(location);
+        // every leaf node has a value
+        while (!hasValue(node)) {
+            if (numChildren(node) == 0)
+                return null;
+            node = childAt(node, 0);
+        }
+        return valueOf(node);
+    }
+
+    /**
+     * @param size
+     *            the number of the keys
+     * @return the keys in the ascending order
+     */
+    final Set<String> sortedKeys(int size) {
+        LinkedHashSet<String> keys = new LinkedHashSet<String>(size);
+        for (Map.Entry<byte[], T> each : entryView(new byte[0]))
+            keys.add(PrefixTree.decode(each.getKey()));
+        return Collections.unmodifiableSet(keys);
+    }
+
+    /**
+     * @param prefix
+     * @return the entries whose keys start with the given prefix in the
+     *         ascending order of the keys
+     */
+    final Iterable<Map.Entry<byte[], T>> entryView(final byte[] prefix) {
+        return new Iterable<Map.Entry<byte[], T>>() {
+            public Iterator<Map.Entry<byte[], T>> iterator() {
+                long location = locate(prefix, 0, prefix.length);
+                if (location == NOT_FOUND)
+                    return new EntryIterator(NONE, new byte[0]);
+
+                int start = nodeOf(location);
+                byte[] key = new byte[depthOf(location)];
+                // the prefix may end in the middle of the label of the start node
+                int len = key.length - labelLength(start);
+                System.arraycopy(prefix, 0, key, 0, len);
+                copyLabel(start, key, len);
+                return new EntryIterator(start, key);
+            }
+        };
+    }
+
+    /**
+     * Depth-first traversal of the nodes
+     * 
+     * @author leo
+     * 
+     */
+    private class EntryIterator implements Iterator<Map.Entry<byte[], T>> {
+        private final IntArrayList   nodeStack = new IntArrayList();
+        /**
+         * key length before the label of each node in the stack
+         */
+        private final IntArrayList   keyStack  = new IntArrayList();
+        private byte[]               key;
+        private Map.Entry<byte[], T> next;
+
+        EntryIterator(int start, byte[] startKey) {
+            key = startKey;
+            if (start != NONE) {
+                nodeStack.add(start);
+                keyStack.add(startKey.length - labelLength(start));
+            }
+        }
+
+        public boolean hasNext() {
+            while (next == null && !nodeStack.isEmpty()) {
+                int node = nodeStack.removeLast();
+                int begin = keyStack.removeLast();
+                int end = begin + labelLength(node);
+                if (key.length < end) {
+                    byte[] newKey = new byte[Math.max(end, key.length * 2)];
+                    System.arraycopy(key, 0, newKey, 0, begin);
+                    key = newKey;
+                }
+                copyLabel(node, key, begin);
+                for (int i = numChildren(node) - 1; i >= 0; i--) {
+                    nodeStack.add(childAt(node, i));
+                    keyStack.add(end);
+                }
+                if (hasValue(node))
+                    next = new PrefixTree.KeyValue<byte[], T>(PrefixTree.copyOfRange(key, 0, end), valueOf(node));
+            }
+            return next != null;
+        }
+
+        public Map.Entry<byte[], T> next() {
+            if (!hasNext())
+                throw new NoSuchElementException();
+            Map.Entry<byte[], T> e = next;
+            next = null;
+            return e;
+        }
+
+        public void remove() {
+            throw new UnsupportedOperationException("remove");
+        }
+    }
+
+}
@@ -24,6 +24,7 @@
 //--------------------------------------
 package org.xerial.util;
 
+import java.lang.reflect.AccessibleObject;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
@@ -43,6 +44,27 @@ import org.xerial.core.XerialException;
  */
 public class ReflectionUtil {
 
+    /**
+     * Suppresses the Java language access checks of the field or method, so
+     * that the later invocations skip them. When the access checks cannot be
+     * suppressed (e.g., by the security manager), the target is returned as
+     * is.
+     * 
+     * @param <T>
+     * @param target
+     * @return the target
+     */
+    public static <T extends AccessibleObject> T makeAccessible(T target) {
+        try {
+            if (!target.isAccessible())
+                target.setAccessible(true);
+        }
+        catch (RuntimeException e) {
+            // keep the access checks
+        }
+        return target;
+    }
+
     /**
      * Set the value of the bean using the given setter
      * 
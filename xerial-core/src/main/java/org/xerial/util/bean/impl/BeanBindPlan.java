@@ -0,0 +1,207 @@
+/*--------------------------------------------------------------------------
+ *  Copyright 2011 Taro L. Saito
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *--------------------------------------------------------------------------*/
+//--------------------------------------
+// XerialJ
+//
+// BeanBindPlan.java
+// Since: 2026/10/17
+//
+// $URL$
+// $Author$
+//--------------------------------------
+package org.xerial.util.bean.impl;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.xerial.core.XerialErrorCode;
+import org.xerial.core.XerialException;
+import org.xerial.util.ReflectionUtil;
+import org.xerial.util.TypeConverter;
+import org.xerial.util.TypeInfo;
+import org.xerial.util.bean.BeanBinderSet;
+import org.xerial.util.bean.BeanUpdator;
+import org.xerial.util.bean.BeanUpdatorType;
+
+/**
+ * Compiled bind rules of a bean class used in {@link BeanBindingProcess}. A
+ * plan memorizes the updator of each node name together with the kind of the
+ * node value and its type converter, so that the binding process does not
+ * search the bind rules by name nor inspect the input types at every tree
+ * event.
+ *
+ * @author leo
+ *
+ */
+class BeanBindPlan
+{
+    /**
+     * How the value of a node is prepared for its updator
+     */
+    enum Kind {
+        /**
+         * basic type, which is converted from the node text
+         */
+        BASIC,
+        /**
+         * map, which is filled with key and value nodes
+         */
+        MAP,
+        /**
+         * bean, which is instantiated at the node
+         */
+        BEAN,
+        /**
+         * Object type, which receives the node text as is
+         */
+        OBJECT
+    }
+
+    private static final int OTHER   = 0;
+    private static final int INT     = 1;
+    private static final int LONG    = 2;
+    private static final int DOUBLE  = 3;
+    private static final int BOOLEAN = 4;
+
+    /**
+     * Bind step for a node name
+     */
+    static class Step
+    {
+        final BeanUpdator updator;
+        /**
+         * input type of the updator. null for map putters
+         */
+        final Class< ? >  inputType;
+        /**
+         * null for map putters
+         */
+        final Kind        kind;
+        private final int converter;
+
+        private Step(BeanUpdator updator) {
+            this.updator = updator;
+            if (updator == null || updator.getType() == BeanUpdatorType.MAP_PUTTER) {
+                inputType = null;
+                kind = null;
+                converter = OTHER;
+            }
+            else {
+                inputType = updator.getInputType();
+                kind = kindOf(inputType);
+                converter = converterOf(inputType);
+            }
+            if (updator != null)
+                ReflectionUtil.makeAccessible(updator.getMethod());
+        }
+
+        /**
+         * Converts the value into the input type of the updator
+         *
+         * @param value
+         * @return
+         * @throws XerialException
+         */
+        Object convert(Object value) throws XerialException {
+            if (inputType.isInstance(value))
+                return value;
+
+            if (value instanceof String) {
+                String s = (String) value;
+                try {
+                    switch (converter) {
+                    case INT:
+                        return Integer.valueOf(s);
+                    case LONG:
+                        return Long.valueOf(s);
+                    case DOUBLE:
+                        return Double.valueOf(s);
+                    case BOOLEAN:
+                        return Boolean.valueOf(s);
+                    }
+                }
+                catch (NumberFormatException e) {
+                    throw new XerialException(XerialErrorCode.InvalidFormat, String.format("%s %s", inputType
+                            .getName(), e.getMessage()));
+                }
+            }
+            return TypeConverter.convertType(inputType, value);
+        }
+    }
+
+    /**
+     * step for the node names that have no updator
+     */
+    private static final Step                        NO_STEP       = new Step(null);
+
+    /**
+     * upper limit of the cached node names, since node names come from the
+     * input data
+     */
+    private static final int                         MAX_NODE_NAME = 256;
+
+    private final BeanBinderSet                      binderSet;
+    private final ConcurrentHashMap<String, Step>    stepTable     = new ConcurrentHashMap<String, Step>();
+
+    BeanBindPlan(BeanBinderSet binderSet) {
+        this.binderSet = binderSet;
+    }
+
+    /**
+     * Gets the bind step for the node name
+     *
+     * @param nodeName
+     * @return the bind step, or null if the node has no updator
+     * @throws XerialException
+     */
+    Step getStep(String nodeName) throws XerialException {
+        if (nodeName == null)
+            return null;
+
+        Step step = stepTable.get(nodeName);
+        if (step == null) {
+            BeanUpdator updator = BeanBindingProcess.getUpdator(binderSet, nodeName);
+            step = updator == null ? NO_STEP : new Step(updator);
+            if (stepTable.size() < MAX_NODE_NAME)
+                stepTable.putIfAbsent(nodeName, step);
+        }
+        return step == NO_STEP ? null : step;
+    }
+
+    static Kind kindOf(Class< ? > elementType) {
+        if (TypeInfo.isBasicType(elementType))
+            return Kind.BASIC;
+        else if (TypeInfo.isMap(elementType))
+            return Kind.MAP;
+        else if (elementType != Object.class)
+            return Kind.BEAN;
+        else
+            return Kind.OBJECT;
+    }
+
+    private static int converterOf(Class< ? > c) {
+        if (c == int.class || c == Integer.class)
+            return INT;
+        else if (c == long.class || c == Long.class)
+            return LONG;
+        else if (c == double.class || c == Double.class)
+            return DOUBLE;
+        else if (c == boolean.class || c == Boolean.class)
+            return BOOLEAN;
+        else
+            return OTHER;
+    }
+
+}
@@ -26,8 +26,10 @@ package org.xerial.util.bean.impl;
 
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.xerial.core.XerialErrorCode;
 import org.xerial.core.XerialException;
@@ -145,6 +147,15 @@ public class BeanBindingProcess implements TreeVisitor
     private int                                  currentLevel           = 0;
     private BindRuleGenerator                    bindRuleGenerator      = new BindRuleGeneratorImpl();
 
+    /**
+     * bind plans of the default bind rules, shared by all binding processes
+     */
+    private final static ConcurrentHashMap<Class< ? >, BeanBindPlan> sharedBindPlan = new ConcurrentHashMap<Class< ? >, BeanBindPlan>();
+    /**
+     * bind plans of the bind rules given by the user
+     */
+    private final HashMap<Class< ? >, BeanBindPlan> bindPlan               = new HashMap<Class< ? >, BeanBindPlan>();
+
     class BindRuleGeneratorImpl implements BindRuleGenerator
     {
         public <T> BeanBinderSet getBeanBinderSet(Class<T> beanClass) throws XerialException {
@@ -209,6 +220,22 @@ public class BeanBindingProcess implements TreeVisitor
         return bindRuleGenerator.getBeanBinderSet(beanClass);
     }
 
+    private BeanBindPlan getBindPlan(Class< ? > beanClass) throws XerialException {
+        boolean isShared = bindRuleGenerator instanceof BindRuleGeneratorImpl;
+        BeanBindPlan plan = isShared ? sharedBindPlan.get(beanClass) : bindPlan.get(beanClass);
+        if (plan == null) {
+            plan = new BeanBindPlan(getBindRuleSet(beanClass));
+            if (isShared) {
+                BeanBindPlan prev = sharedBindPlan.putIfAbsent(beanClass, plan);
+                if (prev != null)
+                    plan = prev;
+            }
+            else
+                bindPlan.put(beanClass, plan);
+        }
+        return plan;
+    }
+
     public void visitNode(String nodeName, String nodeValue, TreeWalker walker) throws XerialException {
         textStack.addLast(EMPTY_TEXT_BUILDER);
 
@@ -224,9 +251,9 @@ public class BeanBindingProcess implements TreeVisitor
         if (nodeValueBean == null) {
             assert (currentLevel > 0); // the bean cannot be null when level is 0
 
-            BeanBinderSet bindRuleSet = getBindRuleSet(parentBean.getClass());
-            BeanUpdator updator = getUpdator(bindRuleSet, nodeName);
-            if (updator != null) {
+            BeanBindPlan.Step step = getBindPlan(parentBean.getClass()).getStep(nodeName);
+            if (step != null) {
+                BeanUpdator updator = step.updator;
                 int targetArgIndex = 0;
                 Method updateMethod = updator.getMethod();
                 // We have to instantiate a bean class of the node name
@@ -234,7 +261,8 @@ public class BeanBindingProcess implements TreeVisitor
                 case SETTER:
                 case COLLECTION_ADDER:
                 case APPENDER:
-                    Class< ? > elementType = updator.getInputType();
+                    Class< ? > elementType = step.inputType;
+                    BeanBindPlan.Kind kind = step.kind;
                     if (parentBean instanceof KeyValuePair) {
                         // for map elment
                         KeyValuePair keyValuePair = KeyValuePair.class.cast(parentBean);
@@ -246,15 +274,16 @@ public class BeanBindingProcess implements TreeVisitor
                             elementType = keyValuePair.valueType();
                             targetArgIndex = 1;
                         }
+                        kind = BeanBindPlan.kindOf(elementType);
                     }
 
-                    if (TypeInfo.isBasicType(elementType)) {
+                    switch (kind) {
+                    case BASIC:
                         // this bean can be generated directly from the element text value, so
                         // there is no need to instantiate the object here.
                         bindValue(parentBean, nodeName, nodeValue, nodeLevel);
                         break;
-                    }
-                    else if (TypeInfo.isMap(elementType)) {
+                    case MAP: {
                         // when input of setter/ or K, V of putSomthing(K, V) is map
                         Pair<Class< ? >, Class< ? >> keyValueClassPair = BeanUtil.getGenericMapTypesOfMethodArgument(
                                 updateMethod, targetArgIndex);
@@ -271,14 +300,16 @@ public class BeanBindingProcess implements TreeVisitor
                             setContextBean(nodeLevel, new KeyValuePair(putter));
 
                         }
+                        break;
                     }
-                    else if (elementType != Object.class) {
+                    case BEAN:
                         Object newBean = BeanUtil.createInstance(elementType);
                         setContextBean(nodeLevel, newBean);
-                    }
-                    else
+                        break;
+                    default:
                         bindValue(parentBean, nodeName, nodeValue, nodeLevel);
-
+                        break;
+                    }
                     break;
                 case MAP_PUTTER:
                     MapPutter mapPutter = MapPutter.class.cast(updator);
@@ -308,9 +339,9 @@ public class BeanBindingProcess implements TreeVisitor
             return;
 
         // bind immediate text value
-        BeanBinderSet bindRuleSet = getBindRuleSet(parentBean.getClass());
-        BeanUpdator updator = getUpdator(bindRuleSet, nodeName);
-        if (updator != null) {
+        BeanBindPlan.Step step = getBindPlan(parentBean.getClass()).getStep(nodeName);
+        if (step != null) {
+            BeanUpdator updator = step.updator;
             Object valueBean = getContextBean(nodeLevel);
             if (valueBean == null) {
                 if (nodeValue != null && nodeValue.length() > 0) {
@@ -335,7 +366,7 @@ public class BeanBindingProcess implements TreeVisitor
                             bindValue(parentBean, updator, keyValuePair.valueType(), valueBean);
                     }
                     else {
-                        bindValue(parentBean, updator, valueBean);
+                        bindValue(parentBean, step, valueBean);
                     }
 
                 }
@@ -369,11 +400,10 @@ public class BeanBindingProcess implements TreeVisitor
     public void text(String nodeName, String nodeValue, TreeWalker walker) throws XerialException {
         Object parentBean = getContextBean(currentLevel - 2);
         if (parentBean != null) {
-            BeanBinderSet bindRuleSet = getBindRuleSet(parentBean.getClass());
-            BeanUpdator updator = getUpdator(bindRuleSet, nodeName);
-            if (updator != null && updator.getType() == BeanUpdatorType.APPENDER) {
+            BeanBindPlan.Step step = getBindPlan(parentBean.getClass()).getStep(nodeName);
+            if (step != null && step.updator.getType() == BeanUpdatorType.APPENDER) {
                 // use appender
-                bindValue(parentBean, updator, nodeValue);
+                bindValue(parentBean, step, nodeValue);
             }
             else {
                 // use internal string buffer
@@ -439,23 +469,35 @@ public class BeanBindingProcess implements TreeVisitor
 
     @SuppressWarnings("unchecked")
     private void bindValue(Object bean, BeanUpdator updator, Class targetType, Object value) throws XerialException {
-        try {
-            if (value.getClass() == KeyValuePair.class && TypeInfo.isMap(targetType)) {
-                Map map = null;
-                if (mapAssociatedWithBean.containsKey(bean.hashCode())) {
-                    map = mapAssociatedWithBean.get(bean.hashCode());
-                }
-                else {
-                    map = Map.class.cast(BeanUtil.createInstance(targetType));
-                    mapAssociatedWithBean.put(bean.hashCode(), map);
-                }
-                KeyValuePair keyValuePair = KeyValuePair.class.cast(value);
-                map.put(keyValuePair.getKey(), keyValuePair.getValue());
-
-                updator.getMethod().invoke(bean, map);
+        if (value.getClass() == KeyValuePair.class && TypeInfo.isMap(targetType)) {
+            Map map = null;
+            if (mapAssociatedWithBean.containsKey(bean.hashCode())) {
+                map = mapAssociatedWithBean.get(bean.hashCode());
             }
-            else
-                updator.getMethod().invoke(bean, convertType(targetType, value));
+            else {
+                map = Map.class.cast(BeanUtil.createInstance(targetType));
+                mapAssociatedWithBean.put(bean.hashCode(), map);
+            }
+            KeyValuePair keyValuePair = KeyValuePair.class.cast(value);
+            map.put(keyValuePair.getKey(), keyValuePair.getValue());
+
+            invokeUpdator(bean, updator, map, value);
+        }
+        else
+            invokeUpdator(bean, updator, convertType(targetType, value), value);
+    }
+
+    private void bindValue(Object bean, BeanBindPlan.Step step, Object value) throws XerialException {
+        if (value.getClass() == KeyValuePair.class)
+            bindValue(bean, step.updator, step.inputType, value);
+        else
+            invokeUpdator(bean, step.updator, step.convert(value), value);
+    }
+
+    private static void invokeUpdator(Object bean, BeanUpdator updator, Object arg, Object value)
+            throws XerialException {
+        try {
+            updator.getMethod().invoke(bean, arg);
         }
         catch (IllegalArgumentException e) {
             throw new XerialException(XerialErrorCode.IllegalArgument, e);
@@ -474,10 +516,6 @@ public class BeanBindingProcess implements TreeVisitor
 
     }
 
-    private void bindValue(Object bean, BeanUpdator updator, Object value) throws XerialException {
-        bindValue(bean, updator, updator.getInputType(), value);
-    }
-
     @SuppressWarnings("unchecked")
     public static Object convertType(Class targetType, Object value) throws XerialException {
         return TypeConverter.convertType(targetType, value);
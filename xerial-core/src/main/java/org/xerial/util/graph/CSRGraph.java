@@ -0,0 +1,723 @@
+/*--------------------------------------------------------------------------
+ *  Copyright 2011 Taro L. Saito
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *--------------------------------------------------------------------------*/
+//--------------------------------------
+// XerialJ
+//
+// CSRGraph.java
+// Since: 2026/10/17
+//
+// $URL$
+// $Author$
+//--------------------------------------
+package org.xerial.util.graph;
+
+import java.io.StringWriter;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import org.xerial.core.XerialError;
+import org.xerial.core.XerialErrorCode;
+import org.xerial.util.primitive.BitArray;
+import org.xerial.util.primitive.IntArrayList;
+import org.xerial.util.primitive.IntIntMap;
+import org.xerial.util.primitive.ObjectIntMap;
+
+/**
+ * Immutable graph in the compressed sparse row (CSR) format. The out-edges of
+ * all nodes are stored in a single int array of destination node IDs, and the
+ * out-edges of node <i>u</i> occupy the range [offset[u], offset[u + 1]) in
+ * the ascending order of the destination node IDs. In-edges are stored in the
+ * same manner. Edge labels are interned and each edge holds the ID of its
+ * label.
+ * 
+ * <p>
+ * A CSRGraph is built from another graph with {@link #copy(Graph)}, and keeps
+ * the node and edge IDs of the source graph. The methods of {@link Graph} that
+ * modify the graph throw {@link UnsupportedOperationException}. Use
+ * {@link EdgeCursor} to traverse edges without creating objects.
+ * </p>
+ * 
+ * @author leo
+ * 
+ * @param <NodeLabel>
+ * @param <EdgeLabel>
+ */
+public class CSRGraph<NodeLabel, EdgeLabel> implements Graph<NodeLabel, EdgeLabel> {
+
+    /**
+     * BFS frontiers smaller than this size are expanded by the calling thread
+     */
+    private static final int          PARALLEL_FRONTIER_SIZE = 1024;
+
+    /**
+     * node labels indexed by node ID. null for unused IDs
+     */
+    private final Object[]            nodeLabel;
+    private final BitArray            nodeExists;
+    /**
+     * node IDs in the ascending order
+     */
+    private final int[]               nodeID;
+    private final ObjectIntMap<Object> nodeIndex;
+
+    private final int[]               outOffset;
+    private final int[]               outTarget;
+    private final int[]               outEdgeID;
+    /**
+     * label ID of each out-edge. -1 for edges without label
+     */
+    private final int[]               outLabelID;
+
+    private final int[]               inOffset;
+    private final int[]               inSource;
+    /**
+     * position of each in-edge in the out-edge arrays
+     */
+    private final int[]               inPosition;
+
+    private final Object[]            edgeLabel;
+    /**
+     * edge IDs in the ascending order
+     */
+    private final int[]               edgeID;
+    /**
+     * edge ID -> position in the out-edge arrays
+     */
+    private final IntIntMap           edgePosition;
+
+    private CSRGraph(Graph<NodeLabel, EdgeLabel> source) {
+        // collect nodes
+        Collection<Integer> sourceNodeIDSet = source.getNodeIDSet();
+        int[] nodes = new int[sourceNodeIDSet.size()];
+        int n = 0;
+        int maxNodeID = -1;
+        for (int id : sourceNodeIDSet) {
+            nodes[n++] = id;
+            maxNodeID = Math.max(maxNodeID, id);
+        }
+
+        // collect edges
+        Collection<Edge> edgeSet = source.getEdgeSet();
+        final int m = edgeSet.size();
+        int[] src = new int[m];
+        int[] dest = new int[m];
+        int[] id = new int[m];
+        int[] label = new int[m];
+        ObjectIntMap<Object> labelIndex = new ObjectIntMap<Object>();
+        ArrayList<Object> labelTable = new ArrayList<Object>();
+        int e = 0;
+        for (Edge edge : edgeSet) {
+            src[e] = edge.srcNodeID;
+            dest[e] = edge.destNodeID;
+            id[e] = source.getEdgeID(edge);
+            EdgeLabel l = source.getEdgeLabel(id[e]);
+            if (l == null)
+                label[e] = -1;
+            else {
+                label[e] = labelIndex.get(l, -1);
+                if (label[e] == -1) {
+                    label[e] = labelTable.size();
+                    labelIndex.put(l, label[e]);
+                    labelTable.add(l);
+                }
+            }
+            maxNodeID = Math.max(maxNodeID, Math.max(src[e], dest[e]));
+            e++;
+        }
+        final int numIDs = maxNodeID + 1;
+
+        // nodes
+        Arrays.sort(nodes);
+        nodeID = nodes;
+        nodeLabel = new Object[numIDs];
+        nodeExists = new BitArray(numIDs);
+        nodeIndex = new ObjectIntMap<Object>(n);
+        for (int each : nodes) {
+            NodeLabel l = source.getNodeLabel(each);
+            nodeLabel[each] = l;
+            nodeExists.set(each);
+            nodeIndex.put(l, each);
+        }
+
+        // sort the edges in the order of (src, dest) with two stable counting sorts
+        outOffset = offsetsOf(src, numIDs);
+        inOffset = offsetsOf(dest, numIDs);
+        int[] order = new int[m];
+        for (int i = 0; i < m; i++)
+            order[i] = i;
+        order = sortByKey(src, sortByKey(dest, order, inOffset), outOffset);
+
+        outTarget = new int[m];
+        outEdgeID = new int[m];
+        outLabelID = new int[m];
+        edgePosition = new IntIntMap(m);
+        for (int p = 0; p < m; p++) {
+            int k = order[p];
+            outTarget[p] = dest[k];
+            outEdgeID[p] = id[k];
+            outLabelID[p] = label[k];
+            edgePosition.put(id[k], p);
+        }
+
+        // in-edges are sorted by (dest, src), since the out-edges are scanned in the order of src
+        inSource = new int[m];
+        inPosition = new int[m];
+        int[] next = new int[numIDs];
+        System.arraycopy(inOffset, 0, next, 0, numIDs);
+        for (int p = 0; p < m; p++) {
+            int q = next[dest[order[p]]]++;
+            inSource[q] = src[order[p]];
+            inPosition[q] = p;
+        }
+
+        edgeLabel = labelTable.toArray();
+        edgeID = new int[m];
+        System.arraycopy(outEdgeID, 0, edgeID, 0, m);
+        Arrays.sort(edgeID);
+    }
+
+    /**
+     * Creates an immutable copy of the given graph. The node and edge IDs of
+     * the source graph are preserved.
+     * 
+     * @param <NodeLabel>
+     * @param <EdgeLabel>
+     * @param source
+     * @return
+     */
+    public static <NodeLabel, EdgeLabel> CSRGraph<NodeLabel, EdgeLabel> copy(Graph<NodeLabel, EdgeLabel> source) {
+        return new CSRGraph<NodeLabel, EdgeLabel>(source);
+    }
+
+    private static int[] offsetsOf(int[] key, int numIDs) {
+        int[] offset = new int[numIDs + 1];
+        for (int each : key)
+            offset[each + 1]++;
+        for (int i = 0; i < numIDs; i++)
+            offset[i + 1] += offset[i];
+        return offset;
+    }
+
+    private static int[] sortByKey(int[] key, int[] order, int[] offset) {
+        int[] next = new int[offset.length - 1];
+        System.arraycopy(offset, 0, next, 0, next.length);
+        int[] sorted = new int[order.length];
+        for (int each : order)
+            sorted[next[key[each]]++] = each;
+        return sorted;
+    }
+
+    private int numIDs() {
+        return nodeLabel.length;
+    }
+
+    private boolean isValidID(int nodeID) {
+        return nodeID >= 0 && nodeID < numIDs();
+    }
+
+    /**
+     * @param src
+     * @param dest
+     * @return the position of the edge in the out-edge arrays, or -1 if no
+     *         such edge exists
+     */
+    private int positionOf(int src, int dest) {
+        if (!isValidID(src))
+            return -1;
+        int low = outOffset[src];
+        int high = outOffset[src + 1] - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int v = outTarget[mid];
+            if (v < dest)
+                low = mid + 1;
+            else if (v > dest)
+                high = mid - 1;
+            else
+                return mid;
+        }
+        return -1;
+    }
+
+    private int positionOf(Edge edge) {
+        int p = positionOf(edge.srcNodeID, edge.destNodeID);
+        if (p == -1)
+            throw new NoSuchElementException(edge.toString());
+        return p;
+    }
+
+    @SuppressWarnings("unchecked")
+    private EdgeLabel edgeLabelAt(int position) {
+        int labelID = outLabelID[position];
+        return labelID == -1 ? null : (EdgeLabel) edgeLabel[labelID];
+    }
+
+    public int getNumNodes() {
+        return nodeID.length;
+    }
+
+    public int getNumEdges() {
+        return outTarget.length;
+    }
+
+    public int getOutDegree(int nodeID) {
+        return isValidID(nodeID) ? outOffset[nodeID + 1] - outOffset[nodeID] : 0;
+    }
+
+    public int getInDegree(int nodeID) {
+        return isValidID(nodeID) ? inOffset[nodeID + 1] - inOffset[nodeID] : 0;
+    }
+
+    public boolean hasNode(NodeLabel node) {
+        return nodeIndex.containsKey(node);
+    }
+
+    public boolean hasNodeID(int nodeID) {
+        return isValidID(nodeID) && nodeExists.get(nodeID);
+    }
+
+    public boolean hasEdge(NodeLabel src, NodeLabel dest) {
+        return hasEdge(getNodeID(src), getNodeID(dest));
+    }
+
+    public boolean hasEdge(Edge edge) {
+        return hasEdge(edge.srcNodeID, edge.destNodeID);
+    }
+
+    public boolean hasEdge(int srcNodeID, int destNodeID) {
+        return positionOf(srcNodeID, destNodeID) != -1;
+    }
+
+    @SuppressWarnings("unchecked")
+    public NodeLabel getNodeLabel(int nodeID) {
+        return (NodeLabel) nodeLabel[nodeID];
+    }
+
+    public int getNodeID(NodeLabel node) {
+        return nodeIndex.get(node, -1);
+    }
+
+    public EdgeLabel getEdgeLabel(Edge edge) {
+        return edgeLabelAt(positionOf(edge));
+    }
+
+    public EdgeLabel getEdgeLabel(int edgeID) {
+        int p = edgePosition.get(edgeID, -1);
+        return p == -1 ? null : edgeLabelAt(p);
+    }
+
+    public int getEdgeID(Edge edge) {
+        return outEdgeID[positionOf(edge)];
+    }
+
+    public Collection<Integer> getNodeIDSet() {
+        return new IntSlice(nodeID, 0, nodeID.length);
+    }
+
+    public Collection<Integer> getEdgeIDSet() {
+        return new IntSlice(edgeID, 0, edgeID.length);
+    }
+
+    public Collection<NodeLabel> getNodeLabelSet() {
+        return new AbstractList<NodeLabel>() {
+            @Override
+            public NodeLabel get(int index) {
+                return getNodeLabel(nodeID[index]);
+            }
+
+            @Override
+            public int size() {
+                return nodeID.length;
+            }
+        };
+    }
+
+    public Collection<Integer> getDestNodeIDSetOf(int nodeID) {
+        if (!isValidID(nodeID))
+            return new IntSlice(outTarget, 0, 0);
+        return new IntSlice(outTarget, outOffset[nodeID], outOffset[nodeID + 1]);
+    }
+
+    public Collection<Integer> getSourceNodeIDSetOf(int nodeID) {
+        if (!isValidID(nodeID))
+            return new IntSlice(inSource, 0, 0);
+        return new IntSlice(inSource, inOffset[nodeID], inOffset[nodeID + 1]);
+    }
+
+    public Collection<Edge> getOutEdgeSet(NodeLabel node) {
+        ArrayList<Edge> edgeList = new ArrayList<Edge>();
+        int src = getNodeID(node);
+        for (EdgeCursor cursor = outEdges(src, newCursor()); cursor.next();)
+            edgeList.add(new Edge(src, cursor.nodeID()));
+        return edgeList;
+    }
+
+    public Collection<Edge> getInEdgeSet(NodeLabel node) {
+        ArrayList<Edge> edgeList = new ArrayList<Edge>();
+        int dest = getNodeID(node);
+        for (EdgeCursor cursor = inEdges(dest, newCursor()); cursor.next();)
+            edgeList.add(new Edge(cursor.nodeID(), dest));
+        return edgeList;
+    }
+
+    public Collection<Edge> getEdgeSet() {
+        ArrayList<Edge> edgeList = new ArrayList<Edge>(outTarget.length);
+        for (int src = 0; src < numIDs(); src++) {
+            for (int p = outOffset[src]; p < outOffset[src + 1]; p++)
+                edgeList.add(new Edge(src, outTarget[p]));
+        }
+        return edgeList;
+    }
+
+    public int addNode(NodeLabel node) {
+        throw new UnsupportedOperationException("CSRGraph is immutable");
+    }
+
+    public Edge addEdge(NodeLabel sourceNode, NodeLabel destNode) {
+        throw new UnsupportedOperationException("CSRGraph is immutable");
+    }
+
+    public Edge addEdge(NodeLabel sourceNode, NodeLabel destNode, EdgeLabel edgeLabel) {
+        throw new UnsupportedOperationException("CSRGraph is immutable");
+    }
+
+    public Edge addEdge(Edge edge, EdgeLabel edgeLabel) {
+        throw new UnsupportedOperationException("CSRGraph is immutable");
+    }
+
+    public void setNodeLabel(int nodeID, NodeLabel node) {
+        throw new UnsupportedOperationException("CSRGraph is immutable");
+    }
+
+    public void setEdgeLabel(Edge edge, EdgeLabel edgeLabel) {
+        throw new UnsupportedOperationException("CSRGraph is immutable");
+    }
+
+    public void clear() {
+        throw new UnsupportedOperationException("CSRGraph is immutable");
+    }
+
+    /**
+     * Creates a cursor to be used with {@link #outEdges(int, EdgeCursor)} and
+     * {@link #inEdges(int, EdgeCursor)}
+     * 
+     * @return
+     */
+    public EdgeCursor newCursor() {
+        return new EdgeCursor();
+    }
+
+    /**
+     * Moves the cursor to the out-edges of the node
+     * 
+     * @param nodeID
+     * @param cursor
+     *            cursor created by {@link #newCursor()} of this graph
+     * @return the given cursor
+     */
+    public EdgeCursor outEdges(int nodeID, EdgeCursor cursor) {
+        if (isValidID(nodeID))
+            cursor.reset(outTarget, null, outOffset[nodeID], outOffset[nodeID + 1]);
+        else
+            cursor.reset(outTarget, null, 0, 0);
+        return cursor;
+    }
+
+    /**
+     * Moves the cursor to the in-edges of the node
+     * 
+     * @param nodeID
+     * @param cursor
+     *            cursor created by {@link #newCursor()} of this graph
+     * @return the given cursor
+     */
+    public EdgeCursor inEdges(int nodeID, EdgeCursor cursor) {
+        if (isValidID(nodeID))
+            cursor.reset(inSource, inPosition, inOffset[nodeID], inOffset[nodeID + 1]);
+        else
+            cursor.reset(inSource, inPosition, 0, 0);
+        return cursor;
+    }
+
+    /**
+     * Reusable cursor over the out-edges or in-edges of a node. For out-edges,
+     * {@link #nodeID()} is the destination node, and for in-edges, it is the
+     * source node.
+     * 
+     * <pre>
+     * CSRGraph.EdgeCursor cursor = graph.newCursor();
+     * for (graph.outEdges(nodeID, cursor); cursor.next();) {
+     *     int dest = cursor.nodeID();
+     * }
+     * </pre>
+     * 
+     * @author leo
+     * 
+     */
+    public class EdgeCursor {
+        private int[] node;
+        private int[] position;
+        private int   index;
+        private int   end;
+
+        private EdgeCursor() {
+            reset(outTarget, null, 0, 0);
+        }
+
+        private void reset(int[] node, int[] position, int begin, int end) {
+            this.node = node;
+            this.position = position;
+            this.index = begin - 1;
+            this.end = end;
+        }
+
+        /**
+         * Moves to the next edge
+         * 
+         * @return false if no more edge exists
+         */
+        public boolean next() {
+            return ++index < end;
+        }
+
+        public int nodeID() {
+            return node[index];
+        }
+
+        public int edgeID() {
+            return outEdgeID[outPosition()];
+        }
+
+        /**
+         * @return the ID of the edge label, or -1 if the edge has no label
+         */
+        public int edgeLabelID() {
+            return outLabelID[outPosition()];
+        }
+
+        public EdgeLabel edgeLabel() {
+            return edgeLabelAt(outPosition());
+        }
+
+        private int outPosition() {
+            return position == null ? index : position[index];
+        }
+    }
+
+    /**
+     * @return the number of distinct edge labels
+     */
+    public int getNumEdgeLabels() {
+        return edgeLabel.length;
+    }
+
+    /**
+     * @param labelID
+     *            label ID obtained by {@link EdgeCursor#edgeLabelID()}
+     * @return
+     */
+    @SuppressWarnings("unchecked")
+    public EdgeLabel getEdgeLabelOfLabelID(int labelID) {
+        return (EdgeLabel) edgeLabel[labelID];
+    }
+
+    /**
+     * Computes the BFS depth of each node reachable from the start node
+     * 
+     * @param startNodeID
+     * @return the depth of each node indexed by node ID, or -1 for the nodes
+     *         unreachable from the start node
+     */
+    public int[] breadthFirstSearch(int startNodeID) {
+        int[] depth = new int[numIDs()];
+        Arrays.fill(depth, -1);
+        if (!hasNodeID(startNodeID))
+            return depth;
+
+        int[] queue = new int[numIDs()];
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = startNodeID;
+        depth[startNodeID] = 0;
+        while (head < tail) {
+            int u = queue[head++];
+            int d = depth[u] + 1;
+            for (int p = outOffset[u]; p < outOffset[u + 1]; p++) {
+                int v = outTarget[p];
+                if (depth[v] == -1) {
+                    depth[v] = d;
+                    queue[tail++] = v;
+                }
+            }
+        }
+        return depth;
+    }
+
+    /**
+     * Computes the BFS depth of each node reachable from the start node with
+     * the given number of threads. Each level of the search is split among the
+     * threads, and the nodes in the next level are claimed with
+     * compare-and-set, so that each node is visited only once.
+     * 
+     * @param startNodeID
+     * @param numThreads
+     * @return the depth of each node indexed by node ID, or -1 for the nodes
+     *         unreachable from the start node
+     */
+    public int[] breadthFirstSearch(int startNodeID, int numThreads) {
+        if (numThreads <= 1 || !hasNodeID(startNodeID))
+            return breadthFirstSearch(startNodeID);
+
+        final AtomicIntegerArray depth = new AtomicIntegerArray(numIDs());
+        for (int i = 0; i < numIDs(); i++)
+            depth.set(i, -1);
+        depth.set(startNodeID, 0);
+
+        ExecutorService threadPool = Executors.newFixedThreadPool(numThreads);
+        try {
+            int[] frontier = new int[] { startNodeID };
+            for (int level = 1; frontier.length > 0; level++) {
+                if (frontier.length < PARALLEL_FRONTIER_SIZE) {
+                    IntArrayList next = new IntArrayList();
+                    expand(frontier, 0, frontier.length, level, depth, next);
+                    frontier = next.toArray();
+                    continue;
+                }
+
+                List<Callable<IntArrayList>> taskList = new ArrayList<Callable<IntArrayList>>(numThreads);
+                int chunkSize = (frontier.length + numThreads - 1) / numThreads;
+                for (int begin = 0; begin < frontier.length; begin += chunkSize)
+                    taskList.add(new ExpandTask(frontier, begin, Math.min(begin + chunkSize, frontier.length),
+                            level, depth));
+
+                IntArrayList next = new IntArrayList();
+                for (Future<IntArrayList> each : threadPool.invokeAll(taskList))
+                    next.addAll(each.get().toArray());
+                frontier = next.toArray();
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new XerialError(XerialErrorCode.INTERRUPTED, e);
+        }
+        catch (ExecutionException e) {
+            throw new XerialError(XerialErrorCode.INVALID_STATE, e.getCause());
+        }
+        finally {
+            threadPool.shutdown();
+        }
+
+        int[] result = new int[numIDs()];
+        for (int i = 0; i < result.length; i++)
+            result[i] = depth.get(i);
+        return result;
+    }
+
+    private void expand(int[] frontier, int begin, int end, int level, AtomicIntegerArray depth, IntArrayList next) {
+        for (int i = begin; i < end; i++) {
+            int u = frontier[i];
+            for (int p = outOffset[u]; p < outOffset[u + 1]; p++) {
+                int v = outTarget[p];
+                if (depth.get(v) == -1 && depth.compareAndSet(v, -1, level))
+                    next.add(v);
+            }
+        }
+    }
+
+    private class ExpandTask implements Callable<IntArrayList> {
+        private final int[]              frontier;
+        private final int                begin;
+        private final int                end;
+        private final int                level;
+        private final AtomicIntegerArray depth;
+
+        private ExpandTask(int[] frontier, int begin, int end, int level, AtomicIntegerArray depth) {
+            this.frontier = frontier;
+            this.begin = begin;
+            this.end = end;
+            this.level = level;
+            this.depth = depth;
+        }
+
+        public IntArrayList call() {
+            IntArrayList next = new IntArrayList();
+            expand(frontier, begin, end, level, depth, next);
+            return next;
+        }
+    }
+
+    public String toGraphViz() {
+        StringWriter writer = new StringWriter();
+        GraphvizHelper graphviz = new GraphvizHelper(writer);
+        graphviz.beginDigraph("G");
+        for (int each : nodeID)
+            graphviz.node(each + 1, nodeLabel[each].toString());
+
+        for (int src = 0; src < numIDs(); src++) {
+            for (int p = outOffset[src]; p < outOffset[src + 1]; p++) {
+                EdgeLabel label = edgeLabelAt(p);
+                if (label != null)
+                    graphviz.edge(src + 1, outTarget[p] + 1, label.toString());
+                else
+                    graphviz.edge(src + 1, outTarget[p] + 1);
+            }
+        }
+        graphviz.endDigraph();
+        return writer.toString();
+    }
+
+    /**
+     * Read-only list view of a range of an int array
+     * 
+     * @author leo
+     * 
+     */
+    private static class IntSlice extends AbstractList<Integer> implements RandomAccess {
+        private final int[] array;
+        private final int   begin;
+        private final int   end;
+
+        private IntSlice(int[] array, int begin, int end) {
+            this.array = array;
+            this.begin = begin;
+            this.end = end;
+        }
+
+        @Override
+        public Integer get(int index) {
+            if (index < 0 || index >= size())
+                throw new IndexOutOfBoundsException("index: " + index);
+            return array[begin + index];
+        }
+
+        @Override
+        public int size() {
+            return end - begin;
+        }
+    }
+
+}
@@ -0,0 +1,336 @@
+/*--------------------------------------------------------------------------
+ *  Copyright 2009 Taro L. Saito
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *--------------------------------------------------------------------------*/
+//--------------------------------------
+// XerialJ
+//
+// MappedLineReader.java
+// Since: 2026/10/17
+//
+// $URL$
+// $Author$
+//--------------------------------------
+package org.xerial.util.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+import org.xerial.util.UTF8String;
+
+/**
+ * Line reader of a UTF-8 file using memory-mapped I/O. New lines and tabs are
+ * found directly in the mapped bytes, and only the lines or fields requested
+ * by the consumer are decoded. ASCII bytes are decoded without using a
+ * CharsetDecoder.
+ *
+ * <p>
+ * The file is mapped through a sliding window, so files larger than 2GB can be
+ * read. A line longer than the window enlarges the window.
+ * </p>
+ *
+ * <pre>
+ * MappedLineReader reader = new MappedLineReader(file);
+ * try {
+ *     while (reader.next()) {
+ *         while (reader.nextField()) {
+ *             UTF8String field = reader.getFieldAsUTF8String();
+ *             ...
+ *         }
+ *     }
+ * }
+ * finally {
+ *     reader.close();
+ * }
+ * </pre>
+ *
+ * Line terminators are the same with {@link java.io.BufferedReader#readLine()}
+ * : '\n', '\r' or "\r\n".
+ *
+ * @author leo
+ *
+ */
+public class MappedLineReader
+{
+    public static final int        DEFAULT_WINDOW_SIZE = 64 * 1024 * 1024; // 64MB
+
+    private final RandomAccessFile file;
+    private final FileChannel      channel;
+    private final long             startOffset;
+    private final long             fileSize;
+
+    private MappedByteBuffer       window              = null;
+    private long                   windowStart         = 0;
+    private int                    windowLimit         = 0;
+    private int                    windowSize;
+
+    // [lineStart, lineEnd) in the current window
+    private int                    lineStart           = 0;
+    private int                    lineEnd             = 0;
+    private int                    cursor              = 0;
+    private long                   lineCount           = 0;
+
+    // [fieldStart, fieldEnd) in the current window
+    private int                    fieldStart          = 0;
+    private int                    fieldEnd            = 0;
+    private int                    nextFieldStart      = 0;
+
+    private char[]                 charBuffer          = new char[256];
+    private byte[]                 byteBuffer          = new byte[256];
+
+    public MappedLineReader(File file) throws IOException {
+        this(file, DEFAULT_WINDOW_SIZE);
+    }
+
+    public MappedLineReader(File file, int windowSize) throws IOException {
+        this(file, 0, Long.MAX_VALUE, windowSize);
+    }
+
+    /**
+     * Creates a reader of the byte range [start, end) of the file. The start
+     * offset must be the beginning of a line.
+     * 
+     * @param file
+     * @param start
+     *            file offset to start reading
+     * @param end
+     *            file offset to stop reading. If it is larger than the file
+     *            size, the lines are read until the end of the file.
+     * @param windowSize
+     * @throws IOException
+     */
+    public MappedLineReader(File file, long start, long end, int windowSize) throws IOException {
+        if (windowSize <= 0)
+            throw new IllegalArgumentException("window size must be positive: " + windowSize);
+
+        this.file = new RandomAccessFile(file, "r");
+        this.channel = this.file.getChannel();
+        this.fileSize = Math.min(end, channel.size());
+        this.startOffset = Math.min(start, fileSize);
+        this.windowSize = windowSize;
+    }
+
+    private void map(long start) throws IOException {
+        windowStart = start;
+        windowLimit = (int) Math.min(windowSize, fileSize - start);
+        window = channel.map(FileChannel.MapMode.READ_ONLY, start, windowLimit);
+        cursor = 0;
+    }
+
+    /**
+     * Moves to the next line
+     *
+     * @return false when no more line exists
+     * @throws IOException
+     */
+    public boolean next() throws IOException {
+        if (window == null)
+            map(startOffset);
+
+        for (;;) {
+            int i = cursor;
+            byte b = 0;
+            for (; i < windowLimit; i++) {
+                b = window.get(i);
+                if (b == '\n' || b == '\r')
+                    break;
+            }
+
+            boolean hasMoreInput = windowStart + windowLimit < fileSize;
+            if (i < windowLimit && !(b == '\r' && i + 1 >= windowLimit && hasMoreInput)) {
+                // found a line terminator
+                lineStart = cursor;
+                lineEnd = i;
+                cursor = i + 1;
+                if (b == '\r' && cursor < windowLimit && window.get(cursor) == '\n')
+                    cursor++;
+                break;
+            }
+
+            if (!hasMoreInput) {
+                if (cursor >= windowLimit)
+                    return false;
+                // the last line without a line terminator
+                lineStart = cursor;
+                lineEnd = windowLimit;
+                cursor = windowLimit;
+                break;
+            }
+
+            // slide the window to the beginning of the current line
+            if (cursor == 0) {
+                // the line is longer than the window
+                if (windowSize > Integer.MAX_VALUE / 2)
+                    throw new IOException(String.format("too long line at offset %d", windowStart));
+                windowSize *= 2;
+            }
+            map(windowStart + cursor);
+        }
+
+        lineCount++;
+        nextFieldStart = lineStart;
+        fieldStart = fieldEnd = lineStart;
+        return true;
+    }
+
+    /**
+     * @return the number of lines read so far
+     */
+    public long getLineCount() {
+        return lineCount;
+    }
+
+    /**
+     * @return the file offset of the current line
+     */
+    public long getLineOffset() {
+        return windowStart + lineStart;
+    }
+
+    /**
+     * @return the byte length of the current line
+     */
+    public int length() {
+        return lineEnd - lineStart;
+    }
+
+    /**
+     * @param index
+     *            byte offset in the current line
+     * @return the byte at the index
+     */
+    public byte byteAt(int index) {
+        return window.get(lineStart + index);
+    }
+
+    /**
+     * @param b
+     * @param fromIndex
+     * @return the first position of the byte in the current line, or -1 if not
+     *         found
+     */
+    public int indexOf(byte b, int fromIndex) {
+        for (int i = lineStart + fromIndex; i < lineEnd; i++) {
+            if (window.get(i) == b)
+                return i - lineStart;
+        }
+        return -1;
+    }
+
+    /**
+     * @return the current line
+     */
+    public String getLine() {
+        return decode(lineStart, lineEnd);
+    }
+
+    /**
+     * @param start
+     * @param end
+     * @return decoded string of the byte range [start, end) of the current
+     *         line
+     */
+    public String getString(int start, int end) {
+        return decode(lineStart + start, lineStart + end);
+    }
+
+    /**
+     * @return the current line as {@link UTF8String} (no decoding)
+     */
+    public UTF8String getLineAsUTF8String() {
+        return toUTF8String(lineStart, lineEnd);
+    }
+
+    /**
+     * Moves to the next tab-separated field of the current line
+     *
+     * @return false when no more field exists
+     */
+    public boolean nextField() {
+        if (nextFieldStart > lineEnd)
+            return false;
+
+        fieldStart = nextFieldStart;
+        int i = fieldStart;
+        while (i < lineEnd && window.get(i) != '\t')
+            i++;
+        fieldEnd = i;
+        nextFieldStart = i + 1;
+        return true;
+    }
+
+    /**
+     * @return the byte offset of the current field in the line
+     */
+    public int getFieldOffset() {
+        return fieldStart - lineStart;
+    }
+
+    /**
+     * @return the byte length of the current field
+     */
+    public int getFieldLength() {
+        return fieldEnd - fieldStart;
+    }
+
+    public String getField() {
+        return decode(fieldStart, fieldEnd);
+    }
+
+    public UTF8String getFieldAsUTF8String() {
+        return toUTF8String(fieldStart, fieldEnd);
+    }
+
+    private UTF8String toUTF8String(int start, int end) {
+        int len = end - start;
+        ensureByteBuffer(len);
+        window.position(start);
+        window.get(byteBuffer, 0, len);
+        return new UTF8String(byteBuffer, 0, len);
+    }
+
+    private void ensureByteBuffer(int len) {
+        if (byteBuffer.length < len)
+            byteBuffer = new byte[Math.max(len, byteBuffer.length * 2)];
+    }
+
+    private String decode(int start, int end) {
+        int len = end - start;
+        if (charBuffer.length < len)
+            charBuffer = new char[Math.max(len, charBuffer.length * 2)];
+
+        for (int i = 0; i < len; i++) {
+            byte b = window.get(start + i);
+            if (b < 0) {
+                // non-ASCII character
+                ensureByteBuffer(len);
+                window.position(start);
+                window.get(byteBuffer, 0, len);
+                return new String(byteBuffer, 0, len, UTF8String.UTF8);
+            }
+            charBuffer[i] = (char) b;
+        }
+        return new String(charBuffer, 0, len);
+    }
+
+    public void close() throws IOException {
+        window = null;
+        channel.close();
+        file.close();
+    }
+
+}
@@ -31,6 +31,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -59,21 +60,26 @@ public class ObjectLens {
 
     private static Logger _logger = Logger.getLogger(ObjectLens.class);
 
-    private static HashMap<Class< ? >, ObjectLens> cache = new HashMap<Class< ? >, ObjectLens>();
+    private static ConcurrentHashMap<Class< ? >, ObjectLens> cache = new ConcurrentHashMap<Class< ? >, ObjectLens>();
 
     /**
-     * Get the lens of the target type
+     * Get the lens of the target type. This method is thread-safe, and does
+     * not lock when the lens is already cached.
      * 
      * @param target
      * @return lens of the target type
      */
     public static ObjectLens getObjectLens(Class< ? > target) {
-        if (cache.containsKey(target))
-            return cache.get(target);
-        else {
-            cache.put(target, new ObjectLens(target));
-            return getObjectLens(target);
+        ObjectLens lens = cache.get(target);
+        if (lens == null) {
+            // concurrent callers may create the lens at the same time, but
+            // all of them use the first one put in the cache
+            lens = new ObjectLens(target);
+            ObjectLens prev = cache.putIfAbsent(target, lens);
+            if (prev != null)
+                lens = prev;
         }
+        return lens;
     }
 
     private final Class< ? > targetType;
@@ -97,7 +97,7 @@ public abstract class ParameterGetter {
 
         public FieldGetter(Field field, String paramName) {
             super(paramName);
-            this.field = field;
+            this.field = ReflectionUtil.makeAccessible(field);
         }
 
         @Override
@@ -122,7 +122,7 @@ public abstract class ParameterGetter {
 
         public PropertyFieldGetter(Field field, String paramName) {
             super(paramName);
-            this.field = field;
+            this.field = ReflectionUtil.makeAccessible(field);
         }
 
         @Override
@@ -153,7 +153,7 @@ public abstract class ParameterGetter {
         public GetterMethod(Method getter, String paramName) {
             super(paramName);
 
-            this.getter = getter;
+            this.getter = ReflectionUtil.makeAccessible(getter);
 
             if (getter.getParameterTypes().length != 0)
                 throw new XerialError(XerialErrorCode.INVALID_INPUT, "not a getter");
@@ -185,7 +185,7 @@ public abstract class ParameterGetter {
         public MapEntryGetter(Method getter) {
             super("");
 
-            this.getter = getter;
+            this.getter = ReflectionUtil.makeAccessible(getter);
 
             if (getter.getParameterTypes().length != 1)
                 throw new XerialError(XerialErrorCode.INVALID_INPUT, "not a map entry getter");
@@ -25,6 +25,7 @@
 package org.xerial.util.lens.impl;
 
 import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.Map;
 
@@ -62,6 +63,16 @@ public abstract class ParameterSetter {
         return parameterType;
     }
 
+    /**
+     * Gets the field that this setter assigns values to
+     * 
+     * @return the accessible target field, or null if this setter uses a
+     *         setter method or adds values to a collection
+     */
+    public Field getTargetField() {
+        return null;
+    }
+
     public boolean acceptKeyAndValue() {
         return TypeInfo.isMap(getParameterType());
     }
@@ -112,20 +123,67 @@ public abstract class ParameterSetter {
 
     private static class FieldSetter extends ParameterSetter {
         private final Field targetField;
+        /**
+         * add(Object) method and the element type of the collection field,
+         * resolved once here instead of at every bind. null for non-collection
+         * fields
+         */
+        private final Method adder;
+        private final Class< ? > elementType;
 
         public FieldSetter(Class< ? > parameterType, String parameterName, Field targetField) {
             super(parameterType, parameterName);
-            this.targetField = targetField;
 
             // make the final fields accessible
-            if (!targetField.isAccessible())
-                targetField.setAccessible(true);
+            this.targetField = ReflectionUtil.makeAccessible(targetField);
+
+            Method adder = null;
+            Class< ? > elementType = null;
+            if (TypeInfo.isCollection(targetField.getType())) {
+                try {
+                    adder = ReflectionUtil.makeAccessible(targetField.getType().getMethod("add",
+                            Object.class));
+                    elementType = ReflectionUtil.getRawClass(ReflectionUtil
+                            .getGenericCollectionElementType(targetField));
+                }
+                catch (Exception e) {
+                    // ReflectionUtil.setFieldValue reports the error at bind
+                    adder = null;
+                }
+            }
+            this.adder = adder;
+            this.elementType = elementType;
+        }
 
+        @Override
+        public Field getTargetField() {
+            return TypeInfo.isCollection(targetField.getType()) ? null : targetField;
         }
 
         @Override
         public void bind(Object object, Object value) throws XerialException {
-            ReflectionUtil.setFieldValue(object, targetField, value);
+            if (adder == null) {
+                ReflectionUtil.setFieldValue(object, targetField, value);
+                return;
+            }
+
+            try {
+                Object collection = targetField.get(object);
+                if (collection == null) {
+                    collection = TypeInfo.createInstance(targetField.getType());
+                    targetField.set(object, collection);
+                }
+                adder.invoke(collection, TypeConverter.convertType(elementType, value));
+            }
+            catch (IllegalArgumentException e) {
+                throw new XerialException(XerialErrorCode.WRONG_DATA_TYPE, e);
+            }
+            catch (IllegalAccessException e) {
+                throw new IllegalAccessError(e.getMessage());
+            }
+            catch (InvocationTargetException e) {
+                throw new XerialError(XerialErrorCode.INACCESSIBLE_METHOD, e);
+            }
         }
 
         @Override
@@ -144,7 +202,7 @@ public abstract class ParameterSetter {
 
         public MethodSetter(Class< ? > parameterType, String parameterName, Method setterMethod) {
             super(parameterType, parameterName);
-            this.setterMethod = setterMethod;
+            this.setterMethod = ReflectionUtil.makeAccessible(setterMethod);
         }
 
         @Override
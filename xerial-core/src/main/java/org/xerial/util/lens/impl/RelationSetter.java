@@ -111,7 +111,7 @@ public abstract class RelationSetter {
         public MethodRelationSetter(Class< ? > coreNodeType, String coreNodeName,
                 Class< ? > attributeNodeType, String attributeNodeName, Method setter) {
             super(coreNodeType, coreNodeName, attributeNodeType, attributeNodeName);
-            this.setter = setter;
+            this.setter = ReflectionUtil.makeAccessible(setter);
         }
 
         @Override
@@ -159,7 +159,8 @@ public abstract class RelationSetter {
                         "field: %s is not a Map type", mapField));
 
             try {
-                this.putter = mapType.getMethod("put", Object.class, Object.class);
+                this.putter = ReflectionUtil.makeAccessible(mapType.getMethod("put", Object.class,
+                        Object.class));
             }
             catch (Exception e) {
                 throw new XerialError(XerialErrorCode.INVALID_STATE, String.format(
@@ -0,0 +1,319 @@
+/*--------------------------------------------------------------------------
+ *  Copyright 2011 Taro L. Saito
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *--------------------------------------------------------------------------*/
+//--------------------------------------
+// XerialJ
+//
+// AsyncLogWriter.java
+// Since: 2026/10/17
+//
+// $URL$
+// $Author$
+//--------------------------------------
+package org.xerial.util.log;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * {@link LogWriter} that hands the log records to a background thread, which
+ * writes them with another {@link LogWriter}. The records are passed through a
+ * bounded lock-free ring buffer, and the messages logged with format strings
+ * are formatted in the background thread.
+ * 
+ * <pre>
+ * Logger.getRootLogger().setLogWriter(new AsyncLogWriter(new SimpleLogWriter()));
+ * </pre>
+ * 
+ * Since the formatting is deferred, the arguments of the log messages should
+ * not be modified after logging.
+ * 
+ * @author leo
+ * 
+ */
+public class AsyncLogWriter implements LogWriter {
+
+    /**
+     * What to do when the ring buffer is full
+     */
+    public static enum Overflow {
+        /**
+         * discard the log record
+         */
+        DROP,
+        /**
+         * wait until the background thread makes a room
+         */
+        BLOCK
+    }
+
+    public static final int      DEFAULT_CAPACITY = 8192;
+
+    private final LogWriter      out;
+    private final Overflow       overflow;
+
+    private final int            mask;
+    /**
+     * sequence number of each slot. A slot at index i is writable when its
+     * sequence equals the position to write, and readable when its sequence
+     * equals the position + 1.
+     */
+    private final AtomicLongArray sequence;
+    private final Logger[]       logger;
+    private final LogLevel[]     logLevel;
+    private final Object[]       message;
+
+    private final AtomicLong     tail             = new AtomicLong();
+    private volatile long        head             = 0;
+    private final AtomicLong     numDropped       = new AtomicLong();
+
+    private final Thread         writerThread;
+    private final Thread         shutdownHook;
+    private volatile boolean     waiting          = false;
+    private volatile boolean     closed           = false;
+
+    public AsyncLogWriter(LogWriter out) {
+        this(out, DEFAULT_CAPACITY, Overflow.BLOCK);
+    }
+
+    /**
+     * @param out
+     *            log writer used in the background thread
+     * @param capacity
+     *            the number of log records that can be queued. Rounded up to
+     *            a power of two
+     * @param overflow
+     *            what to do when the queue is full
+     */
+    public AsyncLogWriter(LogWriter out, int capacity, Overflow overflow) {
+        if (out == null || overflow == null)
+            throw new NullPointerException();
+
+        int size = 2;
+        while (size < capacity)
+            size <<= 1;
+        this.out = out;
+        this.overflow = overflow;
+        this.mask = size - 1;
+        this.sequence = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++)
+            sequence.set(i, i);
+        this.logger = new Logger[size];
+        this.logLevel = new LogLevel[size];
+        this.message = new Object[size];
+
+        writerThread = new Thread(new Runnable() {
+            public void run() {
+                consume();
+            }
+        }, "xerial-log-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+
+        // write the queued records before the JVM exits
+        shutdownHook = new Thread(new Runnable() {
+            public void run() {
+                close();
+            }
+        });
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+    }
+
+    /**
+     * Message that is formatted when it is written
+     * 
+     * @author leo
+     * 
+     */
+    static class FormattedMessage {
+        private final String   template;
+        private final Object[] args;
+        private String         formatted;
+
+        FormattedMessage(String template, Object[] args) {
+            this.template = template;
+            this.args = args;
+        }
+
+        @Override
+        public String toString() {
+            if (formatted == null)
+                formatted = String.format(template, args);
+            return formatted;
+        }
+    }
+
+    public void log(Logger logger, LogLevel logLevel, Object message) throws IOException {
+        if (closed || Thread.currentThread() == writerThread) {
+            // write directly after closing, or when the output logs something
+            writeDirectly(logger, logLevel, message);
+            return;
+        }
+
+        long pos = tail.get();
+        for (int spin = 0;;) {
+            long dif = sequence.get((int) pos & mask) - pos;
+            if (dif == 0) {
+                if (tail.compareAndSet(pos, pos + 1))
+                    break;
+                pos = tail.get();
+            }
+            else if (dif < 0) {
+                // full
+                if (overflow == Overflow.DROP) {
+                    numDropped.incrementAndGet();
+                    return;
+                }
+                if (closed) {
+                    writeDirectly(logger, logLevel, message);
+                    return;
+                }
+                if (++spin < 100)
+                    Thread.yield();
+                else
+                    LockSupport.parkNanos(100000);
+                pos = tail.get();
+            }
+            else
+                pos = tail.get();
+        }
+
+        int index = (int) pos & mask;
+        this.logger[index] = logger;
+        this.logLevel[index] = logLevel;
+        this.message[index] = message;
+        // publish the record
+        sequence.set(index, pos + 1);
+
+        if (closed) {
+            // close() may have finished before this record was published
+            drain();
+        }
+        else if (waiting)
+            LockSupport.unpark(writerThread);
+    }
+
+    private synchronized void writeDirectly(Logger logger, LogLevel logLevel, Object message) throws IOException {
+        out.log(logger, logLevel, message);
+    }
+
+    /**
+     * Writes the queued records
+     * 
+     * @return false if no record is queued
+     */
+    private boolean drain() {
+        boolean written = false;
+        synchronized (this) {
+            for (long pos = head;; pos++) {
+                int index = (int) pos & mask;
+                if (sequence.get(index) != pos + 1) {
+                    head = pos;
+                    break;
+                }
+                try {
+                    out.log(logger[index], logLevel[index], message[index]);
+                }
+                catch (IOException e) {
+                    System.err.println("failed to write a log record: " + e);
+                }
+                catch (RuntimeException e) {
+                    // e.g., an illegal format string
+                    System.err.println("failed to write a log record: " + e);
+                }
+                logger[index] = null;
+                logLevel[index] = null;
+                message[index] = null;
+                // make the slot writable for the next round
+                sequence.set(index, pos + mask + 1);
+                head = pos + 1;
+                written = true;
+            }
+        }
+        return written;
+    }
+
+    private void consume() {
+        while (!closed) {
+            if (drain())
+                continue;
+            waiting = true;
+            // check again, since a record may have been published before setting the flag
+            if (!drain())
+                LockSupport.parkNanos(10000000);
+            waiting = false;
+        }
+    }
+
+    /**
+     * Waits until the background thread writes all of the records logged
+     * before this call
+     */
+    public void flush() {
+        long target = tail.get();
+        while (head < target && !closed) {
+            LockSupport.unpark(writerThread);
+            LockSupport.parkNanos(100000);
+        }
+        if (closed)
+            drain();
+    }
+
+    /**
+     * Writes the queued records and stops the background thread. The records
+     * logged after closing are written directly.
+     */
+    public void close() {
+        if (closed)
+            return;
+        closed = true;
+        LockSupport.unpark(writerThread);
+        try {
+            writerThread.join();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // a producer may have claimed a slot but not yet published it. Wait
+        // until every claimed slot is written
+        while (head < tail.get()) {
+            if (!drain())
+                Thread.yield();
+        }
+
+        if (Thread.currentThread() != shutdownHook) {
+            try {
+                Runtime.getRuntime().removeShutdownHook(shutdownHook);
+            }
+            catch (IllegalStateException e) {
+                // the JVM is shutting down
+            }
+        }
+    }
+
+    /**
+     * @return the number of log records discarded because of the overflow
+     */
+    public long getNumDropped() {
+        return numDropped.get();
+    }
+
+    public LogWriter getLogWriter() {
+        return out;
+    }
+
+}
@@ -30,7 +30,7 @@ import java.io.FileReader;
 import java.io.IOException;
 import java.io.Reader;
 import java.util.Properties;
-import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.xerial.util.Optional;
 
@@ -49,7 +49,7 @@ public class Logger {
     private Logger _parentLogger = null;
     private Optional<Boolean> _useColor = new Optional<Boolean>();
 
-    private static TreeMap<String, Logger> _loggerHolder = new TreeMap<String, Logger>();
+    private static ConcurrentHashMap<String, Logger> _loggerHolder = new ConcurrentHashMap<String, Logger>();
     private static Logger _rootLogger = new Logger();
 
     static {
@@ -74,6 +74,15 @@ public class Logger {
         if (useColor != null)
             _rootLogger._useColor.set(Boolean.parseBoolean(useColor));
 
+        // log.async=block or drop
+        String async = System.getProperty("log.async");
+        if (async != null) {
+            AsyncLogWriter.Overflow overflow = "drop".equalsIgnoreCase(async) ? AsyncLogWriter.Overflow.DROP
+                    : AsyncLogWriter.Overflow.BLOCK;
+            _rootLogger.setLogWriter(new AsyncLogWriter(_rootLogger.writer, AsyncLogWriter.DEFAULT_CAPACITY,
+                    overflow));
+        }
+
         String loggerConfigFile = System.getProperty("log.config");
         if (loggerConfigFile != null) {
             try {
@@ -130,17 +139,18 @@ public class Logger {
         return getLogger(p.getName());
     }
 
-    public static synchronized Logger getLogger(String fullTypeName) {
+    public static Logger getLogger(String fullTypeName) {
         if (fullTypeName == null)
             return _rootLogger;
 
-        if (_loggerHolder.containsKey(fullTypeName))
-            return _loggerHolder.get(fullTypeName);
-        else {
+        Logger logger = _loggerHolder.get(fullTypeName);
+        if (logger == null) {
             Logger newLogger = new Logger(fullTypeName);
-            _loggerHolder.put(fullTypeName, newLogger);
-            return newLogger;
+            logger = _loggerHolder.putIfAbsent(fullTypeName, newLogger);
+            if (logger == null)
+                logger = newLogger;
         }
+        return logger;
     }
 
     public static Logger getRootLogger() {
@@ -357,7 +367,18 @@ public class Logger {
     }
 
     protected void log(LogLevel logLevel, String template, Object... args) {
-        log(logLevel, String.format(template, args));
+        if (!isEnabled(logLevel))
+            return;
+
+        LogWriter logOut = getLogWriter();
+        if (logOut == null)
+            return; // no output is specified
+
+        // the background thread of AsyncLogWriter formats the message
+        if (logOut instanceof AsyncLogWriter)
+            write(logOut, logLevel, new AsyncLogWriter.FormattedMessage(template, args));
+        else
+            write(logOut, logLevel, String.format(template, args));
     }
 
     protected void log(LogLevel logLevel, Object message) {
@@ -368,6 +389,10 @@ public class Logger {
         if (logOut == null)
             return; // no output is specified
 
+        write(logOut, logLevel, message);
+    }
+
+    private void write(LogWriter logOut, LogLevel logLevel, Object message) {
         try {
             logOut.log(this, logLevel, message);
         }
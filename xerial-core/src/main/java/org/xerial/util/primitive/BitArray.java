@@ -0,0 +1,288 @@
+/*--------------------------------------------------------------------------
+ *  Copyright 2011 Taro L. Saito
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *--------------------------------------------------------------------------*/
+//--------------------------------------
+// XerialJ
+//
+// BitArray.java
+// Since: 2026/10/17
+//
+// $URL$
+// $Author$
+//--------------------------------------
+package org.xerial.util.primitive;
+
+/**
+ * Growable array of bits packed into 64-bit words. In addition to get and
+ * set, this array supports popcount, rank (number of ones before a position)
+ * and select (position of the k-th one) queries. The rank and select queries
+ * use a directory of cumulative counts for every eight words (512 bits),
+ * which is rebuilt at the first query after a modification.
+ * 
+ * @author leo
+ * 
+ */
+public class BitArray
+{
+    private static final int[] EMPTY_DIRECTORY = { 0 };
+    private static final int   BLOCK_WORDS     = 8;
+
+    private long[]             words;
+    /**
+     * number of bits
+     */
+    private int                size            = 0;
+    /**
+     * rankDirectory[b] is the number of ones in the words before the b-th
+     * block, and the last element is the total count. null when the bits have
+     * been modified
+     */
+    private int[]              rankDirectory;
+
+    public BitArray() {
+        this(64);
+    }
+
+    /**
+     * @param size
+     *            number of bits, which are initialized with zeros
+     */
+    public BitArray(int size) {
+        if (size < 0)
+            throw new IllegalArgumentException("negative size: " + size);
+        this.words = new long[numWords(size)];
+        this.size = size;
+    }
+
+    public BitArray(BitArray other) {
+        this.words = new long[other.words.length];
+        System.arraycopy(other.words, 0, words, 0, words.length);
+        this.size = other.size;
+        this.rankDirectory = other.rankDirectory;
+    }
+
+    private static int numWords(int numBits) {
+        return (numBits + 63) >>> 6;
+    }
+
+    /**
+     * @return the number of bits
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param index
+     * @return the bit at the index. false if the index is out of the size
+     */
+    public boolean get(int index) {
+        int w = index >>> 6;
+        return w < words.length && (words[w] & (1L << index)) != 0;
+    }
+
+    /**
+     * Sets the bit at the index to one. The size is extended when the index
+     * exceeds the size.
+     * 
+     * @param index
+     */
+    public void set(int index) {
+        if (index < 0)
+            throw new IndexOutOfBoundsException("negative index: " + index);
+        extend(index);
+        int w = index >>> 6;
+        long word = words[w];
+        long updated = word | (1L << index);
+        if (word != updated) {
+            words[w] = updated;
+            rankDirectory = null;
+        }
+    }
+
+    /**
+     * Sets the bit at the index to zero. The size is extended when the index
+     * exceeds the size.
+     * 
+     * @param index
+     */
+    public void clear(int index) {
+        if (index < 0)
+            throw new IndexOutOfBoundsException("negative index: " + index);
+        extend(index);
+        int w = index >>> 6;
+        long word = words[w];
+        long updated = word & ~(1L << index);
+        if (word != updated) {
+            words[w] = updated;
+            rankDirectory = null;
+        }
+    }
+
+    public void set(int index, boolean flag) {
+        if (flag)
+            set(index);
+        else
+            clear(index);
+    }
+
+    private void extend(int index) {
+        if (index < size)
+            return;
+        size = index + 1;
+        int w = index >>> 6;
+        if (w >= words.length) {
+            long[] newWords = new long[Math.max(w + 1, words.length * 2)];
+            System.arraycopy(words, 0, newWords, 0, words.length);
+            words = newWords;
+        }
+    }
+
+    /**
+     * Clears all bits and sets the size to zero
+     */
+    public void clear() {
+        for (int i = 0; i < words.length; ++i)
+            words[i] = 0L;
+        size = 0;
+        rankDirectory = null;
+    }
+
+    /**
+     * @param wordIndex
+     * @return the 64-bit word containing the bits [wordIndex * 64,
+     *         (wordIndex+1) * 64)
+     */
+    public long getWord(int wordIndex) {
+        return wordIndex < words.length ? words[wordIndex] : 0L;
+    }
+
+    /**
+     * @return the number of ones
+     */
+    public int count() {
+        int[] dir = rankDirectory();
+        return dir[dir.length - 1];
+    }
+
+    /**
+     * @param index
+     * @return the number of ones in the range [0, index)
+     */
+    public int rank(int index) {
+        if (index <= 0)
+            return 0;
+        if (index >= size)
+            return count();
+
+        int[] dir = rankDirectory();
+        int w = index >>> 6;
+        int r = dir[w / BLOCK_WORDS];
+        for (int i = w - w % BLOCK_WORDS; i < w; ++i)
+            r += Long.bitCount(words[i]);
+        int offset = index & 63;
+        if (offset != 0)
+            r += Long.bitCount(words[w] & ((1L << offset) - 1));
+        return r;
+    }
+
+    /**
+     * @param k
+     *            0-origin rank of the one to find
+     * @return the index of the k-th one, or -1 if the number of ones is less
+     *         than or equal to k
+     */
+    public int select(int k) {
+        int[] dir = rankDirectory();
+        if (k < 0 || k >= dir[dir.length - 1])
+            return -1;
+
+        // find the last block whose preceding count is <= k
+        int lo = 0, hi = dir.length - 2;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (dir[mid] <= k)
+                lo = mid;
+            else
+                hi = mid - 1;
+        }
+
+        int remaining = k - dir[lo];
+        for (int w = lo * BLOCK_WORDS;; ++w) {
+            long word = words[w];
+            int c = Long.bitCount(word);
+            if (remaining < c) {
+                for (int i = 0; i < remaining; ++i)
+                    word &= word - 1; // clear the lowest one
+                return (w << 6) + Long.numberOfTrailingZeros(word);
+            }
+            remaining -= c;
+        }
+    }
+
+    private int[] rankDirectory() {
+        int[] dir = rankDirectory;
+        if (dir != null)
+            return dir;
+
+        int usedWords = numWords(size);
+        if (usedWords == 0)
+            dir = EMPTY_DIRECTORY;
+        else {
+            int numBlocks = (usedWords + BLOCK_WORDS - 1) / BLOCK_WORDS;
+            dir = new int[numBlocks + 1];
+            int count = 0;
+            for (int w = 0; w < usedWords; ++w) {
+                if (w % BLOCK_WORDS == 0)
+                    dir[w / BLOCK_WORDS] = count;
+                count += Long.bitCount(words[w]);
+            }
+            dir[numBlocks] = count;
+        }
+        rankDirectory = dir;
+        return dir;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (!(obj instanceof BitArray))
+            return false;
+        BitArray other = (BitArray) obj;
+        if (size != other.size)
+            return false;
+        for (int w = numWords(size) - 1; w >= 0; --w) {
+            if (words[w] != other.words[w])
+                return false;
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = size;
+        for (int w = numWords(size) - 1; w >= 0; --w)
+            hash = 31 * hash + (int) (words[w] ^ (words[w] >>> 32));
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder s = new StringBuilder(size);
+        for (int i = 0; i < size; i++)
+            s.append(get(i) ? "1" : "0");
+        return s.toString();
+    }
+
+}
@@ -0,0 +1,185 @@
+/*--------------------------------------------------------------------------
+ *  Copyright 2011 Taro L. Saito
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *--------------------------------------------------------------------------*/
+//--------------------------------------
+// XerialJ
+//
+// IntArrayList.java
+// Since: 2026/10/17
+//
+// $URL$
+// $Author$
+//--------------------------------------
+package org.xerial.util.primitive;
+
+import java.util.Arrays;
+
+/**
+ * Growable array of int values, which stores the values without boxing them
+ * into {@link Integer}s
+ * 
+ * @author leo
+ * 
+ */
+public class IntArrayList
+{
+    private int[] array;
+    private int   size = 0;
+
+    public IntArrayList() {
+        this(10);
+    }
+
+    public IntArrayList(int initialCapacity) {
+        if (initialCapacity < 0)
+            throw new IllegalArgumentException("negative capacity: " + initialCapacity);
+        array = new int[initialCapacity];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void add(int value) {
+        if (size == array.length)
+            grow(size + 1);
+        array[size++] = value;
+    }
+
+    public void addAll(int[] values) {
+        ensureCapacity(size + values.length);
+        System.arraycopy(values, 0, array, size, values.length);
+        size += values.length;
+    }
+
+    public int get(int index) {
+        if (index >= size)
+            throw new IndexOutOfBoundsException(String.format("index:%d, size:%d", index, size));
+        return array[index];
+    }
+
+    /**
+     * @param index
+     * @param value
+     * @return the previous value at the index
+     */
+    public int set(int index, int value) {
+        if (index >= size)
+            throw new IndexOutOfBoundsException(String.format("index:%d, size:%d", index, size));
+        int prev = array[index];
+        array[index] = value;
+        return prev;
+    }
+
+    /**
+     * Removes the last value
+     * 
+     * @return the removed value
+     */
+    public int removeLast() {
+        if (size == 0)
+            throw new IndexOutOfBoundsException("empty list");
+        return array[--size];
+    }
+
+    /**
+     * @param value
+     * @return the first index of the value, or -1 if not found
+     */
+    public int indexOf(int value) {
+        for (int i = 0; i < size; ++i) {
+            if (array[i] == value)
+                return i;
+        }
+        return -1;
+    }
+
+    public boolean contains(int value) {
+        return indexOf(value) >= 0;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    public void sort() {
+        Arrays.sort(array, 0, size);
+    }
+
+    public void ensureCapacity(int minCapacity) {
+        if (minCapacity > array.length)
+            grow(minCapacity);
+    }
+
+    public void trimToSize() {
+        if (size < array.length)
+            array = copyOf(array, size);
+    }
+
+    private void grow(int minCapacity) {
+        int newCapacity = Math.max(array.length + (array.length >> 1) + 1, minCapacity);
+        array = copyOf(array, newCapacity);
+    }
+
+    public int[] toArray() {
+        return copyOf(array, size);
+    }
+
+    private static int[] copyOf(int[] src, int newLength) {
+        int[] dest = new int[newLength];
+        System.arraycopy(src, 0, dest, 0, Math.min(src.length, newLength));
+        return dest;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (!(obj instanceof IntArrayList))
+            return false;
+        IntArrayList other = (IntArrayList) obj;
+        if (size != other.size)
+            return false;
+        for (int i = 0; i < size; ++i) {
+            if (array[i] != other.array[i])
+                return false;
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 1;
+        for (int i = 0; i < size; ++i)
+            hash = 31 * hash + array[i];
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder s = new StringBuilder();
+        s.append("[");
+        for (int i = 0; i < size; ++i) {
+            if (i > 0)
+                s.append(", ");
+            s.append(array[i]);
+        }
+        s.append("]");
+        return s.toString();
+    }
+
+}
@@ -0,0 +1,277 @@
+/*--------------------------------------------------------------------------
+ *  Copyright 2011 Taro L. Saito
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *--------------------------------------------------------------------------*/
+//--------------------------------------
+// XerialJ
+//
+// IntIntMap.java
+// Since: 2026/10/17
+//
+// $URL$
+// $Author$
+//--------------------------------------
+package org.xerial.util.primitive;
+
+/**
+ * Hash map from int keys to int values. This map uses open addressing with
+ * linear probing over int arrays, so no entry object or boxed
+ * {@link Integer} is created.
+ * 
+ * <pre>
+ * IntIntMap count = new IntIntMap();
+ * for (int each : data)
+ *     count.increment(each, 1);
+ * 
+ * for (IntIntMap.Cursor c = count.cursor(); c.next();)
+ *     System.out.println(c.key() + &quot;:&quot; + c.value());
+ * </pre>
+ * 
+ * @author leo
+ * 
+ */
+public class IntIntMap
+{
+    /**
+     * key of the empty slots. The entry for this key is stored outside of the
+     * hash table
+     */
+    private static final int FREE_KEY = 0;
+
+    private int[]             keys;
+    private int[]             values;
+    private int               mask;
+    private int               threshold;
+    /**
+     * number of entries in the hash table
+     */
+    private int               tableSize = 0;
+
+    private boolean           hasFreeKey = false;
+    private int               freeKeyValue;
+
+    public IntIntMap() {
+        this(16);
+    }
+
+    /**
+     * @param expectedSize
+     *            number of entries to hold without resizing the hash table
+     */
+    public IntIntMap(int expectedSize) {
+        allocate(PrimitiveHash.tableSize(expectedSize));
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+        threshold = capacity / 2;
+    }
+
+    public int size() {
+        return tableSize + (hasFreeKey ? 1 : 0);
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    private int slotOf(int key) {
+        int slot = PrimitiveHash.hash(key) & mask;
+        for (int k; (k = keys[slot]) != FREE_KEY; slot = (slot + 1) & mask) {
+            if (k == key)
+                return slot;
+        }
+        return -(slot + 1);
+    }
+
+    public boolean containsKey(int key) {
+        if (key == FREE_KEY)
+            return hasFreeKey;
+        return slotOf(key) >= 0;
+    }
+
+    /**
+     * @param key
+     * @param defaultValue
+     * @return the value associated with the key, or the default value if the
+     *         key is not found
+     */
+    public int get(int key, int defaultValue) {
+        if (key == FREE_KEY)
+            return hasFreeKey ? freeKeyValue : defaultValue;
+        int slot = slotOf(key);
+        return slot >= 0 ? values[slot] : defaultValue;
+    }
+
+    public void put(int key, int value) {
+        if (key == FREE_KEY) {
+            hasFreeKey = true;
+            freeKeyValue = value;
+            return;
+        }
+        int slot = slotOf(key);
+        if (slot >= 0) {
+            values[slot] = value;
+            return;
+        }
+        insert(-slot - 1, key, value);
+    }
+
+    /**
+     * Adds the delta to the value of the key. A missing key is treated as
+     * having the value 0.
+     * 
+     * @param key
+     * @param delta
+     * @return the updated value
+     */
+    public int increment(int key, int delta) {
+        if (key == FREE_KEY) {
+            freeKeyValue = hasFreeKey ? freeKeyValue + delta : delta;
+            hasFreeKey = true;
+            return freeKeyValue;
+        }
+        int slot = slotOf(key);
+        if (slot >= 0)
+            return values[slot] += delta;
+        insert(-slot - 1, key, delta);
+        return delta;
+    }
+
+    private void insert(int slot, int key, int value) {
+        keys[slot] = key;
+        values[slot] = value;
+        if (++tableSize > threshold)
+            rehash(keys.length * 2);
+    }
+
+    private void rehash(int capacity) {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; ++i) {
+            int k = oldKeys[i];
+            if (k == FREE_KEY)
+                continue;
+            int slot = PrimitiveHash.hash(k) & mask;
+            while (keys[slot] != FREE_KEY)
+                slot = (slot + 1) & mask;
+            keys[slot] = k;
+            values[slot] = oldValues[i];
+        }
+    }
+
+    /**
+     * @param key
+     * @return true if the key was in this map
+     */
+    public boolean remove(int key) {
+        if (key == FREE_KEY) {
+            boolean removed = hasFreeKey;
+            hasFreeKey = false;
+            return removed;
+        }
+        int slot = slotOf(key);
+        if (slot < 0)
+            return false;
+        tableSize--;
+        // move back the following entries of the probe sequence
+        for (int last = slot, curr = (slot + 1) & mask;; curr = (curr + 1) & mask) {
+            int k = keys[curr];
+            if (k == FREE_KEY) {
+                keys[last] = FREE_KEY;
+                return true;
+            }
+            int ideal = PrimitiveHash.hash(k) & mask;
+            if (last <= curr ? (last >= ideal || ideal > curr) : (last >= ideal && ideal > curr)) {
+                keys[last] = k;
+                values[last] = values[curr];
+                last = curr;
+            }
+        }
+    }
+
+    public void clear() {
+        for (int i = 0; i < keys.length; ++i)
+            keys[i] = FREE_KEY;
+        tableSize = 0;
+        hasFreeKey = false;
+    }
+
+    /**
+     * @return the keys in this map
+     */
+    public int[] keys() {
+        int[] result = new int[size()];
+        int n = 0;
+        for (Cursor c = cursor(); c.next();)
+            result[n++] = c.key();
+        return result;
+    }
+
+    /**
+     * @return a cursor over the entries. Updating this map while iterating
+     *         the cursor produces an undefined result.
+     */
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    public class Cursor
+    {
+        private int slot = -2;
+
+        /**
+         * Moves to the next entry
+         * 
+         * @return false if no more entry exists
+         */
+        public boolean next() {
+            if (slot == -2) {
+                slot = -1;
+                if (hasFreeKey)
+                    return true;
+            }
+            while (++slot < keys.length) {
+                if (keys[slot] != FREE_KEY)
+                    return true;
+            }
+            return false;
+        }
+
+        public int key() {
+            return slot < 0 ? FREE_KEY : keys[slot];
+        }
+
+        public int value() {
+            return slot < 0 ? freeKeyValue : values[slot];
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder s = new StringBuilder();
+        s.append("{");
+        for (Cursor c = cursor(); c.next();) {
+            if (s.length() > 1)
+                s.append(", ");
+            s.append(c.key()).append(":").append(c.value());
+        }
+        s.append("}");
+        return s.toString();
+    }
+
+}
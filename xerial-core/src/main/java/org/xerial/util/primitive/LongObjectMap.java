@@ -0,0 +1,259 @@
+/*--------------------------------------------------------------------------
+ *  Copyright 2011 Taro L. Saito
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *--------------------------------------------------------------------------*/
+//--------------------------------------
+// XerialJ
+//
+// LongObjectMap.java
+// Since: 2026/10/17
+//
+// $URL$
+// $Author$
+//--------------------------------------
+package org.xerial.util.primitive;
+
+/**
+ * Hash map from long keys to objects. This map uses open addressing with
+ * linear probing, so no entry object or boxed {@link Long} is created.
+ * 
+ * @author leo
+ * 
+ * @param <V>
+ *            value type
+ */
+public class LongObjectMap<V>
+{
+    /**
+     * key of the empty slots. The entry for this key is stored outside of the
+     * hash table
+     */
+    private static final long FREE_KEY = 0L;
+
+    private long[]            keys;
+    private Object[]          values;
+    private int               mask;
+    private int               threshold;
+    private int               tableSize = 0;
+
+    private boolean           hasFreeKey = false;
+    private V                 freeKeyValue;
+
+    public LongObjectMap() {
+        this(16);
+    }
+
+    /**
+     * @param expectedSize
+     *            number of entries to hold without resizing the hash table
+     */
+    public LongObjectMap(int expectedSize) {
+        allocate(PrimitiveHash.tableSize(expectedSize));
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+        threshold = capacity / 2;
+    }
+
+    public int size() {
+        return tableSize + (hasFreeKey ? 1 : 0);
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    private int slotOf(long key) {
+        int slot = PrimitiveHash.hash(key) & mask;
+        for (long k; (k = keys[slot]) != FREE_KEY; slot = (slot + 1) & mask) {
+            if (k == key)
+                return slot;
+        }
+        return -(slot + 1);
+    }
+
+    public boolean containsKey(long key) {
+        if (key == FREE_KEY)
+            return hasFreeKey;
+        return slotOf(key) >= 0;
+    }
+
+    /**
+     * @param key
+     * @return the value associated with the key, or null if the key is not
+     *         found
+     */
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        if (key == FREE_KEY)
+            return freeKeyValue;
+        int slot = slotOf(key);
+        return slot >= 0 ? (V) values[slot] : null;
+    }
+
+    /**
+     * @param key
+     * @param value
+     * @return the previous value of the key, or null if the key was not found
+     */
+    @SuppressWarnings("unchecked")
+    public V put(long key, V value) {
+        if (key == FREE_KEY) {
+            V prev = freeKeyValue;
+            hasFreeKey = true;
+            freeKeyValue = value;
+            return prev;
+        }
+        int slot = slotOf(key);
+        if (slot >= 0) {
+            V prev = (V) values[slot];
+            values[slot] = value;
+            return prev;
+        }
+        slot = -slot - 1;
+        keys[slot] = key;
+        values[slot] = value;
+        if (++tableSize > threshold)
+            rehash(keys.length * 2);
+        return null;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; ++i) {
+            long k = oldKeys[i];
+            if (k == FREE_KEY)
+                continue;
+            int slot = PrimitiveHash.hash(k) & mask;
+            while (keys[slot] != FREE_KEY)
+                slot = (slot + 1) & mask;
+            keys[slot] = k;
+            values[slot] = oldValues[i];
+        }
+    }
+
+    /**
+     * @param key
+     * @return the removed value, or null if the key was not found
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(long key) {
+        if (key == FREE_KEY) {
+            V prev = freeKeyValue;
+            hasFreeKey = false;
+            freeKeyValue = null;
+            return prev;
+        }
+        int slot = slotOf(key);
+        if (slot < 0)
+            return null;
+        V prev = (V) values[slot];
+        tableSize--;
+        // move back the following entries of the probe sequence
+        for (int last = slot, curr = (slot + 1) & mask;; curr = (curr + 1) & mask) {
+            long k = keys[curr];
+            if (k == FREE_KEY) {
+                keys[last] = FREE_KEY;
+                values[last] = null;
+                return prev;
+            }
+            int ideal = PrimitiveHash.hash(k) & mask;
+            if (last <= curr ? (last >= ideal || ideal > curr) : (last >= ideal && ideal > curr)) {
+                keys[last] = k;
+                values[last] = values[curr];
+                last = curr;
+            }
+        }
+    }
+
+    public void clear() {
+        for (int i = 0; i < keys.length; ++i) {
+            keys[i] = FREE_KEY;
+            values[i] = null;
+        }
+        tableSize = 0;
+        hasFreeKey = false;
+        freeKeyValue = null;
+    }
+
+    /**
+     * @return the keys in this map
+     */
+    public long[] keys() {
+        long[] result = new long[size()];
+        int n = 0;
+        for (Cursor c = cursor(); c.next();)
+            result[n++] = c.key();
+        return result;
+    }
+
+    /**
+     * @return a cursor over the entries. Updating this map while iterating
+     *         the cursor produces an undefined result.
+     */
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    public class Cursor
+    {
+        private int slot = -2;
+
+        /**
+         * Moves to the next entry
+         * 
+         * @return false if no more entry exists
+         */
+        public boolean next() {
+            if (slot == -2) {
+                slot = -1;
+                if (hasFreeKey)
+                    return true;
+            }
+            while (++slot < keys.length) {
+                if (keys[slot] != FREE_KEY)
+                    return true;
+            }
+            return false;
+        }
+
+        public long key() {
+            return slot < 0 ? FREE_KEY : keys[slot];
+        }
+
+        @SuppressWarnings("unchecked")
+        public V value() {
+            return slot < 0 ? freeKeyValue : (V) values[slot];
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder s = new StringBuilder();
+        s.append("{");
+        for (Cursor c = cursor(); c.next();) {
+            if (s.length() > 1)
+                s.append(", ");
+            s.append(c.key()).append(":").append(c.value());
+        }
+        s.append("}");
+        return s.toString();
+    }
+
+}
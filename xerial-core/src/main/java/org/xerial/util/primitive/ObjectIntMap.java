@@ -0,0 +1,246 @@
+/*--------------------------------------------------------------------------
+ *  Copyright 2011 Taro L. Saito
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *--------------------------------------------------------------------------*/
+//--------------------------------------
+// XerialJ
+//
+// ObjectIntMap.java
+// Since: 2026/10/17
+//
+// $URL$
+// $Author$
+//--------------------------------------
+package org.xerial.util.primitive;
+
+/**
+ * Hash map from objects to int values, e.g., for assigning int IDs to
+ * objects. This map uses open addressing with linear probing, so no entry
+ * object or boxed {@link Integer} is created. The null key is allowed.
+ * 
+ * @author leo
+ * 
+ * @param <K>
+ *            key type
+ */
+public class ObjectIntMap<K>
+{
+    private Object[] keys;
+    private int[]    values;
+    private int      mask;
+    private int      threshold;
+    private int      tableSize = 0;
+
+    /**
+     * The entry for the null key is stored outside of the hash table, since
+     * null marks the empty slots
+     */
+    private boolean  hasNullKey = false;
+    private int      nullKeyValue;
+
+    public ObjectIntMap() {
+        this(16);
+    }
+
+    /**
+     * @param expectedSize
+     *            number of entries to hold without resizing the hash table
+     */
+    public ObjectIntMap(int expectedSize) {
+        allocate(PrimitiveHash.tableSize(expectedSize));
+    }
+
+    private void allocate(int capacity) {
+        keys = new Object[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+        threshold = capacity / 2;
+    }
+
+    public int size() {
+        return tableSize + (hasNullKey ? 1 : 0);
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    private static int hash(Object key) {
+        return PrimitiveHash.hash(key.hashCode());
+    }
+
+    private int slotOf(Object key) {
+        int slot = hash(key) & mask;
+        for (Object k; (k = keys[slot]) != null; slot = (slot + 1) & mask) {
+            if (k == key || k.equals(key))
+                return slot;
+        }
+        return -(slot + 1);
+    }
+
+    public boolean containsKey(Object key) {
+        if (key == null)
+            return hasNullKey;
+        return slotOf(key) >= 0;
+    }
+
+    /**
+     * @param key
+     * @param defaultValue
+     * @return the value associated with the key, or the default value if the
+     *         key is not found
+     */
+    public int get(Object key, int defaultValue) {
+        if (key == null)
+            return hasNullKey ? nullKeyValue : defaultValue;
+        int slot = slotOf(key);
+        return slot >= 0 ? values[slot] : defaultValue;
+    }
+
+    public void put(K key, int value) {
+        if (key == null) {
+            hasNullKey = true;
+            nullKeyValue = value;
+            return;
+        }
+        int slot = slotOf(key);
+        if (slot >= 0) {
+            values[slot] = value;
+            return;
+        }
+        slot = -slot - 1;
+        keys[slot] = key;
+        values[slot] = value;
+        if (++tableSize > threshold)
+            rehash(keys.length * 2);
+    }
+
+    private void rehash(int capacity) {
+        Object[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; ++i) {
+            Object k = oldKeys[i];
+            if (k == null)
+                continue;
+            int slot = hash(k) & mask;
+            while (keys[slot] != null)
+                slot = (slot + 1) & mask;
+            keys[slot] = k;
+            values[slot] = oldValues[i];
+        }
+    }
+
+    /**
+     * @param key
+     * @return true if the key was in this map
+     */
+    public boolean remove(Object key) {
+        if (key == null) {
+            boolean removed = hasNullKey;
+            hasNullKey = false;
+            return removed;
+        }
+        int slot = slotOf(key);
+        if (slot < 0)
+            return false;
+        tableSize--;
+        // move back the following entries of the probe sequence
+        for (int last = slot, curr = (slot + 1) & mask;; curr = (curr + 1) & mask) {
+            Object k = keys[curr];
+            if (k == null) {
+                keys[last] = null;
+                return true;
+            }
+            int ideal = hash(k) & mask;
+            if (last <= curr ? (last >= ideal || ideal > curr) : (last >= ideal && ideal > curr)) {
+                keys[last] = k;
+                values[last] = values[curr];
+                last = curr;
+            }
+        }
+    }
+
+    public void clear() {
+        for (int i = 0; i < keys.length; ++i)
+            keys[i] = null;
+        tableSize = 0;
+        hasNullKey = false;
+    }
+
+    /**
+     * @return the keys in this map
+     */
+    public Object[] keys() {
+        Object[] result = new Object[size()];
+        int n = 0;
+        for (Cursor c = cursor(); c.next();)
+            result[n++] = c.key();
+        return result;
+    }
+
+    /**
+     * @return a cursor over the entries. Updating this map while iterating
+     *         the cursor produces an undefined result.
+     */
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    public class Cursor
+    {
+        private int slot = -2;
+
+        /**
+         * Moves to the next entry
+         * 
+         * @return false if no more entry exists
+         */
+        public boolean next() {
+            if (slot == -2) {
+                slot = -1;
+                if (hasNullKey)
+                    return true;
+            }
+            while (++slot < keys.length) {
+                if (keys[slot] != null)
+                    return true;
+            }
+            return false;
+        }
+
+        @SuppressWarnings("unchecked")
+        public K key() {
+            return slot < 0 ? null : (K) keys[slot];
+        }
+
+        public int value() {
+            return slot < 0 ? nullKeyValue : values[slot];
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder s = new StringBuilder();
+        s.append("{");
+        for (Cursor c = cursor(); c.next();) {
+            if (s.length() > 1)
+                s.append(", ");
+            s.append(c.key()).append(":").append(c.value());
+        }
+        s.append("}");
+        return s.toString();
+    }
+
+}
@@ -0,0 +1,66 @@
+/*--------------------------------------------------------------------------
+ *  Copyright 2011 Taro L. Saito
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *--------------------------------------------------------------------------*/
+//--------------------------------------
+// XerialJ
+//
+// PrimitiveHash.java
+// Since: 2026/10/17
+//
+// $URL$
+// $Author$
+//--------------------------------------
+package org.xerial.util.primitive;
+
+/**
+ * Hash functions and table sizes shared by the open-addressing maps in this
+ * package
+ * 
+ * @author leo
+ * 
+ */
+class PrimitiveHash
+{
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    /**
+     * Scrambles the bits of the key so that keys with the same lower bits are
+     * spread over the table
+     */
+    static int hash(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    /**
+     * @param expectedSize
+     * @return the power of two table size that keeps the load factor of the
+     *         expected size below 1/2
+     */
+    static int tableSize(int expectedSize) {
+        if (expectedSize < 0)
+            throw new IllegalArgumentException("negative size: " + expectedSize);
+        int capacity = 4;
+        while (capacity / 2 < expectedSize && capacity < MAX_CAPACITY)
+            capacity <<= 1;
+        return capacity;
+    }
+
+}
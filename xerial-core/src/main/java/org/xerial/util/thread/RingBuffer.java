@@ -0,0 +1,369 @@
+/*--------------------------------------------------------------------------
+ *  Copyright 2009 Taro L. Saito
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *--------------------------------------------------------------------------*/
+//--------------------------------------
+// XerialJ
+//
+// RingBuffer.java
+// Since: 2026/10/17
+//
+// $URL$
+// $Author$
+//--------------------------------------
+package org.xerial.util.thread;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded single-producer/single-consumer queue for handing off elements from
+ * a background thread. The producer publishes its elements in batches, and
+ * the consumer takes all of the published elements at once with
+ * {@link #drainTo(Collection)}, so the two threads touch the shared indexes
+ * once per batch rather than once per element. While the consumer is waiting,
+ * the producer publishes every element to reduce the latency.
+ *
+ * <pre>
+ * // producer thread
+ * try {
+ *     for (...)
+ *         buffer.put(e);
+ *     buffer.close();
+ * }
+ * catch (Exception e) {
+ *     buffer.close(e);
+ * }
+ *
+ * // consumer thread
+ * while (buffer.drainTo(list) &gt; 0) {
+ *     ...
+ * }
+ * </pre>
+ *
+ * Only one thread can call the producer methods ({@link #put(Object)},
+ * {@link #offer(Object)}, {@link #flush()} and {@link #close()}), and only one
+ * thread can call the consumer methods ({@link #drainTo(Collection)} and
+ * {@link #drainAvailableTo(Collection)}).
+ *
+ * @author leo
+ *
+ */
+public class RingBuffer<E>
+{
+    /**
+     * How a thread waits for the other thread
+     *
+     * @author leo
+     *
+     */
+    public static enum WaitStrategy {
+        /**
+         * Spin for a while, then sleep until signaled. Suited to the case
+         * where the threads share a few CPU cores.
+         */
+        BLOCKING,
+        /**
+         * Spin on the index, yielding the CPU between checks. Gives the lowest
+         * latency when each thread has its own CPU core.
+         */
+        BUSY_SPIN
+    }
+
+    private static final int     SPIN_TRIES      = 100;
+
+    private final Object[]       buffer;
+    private final int            mask;
+    private final int            batchSize;
+    private final WaitStrategy   waitStrategy;
+
+    // the next position to read. Written only by the consumer
+    private final AtomicLong     head            = new AtomicLong(0);
+    // the end of the published elements. Written only by the producer
+    private final AtomicLong     tail            = new AtomicLong(0);
+
+    // producer-local states
+    private long                 writeIndex      = 0;
+    private long                 publishedIndex  = 0;
+    private long                 cachedHead      = 0;
+
+    private volatile boolean     closed          = false;
+    private volatile Throwable   error           = null;
+
+    private final ReentrantLock  lock            = new ReentrantLock();
+    private final Condition      notEmpty        = lock.newCondition();
+    private final Condition      notFull         = lock.newCondition();
+    private volatile boolean     consumerWaiting  = false;
+    private volatile boolean     consumerSleeping = false;
+    private volatile boolean     producerSleeping = false;
+
+    /**
+     * @param capacity
+     *            the maximum number of elements in the buffer. Rounded up to
+     *            a power of two.
+     * @param batchSize
+     *            the number of elements the producer publishes at a time
+     * @param waitStrategy
+     */
+    public RingBuffer(int capacity, int batchSize, WaitStrategy waitStrategy) {
+        if (capacity <= 0)
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        if (waitStrategy == null)
+            throw new NullPointerException("waitStrategy");
+
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity)
+            size <<= 1;
+        this.buffer = new Object[size];
+        this.mask = size - 1;
+        this.batchSize = Math.max(1, Math.min(batchSize, size));
+        this.waitStrategy = waitStrategy;
+    }
+
+    public int capacity() {
+        return buffer.length;
+    }
+
+    public WaitStrategy getWaitStrategy() {
+        return waitStrategy;
+    }
+
+    /**
+     * Appends an element, waiting for a space if the buffer is full. The
+     * element becomes visible to the consumer when a batch is filled, or at
+     * {@link #flush()} or {@link #close()}.
+     *
+     * @param e
+     * @throws InterruptedException
+     */
+    public void put(E e) throws InterruptedException {
+        if (closed)
+            throw new IllegalStateException("the buffer is already closed");
+
+        if (writeIndex - cachedHead >= buffer.length) {
+            cachedHead = head.get();
+            if (writeIndex - cachedHead >= buffer.length) {
+                flush();
+                waitForSpace();
+            }
+        }
+
+        append(e);
+    }
+
+    /**
+     * Appends an element if the buffer has a space. Never waits.
+     *
+     * @param e
+     * @return false if the buffer is full
+     */
+    public boolean offer(E e) {
+        if (closed)
+            throw new IllegalStateException("the buffer is already closed");
+
+        if (writeIndex - cachedHead >= buffer.length) {
+            cachedHead = head.get();
+            if (writeIndex - cachedHead >= buffer.length) {
+                flush();
+                return false;
+            }
+        }
+
+        append(e);
+        return true;
+    }
+
+    private void append(E e) {
+        buffer[(int) (writeIndex & mask)] = e;
+        writeIndex++;
+
+        if (writeIndex - publishedIndex >= batchSize || consumerWaiting)
+            flush();
+    }
+
+    /**
+     * Makes all of the appended elements visible to the consumer
+     */
+    public void flush() {
+        if (publishedIndex == writeIndex)
+            return;
+
+        publishedIndex = writeIndex;
+        tail.set(writeIndex);
+        if (consumerSleeping)
+            signal(notEmpty);
+    }
+
+    /**
+     * Publishes the remaining elements and tells the consumer no more element
+     * will come
+     */
+    public void close() {
+        close(null);
+    }
+
+    /**
+     * Publishes the remaining elements and tells the consumer the producer
+     * has stopped by the error
+     *
+     * @param error
+     *            the cause of the stop, or null when the producer has
+     *            finished normally
+     */
+    public void close(Throwable error) {
+        if (closed)
+            return;
+
+        this.error = error;
+        flush();
+        closed = true;
+        lock.lock();
+        try {
+            notEmpty.signalAll();
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the error given to {@link #close(Throwable)}, or null
+     */
+    public Throwable getError() {
+        return error;
+    }
+
+    /**
+     * Moves all of the published elements to the collection, waiting until at
+     * least one element is published or the buffer is closed.
+     *
+     * @param out
+     * @return the number of the moved elements. 0 when the buffer is closed
+     *         and no element remains.
+     * @throws InterruptedException
+     */
+    public int drainTo(Collection< ? super E> out) throws InterruptedException {
+        final long h = head.get();
+        long t = tail.get();
+        if (t == h) {
+            t = waitForElements(h);
+            if (t == h)
+                return 0;
+        }
+        return take(h, t, out);
+    }
+
+    /**
+     * Moves the published elements to the collection. Never waits.
+     *
+     * @param out
+     * @return the number of the moved elements
+     */
+    public int drainAvailableTo(Collection< ? super E> out) {
+        final long h = head.get();
+        long t = tail.get();
+        return t == h ? 0 : take(h, t, out);
+    }
+
+    @SuppressWarnings("unchecked")
+    private int take(long h, long t, Collection< ? super E> out) {
+        for (long i = h; i < t; i++) {
+            int index = (int) (i & mask);
+            out.add((E) buffer[index]);
+            buffer[index] = null;
+        }
+        head.set(t);
+        if (producerSleeping)
+            signal(notFull);
+
+        return (int) (t - h);
+    }
+
+    private long waitForElements(long h) throws InterruptedException {
+        long t;
+        // while this flag is set, the producer publishes every element
+        consumerWaiting = true;
+        try {
+            for (int spin = 0; (t = tail.get()) == h && !closed; spin++) {
+                if (waitStrategy == WaitStrategy.BLOCKING && spin >= SPIN_TRIES) {
+                    t = sleepUntilPublished(h);
+                    break;
+                }
+                Thread.yield();
+                if (Thread.interrupted())
+                    throw new InterruptedException();
+            }
+        }
+        finally {
+            consumerWaiting = false;
+        }
+        // elements published just before closing
+        return t == h ? tail.get() : t;
+    }
+
+    private long sleepUntilPublished(long h) throws InterruptedException {
+        long t;
+        lock.lockInterruptibly();
+        try {
+            // the producer checks this flag after publishing, so the signal is
+            // never missed
+            consumerSleeping = true;
+            while ((t = tail.get()) == h && !closed)
+                notEmpty.await();
+            return t;
+        }
+        finally {
+            consumerSleeping = false;
+            lock.unlock();
+        }
+    }
+
+    private void waitForSpace() throws InterruptedException {
+        for (int spin = 0; writeIndex - (cachedHead = head.get()) >= buffer.length; spin++) {
+            if (waitStrategy == WaitStrategy.BLOCKING && spin >= SPIN_TRIES) {
+                sleepUntilConsumed();
+                return;
+            }
+            Thread.yield();
+            if (Thread.interrupted())
+                throw new InterruptedException();
+        }
+    }
+
+    private void sleepUntilConsumed() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            producerSleeping = true;
+            while (writeIndex - (cachedHead = head.get()) >= buffer.length)
+                notFull.await();
+        }
+        finally {
+            producerSleeping = false;
+            lock.unlock();
+        }
+    }
+
+    private void signal(Condition condition) {
+        lock.lock();
+        try {
+            condition.signal();
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+}
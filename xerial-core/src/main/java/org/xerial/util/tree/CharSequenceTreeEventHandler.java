@@ -0,0 +1,51 @@
+/*--------------------------------------------------------------------------
+ *  Copyright 2009 Taro L. Saito
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *--------------------------------------------------------------------------*/
+//--------------------------------------
+// XerialJ
+//
+// CharSequenceTreeEventHandler.java
+// Since: 2026/10/17
+//
+// $URL$
+// $Author$
+//--------------------------------------
+package org.xerial.util.tree;
+
+/**
+ * {@link TreeEventHandler} that can receive node values as {@link CharSequence}
+ * views. Tree parsers supporting this interface (e.g., SilkParser for
+ * tab-separated data lines) pass a view into their line buffer instead of
+ * creating a String for each node value.
+ * 
+ * @author leo
+ * 
+ */
+public interface CharSequenceTreeEventHandler extends TreeEventHandler
+{
+    /**
+     * Invoked when a new node with an immediate value is found. This method
+     * is called instead of {@link #visitNode(String, String)}.
+     * 
+     * @param nodeName
+     *            found node name
+     * @param immediateNodeValue
+     *            view of the node value, which is valid only during this method
+     *            call. Use {@link CharSequence#toString()} to retain the value.
+     * @throws Exception
+     */
+    public void visitNode(String nodeName, CharSequence immediateNodeValue) throws Exception;
+
+}
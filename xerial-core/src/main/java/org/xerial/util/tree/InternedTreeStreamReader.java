@@ -0,0 +1,92 @@
+/*--------------------------------------------------------------------------
+ *  Copyright 2011 Taro L. Saito
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *--------------------------------------------------------------------------*/
+//--------------------------------------
+// XerialJ
+//
+// InternedTreeStreamReader.java
+// Since: 2026/10/17
+//
+// $URL$
+// $Author$
+//--------------------------------------
+package org.xerial.util.tree;
+
+import org.xerial.core.XerialException;
+import org.xerial.util.tree.TreeEvent.EventType;
+
+/**
+ * A {@link TreeStreamReader} that interns the node names of the events in a
+ * {@link NodeNameTable}. The events of the same node name share a single
+ * String instance, and {@link TreeEvent#getNodeId()} returns the id of the
+ * name in the table.
+ * 
+ * <pre>
+ * if (reader instanceof InternedTreeStreamReader) {
+ *     NodeNameTable table = ((InternedTreeStreamReader) reader).getNodeNameTable();
+ *     int geneId = table.intern(&quot;gene&quot;);
+ *     ...
+ * }
+ * </pre>
+ * 
+ * The events can also be read through a cursor, which does not create a
+ * {@link TreeEvent} for each event. The cursor and {@link #next()} consume the
+ * same stream:
+ * 
+ * <pre>
+ * while (reader.advance()) {
+ *     if (reader.getEventType() == EventType.VISIT &amp;&amp; reader.getNodeId() == geneId)
+ *         ...
+ * }
+ * </pre>
+ * 
+ * @author leo
+ * 
+ */
+public interface InternedTreeStreamReader extends TreeStreamReader
+{
+    /**
+     * Returns the table of the node names in this stream. The
+     * {@link TreeEvent#getNodeId()} of the events are the ids in this table.
+     * 
+     * @return the node name table
+     */
+    public NodeNameTable getNodeNameTable();
+
+    /**
+     * Moves the cursor to the next event. The accessors of the cursor return
+     * the values of this event until the next call of this method.
+     * 
+     * @return false when no more event remains
+     * @throws XerialException
+     */
+    public boolean advance() throws XerialException;
+
+    /**
+     * @return the type of the event at the cursor, or null when the cursor is
+     *         not at an event
+     */
+    public EventType getEventType();
+
+    /**
+     * @return the id of the node name of the event at the cursor
+     */
+    public int getNodeId();
+
+    public String getNodeName();
+
+    public String getNodeValue();
+
+}
@@ -0,0 +1,95 @@
+/*--------------------------------------------------------------------------
+ *  Copyright 2011 Taro L. Saito
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *--------------------------------------------------------------------------*/
+//--------------------------------------
+// XerialJ
+//
+// MutableTreeEvent.java
+// Since: 2026/10/17
+//
+// $URL$
+// $Author$
+//--------------------------------------
+package org.xerial.util.tree;
+
+import org.xerial.util.tree.TreeEvent.EventType;
+
+/**
+ * Mutable event record, which {@link InternedTreeStreamReader}
+ * implementations reuse through a {@link TreeEventPool} while the events are
+ * queued inside the reader. An immutable {@link TreeEvent} is created only
+ * when the event is returned by {@link TreeStreamReader#next()} or
+ * {@link TreeStreamReader#peekNext()}.
+ * 
+ * @author leo
+ * 
+ */
+public final class MutableTreeEvent
+{
+    private EventType event;
+    private int       nodeId = NodeNameTable.NO_ID;
+    private String    nodeName;
+    private String    nodeValue;
+    // the immutable copy of this event, created on demand
+    private TreeEvent snapshot;
+
+    public MutableTreeEvent set(EventType event, int nodeId, String nodeName, String nodeValue) {
+        this.event = event;
+        this.nodeId = nodeId;
+        this.nodeName = nodeName;
+        this.nodeValue = nodeValue;
+        this.snapshot = null;
+        return this;
+    }
+
+    public void setNodeValue(String nodeValue) {
+        this.nodeValue = nodeValue;
+        this.snapshot = null;
+    }
+
+    public EventType getEventType() {
+        return event;
+    }
+
+    public int getNodeId() {
+        return nodeId;
+    }
+
+    public String getNodeName() {
+        return nodeName;
+    }
+
+    public String getNodeValue() {
+        return nodeValue;
+    }
+
+    /**
+     * Returns an immutable copy of this event. The same copy is returned until
+     * this event is modified.
+     * 
+     * @return
+     */
+    public TreeEvent toTreeEvent() {
+        if (snapshot == null)
+            snapshot = new TreeEvent(event, nodeId, nodeName, nodeValue);
+        return snapshot;
+    }
+
+    @Override
+    public String toString() {
+        return toTreeEvent().toString();
+    }
+
+}
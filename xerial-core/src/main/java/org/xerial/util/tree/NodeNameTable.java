@@ -0,0 +1,158 @@
+/*--------------------------------------------------------------------------
+ *  Copyright 2009 Taro L. Saito
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *--------------------------------------------------------------------------*/
+//--------------------------------------
+// XerialJ
+//
+// NodeNameTable.java
+// Since: 2026/10/17
+//
+// $URL$
+// $Author$
+//--------------------------------------
+package org.xerial.util.tree;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.xerial.util.tree.TreeEvent.EventType;
+
+/**
+ * Symbol table of the node names in a document. Each distinct node name is
+ * given a small integer id (0, 1, 2, ...) in the order of appearance, and the
+ * {@link TreeEvent}s of the same node name share a single String instance.
+ * Consumers of {@link InternedTreeStreamReader} can compare
+ * {@link TreeEvent#getNodeId()} with the ids of the node names of interest,
+ * instead of comparing strings:
+ *
+ * <pre>
+ * int geneId = reader.getNodeNameTable().intern(&quot;gene&quot;);
+ * for (TreeEvent e; (e = reader.next()) != null;) {
+ *     if (e.isVisit() &amp;&amp; e.getNodeId() == geneId)
+ *         ...
+ * }
+ * </pre>
+ *
+ * A table can be read by one thread while another thread adds names.
+ *
+ * @author leo
+ *
+ */
+public class NodeNameTable
+{
+    /**
+     * The id of null node names
+     */
+    public static final int                          NO_ID     = -1;
+
+    private final ConcurrentHashMap<String, Integer> idTable   = new ConcurrentHashMap<String, Integer>();
+    private volatile String[]                        nameTable = new String[16];
+    private volatile int                             size      = 0;
+
+    /**
+     * Returns the id of the node name, adding the name to the table if it is
+     * new
+     *
+     * @param nodeName
+     * @return the id of the node name, or {@link #NO_ID} when the name is null
+     */
+    public int intern(String nodeName) {
+        if (nodeName == null)
+            return NO_ID;
+
+        Integer id = idTable.get(nodeName);
+        if (id != null)
+            return id;
+
+        return add(nodeName);
+    }
+
+    private synchronized int add(String nodeName) {
+        Integer id = idTable.get(nodeName);
+        if (id != null)
+            return id;
+
+        int newId = size;
+        String[] table = nameTable;
+        if (newId >= table.length) {
+            String[] newTable = new String[table.length * 2];
+            System.arraycopy(table, 0, newTable, 0, table.length);
+            table = newTable;
+        }
+        table[newId] = nodeName;
+        nameTable = table;
+        size = newId + 1;
+        idTable.put(nodeName, newId);
+        return newId;
+    }
+
+    /**
+     * @param nodeName
+     * @return the id of the node name, or {@link #NO_ID} if the name is not
+     *         in the table
+     */
+    public int getId(String nodeName) {
+        if (nodeName == null)
+            return NO_ID;
+
+        Integer id = idTable.get(nodeName);
+        return id == null ? NO_ID : id;
+    }
+
+    /**
+     * @param id
+     * @return the node name of the id, or null for {@link #NO_ID}
+     */
+    public String getName(int id) {
+        if (id == NO_ID)
+            return null;
+
+        if (id < 0 || id >= size)
+            throw new IndexOutOfBoundsException("unknown node id: " + id);
+        return nameTable[id];
+    }
+
+    public TreeEvent newVisitEvent(String nodeName, String value) {
+        return newEvent(EventType.VISIT, nodeName, value);
+    }
+
+    public TreeEvent newLeaveEvent(String nodeName) {
+        return newEvent(EventType.LEAVE, nodeName, null);
+    }
+
+    public TreeEvent newTextEvent(String nodeName, String value) {
+        return newEvent(EventType.TEXT, nodeName, value);
+    }
+
+    /**
+     * Creates an event with the interned node name and its id
+     *
+     * @param type
+     * @param nodeName
+     * @param value
+     * @return
+     */
+    public TreeEvent newEvent(EventType type, String nodeName, String value) {
+        int id = intern(nodeName);
+        return new TreeEvent(type, id, getName(id), value);
+    }
+
+    /**
+     * @return the number of node names in the table
+     */
+    public int size() {
+        return size;
+    }
+
+}
@@ -28,6 +28,9 @@ package org.xerial.util.tree;
 /**
  * Representation of the {@link TreeVisitor} events
  * 
+ * Events created by an {@link InternedTreeStreamReader} have the id of the
+ * node name in its {@link NodeNameTable} (see {@link #getNodeId()}).
+ * 
  * @author leo
  * 
  */
@@ -39,6 +42,7 @@ public class TreeEvent {
     public final EventType event;
     public final String nodeName;
     public final String nodeValue;
+    private final int nodeId;
 
     public boolean isVisit() {
         return event == EventType.VISIT;
@@ -65,11 +69,24 @@ public class TreeEvent {
     }
 
     public TreeEvent(EventType event, String nodeName, String value) {
+        this(event, NodeNameTable.NO_ID, nodeName, value);
+    }
+
+    public TreeEvent(EventType event, int nodeId, String nodeName, String value) {
         this.event = event;
+        this.nodeId = nodeId;
         this.nodeName = nodeName;
         this.nodeValue = value;
     }
 
+    /**
+     * @return the id of the node name in the {@link NodeNameTable} of the
+     *         reader that produced this event, or {@link NodeNameTable#NO_ID}
+     */
+    public int getNodeId() {
+        return nodeId;
+    }
+
     public String toString() {
         if (nodeName != null) {
             if (nodeValue != null)
@@ -0,0 +1,103 @@
+/*--------------------------------------------------------------------------
+ *  Copyright 2011 Taro L. Saito
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *--------------------------------------------------------------------------*/
+//--------------------------------------
+// XerialJ
+//
+// TreeEventPool.java
+// Since: 2026/10/17
+//
+// $URL$
+// $Author$
+//--------------------------------------
+package org.xerial.util.tree;
+
+import java.util.ArrayList;
+import java.util.Collection;
+
+import org.xerial.util.tree.TreeEvent.EventType;
+
+/**
+ * Creates {@link MutableTreeEvent}s with the interned node names of a
+ * {@link NodeNameTable}, reusing the released events. This class is not
+ * thread-safe.
+ * 
+ * @author leo
+ * 
+ */
+public class TreeEventPool
+{
+    private final NodeNameTable               nameTable;
+    private final int                         maxPoolSize;
+    private final ArrayList<MutableTreeEvent> freeList;
+
+    /**
+     * @param nameTable
+     * @param maxPoolSize
+     *            the maximum number of released events held in this pool
+     */
+    public TreeEventPool(NodeNameTable nameTable, int maxPoolSize) {
+        this.nameTable = nameTable;
+        this.maxPoolSize = maxPoolSize;
+        this.freeList = new ArrayList<MutableTreeEvent>(Math.min(maxPoolSize, 1024));
+    }
+
+    public NodeNameTable getNodeNameTable() {
+        return nameTable;
+    }
+
+    public MutableTreeEvent newVisitEvent(String nodeName, String value) {
+        return newEvent(EventType.VISIT, nodeName, value);
+    }
+
+    public MutableTreeEvent newLeaveEvent(String nodeName) {
+        return newEvent(EventType.LEAVE, nodeName, null);
+    }
+
+    public MutableTreeEvent newTextEvent(String nodeName, String value) {
+        return newEvent(EventType.TEXT, nodeName, value);
+    }
+
+    private MutableTreeEvent newEvent(EventType type, String nodeName, String value) {
+        int id = nameTable.intern(nodeName);
+        int last = freeList.size() - 1;
+        MutableTreeEvent e = last >= 0 ? freeList.remove(last) : new MutableTreeEvent();
+        return e.set(type, id, nameTable.getName(id), value);
+    }
+
+    /**
+     * @return true if no released event is left in this pool
+     */
+    public boolean isEmpty() {
+        return freeList.isEmpty();
+    }
+
+    /**
+     * Returns the event to this pool. The caller must not use the event after
+     * releasing it.
+     * 
+     * @param e
+     */
+    public void release(MutableTreeEvent e) {
+        if (e != null && freeList.size() < maxPoolSize)
+            freeList.add(e.set(null, NodeNameTable.NO_ID, null, null));
+    }
+
+    public void releaseAll(Collection<MutableTreeEvent> events) {
+        for (MutableTreeEvent each : events)
+            release(each);
+    }
+
+}
@@ -0,0 +1,243 @@
+/*--------------------------------------------------------------------------
+ *  Copyright 2011 Taro L. Saito
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *--------------------------------------------------------------------------*/
+//--------------------------------------
+// XerialJ
+//
+// FrozenJSONObjectTest.java
+// Since: 2026/10/17
+//
+// $URL$
+// $Author$
+//--------------------------------------
+package org.xerial.json;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+import org.xerial.util.FileResource;
+import org.xerial.util.StopWatch;
+import org.xerial.util.log.Logger;
+
+public class FrozenJSONObjectTest
+{
+    private static Logger _logger = Logger.getLogger(FrozenJSONObjectTest.class);
+
+    @Test
+    public void sameAsJSONObject() throws Exception {
+        for (String file : new String[] { "sample.json", "array.json", "chr1.json" }) {
+            String json = FileResource.loadIntoString(FrozenJSONObjectTest.class, file);
+            String expected = new JSONPullParser(json).getValue().toJSONString();
+            assertEquals(file, expected, new JSONPullParser(json).getFrozenValue().toJSONString());
+            assertEquals(file, expected, new JSONPullParser(new JSONByteLexer(json.getBytes("UTF-8")))
+                    .getFrozenValue().toJSONString());
+        }
+    }
+
+    @Test
+    public void accessors() throws Exception {
+        String json = "{\"id\":1, \"name\":\"leo\", \"score\":3.5, \"valid\":true, "
+                + "\"tag\":null, \"pos\":[1, {\"x\":2}], \"child\":{\"id\":2}, \"id\":3}";
+        JSONObject expected = new JSONObject(json);
+        JSONObject obj = new JSONPullParser(json).getFrozenValue().getJSONObject();
+        assertTrue(obj instanceof FrozenJSONObject);
+        FrozenJSONObject frozen = (FrozenJSONObject) obj;
+
+        assertEquals(expected.toJSONString(), obj.toJSONString());
+        assertEquals(expected.elementSize(), obj.elementSize());
+        assertEquals(new ArrayList<String>(expected.keys()), new ArrayList<String>(obj.keys()));
+        assertEquals(expected.getKeyValueMap().toString(), obj.getKeyValueMap().toString());
+
+        // the duplicate key overwrites the value
+        assertEquals(3, obj.getInt("id"));
+        assertEquals(JSONValueType.Integer, obj.get("id").getValueType());
+        assertEquals("leo", obj.getString("name"));
+        assertEquals(3.5, frozen.getDouble("score"), 0);
+        assertEquals(3, obj.getInt("score"));
+        assertEquals(3L, frozen.getLong("id"));
+        // JSONInteger cannot hold a long value
+        FrozenJSONObject big = (FrozenJSONObject) new JSONPullParser("{\"big\":12345678901}").getFrozenValue();
+        assertEquals(12345678901L, big.getLong("big"));
+        assertEquals(JSONValueType.Integer, big.get("big").getValueType());
+        assertEquals("{\"big\":12345678901}", big.toJSONString());
+        assertEquals(JSONBoolean.True, obj.get("valid"));
+        assertEquals(JSONNull.NULL, obj.get("tag"));
+        assertEquals(2, obj.getJSONArray("pos").size());
+        assertTrue(obj.getJSONArray("pos").get(1).getJSONObject() instanceof FrozenJSONObject);
+        assertEquals(2, obj.getJSONObject("child").getInt("id"));
+
+        assertTrue(obj.hasKey("tag"));
+        assertTrue(obj.keys().contains("tag"));
+        assertFalse(obj.hasKey("unknown"));
+        assertNull(obj.get("unknown"));
+
+        try {
+            obj.getInt("unknown");
+            fail();
+        }
+        catch (JSONException e) {
+            assertEquals(JSONErrorCode.KeyIsNotFound, e.getErrorCode());
+        }
+        try {
+            frozen.getLong("name");
+            fail();
+        }
+        catch (JSONException e) {
+            assertEquals(JSONErrorCode.NotAJSONNumber, e.getErrorCode());
+        }
+    }
+
+    @Test
+    public void manyKeys() throws Exception {
+        StringBuilder json = new StringBuilder("{");
+        for (int i = 0; i < 100; i++) {
+            if (i > 0)
+                json.append(",");
+            json.append(String.format("\"k%d\":%d", i, i));
+        }
+        json.append("}");
+
+        JSONObject obj = new JSONPullParser(json.toString()).getFrozenValue().getJSONObject();
+        assertEquals(100, obj.elementSize());
+        for (int i = 0; i < 100; i++)
+            assertEquals(i, obj.getInt("k" + i));
+        assertFalse(obj.hasKey("k100"));
+        assertEquals(new JSONObject(json.toString()).toJSONString(), obj.toJSONString());
+    }
+
+    @Test
+    public void wideObject() throws Exception {
+        // extending a shared layout for each key used to take O(n^2) time and memory
+        final int numKeys = 20000;
+        StringBuilder json = new StringBuilder("[");
+        for (int r = 0; r < 2; r++) {
+            if (r > 0)
+                json.append(",");
+            json.append("{");
+            for (int i = 0; i < numKeys; i++)
+                json.append(String.format("\"k%d\":%d,", i, i + r));
+            // duplicate keys in the shared and the unshared part
+            json.append(String.format("\"k0\":%d, \"k%d\":%d}", -r, numKeys - 1, -r));
+        }
+        json.append("]");
+
+        StopWatch timer = new StopWatch();
+        JSONArray array = new JSONPullParser(new JSONByteLexer(json.toString().getBytes("UTF-8")))
+                .getFrozenValue().getJSONArray();
+        _logger.info(String.format("%,d keys: %.3f sec.", numKeys, timer.getElapsedTime()));
+
+        for (int r = 0; r < 2; r++) {
+            JSONObject obj = array.get(r).getJSONObject();
+            assertEquals(numKeys, obj.elementSize());
+            assertEquals(-r, obj.getInt("k0"));
+            for (int i = 1; i < numKeys - 1; i++)
+                assertEquals(i + r, obj.getInt("k" + i));
+            assertEquals(-r, obj.getInt("k" + (numKeys - 1)));
+            assertFalse(obj.hasKey("k" + numKeys));
+
+            Iterator<String> keys = obj.keys().iterator();
+            for (int i = 0; i < numKeys; i++)
+                assertEquals("k" + i, keys.next());
+            assertFalse(keys.hasNext());
+        }
+        // the keys before the limit are still shared
+        assertSame(array.get(0).getJSONObject().keys().iterator().next(), array.get(1).getJSONObject().keys()
+                .iterator().next());
+    }
+
+    @Test
+    public void shareKeys() throws Exception {
+        JSONArray array = new JSONPullParser(
+                "[{\"id\":1, \"name\":\"a\"}, {\"id\":2, \"name\":\"b\"}, {\"id\":3}]").getFrozenValue()
+                .getJSONArray();
+        Iterator<String> k0 = array.get(0).getJSONObject().keys().iterator();
+        Iterator<String> k1 = array.get(1).getJSONObject().keys().iterator();
+        assertSame(k0.next(), k1.next());
+        assertSame(k0.next(), k1.next());
+        assertSame(array.get(0).getJSONObject().keys().iterator().next(), array.get(2).getJSONObject().keys()
+                .iterator().next());
+        assertEquals(1, array.get(2).getJSONObject().elementSize());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void readOnly() throws Exception {
+        new JSONPullParser("{\"id\":1}").getFrozenValue().getJSONObject().put("id", new JSONInteger(2));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void readOnlyMap() throws Exception {
+        Map<String, JSONValue> map = new JSONPullParser("{\"id\":1}").getFrozenValue().getJSONObject()
+                .getKeyValueMap();
+        map.remove("id");
+    }
+
+    private static byte[] createLargeJSON(int numRecords) throws Exception {
+        StringBuilder s = new StringBuilder();
+        s.append("[\n");
+        for (int i = 0; i < numRecords; i++) {
+            if (i > 0)
+                s.append(",\n");
+            s.append(String.format("{\"id\":%d, \"name\":\"read%d\", \"start\":%d, \"end\":%d, "
+                    + "\"score\":%d.%d, \"strand\":\"+\", \"valid\":true}", i, i, i * 10, i * 10 + 36, i % 100,
+                    i % 7));
+        }
+        s.append("\n]");
+        return s.toString().getBytes("UTF-8");
+    }
+
+    private static long usedMemory() throws Exception {
+        Runtime rt = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(50);
+        }
+        return rt.totalMemory() - rt.freeMemory();
+    }
+
+    @Test
+    public void performance() throws Exception {
+        final int numRecords = 100000;
+        final byte[] json = createLargeJSON(numRecords);
+
+        for (int trial = 0; trial < 2; trial++) {
+            List<JSONValue> holder = new ArrayList<JSONValue>();
+            double[] time = new double[2];
+            long[] memory = new long[2];
+            long[] sum = new long[2];
+            for (int i = 0; i < 2; i++) {
+                long base = usedMemory();
+                StopWatch timer = new StopWatch();
+                JSONPullParser parser = new JSONPullParser(new JSONByteLexer(json));
+                JSONArray array = (i == 0 ? parser.getValue() : parser.getFrozenValue()).getJSONArray();
+                time[i] = timer.getElapsedTime();
+                holder.add(array);
+                memory[i] = usedMemory() - base;
+
+                for (int r = 0; r < array.size(); r++)
+                    sum[i] += array.get(r).getJSONObject().getInt("start");
+            }
+            assertEquals(sum[0], sum[1]);
+            _logger.info(String.format("%,d objects. JSONObject: %.3f sec., %,d bytes/object. "
+                    + "FrozenJSONObject: %.3f sec., %,d bytes/object", numRecords, time[0], memory[0]
+                    / numRecords, time[1], memory[1] / numRecords));
+        }
+    }
+
+}
@@ -0,0 +1,235 @@
+/*--------------------------------------------------------------------------
+ *  Copyright 2011 Taro L. Saito
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *--------------------------------------------------------------------------*/
+//--------------------------------------
+// XerialJ
+//
+// JSONByteLexerTest.java
+// Since: 2026/10/17
+//
+//--------------------------------------
+package org.xerial.json;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import org.xerial.core.XerialException;
+import org.xerial.json.JSONLexer.Token;
+import org.xerial.json.impl.JSONToken;
+import org.xerial.util.FileResource;
+import org.xerial.util.StopWatch;
+import org.xerial.util.log.Logger;
+
+public class JSONByteLexerTest
+{
+    private static Logger _logger = Logger.getLogger(JSONByteLexerTest.class);
+
+    private static List<String> tokens(JSONByteLexer lexer) throws Exception {
+        List<String> result = new ArrayList<String>();
+        for (JSONToken t; (t = lexer.next()) != null;) {
+            if (t == JSONToken.String || t == JSONToken.Integer || t == JSONToken.Double)
+                result.add(String.format("[%s] %s", t, lexer.getText()));
+            else
+                result.add(String.format("[%s]", t));
+        }
+        return result;
+    }
+
+    private static List<String> tokens(JSONLexer lexer) throws Exception {
+        List<String> result = new ArrayList<String>();
+        for (Token t; (t = lexer.nextToken()) != null;) {
+            if (t.type == JSONToken.String || t.type == JSONToken.Integer || t.type == JSONToken.Double)
+                result.add(String.format("[%s] %s", t.type, t.str));
+            else
+                result.add(String.format("[%s]", t.type));
+        }
+        return result;
+    }
+
+    @Test
+    public void sameTokensWithJSONLexer() throws Exception {
+        for (String file : new String[] { "sample.json", "array.json", "chr1.json" }) {
+            byte[] json = FileResource.loadIntoString(JSONByteLexerTest.class, file).getBytes("UTF-8");
+            List<String> expected = tokens(new JSONLexer(new InputStreamReader(new ByteArrayInputStream(json),
+                    "UTF-8")));
+            assertTrue(expected.size() > 0);
+            assertEquals(file, expected, tokens(new JSONByteLexer(json)));
+            // refill the small buffer many times
+            assertEquals(file, expected, tokens(new JSONByteLexer(new ByteArrayInputStream(json), 16)));
+        }
+    }
+
+    @Test
+    public void string() throws Exception {
+        String json = "[\"a\\\"b\\\\c\\/d\\n\\t\\u3042\", \"あいう é\", \"𠮷\", \"\"]";
+        JSONByteLexer lexer = new JSONByteLexer(json.getBytes("UTF-8"));
+        assertEquals(JSONToken.LBracket, lexer.next());
+        assertEquals(JSONToken.String, lexer.next());
+        assertEquals(2, lexer.getOffset());
+        assertEquals("a\"b\\c/d\n\tあ", lexer.getText());
+        assertEquals("a\"b\\c/d\n\tあ", lexer.getChars().toString());
+        assertEquals(JSONToken.Comma, lexer.next());
+        assertEquals(JSONToken.String, lexer.next());
+        assertEquals("あいう é", lexer.getText());
+        assertEquals(12, lexer.getLength());
+        lexer.next();
+        assertEquals(JSONToken.String, lexer.next());
+        assertEquals("𠮷", lexer.getText());
+        lexer.next();
+        assertEquals(JSONToken.String, lexer.next());
+        assertEquals("", lexer.getText());
+        assertEquals(JSONToken.RBracket, lexer.next());
+        assertNull(lexer.next());
+    }
+
+    @Test
+    public void number() throws Exception {
+        String[] numbers = { "0", "-0", "12345", "-987654321", "9223372036854775807", "-9223372036854775808",
+                "12345678901234567890", "0.5", "-1.25", "3.14159", "1e3", "1E-3", "-2.5e+10", "6.02214076e23",
+                "1.7976931348623157e308", "4.9e-324", "0.1", "123456789.123456789" };
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < numbers.length; i++) {
+            if (i > 0)
+                json.append(", ");
+            json.append(numbers[i]);
+        }
+        json.append("]");
+
+        JSONByteLexer lexer = new JSONByteLexer(json.toString().getBytes("UTF-8"));
+        lexer.next();
+        for (String each : numbers) {
+            JSONToken t = lexer.next();
+            boolean isDouble = each.contains(".") || each.contains("e") || each.contains("E");
+            assertEquals(each, isDouble ? JSONToken.Double : JSONToken.Integer, t);
+            assertEquals(each, lexer.getText());
+            assertEquals(each, Double.parseDouble(each), lexer.getDouble(), 0);
+            if (!isDouble && !each.equals("12345678901234567890"))
+                assertEquals(each, Long.parseLong(each), lexer.getLong());
+            lexer.next();
+        }
+    }
+
+    @Test
+    public void error() throws Exception {
+        for (String json : new String[] { "[tru]", "[\"abc", "[-]", "[1.]", "[1e]", "[@]" }) {
+            try {
+                tokens(new JSONByteLexer(json.getBytes("UTF-8")));
+                fail(json);
+            }
+            catch (XerialException e) {
+                _logger.debug(e.getMessage());
+            }
+        }
+    }
+
+    @Test
+    public void pullParser() throws Exception {
+        for (String file : new String[] { "sample.json", "array.json", "chr1.json" }) {
+            String json = FileResource.loadIntoString(JSONByteLexerTest.class, file);
+            JSONPullParser p1 = new JSONPullParser(json);
+            JSONPullParser p2 = new JSONPullParser(new JSONByteLexer(json.getBytes("UTF-8")));
+            for (JSONEvent e; (e = p1.next()) != JSONEvent.EndJSON;) {
+                assertEquals(e, p2.next());
+                assertEquals(p1.getKeyName(), p2.getKeyName());
+                assertEquals(p1.getDepth(), p2.getDepth());
+                switch (e) {
+                case String:
+                    assertEquals(p1.getText(), p2.getText());
+                    break;
+                case Integer:
+                case Double:
+                    assertEquals(p1.getText(), p2.getText());
+                    assertEquals(p1.getDouble(), p2.getDouble(), 1e-10);
+                    break;
+                }
+            }
+            assertEquals(JSONEvent.EndJSON, p2.next());
+
+            JSONValue v = new JSONPullParser(new JSONByteLexer(json.getBytes("UTF-8"))).getValue();
+            assertEquals(new JSONPullParser(json).getValue().toJSONString(), v.toJSONString());
+        }
+    }
+
+    private static byte[] createLargeJSON(int numRecords) throws Exception {
+        StringBuilder s = new StringBuilder();
+        s.append("[\n");
+        for (int i = 0; i < numRecords; i++) {
+            if (i > 0)
+                s.append(",\n");
+            s.append(String.format(
+                    "{\"id\":%d, \"name\":\"read%d\", \"score\":%d.%d, \"valid\":true, \"tag\":null, "
+                            + "\"comment\":\"line\\tbreak\\n\", \"pos\":[%d, %d]}", i, i, i % 100, i % 7,
+                    i * 10, i * 10 + 36));
+        }
+        s.append("\n]");
+        return s.toString().getBytes("UTF-8");
+    }
+
+    @Test
+    public void performance() throws Exception {
+        final byte[] json = createLargeJSON(50000);
+        // JSONLexer reading a Reader fails at some buffer boundaries, so it reads the whole string
+        final String jsonString = new String(json, "UTF-8");
+        _logger.info(String.format("JSON size: %,d bytes", json.length));
+
+        for (int trial = 0; trial < 3; trial++) {
+            StopWatch timer = new StopWatch();
+            int count1 = 0;
+            JSONLexer lexer = new JSONLexer(jsonString);
+            for (Token t; (t = lexer.nextToken()) != null;) {
+                count1++;
+            }
+            double lexerTime = timer.getElapsedTime();
+
+            timer.reset();
+            int count2 = 0;
+            JSONByteLexer byteLexer = new JSONByteLexer(new ByteArrayInputStream(json));
+            for (JSONToken t; (t = byteLexer.next()) != null;) {
+                count2++;
+            }
+            double byteLexerTime = timer.getElapsedTime();
+            assertEquals(count1, count2);
+
+            timer.reset();
+            JSONPullParser p1 = new JSONPullParser(jsonString);
+            long sum1 = 0;
+            for (JSONEvent e; (e = p1.next()) != JSONEvent.EndJSON;) {
+                if (e == JSONEvent.Integer)
+                    sum1 += Long.parseLong(p1.getText());
+            }
+            double parserTime = timer.getElapsedTime();
+
+            timer.reset();
+            JSONPullParser p2 = new JSONPullParser(new JSONByteLexer(new ByteArrayInputStream(json)));
+            long sum2 = 0;
+            for (JSONEvent e; (e = p2.next()) != JSONEvent.EndJSON;) {
+                if (e == JSONEvent.Integer)
+                    sum2 += p2.getLong();
+            }
+            double byteParserTime = timer.getElapsedTime();
+            assertEquals(sum1, sum2);
+
+            _logger.info(String.format("%,d tokens. JSONLexer: %.3f sec., JSONByteLexer: %.3f sec., "
+                    + "JSONPullParser: %.3f sec., JSONPullParser(JSONByteLexer): %.3f sec.", count1, lexerTime,
+                    byteLexerTime, parserTime, byteParserTime));
+        }
+    }
+
+}
@@ -0,0 +1,264 @@
+/*--------------------------------------------------------------------------
+ *  Copyright 2011 Taro L. Saito
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *--------------------------------------------------------------------------*/
+//--------------------------------------
+// XerialJ
+//
+// JSONByteWriterTest.java
+// Since: 2026/10/17
+//
+// $URL$
+// $Author$
+//--------------------------------------
+package org.xerial.json;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.nio.channels.Channels;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+import org.xerial.core.XerialError;
+import org.xerial.util.StopWatch;
+import org.xerial.util.log.Logger;
+
+public class JSONByteWriterTest
+{
+    private static Logger _logger = Logger.getLogger(JSONByteWriterTest.class);
+
+    @Test
+    public void write() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        JSONByteWriter json = new JSONByteWriter(out);
+
+        json.startObject();
+        json.put("id", 1);
+        json.put("name", "Leo");
+        json.put("score", 3.5);
+        json.put("valid", true);
+        json.putNull("tag");
+        json.startArray("phone");
+        json.add("xxx");
+        json.add(2);
+        json.startObject();
+        json.put("x", 1L);
+        json.endObject();
+        json.startArray();
+        json.endArray();
+        json.endJSON();
+
+        String jsonData = new String(out.toByteArray(), "UTF-8");
+        assertEquals("{\"id\":1,\"name\":\"Leo\",\"score\":3.5,\"valid\":true,\"tag\":null,"
+                + "\"phone\":[\"xxx\",2,{\"x\":1},[]]}", jsonData);
+        JSONObject p = JSONObject.parse(jsonData);
+        assertEquals(1, p.getInt("id"));
+        assertEquals(4, p.getJSONArray("phone").size());
+    }
+
+    @Test(expected = XerialError.class)
+    public void invalidJSONData() throws Exception {
+        JSONByteWriter json = new JSONByteWriter(new ByteArrayOutputStream());
+        json.startObject();
+        json.startArray("phone");
+        json.endObject();
+    }
+
+    @Test
+    public void escape() throws Exception {
+        String[] strings = { "", "abc", "a\"b\\c/d", "line\nbreak\r\ttab\b\f\u0001", "あいう é", "𠮷野家",
+                "\uD800 unpaired" };
+        // small buffer to be flushed while writing strings
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        JSONByteWriter json = new JSONByteWriter(out, 64);
+        json.startArray();
+        StringBuilder longString = new StringBuilder();
+        for (int i = 0; i < 100; i++)
+            longString.append("あa\"𠮷");
+        json.add(longString.toString());
+        for (String each : strings)
+            json.add(each);
+        json.endJSON();
+
+        JSONPullParser parser = new JSONPullParser(new JSONByteLexer(out.toByteArray()));
+        assertEquals(JSONEvent.StartArray, parser.next());
+        assertEquals(JSONEvent.String, parser.next());
+        assertEquals(longString.toString(), parser.getText());
+        for (String each : strings) {
+            assertEquals(JSONEvent.String, parser.next());
+            assertEquals(each.replace('\uD800', '?'), parser.getText());
+        }
+        assertEquals(JSONEvent.EndArray, parser.next());
+    }
+
+    @Test
+    public void numbers() throws Exception {
+        long[] longs = { 0, 1, -1, 9, 10, 99, 100, -100, 12345, Integer.MAX_VALUE, Integer.MIN_VALUE,
+                Integer.MAX_VALUE + 1L, Integer.MIN_VALUE - 1L, 999999999999L, Long.MAX_VALUE, Long.MIN_VALUE,
+                Long.MIN_VALUE + 1 };
+        double[] doubles = { 0, -0.0, 1, -1, 3.5, 0.1, 1e-3, 1e-4, 1234567, 9999999, 1e7, -1e7, 1.5e300,
+                Double.MIN_VALUE, Double.MAX_VALUE, Double.NaN, Double.POSITIVE_INFINITY };
+        float[] floats = { 0, 1.1f, -3, 1e7f, 0.1f };
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        JSONByteWriter json = new JSONByteWriter(out, 64);
+        List<String> expected = new ArrayList<String>();
+        for (long each : longs) {
+            json.add(each);
+            expected.add(Long.toString(each));
+            if (each >= Integer.MIN_VALUE && each <= Integer.MAX_VALUE) {
+                json.add((int) each);
+                expected.add(Integer.toString((int) each));
+            }
+        }
+        for (double each : doubles) {
+            json.add(each);
+            expected.add(Double.toString(each));
+        }
+        for (float each : floats) {
+            json.add(each);
+            expected.add(Float.toString(each));
+        }
+        json.flush();
+
+        StringBuilder s = new StringBuilder();
+        for (String each : expected)
+            s.append(each);
+        assertEquals(s.toString(), new String(out.toByteArray(), "UTF-8"));
+    }
+
+    public static class Gene
+    {
+        public int                 id;
+        public String              name;
+        public long                start;
+        public double              score;
+        public boolean             valid;
+        public Float               ratio;
+        public String              comment;
+        public List<Exon>          exon = new ArrayList<Exon>();
+        public Map<String, String> tag  = new LinkedHashMap<String, String>();
+    }
+
+    public static class Exon
+    {
+        public int start;
+        public int end;
+
+        public Exon() {}
+
+        public Exon(int start, int end) {
+            this.start = start;
+            this.end = end;
+        }
+    }
+
+    private static Gene newGene(int i) {
+        Gene g = new Gene();
+        g.id = i;
+        g.name = "gene" + i;
+        g.start = i * 1000000L;
+        g.score = i * 0.5;
+        g.valid = i % 2 == 0;
+        g.ratio = 0.25f;
+        g.exon.add(new Exon(i, i + 10));
+        g.exon.add(new Exon(i + 20, i + 30));
+        g.tag.put("type", "coding");
+        return g;
+    }
+
+    @Test
+    public void bean() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            Gene g = newGene(i);
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            JSONByteWriter json = new JSONByteWriter(out);
+            json.addObject(g);
+            json.flush();
+
+            String expected = JSONUtil.toJSON(g);
+            String jsonData = new String(out.toByteArray(), "UTF-8");
+            _logger.debug(jsonData);
+            assertEquals(new JSONObject(expected).toJSONString(), new JSONObject(jsonData).toJSONString());
+        }
+    }
+
+    @Test
+    public void channel() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        JSONByteWriter json = new JSONByteWriter(Channels.newChannel(out), 64);
+        json.startArray();
+        for (int i = 0; i < 100; i++)
+            json.addObject(newGene(i));
+        json.endArray();
+        json.close();
+
+        JSONArray array = new JSONArray(new String(out.toByteArray(), "UTF-8"));
+        assertEquals(100, array.size());
+        assertEquals("gene99", array.getJSONObject(99).getString("name"));
+    }
+
+    private static class NullOutputStream extends OutputStream
+    {
+        long size = 0;
+
+        @Override
+        public void write(int b) {
+            size++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            size += len;
+        }
+    }
+
+    @Test
+    public void performance() throws Exception {
+        final int numGenes = 20000;
+        List<Gene> genes = new ArrayList<Gene>();
+        for (int i = 0; i < numGenes; i++)
+            genes.add(newGene(i));
+
+        for (int trial = 0; trial < 3; trial++) {
+            StopWatch timer = new StopWatch();
+            StringWriter writer = new StringWriter();
+            JSONWriter json = new JSONWriter(writer);
+            json.startArray();
+            for (Gene each : genes)
+                json.addObject(each);
+            json.endJSON();
+            double writerTime = timer.getElapsedTime();
+
+            timer.reset();
+            NullOutputStream out = new NullOutputStream();
+            JSONByteWriter byteJSON = new JSONByteWriter(out);
+            byteJSON.startArray();
+            for (Gene each : genes)
+                byteJSON.addObject(each);
+            byteJSON.endJSON();
+            double byteWriterTime = timer.getElapsedTime();
+
+            _logger.info(String.format("%,d beans. JSONWriter: %.3f sec., JSONByteWriter: %.3f sec. (%,d bytes)",
+                    numGenes, writerTime, byteWriterTime, out.size));
+        }
+    }
+
+}
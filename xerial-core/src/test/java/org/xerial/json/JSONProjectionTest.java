@@ -0,0 +1,154 @@
+/*--------------------------------------------------------------------------
+ *  Copyright 2011 Taro L. Saito
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *--------------------------------------------------------------------------*/
+//--------------------------------------
+// XerialJ
+//
+// JSONProjectionTest.java
+// Since: 2026/10/17
+//
+// $URL$
+// $Author$
+//--------------------------------------
+package org.xerial.json;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import org.xerial.util.StopWatch;
+import org.xerial.util.log.Logger;
+import org.xerial.util.tree.TreeEvent;
+
+public class JSONProjectionTest
+{
+    private static Logger _logger = Logger.getLogger(JSONProjectionTest.class);
+
+    private static final String json = "[{\"id\":1, \"name\":\"a\\\\}{[\", \"memo\":\"\\\"]}\", \"gene\":{\"start\":10, \"end\":20, "
+                                             + "\"exon\":[{\"start\":10, \"end\":12}, {\"start\":15}]}, "
+                                             + "\"tag\":[1, [2, {\"x\":\"]\"}], null], \"score\":1.5e3, \"valid\":true},"
+                                             + " {\"id\":2, \"gene\":3}]";
+
+    private static List<JSONPullParser> parsers(String json, JSONProjection projection) throws Exception {
+        List<JSONPullParser> parsers = new ArrayList<JSONPullParser>();
+        parsers.add(new JSONPullParser(json));
+        parsers.add(new JSONPullParser(new JSONByteLexer(json.getBytes("UTF-8"))));
+        // refill the buffer while skipping
+        parsers.add(new JSONPullParser(new JSONByteLexer(new ByteArrayInputStream(json.getBytes("UTF-8")), 16)));
+        for (JSONPullParser each : parsers)
+            each.setProjection(projection);
+        return parsers;
+    }
+
+    private static void check(String expected, String... keyPaths) throws Exception {
+        for (JSONPullParser parser : parsers(json, new JSONProjection(keyPaths)))
+            assertEquals(expected, parser.getValue().toJSONString());
+    }
+
+    @Test
+    public void project() throws Exception {
+        check("[{\"id\":1},{\"id\":2}]", "id");
+        check("[{\"id\":1,\"score\":1500.0},{\"id\":2}]", "id", "score");
+        check("[{\"name\":\"a\\}{[\",\"valid\":true},{}]", "name", "valid");
+        check("[{\"tag\":[1,[2,{\"x\":\"]\"}],null]},{}]", "tag");
+        check("[{\"gene\":{\"start\":10,\"end\":20,\"exon\":[{\"start\":10,\"end\":12},{\"start\":15}]}},"
+                + "{\"gene\":3}]", "gene");
+        // the primitive value on the path is not reported
+        check("[{\"gene\":{\"start\":10}},{}]", "gene.start");
+        check("[{\"gene\":{\"exon\":[{\"end\":12},{}]}},{}]", "gene.exon.end");
+        check("[{\"gene\":{\"start\":10,\"end\":20,\"exon\":[{\"start\":10,\"end\":12},{\"start\":15}]}},"
+                + "{\"gene\":3}]", "gene.start", "gene");
+        check("[{},{}]", "unknown");
+    }
+
+    @Test
+    public void streamReader() throws Exception {
+        JSONStreamReader reader = new JSONStreamReader(new JSONByteLexer(json.getBytes("UTF-8")));
+        reader.setProjection(new JSONProjection("id", "gene.exon.start"));
+        List<String> events = new ArrayList<String>();
+        for (TreeEvent e; (e = reader.next()) != null;) {
+            if (e.isVisit() && e.nodeValue != null)
+                events.add(e.nodeName + ":" + e.nodeValue);
+        }
+        assertEquals("[id:1, start:10, start:15, id:2]", events.toString());
+    }
+
+    @Test
+    public void unterminated() throws Exception {
+        for (String each : new String[] { "{\"a\":[1, 2", "{\"a\":\"abc", "{\"a\":{\"b\":\"}" }) {
+            for (JSONPullParser parser : parsers(each, new JSONProjection("b"))) {
+                try {
+                    parser.getValue();
+                    fail(each);
+                }
+                catch (JSONException e) {
+                    _logger.debug(e.getMessage());
+                }
+            }
+        }
+    }
+
+    private static byte[] createWideJSON(int numRecords, int numFields) throws Exception {
+        StringBuilder s = new StringBuilder();
+        s.append("[\n");
+        for (int i = 0; i < numRecords; i++) {
+            if (i > 0)
+                s.append(",\n");
+            s.append(String.format("{\"id\":%d, \"name\":\"read%d\"", i, i));
+            for (int f = 0; f < numFields; f++) {
+                if (f % 10 == 0)
+                    s.append(String.format(", \"obj%d\":{\"x\":%d, \"y\":[1, 2, \"z\"]}", f, f));
+                else if (f % 2 == 0)
+                    s.append(String.format(", \"str%d\":\"value\\t%d\"", f, f));
+                else
+                    s.append(String.format(", \"num%d\":%d.5", f, f));
+            }
+            s.append(String.format(", \"start\":%d}", i * 10));
+        }
+        s.append("\n]");
+        return s.toString().getBytes("UTF-8");
+    }
+
+    @Test
+    public void performance() throws Exception {
+        final int numRecords = 5000;
+        final byte[] json = createWideJSON(numRecords, 200);
+        _logger.info(String.format("JSON size: %,d bytes", json.length));
+
+        for (int trial = 0; trial < 3; trial++) {
+            double[] time = new double[2];
+            long[] sum = new long[2];
+            for (int i = 0; i < 2; i++) {
+                StopWatch timer = new StopWatch();
+                JSONPullParser parser = new JSONPullParser(new JSONByteLexer(new ByteArrayInputStream(json)));
+                if (i == 1)
+                    parser.setProjection(new JSONProjection("id", "name", "start"));
+                JSONArray array = parser.getValue().getJSONArray();
+                for (int r = 0; r < array.size(); r++) {
+                    JSONObject obj = array.get(r).getJSONObject();
+                    sum[i] += obj.getInt("id") + obj.getInt("start") + obj.getString("name").length();
+                }
+                time[i] = timer.getElapsedTime();
+            }
+            assertEquals(sum[0], sum[1]);
+            _logger.info(String.format("%,d records. all fields: %.3f sec., 3 projected fields: %.3f sec.",
+                    numRecords, time[0], time[1]));
+        }
+    }
+
+}
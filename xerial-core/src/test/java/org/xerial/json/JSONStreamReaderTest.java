@@ -34,6 +34,7 @@ import org.xerial.util.FileResource;
 import org.xerial.util.HashedArrayList;
 import org.xerial.util.StopWatch;
 import org.xerial.util.log.Logger;
+import org.xerial.util.tree.NodeNameTable;
 import org.xerial.util.tree.TreeEvent;
 
 public class JSONStreamReaderTest
@@ -143,4 +144,39 @@ public class JSONStreamReaderTest
 
     }
 
+    @Test
+    public void nodeNameTable() throws Exception {
+        for (String file : new String[] { "sample.json", "array.json" }) {
+            JSONStreamReader reader = new JSONStreamReader(FileResource.open(JSONStreamReaderTest.class, file));
+            NodeNameTable table = reader.getNodeNameTable();
+            int count = 0;
+            TreeEvent e;
+            while ((e = reader.next()) != null) {
+                assertEquals(e.nodeName, table.getName(e.getNodeId()));
+                if (e.nodeName != null)
+                    assertSame(table.getName(table.getId(e.nodeName)), e.nodeName);
+                count++;
+            }
+            assertTrue(count > 0);
+        }
+    }
+
+    @Test
+    public void cursor() throws Exception {
+        for (String file : new String[] { "sample.json", "array.json" }) {
+            JSONStreamReader reader = new JSONStreamReader(FileResource.open(JSONStreamReaderTest.class, file));
+            JSONStreamReader cursor = new JSONStreamReader(FileResource.open(JSONStreamReaderTest.class, file));
+            TreeEvent e;
+            while ((e = reader.next()) != null) {
+                assertTrue(cursor.advance());
+                assertEquals(e.event, cursor.getEventType());
+                assertEquals(e.getNodeId(), cursor.getNodeId());
+                assertEquals(e.nodeName, cursor.getNodeName());
+                assertEquals(e.nodeValue, cursor.getNodeValue());
+            }
+            assertFalse(cursor.advance());
+            assertNull(cursor.getEventType());
+        }
+    }
+
 }
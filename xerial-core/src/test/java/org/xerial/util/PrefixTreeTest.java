@@ -24,14 +24,28 @@
 //--------------------------------------
 package org.xerial.util;
 
-import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.SortedMap;
+import java.util.TreeMap;
 
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import org.xerial.util.log.Logger;
 
 public class PrefixTreeTest {
 
+    private static Logger _logger = Logger.getLogger(PrefixTreeTest.class);
+
     PrefixTree<Integer> t;
 
     @Before
@@ -67,4 +81,171 @@ public class PrefixTreeTest {
 
     }
 
+    private static List<String> keys(Iterable<Map.Entry<String, Integer>> entries) {
+        List<String> keys = new ArrayList<String>();
+        for (Map.Entry<String, Integer> each : entries)
+            keys.add(each.getKey() + ":" + each.getValue());
+        return keys;
+    }
+
+    @Test
+    public void entries() throws Exception {
+        t.add("co", 6);
+        t.add("c", 7);
+        assertEquals(7, t.size());
+        assertEquals(6, t.findBy("co").intValue());
+        assertEquals("[c:7, checkout:3, co:6, commit:1, config:5]", keys(t.entries("c")).toString());
+        assertEquals("[co:6, commit:1, config:5]", keys(t.entries("co")).toString());
+        assertEquals("[checkout:3]", keys(t.entries("che")).toString());
+        assertEquals("[]", keys(t.entries("x")).toString());
+        assertEquals("[c, checkout, co, commit, config, log, update]", t.keySet().toString());
+
+        // overwrite
+        t.add("co", 8);
+        assertEquals(7, t.size());
+        assertEquals(8, t.get("co").intValue());
+        assertNull(t.get("comm"));
+        assertNull(t.findBy("cop"));
+        assertTrue(t.containsKey("c"));
+        assertFalse(t.containsKey("ch"));
+
+        t.clear();
+        assertEquals(0, t.size());
+        assertNull(t.findBy(""));
+    }
+
+    @Test
+    public void byteKey() throws Exception {
+        PrefixTree<String> tree = new PrefixTree<String>();
+        tree.add(new byte[] { 1, 2, 3 }, "a");
+        tree.add(new byte[] { 1, (byte) 0xFF }, "b");
+        tree.add(new byte[] { 1, 2 }, "c");
+        tree.add(new byte[0], "empty");
+        tree.add("日本語", "d");
+        assertEquals("a", tree.get(new byte[] { 1, 2, 3 }));
+        assertEquals("c", tree.findBy(new byte[] { 1 }));
+        assertEquals("b", tree.findBy(new byte[] { 1, (byte) 0xFF }));
+        assertEquals("empty", tree.findBy(new byte[0]));
+        assertEquals("d", tree.findBy("日本"));
+        assertEquals("d", tree.get("日本語".getBytes("UTF-8")));
+
+        List<String> values = new ArrayList<String>();
+        for (Map.Entry<byte[], String> each : tree.entries(new byte[] { 1 }))
+            values.add(each.getValue());
+        // bytes are compared as unsigned values
+        assertEquals("[c, a, b]", values.toString());
+    }
+
+    @Test
+    public void freeze() throws Exception {
+        t.add("co", 6);
+        t.add("日本語", 7);
+        FrozenPrefixTree<Integer> frozen = t.freeze();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        frozen.writeTo(out);
+        FrozenPrefixTree<Integer> loaded = FrozenPrefixTree.readFrom(new ByteArrayInputStream(out.toByteArray()));
+
+        List<FrozenPrefixTree<Integer>> trees = new ArrayList<FrozenPrefixTree<Integer>>();
+        trees.add(frozen);
+        trees.add(loaded);
+        for (FrozenPrefixTree<Integer> each : trees) {
+            assertEquals(t.size(), each.size());
+            assertEquals(t.keySet(), each.keySet());
+            for (String key : t.keySet()) {
+                assertEquals(t.get(key), each.get(key));
+                for (int len = 0; len <= key.length(); len++) {
+                    String prefix = key.substring(0, len);
+                    assertEquals(t.findBy(prefix), each.findBy(prefix));
+                    assertEquals(keys(t.entries(prefix)), keys(each.entries(prefix)));
+                }
+            }
+            assertNull(each.get("comm"));
+            assertNull(each.findBy("x"));
+            byte[] buf = "xxcommitxx".getBytes("UTF-8");
+            assertEquals(1, each.get(buf, 2, 6).intValue());
+        }
+    }
+
+    private static String randomPath(Random r) {
+        return String.format("/%s/%s/node%d/%s", r.nextBoolean() ? "gene" : "transcript", r.nextBoolean() ? "chr1"
+                : "chr2", r.nextInt(1000000), r.nextBoolean() ? "name" : "start");
+    }
+
+    /**
+     * prefix search with a sorted map, which was used before the trie
+     */
+    private static Integer findBy(TreeMap<String, Integer> map, String prefix) {
+        String nextKey = map.ceilingKey(prefix);
+        if (nextKey == null)
+            return null;
+        SortedMap<String, Integer> tail = map.tailMap(nextKey);
+        for (String key : tail.keySet()) {
+            if (key.startsWith(prefix))
+                return tail.get(key);
+        }
+        return null;
+    }
+
+    @Test
+    public void performance() throws Exception {
+        final int N = 200000;
+        Random r = new Random(0);
+        TreeMap<String, Integer> map = new TreeMap<String, Integer>();
+        PrefixTree<Integer> tree = new PrefixTree<Integer>();
+        String[] queries = new String[N];
+        for (int i = 0; i < N; i++) {
+            String key = randomPath(r);
+            map.put(key, i);
+            tree.add(key, i);
+            queries[i] = key.substring(0, key.length() - 3);
+        }
+        FrozenPrefixTree<Integer> frozen = tree.freeze();
+        // the sorted map scans the rest of the keys when no key matches, so
+        // only the prefixes of the existing keys are used
+        Collections.shuffle(Arrays.asList(queries), r);
+
+        for (int trial = 0; trial < 3; trial++) {
+            StopWatch timer = new StopWatch();
+            long sum0 = 0;
+            for (String each : queries) {
+                Integer v = findBy(map, each);
+                sum0 += v == null ? 0 : v;
+            }
+            double mapTime = timer.getElapsedTime();
+
+            timer.reset();
+            long sum1 = 0;
+            for (String each : queries) {
+                Integer v = tree.findBy(each);
+                sum1 += v == null ? 0 : v;
+            }
+            double treeTime = timer.getElapsedTime();
+
+            timer.reset();
+            long sum2 = 0;
+            for (String each : queries) {
+                Integer v = frozen.findBy(each);
+                sum2 += v == null ? 0 : v;
+            }
+            double frozenTime = timer.getElapsedTime();
+
+            assertEquals(sum0, sum1);
+            assertEquals(sum0, sum2);
+            _logger.info(String.format("%,d prefix queries. TreeMap: %.3f sec., PrefixTree: %.3f sec., "
+                    + "FrozenPrefixTree: %.3f sec.", N, mapTime, treeTime, frozenTime));
+        }
+
+        StopWatch timer = new StopWatch();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        frozen.writeTo(out);
+        double writeTime = timer.getElapsedTime();
+        timer.reset();
+        FrozenPrefixTree<Integer> loaded = FrozenPrefixTree.readFrom(new ByteArrayInputStream(out.toByteArray()));
+        double readTime = timer.getElapsedTime();
+        assertEquals(frozen.size(), loaded.size());
+        _logger.info(String.format("frozen tree of %,d keys: %,d bytes. write: %.3f sec., read: %.3f sec.", frozen
+                .size(), out.size(), writeTime, readTime));
+    }
+
 }
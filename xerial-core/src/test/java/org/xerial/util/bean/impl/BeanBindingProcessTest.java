@@ -0,0 +1,162 @@
+/*--------------------------------------------------------------------------
+ *  Copyright 2011 Taro L. Saito
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *--------------------------------------------------------------------------*/
+//--------------------------------------
+// XerialJ
+//
+// BeanBindingProcessTest.java
+// Since: 2026/10/17
+//
+// $URL$
+// $Author$
+//--------------------------------------
+package org.xerial.util.bean.impl;
+
+import static org.junit.Assert.*;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.junit.Test;
+import org.xerial.json.JSONByteLexer;
+import org.xerial.json.JSONStreamReader;
+import org.xerial.json.JSONStreamWalker;
+import org.xerial.util.StopWatch;
+import org.xerial.util.log.Logger;
+import org.xerial.util.tree.TreeWalkerImpl;
+
+public class BeanBindingProcessTest
+{
+    private static Logger _logger = Logger.getLogger(BeanBindingProcessTest.class);
+
+    public static class Exon
+    {
+        private int start;
+        private int end;
+
+        public void setStart(int start) {
+            this.start = start;
+        }
+
+        public void setEnd(int end) {
+            this.end = end;
+        }
+    }
+
+    public static class Gene
+    {
+        private int                     id;
+        private String                  name;
+        private long                    start;
+        private double                  score;
+        private boolean                 valid;
+        private List<Exon>              exon = new ArrayList<Exon>();
+        private TreeMap<String, String> tag  = new TreeMap<String, String>();
+
+        public void setId(int id) {
+            this.id = id;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public void setStart(long start) {
+            this.start = start;
+        }
+
+        public void setScore(double score) {
+            this.score = score;
+        }
+
+        public void setValid(boolean valid) {
+            this.valid = valid;
+        }
+
+        public void addExon(Exon e) {
+            exon.add(e);
+        }
+
+        public void putTag(String key, String value) {
+            tag.put(key, value);
+        }
+    }
+
+    public static class GeneSet
+    {
+        private List<Gene> gene = new ArrayList<Gene>();
+
+        public void addGene(Gene g) {
+            gene.add(g);
+        }
+    }
+
+    private static String createJSON(int numGenes) {
+        StringBuilder s = new StringBuilder();
+        s.append("{\"gene\":[");
+        for (int i = 0; i < numGenes; i++) {
+            if (i > 0)
+                s.append(",");
+            s.append(String.format("{\"id\":%d, \"name\":\"gene%d\", \"start\":%d, \"score\":%d.5, \"valid\":%s, "
+                    + "\"comment\":\"skipped\", \"exon\":[{\"start\":%d, \"end\":%d}, {\"start\":%d, \"end\":%d}], "
+                    + "\"tag\":[{\"key\":\"type\", \"value\":\"coding\"}]}", i, i, i * 1000L, i, i % 2 == 0, i,
+                    i + 10, i + 20, i + 30));
+        }
+        s.append("]}");
+        return s.toString();
+    }
+
+    private static GeneSet load(String json) throws Exception {
+        return BeanUtilImpl.createTypedBean(new TreeWalkerImpl(new JSONStreamReader(new JSONByteLexer(json
+                .getBytes("UTF-8")))), GeneSet.class);
+    }
+
+    @Test
+    public void bind() throws Exception {
+        GeneSet set = BeanUtilImpl.createTypedBean(new JSONStreamWalker(new StringReader(createJSON(3))),
+                GeneSet.class);
+        assertEquals(3, set.gene.size());
+        assertEquals(set.gene.size(), load(createJSON(3)).gene.size());
+        Gene g = set.gene.get(2);
+        assertEquals(2, g.id);
+        assertEquals("gene2", g.name);
+        assertEquals(2000L, g.start);
+        assertEquals(2.5, g.score, 1e-8);
+        assertTrue(g.valid);
+        assertEquals(2, g.exon.size());
+        assertEquals(22, g.exon.get(1).start);
+        assertEquals(32, g.exon.get(1).end);
+        for (Map.Entry<String, String> each : g.tag.entrySet()) {
+            assertEquals("type", each.getKey());
+            assertEquals("coding", each.getValue());
+        }
+    }
+
+    @Test
+    public void performance() throws Exception {
+        final int numGenes = 5000;
+        String json = createJSON(numGenes);
+        for (int trial = 0; trial < 5; trial++) {
+            StopWatch timer = new StopWatch();
+            GeneSet set = load(json);
+            assertEquals(numGenes, set.gene.size());
+            _logger.info(String.format("bind %,d genes: %.3f sec.", numGenes, timer.getElapsedTime()));
+        }
+    }
+
+}
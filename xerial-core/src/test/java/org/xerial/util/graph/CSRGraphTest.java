@@ -0,0 +1,213 @@
+/*--------------------------------------------------------------------------
+ *  Copyright 2011 Taro L. Saito
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *--------------------------------------------------------------------------*/
+//--------------------------------------
+// XerialJ
+//
+// CSRGraphTest.java
+// Since: 2026/10/17
+//
+// $URL$
+// $Author$
+//--------------------------------------
+package org.xerial.util.graph;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.junit.Test;
+import org.xerial.util.StopWatch;
+import org.xerial.util.log.Logger;
+
+public class CSRGraphTest
+{
+    private static Logger _logger = Logger.getLogger(CSRGraphTest.class);
+
+    private static AdjacencyList<String, String> sampleGraph() {
+        AdjacencyList<String, String> graph = new AdjacencyList<String, String>();
+        /*
+         *  A->B -->C
+         *  | ^|^
+         *  V/ V|
+         *  D<-E    F
+         */
+        graph.addEdge("A", "B", "ab");
+        graph.addEdge("B", "C");
+        graph.addEdge("A", "D", "x");
+        graph.addEdge("E", "D", "x");
+        graph.addEdge("B", "E");
+        graph.addEdge("E", "B", "eb");
+        graph.addEdge("D", "B");
+        graph.addNode("F");
+        return graph;
+    }
+
+    private static <T> TreeSet<T> sorted(Collection<T> c) {
+        return new TreeSet<T>(c);
+    }
+
+    @Test
+    public void copy() throws Exception {
+        AdjacencyList<String, String> al = sampleGraph();
+        CSRGraph<String, String> csr = CSRGraph.copy(al);
+
+        assertEquals(al.getNumNodes(), csr.getNumNodes());
+        assertEquals(7, csr.getNumEdges());
+        assertEquals(sorted(al.getNodeIDSet()), sorted(csr.getNodeIDSet()));
+        assertEquals(sorted(al.getNodeLabelSet()), sorted(csr.getNodeLabelSet()));
+        assertEquals(sorted(al.getEdgeIDSet()), sorted(csr.getEdgeIDSet()));
+        assertEquals(sorted(al.getEdgeSet()), sorted(csr.getEdgeSet()));
+        assertEquals(3, csr.getNumEdgeLabels());
+
+        for (int nodeID : al.getNodeIDSet()) {
+            String node = al.getNodeLabel(nodeID);
+            assertEquals(node, csr.getNodeLabel(nodeID));
+            assertEquals(nodeID, csr.getNodeID(node));
+            assertTrue(csr.hasNode(node));
+            assertEquals(new ArrayList<Integer>(al.getDestNodeIDSetOf(nodeID)), new ArrayList<Integer>(csr
+                    .getDestNodeIDSetOf(nodeID)));
+            assertEquals(new ArrayList<Integer>(al.getSourceNodeIDSetOf(nodeID)), new ArrayList<Integer>(csr
+                    .getSourceNodeIDSetOf(nodeID)));
+            assertEquals(sorted(al.getOutEdgeSet(node)), sorted(csr.getOutEdgeSet(node)));
+            assertEquals(sorted(al.getInEdgeSet(node)), sorted(csr.getInEdgeSet(node)));
+        }
+        for (Edge e : al.getEdgeSet()) {
+            assertTrue(csr.hasEdge(e));
+            assertEquals(al.getEdgeID(e), csr.getEdgeID(e));
+            assertEquals(al.getEdgeLabel(e), csr.getEdgeLabel(e));
+            assertEquals(al.getEdgeLabel(e), csr.getEdgeLabel(al.getEdgeID(e)));
+        }
+        assertTrue(csr.hasEdge("E", "D"));
+        assertFalse(csr.hasEdge("D", "E"));
+        assertFalse(csr.hasEdge("A", "Z"));
+        assertFalse(csr.hasNode("Z"));
+        assertEquals(-1, csr.getNodeID("Z"));
+        assertEquals(0, csr.getDestNodeIDSetOf(100).size());
+        assertNull(csr.getEdgeLabel(100));
+        assertEquals(al.toGraphViz(), csr.toGraphViz());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void immutable() throws Exception {
+        CSRGraph.copy(sampleGraph()).addEdge("C", "A");
+    }
+
+    @Test
+    public void cursor() throws Exception {
+        AdjacencyList<String, String> al = sampleGraph();
+        CSRGraph<String, String> csr = CSRGraph.copy(al);
+        CSRGraph<String, String>.EdgeCursor cursor = csr.newCursor();
+
+        int b = csr.getNodeID("B");
+        ArrayList<String> in = new ArrayList<String>();
+        for (csr.inEdges(b, cursor); cursor.next();) {
+            Edge e = new Edge(cursor.nodeID(), b);
+            assertEquals(al.getEdgeID(e), cursor.edgeID());
+            assertEquals(al.getEdgeLabel(e), cursor.edgeLabel());
+            in.add(csr.getNodeLabel(cursor.nodeID()) + ":" + cursor.edgeLabel());
+        }
+        assertEquals(3, csr.getInDegree(b));
+        assertEquals("[A:ab, D:null, E:eb]", sorted(in).toString());
+
+        int a = csr.getNodeID("A");
+        int count = 0;
+        for (csr.outEdges(a, cursor); cursor.next(); count++) {
+            if (cursor.edgeLabelID() != -1)
+                assertEquals(cursor.edgeLabel(), csr.getEdgeLabelOfLabelID(cursor.edgeLabelID()));
+        }
+        assertEquals(2, count);
+        assertFalse(csr.outEdges(csr.getNodeID("F"), cursor).next());
+    }
+
+    /**
+     * BFS through the {@link Graph} interface
+     */
+    private static int[] bfs(Graph<Integer, String> graph, int numNodes, int start) {
+        int[] depth = new int[numNodes];
+        Arrays.fill(depth, -1);
+        int[] queue = new int[numNodes];
+        int head = 0, tail = 0;
+        queue[tail++] = start;
+        depth[start] = 0;
+        while (head < tail) {
+            int u = queue[head++];
+            for (int v : graph.getDestNodeIDSetOf(u)) {
+                if (depth[v] == -1) {
+                    depth[v] = depth[u] + 1;
+                    queue[tail++] = v;
+                }
+            }
+        }
+        return depth;
+    }
+
+    private static AdjacencyList<Integer, String> randomGraph(int numNodes, int numEdges, long seed) {
+        Random r = new Random(seed);
+        AdjacencyList<Integer, String> graph = new AdjacencyList<Integer, String>();
+        for (int i = 0; i < numNodes; i++)
+            graph.addNode(i);
+        for (int i = 0; i < numEdges; i++)
+            graph.addEdge(r.nextInt(numNodes), r.nextInt(numNodes));
+        return graph;
+    }
+
+    @Test
+    public void breadthFirstSearch() throws Exception {
+        // small frontiers are expanded sequentially; large ones by the threads
+        for (int numNodes : new int[] { 50, 20000 }) {
+            AdjacencyList<Integer, String> al = randomGraph(numNodes, numNodes * 4, 0);
+            CSRGraph<Integer, String> csr = CSRGraph.copy(al);
+            int[] expected = bfs(al, numNodes, 0);
+            assertArrayEquals(expected, csr.breadthFirstSearch(0));
+            assertArrayEquals(expected, csr.breadthFirstSearch(0, 4));
+        }
+    }
+
+    @Test
+    public void performance() throws Exception {
+        final int numNodes = 100000;
+        AdjacencyList<Integer, String> al = randomGraph(numNodes, numNodes * 8, 1);
+        StopWatch timer = new StopWatch();
+        CSRGraph<Integer, String> csr = CSRGraph.copy(al);
+        _logger.info(String.format("CSR construction of %,d edges: %.3f sec.", csr.getNumEdges(), timer
+                .getElapsedTime()));
+
+        final int numThreads = Runtime.getRuntime().availableProcessors();
+        for (int trial = 0; trial < 3; trial++) {
+            timer.reset();
+            int[] d1 = bfs(al, numNodes, 0);
+            double alTime = timer.getElapsedTime();
+
+            timer.reset();
+            int[] d2 = csr.breadthFirstSearch(0);
+            double csrTime = timer.getElapsedTime();
+
+            timer.reset();
+            int[] d3 = csr.breadthFirstSearch(0, numThreads);
+            double parallelTime = timer.getElapsedTime();
+
+            assertArrayEquals(d1, d2);
+            assertArrayEquals(d1, d3);
+            _logger.info(String.format("BFS of %,d nodes. AdjacencyList: %.3f sec., CSRGraph: %.3f sec., "
+                    + "CSRGraph with %d threads: %.3f sec.", numNodes, alTime, csrTime, numThreads, parallelTime));
+        }
+    }
+
+}
@@ -0,0 +1,180 @@
+/*--------------------------------------------------------------------------
+ *  Copyright 2009 Taro L. Saito
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *--------------------------------------------------------------------------*/
+//--------------------------------------
+// XerialJ
+//
+// MappedLineReaderTest.java
+// Since: 2026/10/17
+//
+// $URL$
+// $Author$
+//--------------------------------------
+package org.xerial.util.io;
+
+import static org.junit.Assert.*;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import org.xerial.util.FileUtil;
+import org.xerial.util.StopWatch;
+import org.xerial.util.StringUtil;
+import org.xerial.util.log.Logger;
+
+public class MappedLineReaderTest
+{
+    private static Logger _logger = Logger.getLogger(MappedLineReaderTest.class);
+
+    private static File createFile(String content) throws Exception {
+        File tmp = FileUtil.createTempFile(new File("target"), "mapped-test", ".txt");
+        tmp.deleteOnExit();
+        Writer out = new OutputStreamWriter(new FileOutputStream(tmp), "UTF-8");
+        out.write(content);
+        out.close();
+        return tmp;
+    }
+
+    private static List<String> readWithBufferedReader(File file) throws Exception {
+        List<String> lines = new ArrayList<String>();
+        BufferedReader in = new BufferedReader(new InputStreamReader(new FileInputStream(file), "UTF-8"));
+        for (String line; (line = in.readLine()) != null;)
+            lines.add(line);
+        in.close();
+        return lines;
+    }
+
+    private static List<String> readWithMappedReader(File file, int windowSize) throws Exception {
+        List<String> lines = new ArrayList<String>();
+        MappedLineReader in = new MappedLineReader(file, windowSize);
+        try {
+            while (in.next())
+                lines.add(in.getLine());
+            assertEquals(lines.size(), in.getLineCount());
+        }
+        finally {
+            in.close();
+        }
+        return lines;
+    }
+
+    @Test
+    public void readLines() throws Exception {
+        String[] contents = { "", "a", "a\n", "\n\n", "hello\nworld!\r\n\r\nline\r4\n\r", "あい\tx\nabc\r\n",
+                "long line " + StringUtil.join(new String[] { "0123456789", "0123456789", "0123456789" }, "\t") };
+
+        for (String content : contents) {
+            File file = createFile(content);
+            List<String> expected = readWithBufferedReader(file);
+            // small windows to test the window sliding and expansion
+            for (int windowSize : new int[] { 1, 2, 3, 7, 1024 })
+                assertEquals(content, expected, readWithMappedReader(file, windowSize));
+        }
+    }
+
+    @Test
+    public void fields() throws Exception {
+        File file = createFile("a\tbc\t\tあ\n\t\nabc\n");
+        MappedLineReader in = new MappedLineReader(file, 4);
+        try {
+            while (in.next()) {
+                String line = in.getLine();
+                List<String> fields = new ArrayList<String>();
+                while (in.nextField()) {
+                    assertEquals(in.getField(), in.getFieldAsUTF8String().toString());
+                    assertEquals(in.getField(), in.getString(in.getFieldOffset(), in.getFieldOffset()
+                            + in.getFieldLength()));
+                    fields.add(in.getField());
+                }
+                assertEquals(StringUtil.splitAtTab(line), fields);
+                assertEquals(line, in.getLineAsUTF8String().toString());
+                assertEquals(line.indexOf('\t'), in.indexOf((byte) '\t', 0));
+            }
+        }
+        finally {
+            in.close();
+        }
+    }
+
+    @Test
+    public void range() throws Exception {
+        File file = createFile("line1\nline2\r\nline3\nline4");
+        List<String> lines = new ArrayList<String>();
+        List<Long> offsets = new ArrayList<Long>();
+        MappedLineReader in = new MappedLineReader(file, 2);
+        while (in.next()) {
+            lines.add(in.getLine());
+            offsets.add(in.getLineOffset());
+        }
+        in.close();
+        offsets.add(file.length());
+
+        for (int i = 0; i < lines.size(); i++) {
+            for (int j = i; j < lines.size(); j++) {
+                List<String> read = new ArrayList<String>();
+                MappedLineReader r = new MappedLineReader(file, offsets.get(i), offsets.get(j + 1), 3);
+                while (r.next()) {
+                    assertEquals(offsets.get(i + read.size()).longValue(), r.getLineOffset());
+                    read.add(r.getLine());
+                }
+                r.close();
+                assertEquals(lines.subList(i, j + 1), read);
+            }
+        }
+    }
+
+    @Test
+    public void performance() throws Exception {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 100000; i++)
+            content.append(String.format("%d\tchr%d\t%d\t%d\tgene%d\n", i, i % 22, i * 100, i * 100 + 50, i));
+        File file = createFile(content.toString());
+
+        for (int trial = 0; trial < 3; trial++) {
+            StopWatch timer = new StopWatch();
+            List<String> lines = readWithBufferedReader(file);
+            double bufferedReaderTime = timer.getElapsedTime();
+
+            timer.reset();
+            List<String> mappedLines = readWithMappedReader(file, MappedLineReader.DEFAULT_WINDOW_SIZE);
+            double mappedTime = timer.getElapsedTime();
+            assertEquals(lines.size(), mappedLines.size());
+
+            // decode the 2nd column only
+            timer.reset();
+            MappedLineReader in = new MappedLineReader(file);
+            int count = 0;
+            while (in.next()) {
+                if (in.nextField() && in.nextField() && in.getField().length() > 0)
+                    count++;
+            }
+            in.close();
+            double fieldTime = timer.getElapsedTime();
+            assertEquals(lines.size(), count);
+
+            _logger.info(String.format("BufferedReader: %.3f sec., MappedLineReader: %.3f sec. (2nd column only: %.3f sec.)",
+                    bufferedReaderTime, mappedTime, fieldTime));
+        }
+    }
+
+}
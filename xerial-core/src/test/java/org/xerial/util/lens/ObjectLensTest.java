@@ -26,12 +26,21 @@ package org.xerial.util.lens;
 
 import static org.junit.Assert.*;
 
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.xerial.util.Pair;
+import org.xerial.util.ReflectionUtil;
+import org.xerial.util.StopWatch;
 import org.xerial.util.log.Logger;
 
 public class ObjectLensTest {
@@ -131,4 +140,97 @@ public class ObjectLensTest {
 
     }
 
+    public static class Read {
+        public List<Integer> pos = new ArrayList<Integer>();
+        public List<Integer> qual;
+        private String name;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+    }
+
+    @Test
+    public void collectionField() throws Exception {
+        Read r = new Read();
+        ObjectLens lens = ObjectLens.getObjectLens(Read.class);
+        lens.setParameter(r, "pos", "10");
+        lens.setParameter(r, "pos", 20);
+        lens.setParameter(r, "qual", "30");
+        lens.setParameter(r, "name", "read1");
+
+        assertEquals(2, r.pos.size());
+        assertEquals(Integer.valueOf(10), r.pos.get(0));
+        assertEquals(Integer.valueOf(20), r.pos.get(1));
+        assertEquals(1, r.qual.size());
+        assertEquals(Integer.valueOf(30), r.qual.get(0));
+        assertEquals("read1", lens.getParameter(r, "name"));
+    }
+
+    public static class Lazy {
+        public int a, b, c;
+    }
+
+    @Test
+    public void concurrentLookup() throws Exception {
+        ExecutorService threadPool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<ObjectLens>> result = new ArrayList<Future<ObjectLens>>();
+            for (int i = 0; i < 16; i++) {
+                result.add(threadPool.submit(new Callable<ObjectLens>() {
+                    public ObjectLens call() throws Exception {
+                        return ObjectLens.getObjectLens(Lazy.class);
+                    }
+                }));
+            }
+            // all threads share the same lens
+            for (Future<ObjectLens> each : result)
+                assertSame(ObjectLens.getObjectLens(Lazy.class), each.get());
+        }
+        finally {
+            threadPool.shutdown();
+        }
+    }
+
+    @Test
+    public void performance() throws Exception {
+        final int N = 200000;
+        Field pos = Read.class.getField("pos");
+        ObjectLens lens = ObjectLens.getObjectLens(Read.class);
+
+        for (int trial = 0; trial < 3; trial++) {
+            // resolves the adder and the element type at every call
+            Read r1 = new Read();
+            StopWatch timer = new StopWatch();
+            for (int i = 0; i < N; i++)
+                ReflectionUtil.setFieldValue(r1, pos, i);
+            double reflectionTime = timer.getElapsedTime();
+
+            Read r2 = new Read();
+            timer.reset();
+            for (int i = 0; i < N; i++)
+                ObjectLens.getObjectLens(Read.class).setParameter(r2, "pos", i);
+            double lensTime = timer.getElapsedTime();
+
+            timer.reset();
+            long sum = 0;
+            for (int i = 0; i < N; i++) {
+                lens.setParameter(r2, "name", "read");
+                sum += ((String) lens.getParameter(r2, "name")).length();
+            }
+            double getterSetterTime = timer.getElapsedTime();
+
+            assertEquals(r1.pos, r2.pos);
+            assertEquals(N * 4L, sum);
+            _logger.info(String.format(
+                    "%,d calls. collection field - ReflectionUtil: %.3f sec., lens: %.3f sec. "
+                            + "getter/setter pair: %.3f sec.", N, reflectionTime, lensTime,
+                    getterSetterTime));
+        }
+    }
+
 }
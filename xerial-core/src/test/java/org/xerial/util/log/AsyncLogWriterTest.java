@@ -0,0 +1,205 @@
+/*--------------------------------------------------------------------------
+ *  Copyright 2011 Taro L. Saito
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *--------------------------------------------------------------------------*/
+//--------------------------------------
+// XerialJ
+//
+// AsyncLogWriterTest.java
+// Since: 2026/10/17
+//
+// $URL$
+// $Author$
+//--------------------------------------
+package org.xerial.util.log;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Test;
+import org.xerial.util.StopWatch;
+
+public class AsyncLogWriterTest {
+
+    private static Logger _logger = Logger.getLogger(AsyncLogWriterTest.class);
+
+    /**
+     * Collects the log messages and the threads that formatted them
+     */
+    private static class MessageCollector implements LogWriter {
+        List<String> messages      = new ArrayList<String>();
+        List<Thread> threads       = new ArrayList<Thread>();
+        final int    delayMillis;
+
+        MessageCollector(int delayMillis) {
+            this.delayMillis = delayMillis;
+        }
+
+        public void log(Logger logger, LogLevel logLevel, Object message) throws IOException {
+            messages.add(message.toString());
+            threads.add(Thread.currentThread());
+            if (delayMillis > 0) {
+                try {
+                    Thread.sleep(delayMillis);
+                }
+                catch (InterruptedException e) {}
+            }
+        }
+    }
+
+    private static Logger newLogger(String name, LogWriter writer) {
+        Logger logger = Logger.getLogger(AsyncLogWriterTest.class, name);
+        logger.setLogLevel(LogLevel.INFO);
+        logger.setLogWriter(writer);
+        return logger;
+    }
+
+    @Test
+    public void deferredFormat() throws Exception {
+        MessageCollector collector = new MessageCollector(0);
+        AsyncLogWriter async = new AsyncLogWriter(collector);
+        Logger logger = newLogger("deferred", async);
+
+        logger.info("hello %s", "world");
+        logger.info("plain message");
+        logger.debug("not %s", "logged");
+        async.flush();
+
+        assertEquals("[hello world, plain message]", collector.messages.toString());
+        assertTrue(collector.threads.get(0) != Thread.currentThread());
+
+        async.close();
+        logger.info("after %s", "close");
+        assertEquals("after close", collector.messages.get(2));
+        assertEquals(Thread.currentThread(), collector.threads.get(2));
+    }
+
+    private static void logConcurrently(final Logger logger, int numThreads, final int numMessages)
+            throws InterruptedException {
+        final CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<Thread>();
+        for (int t = 0; t < numThreads; t++) {
+            final int id = t;
+            Thread thread = new Thread(new Runnable() {
+                public void run() {
+                    try {
+                        start.await();
+                    }
+                    catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int i = 0; i < numMessages; i++)
+                        logger.info("thread %d: message %d", id, i);
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        for (Thread each : threads)
+            each.join();
+    }
+
+    @Test
+    public void block() throws Exception {
+        MessageCollector collector = new MessageCollector(0);
+        AsyncLogWriter async = new AsyncLogWriter(collector, 16, AsyncLogWriter.Overflow.BLOCK);
+        Logger logger = newLogger("block", async);
+
+        logConcurrently(logger, 4, 2000);
+        async.close();
+
+        assertEquals(8000, collector.messages.size());
+        assertEquals(0, async.getNumDropped());
+        // the messages of each thread are written in order
+        int[] next = new int[4];
+        for (String each : collector.messages) {
+            String[] c = each.split("[: ]+");
+            int thread = Integer.parseInt(c[1]);
+            assertEquals(next[thread]++, Integer.parseInt(c[3]));
+        }
+    }
+
+    @Test
+    public void closeWhileLogging() throws Exception {
+        for (int trial = 0; trial < 20; trial++) {
+            MessageCollector collector = new MessageCollector(0);
+            final AsyncLogWriter async = new AsyncLogWriter(collector, 16, AsyncLogWriter.Overflow.BLOCK);
+            Logger logger = newLogger("close", async);
+
+            Thread closer = new Thread(new Runnable() {
+                public void run() {
+                    Thread.yield();
+                    async.close();
+                }
+            });
+            closer.start();
+            logConcurrently(logger, 4, 500);
+            closer.join();
+
+            // no record is lost at the shutdown
+            assertEquals(2000, collector.messages.size());
+        }
+    }
+
+    @Test
+    public void drop() throws Exception {
+        MessageCollector collector = new MessageCollector(1);
+        AsyncLogWriter async = new AsyncLogWriter(collector, 4, AsyncLogWriter.Overflow.DROP);
+        Logger logger = newLogger("drop", async);
+
+        logConcurrently(logger, 2, 100);
+        async.close();
+
+        assertTrue(async.getNumDropped() > 0);
+        assertEquals(200, collector.messages.size() + async.getNumDropped());
+    }
+
+    private static class NullWriter extends Writer {
+        @Override
+        public void write(char[] cbuf, int off, int len) {}
+
+        @Override
+        public void flush() {}
+
+        @Override
+        public void close() {}
+    }
+
+    @Test
+    public void performance() throws Exception {
+        final int numMessages = 50000;
+        for (int trial = 0; trial < 3; trial++) {
+            StopWatch timer = new StopWatch();
+            logConcurrently(newLogger("sync", new SimpleLogWriter(new NullWriter())), 2, numMessages);
+            double syncTime = timer.getElapsedTime();
+
+            timer.reset();
+            AsyncLogWriter async = new AsyncLogWriter(new SimpleLogWriter(new NullWriter()));
+            logConcurrently(newLogger("async", async), 2, numMessages);
+            double asyncTime = timer.getElapsedTime();
+            async.close();
+            double totalTime = timer.getElapsedTime();
+
+            _logger.info(String.format("%,d messages. synchronous: %.3f sec., asynchronous: %.3f sec. "
+                    + "(%.3f sec. until written)", numMessages * 2, syncTime, asyncTime, totalTime));
+        }
+    }
+
+}
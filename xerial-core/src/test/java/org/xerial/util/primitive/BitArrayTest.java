@@ -0,0 +1,147 @@
+/*--------------------------------------------------------------------------
+ *  Copyright 2011 Taro L. Saito
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *--------------------------------------------------------------------------*/
+//--------------------------------------
+// XerialJ
+//
+// BitArrayTest.java
+// Since: 2026/10/17
+//
+// $URL$
+// $Author$
+//--------------------------------------
+package org.xerial.util.primitive;
+
+import static org.junit.Assert.*;
+
+import java.util.BitSet;
+import java.util.Random;
+
+import org.junit.Test;
+import org.xerial.util.StopWatch;
+import org.xerial.util.log.Logger;
+
+public class BitArrayTest
+{
+    private static Logger _logger = Logger.getLogger(BitArrayTest.class);
+
+    @Test
+    public void setAndGet() throws Exception {
+        BitArray b = new BitArray(0);
+        b.set(1);
+        assertEquals("01", b.toString());
+        b.set(130);
+        assertEquals(131, b.size());
+        assertTrue(b.get(130));
+        assertFalse(b.get(1000));
+        b.clear(1);
+        assertFalse(b.get(1));
+        assertEquals(1, b.count());
+        b.clear();
+        assertEquals(0, b.size());
+        assertEquals(0, b.count());
+        assertEquals(-1, b.select(0));
+    }
+
+    @Test
+    public void rankAndSelect() throws Exception {
+        Random r = new Random(0);
+        for (int density : new int[] { 2, 10, 100 }) {
+            int size = 10000 + r.nextInt(100);
+            BitArray b = new BitArray(size);
+            for (int i = 0; i < size; i++) {
+                if (r.nextInt(density) == 0)
+                    b.set(i);
+            }
+
+            int ones = 0;
+            for (int i = 0; i < size; i++) {
+                assertEquals(ones, b.rank(i));
+                if (b.get(i)) {
+                    assertEquals(i, b.select(ones));
+                    ones++;
+                }
+            }
+            assertEquals(ones, b.count());
+            assertEquals(ones, b.rank(size));
+            assertEquals(-1, b.select(ones));
+
+            // the directory is rebuilt after the modification
+            int first = b.select(0);
+            b.clear(first);
+            assertEquals(ones - 1, b.count());
+            assertTrue(b.select(0) > first);
+        }
+    }
+
+    @Test
+    public void copy() throws Exception {
+        BitArray b = new BitArray();
+        b.set(3);
+        b.set(70);
+        BitArray c = new BitArray(b);
+        assertEquals(b, c);
+        assertEquals(b.hashCode(), c.hashCode());
+        c.set(71);
+        assertFalse(b.equals(c));
+        assertFalse(b.get(71));
+    }
+
+    @Test
+    public void performance() throws Exception {
+        final int N = 1000000;
+        Random r = new Random(0);
+        BitArray b = new BitArray(N);
+        BitSet bitSet = new BitSet(N);
+        for (int i = 0; i < N; i++) {
+            if (r.nextInt(3) == 0) {
+                b.set(i);
+                bitSet.set(i);
+            }
+        }
+        final int numQueries = 10000;
+        int[] query = new int[numQueries];
+        for (int i = 0; i < numQueries; i++)
+            query[i] = r.nextInt(N);
+
+        for (int trial = 0; trial < 3; trial++) {
+            StopWatch timer = new StopWatch();
+            long rankSum = 0;
+            for (int q : query)
+                rankSum += bitSet.get(0, q).cardinality();
+            double bitSetTime = timer.getElapsedTime();
+
+            timer.reset();
+            long rankSum2 = 0;
+            for (int q : query)
+                rankSum2 += b.rank(q);
+            double rankTime = timer.getElapsedTime();
+
+            timer.reset();
+            long selectSum = 0;
+            int count = b.count();
+            for (int q : query)
+                selectSum += b.select(q % count);
+            double selectTime = timer.getElapsedTime();
+
+            assertEquals(rankSum, rankSum2);
+            assertTrue(selectSum > 0);
+            _logger.info(String.format("%,d rank queries. BitSet.get(0, i).cardinality(): %.3f sec., "
+                    + "BitArray.rank: %.3f sec., BitArray.select: %.3f sec.", numQueries, bitSetTime, rankTime,
+                    selectTime));
+        }
+    }
+
+}
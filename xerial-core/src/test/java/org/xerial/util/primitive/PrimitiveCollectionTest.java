@@ -0,0 +1,208 @@
+/*--------------------------------------------------------------------------
+ *  Copyright 2011 Taro L. Saito
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *--------------------------------------------------------------------------*/
+//--------------------------------------
+// XerialJ
+//
+// PrimitiveCollectionTest.java
+// Since: 2026/10/17
+//
+// $URL$
+// $Author$
+//--------------------------------------
+package org.xerial.util.primitive;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+import org.xerial.util.StopWatch;
+import org.xerial.util.log.Logger;
+
+public class PrimitiveCollectionTest
+{
+    private static Logger _logger = Logger.getLogger(PrimitiveCollectionTest.class);
+
+    @Test
+    public void intIntMap() throws Exception {
+        // compare with HashMap using a small key range to cause collisions and removals
+        Random r = new Random(0);
+        IntIntMap map = new IntIntMap(4);
+        HashMap<Integer, Integer> expected = new HashMap<Integer, Integer>();
+        for (int i = 0; i < 100000; i++) {
+            int key = r.nextInt(2000) - 1000;
+            switch (r.nextInt(4)) {
+            case 0:
+                map.put(key, i);
+                expected.put(key, i);
+                break;
+            case 1:
+                assertEquals(expected.remove(key) != null, map.remove(key));
+                break;
+            case 2:
+                Integer prev = expected.get(key);
+                expected.put(key, (prev == null ? 0 : prev) + 3);
+                assertEquals(expected.get(key).intValue(), map.increment(key, 3));
+                break;
+            default:
+                assertEquals(expected.containsKey(key), map.containsKey(key));
+                assertEquals(expected.containsKey(key) ? expected.get(key) : -1, map.get(key, -1));
+            }
+        }
+        assertEquals(expected.size(), map.size());
+        int count = 0;
+        for (IntIntMap.Cursor c = map.cursor(); c.next(); count++)
+            assertEquals(expected.get(c.key()).intValue(), c.value());
+        assertEquals(expected.size(), count);
+        assertEquals(expected.size(), map.keys().length);
+
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertFalse(map.containsKey(0));
+    }
+
+    @Test
+    public void longObjectMap() throws Exception {
+        Random r = new Random(0);
+        LongObjectMap<String> map = new LongObjectMap<String>();
+        HashMap<Long, String> expected = new HashMap<Long, String>();
+        for (int i = 0; i < 100000; i++) {
+            long key = (r.nextInt(2000) - 1000) * 0x100000000L;
+            String value = Integer.toString(i);
+            switch (r.nextInt(3)) {
+            case 0:
+                assertEquals(expected.put(key, value), map.put(key, value));
+                break;
+            case 1:
+                assertEquals(expected.remove(key), map.remove(key));
+                break;
+            default:
+                assertEquals(expected.get(key), map.get(key));
+                assertEquals(expected.containsKey(key), map.containsKey(key));
+            }
+        }
+        assertEquals(expected.size(), map.size());
+        for (long key : map.keys())
+            assertEquals(expected.get(key), map.get(key));
+    }
+
+    @Test
+    public void objectIntMap() throws Exception {
+        ObjectIntMap<String> map = new ObjectIntMap<String>();
+        map.put("A", 1);
+        map.put(null, 2);
+        map.put("B", 3);
+        assertEquals(3, map.size());
+        assertEquals(1, map.get("A", -1));
+        assertEquals(2, map.get(null, -1));
+        assertEquals(-1, map.get("C", -1));
+        assertTrue(map.remove(null));
+        assertFalse(map.containsKey(null));
+
+        List<String> keys = new ArrayList<String>();
+        for (Object each : map.keys())
+            keys.add((String) each);
+        assertEquals(2, keys.size());
+        assertTrue(keys.containsAll(Arrays.asList("A", "B")));
+    }
+
+    @Test
+    public void arrayList() throws Exception {
+        IntArrayList list = new IntArrayList(0);
+        LongArrayList longList = new LongArrayList();
+        for (int i = 0; i < 1000; i++) {
+            list.add(999 - i);
+            longList.add((999 - i) * 0x100000000L);
+        }
+        assertEquals(1000, list.size());
+        assertEquals(1000, longList.size());
+        assertEquals(999, list.get(0));
+        assertEquals(998 * 0x100000000L, longList.get(1));
+        assertEquals(10, list.indexOf(989));
+        assertTrue(longList.contains(5 * 0x100000000L));
+
+        list.sort();
+        assertEquals(0, list.get(0));
+        assertEquals(999, list.removeLast());
+        assertEquals(999, list.size());
+        assertEquals(999, list.toArray().length);
+        list.addAll(new int[] { 1, 2 });
+        assertEquals(2, list.get(1000));
+
+        try {
+            list.get(1001);
+            fail();
+        }
+        catch (IndexOutOfBoundsException e) {
+            _logger.debug(e);
+        }
+    }
+
+    @Test
+    public void performance() throws Exception {
+        final int N = 1000000;
+        Random r = new Random(0);
+        int[] data = new int[N];
+        for (int i = 0; i < N; i++)
+            data[i] = r.nextInt(N / 4);
+
+        for (int trial = 0; trial < 3; trial++) {
+            StopWatch timer = new StopWatch();
+            Map<Integer, Integer> count = new HashMap<Integer, Integer>();
+            for (int each : data) {
+                Integer c = count.get(each);
+                count.put(each, c == null ? 1 : c + 1);
+            }
+            double hashMapTime = timer.getElapsedTime();
+
+            timer.reset();
+            IntIntMap primitiveCount = new IntIntMap();
+            for (int each : data)
+                primitiveCount.increment(each, 1);
+            double intIntMapTime = timer.getElapsedTime();
+
+            timer.reset();
+            List<Integer> list = new ArrayList<Integer>();
+            for (int each : data)
+                list.add(each);
+            long sum = 0;
+            for (int each : list)
+                sum += each;
+            double arrayListTime = timer.getElapsedTime();
+
+            timer.reset();
+            IntArrayList intList = new IntArrayList();
+            for (int each : data)
+                intList.add(each);
+            long intSum = 0;
+            for (int i = 0; i < intList.size(); i++)
+                intSum += intList.get(i);
+            double intArrayListTime = timer.getElapsedTime();
+
+            assertEquals(count.size(), primitiveCount.size());
+            assertEquals(sum, intSum);
+            _logger.info(String.format("%,d values. count - HashMap: %.3f sec., IntIntMap: %.3f sec. "
+                    + "list - ArrayList: %.3f sec., IntArrayList: %.3f sec.", N, hashMapTime, intIntMapTime,
+                    arrayListTime, intArrayListTime));
+        }
+    }
+
+}
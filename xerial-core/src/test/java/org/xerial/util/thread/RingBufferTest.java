@@ -0,0 +1,278 @@
+/*--------------------------------------------------------------------------
+ *  Copyright 2009 Taro L. Saito
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *--------------------------------------------------------------------------*/
+//--------------------------------------
+// XerialJ
+//
+// RingBufferTest.java
+// Since: 2026/10/17
+//
+// $URL$
+// $Author$
+//--------------------------------------
+package org.xerial.util.thread;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.xerial.util.StopWatch;
+import org.xerial.util.log.Logger;
+import org.xerial.util.thread.RingBuffer.WaitStrategy;
+
+public class RingBufferTest
+{
+    private static Logger _logger = Logger.getLogger(RingBufferTest.class);
+
+    static class Producer extends Thread
+    {
+        final RingBuffer<Integer> buffer;
+        final int                 n;
+        final Exception           error;
+
+        Producer(RingBuffer<Integer> buffer, int n, Exception error) {
+            this.buffer = buffer;
+            this.n = n;
+            this.error = error;
+        }
+
+        @Override
+        public void run() {
+            try {
+                for (int i = 0; i < n; i++)
+                    buffer.put(i);
+            }
+            catch (InterruptedException e) {
+                buffer.close(e);
+            }
+            buffer.close(error);
+        }
+    }
+
+    private static List<Integer> consume(RingBuffer<Integer> buffer) throws InterruptedException {
+        List<Integer> result = new ArrayList<Integer>();
+        while (buffer.drainTo(result) > 0) {}
+        return result;
+    }
+
+    @Test
+    public void capacity() throws Exception {
+        assertEquals(16, new RingBuffer<Integer>(10, 4, WaitStrategy.BLOCKING).capacity());
+        assertEquals(16, new RingBuffer<Integer>(16, 4, WaitStrategy.BLOCKING).capacity());
+        assertEquals(1, new RingBuffer<Integer>(1, 4, WaitStrategy.BLOCKING).capacity());
+    }
+
+    @Test
+    public void order() throws Exception {
+        for (WaitStrategy strategy : WaitStrategy.values()) {
+            for (int capacity : new int[] { 1, 7, 64, 1024 }) {
+                for (int batchSize : new int[] { 1, 5, 100 }) {
+                    RingBuffer<Integer> buffer = new RingBuffer<Integer>(capacity, batchSize, strategy);
+                    Producer p = new Producer(buffer, 10000, null);
+                    p.start();
+                    List<Integer> result = consume(buffer);
+                    p.join();
+
+                    assertEquals(10000, result.size());
+                    for (int i = 0; i < result.size(); i++)
+                        assertEquals(i, result.get(i).intValue());
+                    assertNull(buffer.getError());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void flush() throws Exception {
+        RingBuffer<Integer> buffer = new RingBuffer<Integer>(16, 8, WaitStrategy.BLOCKING);
+        buffer.put(1);
+        buffer.put(2);
+        buffer.flush();
+
+        List<Integer> result = new ArrayList<Integer>();
+        assertEquals(2, buffer.drainTo(result));
+        buffer.close();
+        assertEquals(0, buffer.drainTo(result));
+    }
+
+    @Test
+    public void offer() throws Exception {
+        RingBuffer<Integer> buffer = new RingBuffer<Integer>(4, 2, WaitStrategy.BLOCKING);
+        List<Integer> result = new ArrayList<Integer>();
+        assertEquals(0, buffer.drainAvailableTo(result));
+
+        for (int i = 0; i < 4; i++)
+            assertTrue(buffer.offer(i));
+        // the buffer is full
+        assertFalse(buffer.offer(4));
+
+        assertEquals(4, buffer.drainAvailableTo(result));
+        assertEquals(0, buffer.drainAvailableTo(result));
+        assertTrue(buffer.offer(5));
+        assertEquals(4, result.size());
+    }
+
+    @Test
+    public void closeWithError() throws Exception {
+        for (WaitStrategy strategy : WaitStrategy.values()) {
+            Exception error = new Exception("parse error");
+            RingBuffer<Integer> buffer = new RingBuffer<Integer>(8, 3, strategy);
+            Producer p = new Producer(buffer, 100, error);
+            p.start();
+            assertEquals(100, consume(buffer).size());
+            p.join();
+            assertSame(error, buffer.getError());
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void putAfterClose() throws Exception {
+        RingBuffer<Integer> buffer = new RingBuffer<Integer>(8, 3, WaitStrategy.BLOCKING);
+        buffer.close();
+        buffer.put(1);
+    }
+
+    private static final Integer  END = new Integer(-1);
+
+    private static double queueThroughput(final int n) throws Exception {
+        final ArrayBlockingQueue<Integer> queue = new ArrayBlockingQueue<Integer>(10000);
+        Thread producer = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    for (int i = 0; i < n; i++)
+                        queue.put(i);
+                    queue.put(END);
+                }
+                catch (InterruptedException e) {}
+            }
+        };
+        StopWatch timer = new StopWatch();
+        producer.start();
+        int count = 0;
+        Integer e;
+        while (true) {
+            // the consumer loop of the pull parsers before using RingBuffer
+            while ((e = queue.poll(1, TimeUnit.SECONDS)) == null) {}
+            if (e == END)
+                break;
+            count++;
+        }
+        producer.join();
+        assertEquals(n, count);
+        return timer.getElapsedTime();
+    }
+
+    private static double ringBufferThroughput(int n, WaitStrategy strategy) throws Exception {
+        RingBuffer<Integer> buffer = new RingBuffer<Integer>(16 * 1024, 128, strategy);
+        List<Integer> batch = new ArrayList<Integer>();
+        StopWatch timer = new StopWatch();
+        Producer p = new Producer(buffer, n, null);
+        p.start();
+        int count = 0;
+        while (buffer.drainTo(batch) > 0) {
+            count += batch.size();
+            batch.clear();
+        }
+        p.join();
+        assertEquals(n, count);
+        return timer.getElapsedTime();
+    }
+
+    /**
+     * Average time from putting an element to receiving it, when the producer
+     * sends one element at a time
+     */
+    private static double ringBufferLatency(int n, WaitStrategy strategy) throws Exception {
+        final RingBuffer<Long> buffer = new RingBuffer<Long>(1024, 128, strategy);
+        final int numMessages = n;
+        Thread producer = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    for (int i = 0; i < numMessages; i++) {
+                        buffer.put(System.nanoTime());
+                        Thread.sleep(0, 100000);
+                    }
+                }
+                catch (InterruptedException e) {}
+                buffer.close();
+            }
+        };
+        producer.start();
+        List<Long> batch = new ArrayList<Long>();
+        long total = 0;
+        int count = 0;
+        while (buffer.drainTo(batch) > 0) {
+            long now = System.nanoTime();
+            for (Long each : batch)
+                total += now - each;
+            count += batch.size();
+            batch.clear();
+        }
+        producer.join();
+        assertEquals(n, count);
+        return total / 1000.0 / count;
+    }
+
+    private static double queueLatency(int n) throws Exception {
+        final ArrayBlockingQueue<Long> queue = new ArrayBlockingQueue<Long>(1024);
+        final int numMessages = n;
+        Thread producer = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    for (int i = 0; i < numMessages; i++) {
+                        queue.put(System.nanoTime());
+                        Thread.sleep(0, 100000);
+                    }
+                }
+                catch (InterruptedException e) {}
+            }
+        };
+        producer.start();
+        long total = 0;
+        for (int i = 0; i < n; i++) {
+            Long e;
+            while ((e = queue.poll(1, TimeUnit.SECONDS)) == null) {}
+            total += System.nanoTime() - e;
+        }
+        producer.join();
+        return total / 1000.0 / n;
+    }
+
+    @Test
+    public void performance() throws Exception {
+        final int n = 3000000;
+        for (int trial = 0; trial < 3; trial++) {
+            double queueTime = queueThroughput(n);
+            double blockingTime = ringBufferThroughput(n, WaitStrategy.BLOCKING);
+            double spinTime = ringBufferThroughput(n, WaitStrategy.BUSY_SPIN);
+            _logger.info(String.format(
+                    "%,d elements: ArrayBlockingQueue %.3f sec., RingBuffer(BLOCKING) %.3f sec., "
+                            + "RingBuffer(BUSY_SPIN) %.3f sec.", n, queueTime, blockingTime, spinTime));
+        }
+
+        final int m = 2000;
+        _logger.info(String.format(
+                "latency: ArrayBlockingQueue %.1f usec., RingBuffer(BLOCKING) %.1f usec., "
+                        + "RingBuffer(BUSY_SPIN) %.1f usec.", queueLatency(m), ringBufferLatency(m,
+                        WaitStrategy.BLOCKING), ringBufferLatency(m, WaitStrategy.BUSY_SPIN)));
+    }
+}
@@ -0,0 +1,112 @@
+/*--------------------------------------------------------------------------
+ *  Copyright 2009 Taro L. Saito
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *--------------------------------------------------------------------------*/
+//--------------------------------------
+// XerialJ
+//
+// NodeNameTableTest.java
+// Since: 2026/10/17
+//
+// $URL$
+// $Author$
+//--------------------------------------
+package org.xerial.util.tree;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+import org.xerial.util.tree.TreeEvent.EventType;
+
+public class NodeNameTableTest
+{
+    @Test
+    public void intern() throws Exception {
+        NodeNameTable table = new NodeNameTable();
+        assertEquals(NodeNameTable.NO_ID, table.intern(null));
+        assertNull(table.getName(NodeNameTable.NO_ID));
+
+        for (int i = 0; i < 100; i++)
+            assertEquals(i, table.intern("node" + i));
+        assertEquals(100, table.size());
+
+        String name = new String("node10");
+        assertEquals(10, table.intern(name));
+        assertEquals(10, table.getId(name));
+        assertNotSame(name, table.getName(10));
+        assertEquals(name, table.getName(10));
+
+        assertEquals(NodeNameTable.NO_ID, table.getId("unknown"));
+        assertEquals(100, table.size());
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void unknownId() throws Exception {
+        new NodeNameTable().getName(0);
+    }
+
+    @Test
+    public void newEvent() throws Exception {
+        NodeNameTable table = new NodeNameTable();
+
+        TreeEvent e = table.newVisitEvent(new String("gene"), "g1");
+        assertTrue(e.isVisit());
+        assertEquals(table.getId("gene"), e.getNodeId());
+        assertSame(table.getName(e.getNodeId()), e.nodeName);
+        assertEquals("g1", e.nodeValue);
+
+        TreeEvent e2 = table.newLeaveEvent("gene");
+        assertTrue(e2.isLeave());
+        assertSame(e.nodeName, e2.nodeName);
+        assertEquals(e.getNodeId(), e2.getNodeId());
+        assertNull(e2.nodeValue);
+
+        TreeEvent e3 = table.newTextEvent(null, "t");
+        assertTrue(e3.isText());
+        assertEquals(NodeNameTable.NO_ID, e3.getNodeId());
+        assertEquals(1, table.size());
+
+        // events created without the table have no id
+        assertEquals(NodeNameTable.NO_ID, TreeEvent.newVisitEvent("gene", null).getNodeId());
+    }
+
+    @Test
+    public void pool() throws Exception {
+        NodeNameTable table = new NodeNameTable();
+        TreeEventPool pool = new TreeEventPool(table, 1);
+        assertTrue(pool.isEmpty());
+
+        MutableTreeEvent e = pool.newVisitEvent(new String("gene"), null);
+        assertEquals(EventType.VISIT, e.getEventType());
+        assertEquals(table.getId("gene"), e.getNodeId());
+        assertSame(table.getName(e.getNodeId()), e.getNodeName());
+
+        TreeEvent snapshot = e.toTreeEvent();
+        assertSame(snapshot, e.toTreeEvent());
+        e.setNodeValue("g1");
+        assertNull(snapshot.nodeValue);
+        assertEquals("g1", e.toTreeEvent().nodeValue);
+
+        pool.release(e);
+        pool.release(new MutableTreeEvent());
+        assertFalse(pool.isEmpty());
+        // reuses the released event
+        MutableTreeEvent e2 = pool.newLeaveEvent("gene");
+        assertSame(e, e2);
+        assertEquals(EventType.LEAVE, e2.getEventType());
+        assertNull(e2.getNodeValue());
+        assertTrue(pool.isEmpty());
+    }
+
+}
@@ -27,16 +27,12 @@ package org.xerial.lens;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
-import java.sql.Timestamp;
-import java.text.DateFormat;
-import java.text.ParseException;
 import java.util.ArrayList;
-import java.util.Date;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
 
-import org.xerial.core.XerialException;
-import org.xerial.util.TypeConverter;
 import org.xerial.util.TypeInfo;
 import org.xerial.util.bean.BeanHandler;
 import org.xerial.util.lens.ObjectLens;
@@ -54,82 +50,18 @@ public class JDBCLens<E>
 
     private static Logger                 _logger          = Logger.getLogger(JDBCLens.class);
 
-    private final ObjectLens              lens;
-    private final Class<E>                targetType;
-    private final HashMap<String, Binder> paramName_binder = new HashMap<String, Binder>();
-
-    private static class Binder
-    {
-        private ParameterSetter setter;
+    private static final ConcurrentHashMap<Class< ? >, JDBCLens< ? >> lensTable = new ConcurrentHashMap<Class< ? >, JDBCLens< ? >>();
 
-        public Binder(ParameterSetter setter) {
-            this.setter = setter;
-        }
-
-        public Object convert(Class< ? > targetType, ResultSet rs, int index) throws SQLException {
-            if (targetType.equals(String.class)) {
-                return rs.getString(index);
-            }
-            else if (targetType.equals(Integer.TYPE) || targetType.equals(Integer.class)) {
-                return rs.getInt(index);
-
-            }
-            //            else if (targetType.equals(Boolean.TYPE) || targetType.equals(Boolean.class)) {
-            //                return rs.getBoolean(index);
-            //
-            //            }
-            else if (targetType.equals(Long.TYPE) || targetType.equals(Long.class)) {
-                return rs.getLong(index);
-
-            }
-            else if (targetType.equals(Double.TYPE) || targetType.equals(Double.class)) {
-                return rs.getDouble(index);
-
-            }
-            else if (targetType.equals(Float.TYPE) || targetType.equals(Float.class)) {
-                return rs.getFloat(index);
+    /**
+     * upper limit of the cached row mappers, one for each column list of the
+     * result sets
+     */
+    private static final int              MAX_ROW_MAPPER   = 64;
 
-            }
-            else if (targetType.equals(Short.TYPE) || targetType.equals(Short.class)) {
-                return rs.getShort(index);
-
-            }
-            else if (targetType.equals(Byte.TYPE) || targetType.equals(Byte.class)) {
-                return rs.getByte(index);
-            }
-            else if (targetType.equals(Timestamp.class)) {
-                return rs.getTimestamp(index);
-            }
-            else if (targetType.equals(Date.class)) {
-                try {
-                    return DateFormat.getDateTimeInstance().parse(rs.getString(index));
-                }
-                catch (ParseException e) {
-                    throw new SQLException(e.getMessage());
-                }
-            }
-            else {
-                return rs.getObject(index);
-            }
-        }
-
-        public void bind(Object obj, ResultSet rs, int index) throws XerialException, SQLException {
-
-            Class< ? > targetType = setter.getParameterType();
-            Object value = convert(targetType, rs, index);
-            Class< ? > valueType = value.getClass();
-
-            if (targetType != valueType) {
-                if (!TypeInfo.isArray(targetType) && TypeInfo.isBasicType(targetType)) {
-                    setter.bind(obj, TypeConverter.convertToBasicType(targetType, value));
-                    return;
-                }
-            }
-
-            setter.bind(obj, value);
-        }
-
-    }
+    private final ObjectLens              lens;
+    private final Class<E>                targetType;
+    private final HashMap<String, ParameterSetter> paramName_setter = new HashMap<String, ParameterSetter>();
+    private final ConcurrentHashMap<List<String>, JDBCRowMapper<E>> rowMapperTable = new ConcurrentHashMap<List<String>, JDBCRowMapper<E>>();
 
     public JDBCLens(Class<E> targetType) {
         this.targetType = targetType;
@@ -140,11 +72,31 @@ public class JDBCLens<E>
             if (!TypeInfo.isBasicType(each.getParameterType()))
                 continue;
 
-            paramName_binder.put(each.getCanonicalParameterName(), new Binder(each));
+            paramName_setter.put(each.getCanonicalParameterName(), each);
         }
 
     }
 
+    /**
+     * Gets the lens of the target type. The lens holds no state of a result
+     * set, so that it can be shared between threads.
+     * 
+     * @param <E>
+     * @param targetType
+     * @return
+     */
+    @SuppressWarnings("unchecked")
+    public static <E> JDBCLens<E> getJDBCLens(Class<E> targetType) {
+        JDBCLens<E> jdbcLens = (JDBCLens<E>) lensTable.get(targetType);
+        if (jdbcLens == null) {
+            jdbcLens = new JDBCLens<E>(targetType);
+            JDBCLens<E> prev = (JDBCLens<E>) lensTable.putIfAbsent(targetType, jdbcLens);
+            if (prev != null)
+                jdbcLens = prev;
+        }
+        return jdbcLens;
+    }
+
     class BeanContainer implements BeanHandler<E>
     {
         List<E> result = new ArrayList<E>();
@@ -166,27 +118,11 @@ public class JDBCLens<E>
 
     public void mapAll(ResultSet rs, BeanHandler<E> handler) throws Exception {
 
-        ResultSetMetaData m = rs.getMetaData();
-        int colSize = m.getColumnCount();
-
-        String[] columnName = new String[colSize];
-        for (int i = 0; i < m.getColumnCount(); ++i) {
-            columnName[i] = ObjectLens.getCanonicalParameterName(m.getColumnLabel(i + 1));
-        }
+        JDBCRowMapper<E> mapper = getRowMapper(rs);
 
         while (rs.next()) {
 
-            E obj = TypeInfo.createInstance(targetType);
-
-            for (int i = 0; i < colSize; i++) {
-                Binder b = paramName_binder.get(columnName[i]);
-                if (b == null) {
-                    // try generic putter
-                    lens.setProperty(obj, columnName[i], rs.getObject(i + 1));
-                    continue;
-                }
-                b.bind(obj, rs, i + 1);
-            }
+            E obj = mapper.map(rs);
 
             try {
                 handler.handle(obj);
@@ -198,4 +134,44 @@ public class JDBCLens<E>
 
     }
 
+    /**
+     * Gets the canonical parameter names of the columns in the result set
+     * 
+     * @param rs
+     * @return
+     * @throws SQLException
+     */
+    public static String[] getColumnNames(ResultSet rs) throws SQLException {
+        ResultSetMetaData m = rs.getMetaData();
+        String[] columnName = new String[m.getColumnCount()];
+        for (int i = 0; i < columnName.length; ++i) {
+            columnName[i] = ObjectLens.getCanonicalParameterName(m.getColumnLabel(i + 1));
+        }
+        return columnName;
+    }
+
+    /**
+     * Gets the row mapper for the columns of the result set. The mapper is
+     * compiled once for each list of the column names, and is reused for the
+     * result sets of the same columns.
+     * 
+     * @param rs
+     * @return
+     * @throws SQLException
+     */
+    public JDBCRowMapper<E> getRowMapper(ResultSet rs) throws SQLException {
+        String[] columnName = getColumnNames(rs);
+        List<String> key = Arrays.asList(columnName);
+        JDBCRowMapper<E> mapper = rowMapperTable.get(key);
+        if (mapper == null) {
+            mapper = new JDBCRowMapper<E>(targetType, lens, paramName_setter, columnName);
+            if (rowMapperTable.size() < MAX_ROW_MAPPER) {
+                JDBCRowMapper<E> prev = rowMapperTable.putIfAbsent(key, mapper);
+                if (prev != null)
+                    mapper = prev;
+            }
+        }
+        return mapper;
+    }
+
 }
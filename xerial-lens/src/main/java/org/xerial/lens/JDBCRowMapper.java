@@ -0,0 +1,254 @@
+/*--------------------------------------------------------------------------
+ *  Copyright 2011 Taro L. Saito
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *--------------------------------------------------------------------------*/
+//--------------------------------------
+// XerialJ
+//
+// JDBCRowMapper.java
+// Since: 2026/10/17
+//
+// $URL$
+// $Author$
+//--------------------------------------
+package org.xerial.lens;
+
+import java.lang.reflect.Field;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.text.DateFormat;
+import java.text.ParseException;
+import java.util.Date;
+import java.util.Map;
+
+import org.xerial.core.XerialErrorCode;
+import org.xerial.core.XerialException;
+import org.xerial.util.TypeConverter;
+import org.xerial.util.TypeInfo;
+import org.xerial.util.lens.ObjectLens;
+import org.xerial.util.lens.impl.ParameterSetter;
+
+/**
+ * Compiled mapping from the columns of a result set to the parameters of a
+ * class. A mapper resolves the setter and the JDBC getter of each column when
+ * it is created, so that {@link #map(ResultSet)} neither searches the setters
+ * by name nor inspects the value types at every row. Primitive fields are set
+ * with the primitive getters of the result set without boxing.
+ * 
+ * Use {@link JDBCLens#getRowMapper(ResultSet)} to obtain the mapper for a
+ * result set. A mapper holds no state of a result set, so that it can be
+ * shared between threads.
+ * 
+ * @author leo
+ * 
+ */
+public final class JDBCRowMapper<E>
+{
+    /**
+     * How the value of a column is read from the result set
+     */
+    private static final int        PROPERTY  = 0;
+    private static final int        OBJECT    = 1;
+    private static final int        ARRAY     = 2;
+    private static final int        STRING    = 3;
+    private static final int        INT       = 4;
+    private static final int        LONG      = 5;
+    private static final int        DOUBLE    = 6;
+    private static final int        FLOAT     = 7;
+    private static final int        SHORT     = 8;
+    private static final int        BYTE      = 9;
+    private static final int        TIMESTAMP = 10;
+    private static final int        DATE      = 11;
+
+    private final Class<E>          targetType;
+    private final ObjectLens        lens;
+    private final String[]          columnName;
+    private final int[]             kind;
+    /**
+     * setter of each column. null for the columns set by the generic putter
+     */
+    private final ParameterSetter[] setter;
+    /**
+     * primitive field of each column, which is set without boxing. null when
+     * the value is passed to the setter
+     */
+    private final Field[]           field;
+
+    JDBCRowMapper(Class<E> targetType, ObjectLens lens, Map<String, ParameterSetter> setterTable,
+            String[] columnName) {
+        this.targetType = targetType;
+        this.lens = lens;
+        this.columnName = columnName;
+        this.kind = new int[columnName.length];
+        this.setter = new ParameterSetter[columnName.length];
+        this.field = new Field[columnName.length];
+
+        for (int i = 0; i < columnName.length; i++) {
+            ParameterSetter s = setterTable.get(columnName[i]);
+            if (s == null) {
+                kind[i] = PROPERTY;
+                continue;
+            }
+            Class< ? > type = s.getParameterType();
+            setter[i] = s;
+            kind[i] = kindOf(type);
+            if (type.isPrimitive() && kind[i] != OBJECT)
+                field[i] = s.getTargetField();
+        }
+    }
+
+    private static int kindOf(Class< ? > c) {
+        if (c == String.class)
+            return STRING;
+        else if (c == int.class || c == Integer.class)
+            return INT;
+        else if (c == long.class || c == Long.class)
+            return LONG;
+        else if (c == double.class || c == Double.class)
+            return DOUBLE;
+        else if (c == float.class || c == Float.class)
+            return FLOAT;
+        else if (c == short.class || c == Short.class)
+            return SHORT;
+        else if (c == byte.class || c == Byte.class)
+            return BYTE;
+        else if (c == Timestamp.class)
+            return TIMESTAMP;
+        else if (c == Date.class)
+            return DATE;
+        else if (TypeInfo.isArray(c))
+            return ARRAY;
+        else
+            return OBJECT;
+    }
+
+    /**
+     * Creates an object from the current row of the result set
+     * 
+     * @param rs
+     *            result set whose columns are the same with the one given to
+     *            {@link JDBCLens#getRowMapper(ResultSet)}
+     * @return
+     * @throws XerialException
+     * @throws SQLException
+     */
+    public E map(ResultSet rs) throws XerialException, SQLException {
+        E obj = TypeInfo.createInstance(targetType);
+
+        try {
+            for (int i = 0; i < kind.length; i++) {
+                final int column = i + 1;
+                final Field f = field[i];
+                switch (kind[i]) {
+                case INT: {
+                    int v = rs.getInt(column);
+                    if (f != null)
+                        f.setInt(obj, v);
+                    else
+                        setter[i].bind(obj, v);
+                    break;
+                }
+                case LONG: {
+                    long v = rs.getLong(column);
+                    if (f != null)
+                        f.setLong(obj, v);
+                    else
+                        setter[i].bind(obj, v);
+                    break;
+                }
+                case DOUBLE: {
+                    double v = rs.getDouble(column);
+                    if (f != null)
+                        f.setDouble(obj, v);
+                    else
+                        setter[i].bind(obj, v);
+                    break;
+                }
+                case FLOAT: {
+                    float v = rs.getFloat(column);
+                    if (f != null)
+                        f.setFloat(obj, v);
+                    else
+                        setter[i].bind(obj, v);
+                    break;
+                }
+                case SHORT: {
+                    short v = rs.getShort(column);
+                    if (f != null)
+                        f.setShort(obj, v);
+                    else
+                        setter[i].bind(obj, v);
+                    break;
+                }
+                case BYTE: {
+                    byte v = rs.getByte(column);
+                    if (f != null)
+                        f.setByte(obj, v);
+                    else
+                        setter[i].bind(obj, v);
+                    break;
+                }
+                case STRING:
+                    bind(obj, i, rs.getString(column));
+                    break;
+                case TIMESTAMP:
+                    bind(obj, i, rs.getTimestamp(column));
+                    break;
+                case DATE: {
+                    String v = rs.getString(column);
+                    if (v != null) {
+                        try {
+                            bind(obj, i, DateFormat.getDateTimeInstance().parse(v));
+                        }
+                        catch (ParseException e) {
+                            throw new SQLException(e.getMessage());
+                        }
+                    }
+                    break;
+                }
+                case ARRAY:
+                    bind(obj, i, rs.getObject(column));
+                    break;
+                case OBJECT: {
+                    Object v = rs.getObject(column);
+                    Class< ? > type = setter[i].getParameterType();
+                    if (v != null && v.getClass() != type)
+                        v = TypeConverter.convertToBasicType(type, v);
+                    bind(obj, i, v);
+                    break;
+                }
+                default:
+                    // try generic putter
+                    lens.setProperty(obj, columnName[i], rs.getObject(column));
+                    break;
+                }
+            }
+        }
+        catch (IllegalAccessException e) {
+            throw new XerialException(XerialErrorCode.INACCESSIBLE_METHOD, e);
+        }
+        return obj;
+    }
+
+    /**
+     * Passes a non-null value to the setter of the i-th column. SQL NULLs
+     * leave the parameter untouched.
+     */
+    private void bind(E obj, int i, Object value) throws XerialException {
+        if (value != null)
+            setter[i].bind(obj, value);
+    }
+
+}
@@ -32,6 +32,8 @@ import org.antlr.runtime.tree.Tree;
 import org.xerial.core.XerialException;
 import org.xerial.lens.antlr.ANTLRTreeParser;
 import org.xerial.lens.tree.MapTreeParser;
+import org.xerial.silk.SilkParser;
+import org.xerial.silk.query.SilkFind;
 import org.xerial.util.ObjectHandler;
 import org.xerial.util.TypeInfo;
 import org.xerial.util.bean.BeanHandler;
@@ -171,13 +173,13 @@ public class Lens {
 
     public static <Result> void loadJDBCResultSet(Class<Result> resultType, ResultSet rs,
             BeanHandler<Result> handler) throws Exception {
-        JDBCLens<Result> jl = new JDBCLens<Result>(resultType);
+        JDBCLens<Result> jl = JDBCLens.getJDBCLens(resultType);
         jl.mapAll(rs, handler);
     }
 
     public static <Result> List<Result> loadJDBCResultSet(Class<Result> resultType, ResultSet rs)
             throws Exception {
-        JDBCLens<Result> jl = new JDBCLens<Result>(resultType);
+        JDBCLens<Result> jl = JDBCLens.getJDBCLens(resultType);
         return jl.mapAll(rs);
     }
 
@@ -196,6 +198,27 @@ public class Lens {
         find(bindingType, bindingType.getSimpleName(), handler, parser);
     }
 
+    /**
+     * Find the target nodes that satisfy the predicates of the query. The
+     * predicates are evaluated by the parser, so the target nodes that fail
+     * the predicates are never bound to objects.
+     * 
+     * @param <Result>
+     * @param bindingType
+     * @param query
+     * @param handler
+     * @param parser
+     * @throws XerialException
+     *             UNSUPPORTED when the data has target nodes whose predicates
+     *             cannot be tested by the parser (see
+     *             {@link org.xerial.silk.query.SilkFindFilter})
+     */
+    public static <Result> void find(Class<Result> bindingType, SilkFind query, ObjectHandler<Result> handler,
+            SilkParser parser) throws XerialException {
+        parser.setFilter(query);
+        find(bindingType, query.getTargetNodeName(), handler, parser);
+    }
+
     public static <Result> void find(Class<Result> bindingType, String targetNodeName,
             ObjectHandler<Result> handler, TreeParser parser) throws XerialException {
         ObjectMapper mapper = new ObjectMapper(bindingType, targetNodeName);
@@ -42,6 +42,7 @@ import org.xerial.lens.relation.query.QuerySet.QuerySetBuilder;
 import org.xerial.lens.relation.query.StreamAmoebaJoin;
 import org.xerial.lens.relation.schema.Schema;
 import org.xerial.lens.relation.schema.SchemaBuilder;
+import org.xerial.silk.SilkParser;
 import org.xerial.util.ArrayDeque;
 import org.xerial.util.Deque;
 import org.xerial.util.ObjectHandler;
@@ -69,15 +70,18 @@ public class ObjectMapper
     private final HashMap<Schema, Binder>            schema2binder  = new HashMap<Schema, Binder>();
 
     final QuerySet                                   qs;
+    private final Class< ? >                         targetType;
     //final ObjectHandler<?> handler;
 
     private static HashMap<Class< ? >, ObjectMapper> prebuiltMapper = new HashMap<Class< ? >, ObjectMapper>();
 
     public <T> ObjectMapper(Class<T> targetType) throws XerialException {
+        this.targetType = targetType;
         qs = buildQuery(targetType);
     }
 
     public <T> ObjectMapper(Class<T> targetType, String targetNodeName) throws XerialException {
+        this.targetType = targetType;
         qs = buildFindQuery(targetType, targetNodeName);
     }
 
@@ -102,7 +106,14 @@ public class ObjectMapper
         return mp.execute(qs, object, parser);
     }
 
+    @SuppressWarnings("unchecked")
     public <T> void find(ObjectHandler<T> handler, String targetNodeName, TreeParser parser) throws XerialException {
+        if (parser instanceof SilkParser && SilkTableBinder.isApplicable(targetType)) {
+            // fast path: bind tab-separated rows of the target node directly to objects 
+            ((SilkParser) parser).setTableRowHandler(new SilkTableBinder<T>((Class<T>) targetType, targetNodeName,
+                    handler));
+        }
+
         MappingProcess mp = new MappingProcess();
         mp.handler = handler;
         mp.execute(qs, "root", parser); // "root" is a dummy object
@@ -35,6 +35,7 @@ import org.xerial.core.XerialException;
 import org.xerial.silk.SilkParser;
 import org.xerial.silk.SilkUtil;
 import org.xerial.silk.SilkWriter;
+import org.xerial.silk.query.SilkFind;
 import org.xerial.util.ObjectHandler;
 import org.xerial.util.TypeInfo;
 
@@ -132,4 +133,22 @@ public class SilkLens
         Lens.find(targetType, targetNodeName, handler, new SilkParser(input));
     }
 
+    /**
+     * Find the target nodes satisfying the predicates of the query. See
+     * {@link org.xerial.silk.query.SilkFindFilter} for the forms of the target
+     * nodes that can be tested.
+     * 
+     * @param <Result>
+     * @param silkResource
+     * @param query
+     * @param targetType
+     * @param handler
+     * @throws IOException
+     * @throws XerialException
+     */
+    public static <Result> void findFromSilk(URL silkResource, SilkFind query, Class<Result> targetType,
+            ObjectHandler<Result> handler) throws IOException, XerialException {
+        Lens.find(targetType, query, handler, new SilkParser(silkResource));
+    }
+
 }
@@ -0,0 +1,174 @@
+/*--------------------------------------------------------------------------
+ *  Copyright 2009 Taro L. Saito
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *--------------------------------------------------------------------------*/
+//--------------------------------------
+// XerialJ
+//
+// SilkTableBinder.java
+// Since: 2026/10/17
+//
+// $URL$
+// $Author$
+//--------------------------------------
+package org.xerial.lens;
+
+import java.util.HashMap;
+import java.util.List;
+
+import org.xerial.core.XerialException;
+import org.xerial.silk.SilkTableRowHandler;
+import org.xerial.silk.model.SilkColumnCursor;
+import org.xerial.silk.model.SilkNode;
+import org.xerial.silk.model.SilkNodeOccurrence;
+import org.xerial.util.ObjectHandler;
+import org.xerial.util.StringUtil;
+import org.xerial.util.TypeConverter;
+import org.xerial.util.TypeInfo;
+import org.xerial.util.lens.ObjectLens;
+import org.xerial.util.lens.impl.ParameterSetter;
+import org.xerial.util.log.Logger;
+
+/**
+ * Fast-path binder of Silk tables for the find queries of
+ * {@link ObjectMapper}. For a flat table schema (e.g.,
+ * <tt>-gene(id, chr, start)|</tt>) whose node name is the target node name,
+ * this binder compiles the column index to setter mapping once, and populates
+ * the target objects directly from the data lines without going through the
+ * tree events and the amoeba join.
+ *
+ * <p>
+ * Tables that cannot be bound by simple setters (nested columns, JSON
+ * columns, multiple occurrences, property setters, etc.) are rejected, and
+ * processed by the tree-event path as before.
+ * </p>
+ *
+ * @author leo
+ *
+ */
+class SilkTableBinder<T> implements SilkTableRowHandler
+{
+    private static Logger                          _logger = Logger.getLogger(SilkTableBinder.class);
+
+    private final Class<T>                         targetType;
+    private final String                           targetNodeName;
+    private final ObjectHandler<T>                 handler;
+    private final ObjectLens                       lens;
+    private final HashMap<String, ParameterSetter> setterTable;
+
+    // compiled plan for the current table. indexes are those of the child nodes of the schema
+    private ParameterSetter[]                      columnSetter;
+    private String[]                               defaultValue;
+
+    public SilkTableBinder(Class<T> targetType, String targetNodeName, ObjectHandler<T> handler) {
+        this.targetType = targetType;
+        this.targetNodeName = ObjectLens.getCanonicalParameterName(targetNodeName);
+        this.handler = handler;
+        this.lens = ObjectLens.getObjectLens(targetType);
+
+        setterTable = new HashMap<String, ParameterSetter>();
+        for (ParameterSetter each : lens.getSetterList())
+            setterTable.put(each.getCanonicalParameterName(), each);
+    }
+
+    /**
+     * @return true when the target type can be populated by this binder
+     */
+    public static boolean isApplicable(Class< ? > targetType) {
+        if (TypeInfo.isBasicType(targetType) || TypeInfo.isMap(targetType) || TypeInfo.isCollection(targetType))
+            return false;
+
+        ObjectLens lens = ObjectLens.getObjectLens(targetType);
+        return !lens.hasPropertySetter() && lens.getRelationSetterList().isEmpty() && lens.getValueSetter() == null;
+    }
+
+    public boolean accept(SilkNode tableSchema) throws Exception {
+        if (tableSchema.getName() == null
+                || !targetNodeName.equals(ObjectLens.getCanonicalParameterName(tableSchema.getName()))
+                || tableSchema.hasValue())
+            return false;
+
+        List<SilkNode> columns = tableSchema.getChildNodes();
+        ParameterSetter[] setter = new ParameterSetter[columns.size()];
+        String[] value = new String[columns.size()];
+        for (int i = 0; i < columns.size(); i++) {
+            SilkNode column = columns.get(i);
+            if (column.hasChildren() || column.getOccurrence() != SilkNodeOccurrence.ONE
+                    || column.getDataType() != null)
+                return false;
+
+            setter[i] = setterTable.get(ObjectLens.getCanonicalParameterName(column.getName()));
+            if (setter[i] != null) {
+                Class< ? > type = setter[i].getParameterType();
+                if (!TypeInfo.isBasicType(type) || type.isArray())
+                    return false;
+            }
+
+            if (column.hasValue()) {
+                if (column.getValue().isFunction() || column.getValue().isJSON())
+                    return false;
+                value[i] = column.getValue().toString();
+            }
+        }
+
+        columnSetter = setter;
+        defaultValue = value;
+
+        if (_logger.isDebugEnabled())
+            _logger.debug("use the fast path for table " + tableSchema);
+
+        return true;
+    }
+
+    public void handleRow(SilkNode tableSchema, SilkColumnCursor columns) throws Exception {
+        T object = TypeInfo.createInstance(targetType);
+
+        boolean hasColumn = true;
+        for (int i = 0; i < columnSetter.length; i++) {
+            String value = null;
+            if (defaultValue[i] != null) {
+                value = StringUtil.unquote(defaultValue[i]);
+            }
+            else if (hasColumn && (hasColumn = columns.next())) {
+                if (columnSetter[i] == null)
+                    continue;
+                columns.trim();
+                if (columns.length() == 0)
+                    continue;
+                columns.unquote();
+                value = columns.toString();
+            }
+
+            if (value == null || columnSetter[i] == null)
+                continue;
+
+            try {
+                columnSetter[i].bind(object, TypeConverter.convertToBasicType(columnSetter[i].getParameterType(),
+                        value));
+            }
+            catch (XerialException e) {
+                _logger.warn(String.format("failed to bind: %s=%s in %s\n%s", columnSetter[i]
+                        .getCanonicalParameterName(), value, tableSchema.getName(), e));
+            }
+        }
+
+        try {
+            handler.handle(object);
+        }
+        catch (Exception e) {
+            throw XerialException.convert(e);
+        }
+    }
+
+}
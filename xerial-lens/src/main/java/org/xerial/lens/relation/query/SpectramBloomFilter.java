@@ -26,6 +26,7 @@ package org.xerial.lens.relation.query;
 
 import org.xerial.core.XerialError;
 import org.xerial.core.XerialErrorCode;
+import org.xerial.util.primitive.BitArray;
 
 /**
  * A rough implementation of the bloom filter for counting the approximate
@@ -36,7 +37,7 @@ import org.xerial.core.XerialErrorCode;
  */
 public class SpectramBloomFilter<T> {
     private final int tableSize;
-    private final byte[] hashTable;
+    private final BitArray hashTable;
     private final static int BYTE_SIZE = 8;
     private int countOfDistinctElements = 0;
     private int collisionCount = 0;
@@ -47,7 +48,7 @@ public class SpectramBloomFilter<T> {
                     tableSize));
 
         this.tableSize = tableSize;
-        this.hashTable = new byte[tableSize];
+        this.hashTable = new BitArray(tableSize * BYTE_SIZE);
     }
 
     /**
@@ -59,12 +60,9 @@ public class SpectramBloomFilter<T> {
         if (hash < 0)
             hash = -hash;
         hash %= (tableSize * BYTE_SIZE);
-        int pos = hash / BYTE_SIZE;
-        int offset = hash % BYTE_SIZE;
-        byte flag = (byte) (1 << offset);
 
-        if ((hashTable[pos] & flag) == 0) {
-            hashTable[pos] |= flag;
+        if (!hashTable.get(hash)) {
+            hashTable.set(hash);
             countOfDistinctElements++;
         }
         else
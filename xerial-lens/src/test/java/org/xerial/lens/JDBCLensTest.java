@@ -26,6 +26,8 @@ package org.xerial.lens;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 
 import java.sql.Connection;
 import java.sql.DriverManager;
@@ -38,6 +40,7 @@ import java.util.List;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import org.xerial.util.StopWatch;
 import org.xerial.util.bean.BeanHandler;
 import org.xerial.util.log.Logger;
 
@@ -215,4 +218,96 @@ public class JDBCLensTest {
         assertEquals(b.data, b2.data);
     }
 
+    public static class Record
+    {
+        private Integer id;
+        private long    start;
+        public Short    flag;
+        public float    ratio;
+        public String   name;
+
+        public Integer getId() {
+            return id;
+        }
+
+        public void setId(Integer id) {
+            this.id = id;
+        }
+
+        public long getStart() {
+            return start;
+        }
+
+        public void setStart(long start) {
+            this.start = start;
+        }
+    }
+
+    @Test
+    public void rowMapper() throws Exception {
+        stat.executeUpdate("create table record (id integer, start integer, flag integer, ratio real, name text, memo text)");
+        stat.executeUpdate("insert into record values(1, 10000000000, 1, 0.5, 'leo', 'hello')");
+        stat.executeUpdate("insert into record values(2, 20, 0, 1.5, null, null)");
+
+        JDBCLens<Record> lens = JDBCLens.getJDBCLens(Record.class);
+        List<Record> r = lens.mapAll(stat.executeQuery("select * from record order by id"));
+        assertEquals(2, r.size());
+
+        Record r1 = r.get(0);
+        assertEquals(Integer.valueOf(1), r1.getId());
+        assertEquals(10000000000L, r1.getStart());
+        assertEquals(Short.valueOf((short) 1), r1.flag);
+        assertEquals(0.5f, r1.ratio, 0.001f);
+        assertEquals("leo", r1.name);
+
+        // SQL NULL leaves the parameter untouched
+        Record r2 = r.get(1);
+        assertEquals(20L, r2.getStart());
+        assertNull(r2.name);
+
+        // the mapper is compiled once for the same columns
+        assertSame(lens.getRowMapper(stat.executeQuery("select * from record")), lens.getRowMapper(stat
+                .executeQuery("select * from record")));
+        r = lens.mapAll(stat.executeQuery("select name, id from record order by id"));
+        assertEquals("leo", r.get(0).name);
+        assertEquals(0L, r.get(0).getStart());
+    }
+
+    public static class Read
+    {
+        public int    id;
+        public long   start;
+        public double score;
+        public short  flag;
+        public String name;
+    }
+
+    @Test
+    public void performance() throws Exception {
+        final int numRows = 100000;
+        stat.executeUpdate("create table read (id integer, start integer, score real, flag integer, name text)");
+        conn.setAutoCommit(false);
+        PreparedStatement prep = conn.prepareStatement("insert into read values(?, ?, ?, ?, ?)");
+        for (int i = 0; i < numRows; i++) {
+            prep.setInt(1, i);
+            prep.setLong(2, i * 1000000L);
+            prep.setDouble(3, i * 0.5);
+            prep.setShort(4, (short) (i % 2));
+            prep.setString(5, "read" + i);
+            prep.addBatch();
+        }
+        prep.executeBatch();
+        conn.setAutoCommit(true);
+
+        JDBCLens<Read> lens = JDBCLens.getJDBCLens(Read.class);
+        for (int trial = 0; trial < 3; trial++) {
+            StopWatch timer = new StopWatch();
+            List<Read> result = lens.mapAll(stat.executeQuery("select * from read"));
+            double time = timer.getElapsedTime();
+            assertEquals(numRows, result.size());
+            assertEquals(numRows - 1, result.get(numRows - 1).id);
+            _logger.info(String.format("%,d rows. %.3f sec. (%,.0f rows/sec.)", numRows, time, numRows / time));
+        }
+    }
+
 }
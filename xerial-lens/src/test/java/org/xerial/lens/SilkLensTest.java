@@ -39,6 +39,9 @@ import org.xerial.core.XerialException;
 import org.xerial.lens.LensTest.MyGene;
 import org.xerial.lens.relation.NodeBase;
 import org.xerial.lens.relation.Tuple;
+import org.xerial.silk.SilkParser;
+import org.xerial.silk.query.SilkFind;
+import org.xerial.silk.query.SilkPredicate;
 import org.xerial.util.FileResource;
 import org.xerial.util.HashedArrayList;
 import org.xerial.util.ObjectHandlerBase;
@@ -457,6 +460,43 @@ public class SilkLensTest
                 });
     }
 
+    @Test
+    public void findWithQuery() throws Exception {
+        final List<MyGene> result = new ArrayList<MyGene>();
+        SilkFind query = new SilkFind("gene").where(SilkPredicate.range("start", 101, 103));
+        SilkParser parser = new SilkParser(FileResource.find(LensTest.class, "sequence.silk"));
+        Lens.find(MyGene.class, query, new ObjectHandlerBase<MyGene>() {
+            public void handle(MyGene input) throws Exception {
+                result.add(input);
+            }
+        }, parser);
+
+        assertEquals(2, result.size());
+        assertEquals(101, result.get(0).start);
+        assertEquals(103, result.get(1).start);
+        assertEquals(4, parser.getFilter().getNumScannedLines());
+        assertEquals(2, parser.getFilter().getNumSkippedLines());
+    }
+
+    @Test
+    public void findNodeFormWithQuery() throws Exception {
+        String silk = "-gene(name:g1, start:100)\n" + " -link: l1\n" + "-gene(name:g2, start:102)\n"
+                + " -link: l2\n" + "-gene(name, start)|\n" + "g3\t103\n" + "g4\t200\n";
+        final List<MyGene> result = new ArrayList<MyGene>();
+        SilkFind query = new SilkFind("gene").where(SilkPredicate.range("start", 101, 103));
+        Lens.find(MyGene.class, query, new ObjectHandlerBase<MyGene>() {
+            public void handle(MyGene input) throws Exception {
+                result.add(input);
+            }
+        }, new SilkParser(new StringReader(silk)));
+
+        assertEquals(2, result.size());
+        assertEquals("g2", result.get(0).name);
+        assertEquals(102, result.get(0).start);
+        assertEquals("l2", result.get(0).link);
+        assertEquals("g3", result.get(1).name);
+    }
+
     public static class TupleNode extends NodeBase<TupleNode>
     {
         public final int    id;
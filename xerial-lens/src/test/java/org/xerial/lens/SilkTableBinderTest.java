@@ -0,0 +1,175 @@
+/*--------------------------------------------------------------------------
+ *  Copyright 2009 Taro L. Saito
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *--------------------------------------------------------------------------*/
+//--------------------------------------
+// XerialJ
+//
+// SilkTableBinderTest.java
+// Since: 2026/10/17
+//
+// $URL$
+// $Author$
+//--------------------------------------
+package org.xerial.lens;
+
+import static org.junit.Assert.*;
+
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import org.xerial.core.XerialException;
+import org.xerial.lens.LensTest.MyGene;
+import org.xerial.silk.SilkParser;
+import org.xerial.util.FileResource;
+import org.xerial.util.ObjectHandlerBase;
+import org.xerial.util.StopWatch;
+import org.xerial.util.tree.TreeEventHandler;
+import org.xerial.util.tree.TreeParser;
+import org.xerial.util.log.Logger;
+
+public class SilkTableBinderTest
+{
+    private static Logger _logger = Logger.getLogger(SilkTableBinderTest.class);
+
+    public static class Read
+    {
+        public String  name;
+        public int     start;
+        public long    end;
+        public double  score;
+        public boolean valid;
+        public String  strand;
+    }
+
+    static class Collector<T> extends ObjectHandlerBase<T>
+    {
+        List<T> result = new ArrayList<T>();
+
+        public void handle(T input) throws Exception {
+            result.add(input);
+        }
+    }
+
+    /**
+     * Hides the SilkParser from the ObjectMapper to use the tree-event path
+     */
+    static class TreeEventPath implements TreeParser
+    {
+        private final SilkParser parser;
+
+        public TreeEventPath(SilkParser parser) {
+            this.parser = parser;
+        }
+
+        public void parse(TreeEventHandler handler) throws Exception {
+            parser.parse(handler);
+        }
+    }
+
+    private static <T> List<T> find(Class<T> type, String nodeName, Reader input, boolean fastPath)
+            throws Exception {
+        Collector<T> c = new Collector<T>();
+        SilkParser parser = new SilkParser(input);
+        Lens.find(type, nodeName, c, fastPath ? parser : new TreeEventPath(parser));
+        return c.result;
+    }
+
+    private static String toJSON(List< ? > list) {
+        List<String> json = new ArrayList<String>();
+        for (Object each : list)
+            json.add(JSONLens.toJSON(each));
+        return json.toString();
+    }
+
+    private static final String table = "-read(name, start, end, score, valid, strand:+, unknown)|\n"
+                                              + "r1\t1\t100\t0.5\ttrue\t\n"
+                                              + " \"r 2\" \t2\t\t1.5e3\tfalse\tx\n"
+                                              + "r3\t3\n" + "-other(name)|\n" + "o1\n"
+                                              + "-read(start, name)|\n" + "10\tr4\n";
+
+    @Test
+    public void sameWithTreeEventPath() throws Exception {
+        assertTrue(SilkTableBinder.isApplicable(Read.class));
+
+        List<Read> fast = find(Read.class, "read", new StringReader(table), true);
+        List<Read> slow = find(Read.class, "read", new StringReader(table), false);
+
+        assertEquals(4, fast.size());
+        assertEquals(toJSON(slow), toJSON(fast));
+
+        Read r = fast.get(1);
+        assertEquals("r 2", r.name);
+        assertEquals(2, r.start);
+        assertEquals(0L, r.end);
+        assertEquals(1.5e3, r.score, 1e-8);
+        assertEquals("+", r.strand);
+        assertEquals("r4", fast.get(3).name);
+        assertEquals(10, fast.get(3).start);
+    }
+
+    @Test
+    public void fallback() throws Exception {
+        // JSON column: processed by the tree-event path
+        List<MyGene> fast = find(MyGene.class, "gene", FileResource.open(LensTest.class, "sequence.silk"), true);
+        List<MyGene> slow = find(MyGene.class, "gene", FileResource.open(LensTest.class, "sequence.silk"), false);
+        assertTrue(fast.size() > 0);
+        assertEquals(toJSON(slow), toJSON(fast));
+
+        assertFalse(SilkTableBinder.isApplicable(SilkLensTest.SAMEntry.class));
+        assertFalse(SilkTableBinder.isApplicable(String.class));
+    }
+
+    @Test
+    public void handlerException() throws Exception {
+        ObjectHandlerBase<Read> handler = new ObjectHandlerBase<Read>() {
+            public void handle(Read input) throws Exception {
+                throw new IllegalStateException("error in handler");
+            }
+        };
+        try {
+            Lens.find(Read.class, "read", handler, new SilkParser(new StringReader(table)));
+            fail("the handler error must be reported");
+        }
+        catch (XerialException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+    }
+
+    @Test
+    public void performance() throws Exception {
+        StringBuilder s = new StringBuilder();
+        s.append("-read(name, start, end, score, valid, strand)|\n");
+        for (int i = 0; i < 100000; i++)
+            s.append(String.format("read%d\t%d\t%d\t%d.5\ttrue\t+\n", i, i, i + 36, i % 100));
+        String data = s.toString();
+
+        for (int trial = 0; trial < 3; trial++) {
+            StopWatch timer = new StopWatch();
+            List<Read> slow = find(Read.class, "read", new StringReader(data), false);
+            double slowTime = timer.getElapsedTime();
+
+            timer.reset();
+            List<Read> fast = find(Read.class, "read", new StringReader(data), true);
+            double fastTime = timer.getElapsedTime();
+
+            assertEquals(slow.size(), fast.size());
+            _logger.info(String.format("tree-event path: %.3f sec., table binder: %.3f sec.", slowTime, fastTime));
+        }
+    }
+
+}
@@ -32,6 +32,11 @@ import org.xerial.util.io.BinaryWriter;
 class SilkContext {
     public final SilkNode contextNode;
     boolean isOpen;
+    /**
+     * The node line that opened this context. null if the line is unknown
+     * (e.g., contexts opened by functions)
+     */
+    String sourceLine = null;
 
     /**
      * @param contextNode
@@ -0,0 +1,379 @@
+/*--------------------------------------------------------------------------
+ *  Copyright 2009 Taro L. Saito
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *--------------------------------------------------------------------------*/
+//--------------------------------------
+// XerialJ
+//
+// SilkIndex.java
+// Since: 2026/10/17
+//
+// $URL$
+// $Author$
+//--------------------------------------
+package org.xerial.silk;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.xerial.core.XerialErrorCode;
+import org.xerial.core.XerialException;
+import org.xerial.silk.model.SilkNode;
+import org.xerial.util.tree.TreeEventHandlerBase;
+
+/**
+ * Sparse line-offset index of a Silk file. Every N records (node or data
+ * lines), the index holds a {@link Checkpoint}, which records the file offset
+ * of the line and the node lines of the open contexts at the line. A
+ * {@link SilkParser} can resume parsing from any checkpoint (see
+ * {@link SilkParser#SilkParser(File, Checkpoint, Checkpoint, SilkParserConfig)}
+ * ), so a large Silk file can be split into ranges that are parsed in
+ * parallel, or read from the K-th record without parsing the preceding lines.
+ *
+ * <pre>
+ * SilkIndex index = SilkIndex.build(silkFile, 10000);
+ * index.save(SilkIndex.getIndexFile(silkFile));
+ *
+ * Checkpoint[] split = index.split(4);
+ * for (int i = 0; i &lt; split.length; i++) {
+ *     Checkpoint end = i + 1 &lt; split.length ? split[i + 1] : null;
+ *     new SilkParser(silkFile, split[i], end, config).parse(handler);
+ * }
+ * </pre>
+ *
+ * When resuming from a checkpoint, the node lines of the open contexts are
+ * parsed first, so the visit events of the enclosing nodes (and their
+ * attributes) are reported again before those of the resumed lines.
+ *
+ * @author leo
+ *
+ */
+public class SilkIndex
+{
+    /**
+     * Suffix of the sidecar index file
+     */
+    public static final String SUFFIX  = ".sidx";
+
+    private static final int   MAGIC   = 0x53494458; // SIDX
+    private static final int   VERSION = 2;
+
+    /**
+     * A position in the Silk file where the parser can resume
+     *
+     * @author leo
+     *
+     */
+    public static class Checkpoint
+    {
+        /**
+         * The number of records (node or data lines) before this checkpoint
+         */
+        public final long         record;
+        /**
+         * Line number (0-origin) of the line at this checkpoint
+         */
+        public final long         line;
+        /**
+         * File offset of the line
+         */
+        public final long         offset;
+        /**
+         * Node lines of the open contexts, from the outermost one
+         */
+        public final List<String> contextLines;
+
+        public Checkpoint(long record, long line, long offset, List<String> contextLines) {
+            this.record = record;
+            this.line = line;
+            this.offset = offset;
+            this.contextLines = Collections.unmodifiableList(contextLines);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("record:%d, line:%d, offset:%d, context:%s", record, line, offset, contextLines);
+        }
+    }
+
+    private final int              interval;
+    private final long             fileSize;
+    private final List<Checkpoint> checkpointList;
+
+    SilkIndex(int interval, long fileSize, List<Checkpoint> checkpointList) {
+        this.interval = interval;
+        this.fileSize = fileSize;
+        this.checkpointList = checkpointList;
+    }
+
+    /**
+     * Builds the index of the Silk file by parsing the whole file
+     *
+     * @param silkFile
+     * @param interval
+     *            the number of records between checkpoints
+     * @return the index
+     * @throws Exception
+     */
+    public static SilkIndex build(File silkFile, int interval) throws Exception {
+        SilkParserConfig config = new SilkParserConfig();
+        config.indexInterval = interval;
+        SilkParser parser = new SilkParser(silkFile, config);
+        parser.parse(new TreeEventHandlerBase());
+        return parser.getIndex();
+    }
+
+    /**
+     * @param silkFile
+     * @return the sidecar index file of the Silk file
+     */
+    public static File getIndexFile(File silkFile) {
+        return new File(silkFile.getPath() + SUFFIX);
+    }
+
+    public int getInterval() {
+        return interval;
+    }
+
+    /**
+     * @return the size of the Silk file when this index was built
+     */
+    public long getFileSize() {
+        return fileSize;
+    }
+
+    public List<Checkpoint> getCheckpointList() {
+        return Collections.unmodifiableList(checkpointList);
+    }
+
+    /**
+     * Finds the last checkpoint before the specified record
+     *
+     * @param record
+     *            record number (0-origin)
+     * @return the checkpoint to start reading the record
+     */
+    public Checkpoint seek(long record) {
+        int low = 0;
+        int high = checkpointList.size() - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (checkpointList.get(mid).record <= record)
+                low = mid;
+            else
+                high = mid - 1;
+        }
+        return checkpointList.get(low);
+    }
+
+    /**
+     * Splits the Silk file into ranges of nearly the same byte size. The i-th
+     * range starts from the i-th checkpoint and ends at the (i+1)-th
+     * checkpoint, or at the end of the file.
+     *
+     * @param numSplits
+     * @return start checkpoints of the ranges. Its length can be smaller than
+     *         numSplits when the index has a few checkpoints.
+     */
+    public Checkpoint[] split(int numSplits) {
+        List<Checkpoint> result = new ArrayList<Checkpoint>();
+        result.add(checkpointList.get(0));
+        for (int i = 1; i < numSplits; i++) {
+            Checkpoint c = checkpointList.get(findByOffset(fileSize * i / numSplits));
+            if (c.offset > result.get(result.size() - 1).offset)
+                result.add(c);
+        }
+        return result.toArray(new Checkpoint[result.size()]);
+    }
+
+    private int findByOffset(long offset) {
+        int low = 0;
+        int high = checkpointList.size() - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (checkpointList.get(mid).offset <= offset)
+                low = mid;
+            else
+                high = mid - 1;
+        }
+        return low;
+    }
+
+    public void save(File indexFile) throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(indexFile)));
+        try {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(interval);
+            out.writeLong(fileSize);
+            out.writeInt(checkpointList.size());
+            for (Checkpoint each : checkpointList) {
+                out.writeLong(each.record);
+                out.writeLong(each.line);
+                out.writeLong(each.offset);
+                out.writeInt(each.contextLines.size());
+                for (String line : each.contextLines)
+                    writeString(out, line);
+            }
+        }
+        finally {
+            out.close();
+        }
+    }
+
+    public static SilkIndex load(File indexFile) throws IOException, XerialException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(indexFile)));
+        try {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION)
+                throw new XerialException(XerialErrorCode.INVALID_INPUT, "not a Silk index file: " + indexFile);
+
+            int interval = in.readInt();
+            long fileSize = in.readLong();
+            int numCheckpoints = in.readInt();
+            List<Checkpoint> checkpointList = new ArrayList<Checkpoint>(numCheckpoints);
+            for (int i = 0; i < numCheckpoints; i++) {
+                long record = in.readLong();
+                long line = in.readLong();
+                long offset = in.readLong();
+                int numContextLines = in.readInt();
+                List<String> contextLines = new ArrayList<String>(numContextLines);
+                for (int j = 0; j < numContextLines; j++)
+                    contextLines.add(readString(in));
+                checkpointList.add(new Checkpoint(record, line, offset, contextLines));
+            }
+            return new SilkIndex(interval, fileSize, checkpointList);
+        }
+        finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Writes a string as its UTF-8 byte length followed by the bytes. Unlike
+     * {@link DataOutputStream#writeUTF(String)}, this has no 64KB limit, so
+     * long node lines can be stored.
+     */
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        byte[] b = s.getBytes("UTF-8");
+        out.writeInt(b.length);
+        out.write(b);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0)
+            throw new IOException("invalid string length: " + length);
+        byte[] b = new byte[length];
+        in.readFully(b);
+        return new String(b, "UTF-8");
+    }
+
+    /**
+     * Records checkpoints while {@link SilkParser} reads a file
+     *
+     * @author leo
+     *
+     */
+    static class Builder
+    {
+        private final int              interval;
+        private final long             fileSize;
+        private final List<Checkpoint> checkpointList = new ArrayList<Checkpoint>();
+        private long                   numRecords     = 0;
+        private boolean                inBlock        = false;
+
+        Builder(int interval, long fileSize) {
+            if (interval <= 0)
+                throw new IllegalArgumentException("interval must be positive: " + interval);
+            this.interval = interval;
+            this.fileSize = fileSize;
+        }
+
+        /**
+         * Called before the parser evaluates the event
+         *
+         * @param event
+         * @param line
+         *            line number of the event
+         * @param offset
+         *            file offset of the line
+         * @param env
+         *            the context stack before evaluating the event
+         */
+        void beforeEvent(SilkEvent event, long line, long offset, SilkEnv env) {
+            switch (event.getType()) {
+            case NODE:
+            case DATA_LINE:
+                if (!inBlock && numRecords % interval == 0) {
+                    int indent = SilkNode.NO_INDENT;
+                    if (event.getType() == SilkEventType.NODE) {
+                        SilkNode node = SilkNode.class.cast(event.getElement());
+                        if (node.getIndentLevel() != SilkNode.NO_INDENT)
+                            indent = node.getIndentLevel() + env.getIndentationOffset();
+                    }
+                    addCheckpoint(line, offset, env, indent);
+                }
+                numRecords++;
+                break;
+            case BLOCK_NODE:
+                inBlock = !inBlock;
+                numRecords++;
+                break;
+            case MULTILINE_SEPARATOR:
+                inBlock = false;
+                break;
+            }
+        }
+
+        /**
+         * @param line
+         * @param offset
+         * @param env
+         * @param indent
+         *            indent level of the node line at the checkpoint. The
+         *            contexts at this level or deeper are not recorded since
+         *            the node line closes them.
+         */
+        private void addCheckpoint(long line, long offset, SilkEnv env, int indent) {
+            List<String> contextLines = new ArrayList<String>();
+            for (SilkContext each : env.getContextNodeStack()) {
+                if (each.contextNode.getIndentLevel() >= indent)
+                    break;
+                if (each.sourceLine == null)
+                    return; // contexts opened by functions (e.g., import) cannot be restored
+
+                // a node line can open several contexts
+                if (contextLines.isEmpty() || contextLines.get(contextLines.size() - 1) != each.sourceLine)
+                    contextLines.add(each.sourceLine);
+            }
+            checkpointList.add(new Checkpoint(numRecords, line, offset, contextLines));
+        }
+
+        SilkIndex build() {
+            if (checkpointList.isEmpty() || checkpointList.get(0).offset != 0)
+                checkpointList.add(0, new Checkpoint(0, 0, 0, new ArrayList<String>()));
+            return new SilkIndex(interval, fileSize, checkpointList);
+        }
+    }
+
+}
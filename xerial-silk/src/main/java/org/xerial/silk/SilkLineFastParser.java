@@ -24,50 +24,81 @@
 //--------------------------------------
 package org.xerial.silk;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
+import java.io.InputStream;
 import java.io.Reader;
 import java.net.URL;
+import java.nio.charset.Charset;
 import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
-import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
-import org.antlr.runtime.CommonTokenStream;
 import org.xerial.core.XerialErrorCode;
 import org.xerial.core.XerialException;
-import org.xerial.silk.impl.SilkLineLexer;
-import org.xerial.util.ArrayDeque;
+import org.xerial.silk.impl.SilkNodeScanner;
+import org.xerial.silk.model.SilkDataLine;
 import org.xerial.util.log.Logger;
 
 /**
  * Parsing Silk using threads.
- * 
- * TODO fix a bug that does not properly report some nodes, for some timing
- * 
+ *
+ * The input is processed in a three-stage pipeline:
+ * <ol>
+ * <li>a chunker thread splits the raw input (bytes or chars) into chunks
+ * ending at a new line,</li>
+ * <li>mapper threads decode each chunk into lines and lex them into
+ * {@link SilkEvent}s,</li>
+ * <li>the reducer (the caller thread of {@link #parse(SilkEventHandler)})
+ * delivers the events to the {@link SilkEventHandler} in the original order.</li>
+ * </ol>
+ *
+ * The number of chunks in flight is bounded by <code>2 * numWorkers</code>, so
+ * the chunker blocks (back-pressure) when the reducer falls behind, and the
+ * memory usage is proportional to {@link SilkParserConfig#chunkSize}.
+ *
  * @author leo
- * 
+ *
  */
-public class SilkLineFastParser implements SilkParserBase {
-    private static Logger _logger = Logger.getLogger(SilkLineFastParser.class);
+public class SilkLineFastParser implements SilkParserBase
+{
+    private static Logger           _logger        = Logger.getLogger(SilkLineFastParser.class);
 
-    private final BufferedReader buffer;
-    private final ExecutorService threadManager;
-    private final LinkedBlockingQueue<Future<ArrayDeque<SilkEvent>>> eventContainer;
-    private final SilkParserConfig config;
+    private static final Charset    UTF8           = Charset.forName("UTF-8");
+    private static final SilkEvent  EOFEvent       = new SilkEvent(SilkEventType.END_OF_FILE, null);
+
+    private final ChunkReader       chunkReader;
+    private final SilkParserConfig  config;
+
+    private long                    lineCount      = 0;
+    private boolean                 inBlock        = false;
 
     public SilkLineFastParser(URL resourceURL) throws IOException {
         this(resourceURL, new SilkParserConfig());
     }
 
     public SilkLineFastParser(URL resourceURL, SilkParserConfig config) throws IOException {
-        this(new InputStreamReader(resourceURL.openStream(), "UTF8"), config);
+        this(resourceURL.openStream(), config);
+    }
+
+    /**
+     * Creates a parser reading UTF-8 encoded bytes. The UTF-8 decoding is
+     * performed by the mapper threads.
+     *
+     * @param input
+     * @param config
+     */
+    public SilkLineFastParser(InputStream input, SilkParserConfig config) {
+        this.config = config;
+        this.chunkReader = new ByteChunkReader(input, config.chunkSize);
     }
 
     public SilkLineFastParser(Reader reader) {
@@ -76,179 +107,401 @@ public class SilkLineFastParser implements SilkParserBase {
 
     public SilkLineFastParser(Reader reader, SilkParserConfig config) {
         this.config = config;
-        this.eventContainer = new LinkedBlockingQueue<Future<ArrayDeque<SilkEvent>>>(
-                config.numWorkers);
-
-        if (reader.getClass().isAssignableFrom(BufferedReader.class))
-            buffer = BufferedReader.class.cast(reader);
-        else
-            buffer = new BufferedReader(reader, config.bufferSize);
-
-        threadManager = Executors.newFixedThreadPool(config.numWorkers + 1);
+        this.chunkReader = new CharChunkReader(reader, config.chunkSize);
     }
 
-    private boolean foundEOF = false;
-    private volatile boolean noMoreJob = false;
+    public void parse(SilkEventHandler handler) throws Exception {
+        final int numWorkers = Math.max(1, config.numWorkers);
+        ExecutorService mapperPool = Executors.newFixedThreadPool(numWorkers, new SilkThreadFactory("mapper"));
+        ExecutorService chunkerPool = Executors.newSingleThreadExecutor(new SilkThreadFactory("chunker"));
 
-    public void parse(SilkEventHandler handler) throws XerialException {
+        // futures of the mapper tasks, in the input order
+        BlockingQueue<Future<ParsedChunk>> pipeline = new ArrayBlockingQueue<Future<ParsedChunk>>(numWorkers * 2);
+        Future<Void> chunkerTask = chunkerPool.submit(new Chunker(mapperPool, pipeline));
         try {
-            // start up the reducer
-            Future<Void> reducerTask = threadManager.submit(new Reducer(handler));
-            try {
-                int workerCount = 0;
-                foundEOF = false;
-
-                while (!foundEOF) {
-                    ArrayList<String> cache = new ArrayList<String>(config.numLinesInBlock);
-                    int lineCount = 0;
-                    while (lineCount < config.numLinesInBlock) {
-
-                        String line = buffer.readLine();
-                        if (line == null) {
-                            foundEOF = true;
-                            break;
-                        }
-                        lineCount++;
-                        cache.add(line);
-                    }
+            reduce(handler, pipeline);
+
+            // report I/O errors in the chunker thread
+            chunkerTask.get();
+        }
+        catch (InterruptedException e) {
+            throw new XerialException(XerialErrorCode.INTERRUPTED, e);
+        }
+        catch (ExecutionException e) {
+            throw unwrap(e);
+        }
+        finally {
+            // cancel the pending tasks (if any)
+            chunkerTask.cancel(true);
+            Future<ParsedChunk> pending;
+            while ((pending = pipeline.poll()) != null) {
+                pending.cancel(true);
+            }
+            chunkerPool.shutdownNow();
+            mapperPool.shutdownNow();
+            chunkReader.close();
+        }
+    }
 
-                    if (!cache.isEmpty()) {
-                        // map the input
-                        Mapper map = new Mapper(workerCount++, cache);
+    public long getNumReadLine() {
+        return lineCount;
+    }
 
-                        Future<ArrayDeque<SilkEvent>> future = threadManager.submit(map);
-                        eventContainer.put(future);
+    private static Exception unwrap(ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof IOException)
+            return new XerialException(XerialErrorCode.IO_EXCEPTION, cause);
+        if (cause instanceof Exception)
+            return (Exception) cause;
+        if (cause instanceof Error)
+            throw (Error) cause;
+        return e;
+    }
+
+    /**
+     * Delivers parsed events to the handler in the input order.
+     *
+     * @param handler
+     * @param pipeline
+     * @throws Exception
+     */
+    private void reduce(SilkEventHandler handler, BlockingQueue<Future<ParsedChunk>> pipeline) throws Exception {
+        while (true) {
+            ParsedChunk chunk = pipeline.take().get();
+            if (chunk == null)
+                break; // end of stream
+
+            for (int i = 0; i < chunk.size; i++) {
+                lineCount++;
+                String line = chunk.line[i];
+                if (!inBlock) {
+                    SilkEvent e = chunk.event[i];
+                    if (e == null) {
+                        if (chunk.parseError != null && chunk.parseError[i] != null)
+                            _logger.warn(String.format("parse error at line=%d: %s", lineCount, chunk.parseError[i]));
+                        continue;
+                    }
+                    if (e.type == SilkEventType.BLOCK_NODE)
+                        inBlock = true;
+                    handler.handle(e);
+                }
+                else {
+                    // lines inside a multi-line block must be reported as they are
+                    if (line.trim().startsWith("--")) {
+                        inBlock = false;
+                        handler.handle(new SilkEvent(SilkEventType.MULTILINE_SEPARATOR, null));
                     }
+                    else
+                        handler.handle(new SilkEvent(SilkEventType.DATA_LINE, new SilkDataLine(line)));
                 }
+            }
+        }
+
+        handler.handle(EOFEvent);
+    }
 
-                // wake up the reducer thread
-                noMoreJob = true;
+    /**
+     * Splits the input into chunks and submits mapper tasks for them. The end
+     * of the stream is notified to the reducer by a future returning null.
+     *
+     * @author leo
+     *
+     */
+    private class Chunker implements Callable<Void>
+    {
+        private final ExecutorService                    mapperPool;
+        private final BlockingQueue<Future<ParsedChunk>> pipeline;
+
+        Chunker(ExecutorService mapperPool, BlockingQueue<Future<ParsedChunk>> pipeline) {
+            this.mapperPool = mapperPool;
+            this.pipeline = pipeline;
+        }
 
-            }
-            catch (IOException e) {
-                reducerTask.cancel(true);
-                throw new XerialException(XerialErrorCode.IO_EXCEPTION, e);
+        public Void call() throws Exception {
+            try {
+                Chunk chunk;
+                while (!Thread.currentThread().isInterrupted() && (chunk = chunkReader.next()) != null) {
+                    // blocks while the pipeline is full
+                    pipeline.put(mapperPool.submit(new Mapper(chunk)));
+                }
             }
             finally {
-                threadManager.shutdown();
-                while (!threadManager.awaitTermination(1, TimeUnit.MILLISECONDS)) {}
+                FutureTask<ParsedChunk> endOfStream = new FutureTask<ParsedChunk>(new Callable<ParsedChunk>() {
+                    public ParsedChunk call() throws Exception {
+                        return null;
+                    }
+                });
+                endOfStream.run();
+                pipeline.put(endOfStream);
             }
+            return null;
         }
-        catch (InterruptedException e) {
-            throw new XerialException(XerialErrorCode.INTERRUPTED, e);
-        }
-
     }
 
-    private class Mapper implements Callable<ArrayDeque<SilkEvent>> {
-        final List<String> cache;
-        final ArrayDeque<SilkEvent> eventQueue;
-        final SilkLineLexer lexer = new SilkLineLexer();
-        final CommonTokenStream tokenStream = new CommonTokenStream();
-        final int lsn;
+    /**
+     * Decodes a chunk into lines, then translates each line into a
+     * {@link SilkEvent}.
+     *
+     * @author leo
+     *
+     */
+    private static class Mapper implements Callable<ParsedChunk>
+    {
+        private final Chunk chunk;
 
-        Mapper(int lsn, List<String> cache) {
-            this.lsn = lsn;
-            this.cache = cache;
-            eventQueue = new ArrayDeque<SilkEvent>(cache.size());
+        Mapper(Chunk chunk) {
+            this.chunk = chunk;
         }
 
-        public ArrayDeque<SilkEvent> call() throws Exception {
-            for (int cursor = 0; cursor < cache.size(); cursor++) {
+        public ParsedChunk call() throws Exception {
+            SilkNodeScanner scanner = new SilkNodeScanner();
+
+            ArrayList<String> lines = chunk.decodeLines();
+            ParsedChunk result = new ParsedChunk(lines);
+            for (int i = 0; i < result.size; i++) {
                 try {
-                    SilkEvent e = SilkLinePushParser.parseLine(lexer, tokenStream,
-                            cache.get(cursor));
-                    if (e != null) {
-                        eventQueue.add(e);
-                    }
+                    result.event[i] = SilkLinePushParser.parseLine(scanner, result.line[i]);
                 }
                 catch (XerialException e) {
                     if (e.getErrorCode() == XerialErrorCode.PARSE_ERROR)
-                        _logger.warn(e);
+                        result.setParseError(i, e); // will be reported by the reducer
                     else
                         throw e;
                 }
             }
+            return result;
+        }
+    }
 
-            // finished the parsing
-            cache.clear();
-
-            if (_logger.isTraceEnabled())
-                _logger.trace(String.format("finished workder=%d. event queue size = %d", lsn,
-                        eventQueue.size()));
-
-            return eventQueue;
+    /**
+     * Lines in a chunk and their parse results
+     *
+     * @author leo
+     *
+     */
+    private static class ParsedChunk
+    {
+        final int                size;
+        final String[]           line;
+        final SilkEvent[]        event;
+        XerialException[]        parseError = null;
+
+        ParsedChunk(ArrayList<String> lines) {
+            this.size = lines.size();
+            this.line = lines.toArray(new String[size]);
+            this.event = new SilkEvent[size];
         }
 
+        void setParseError(int index, XerialException e) {
+            if (parseError == null)
+                parseError = new XerialException[size];
+            parseError[index] = e;
+        }
     }
 
     /**
-     * subsumes event container in the sequential order
-     * 
+     * A block of input data that ends with a new line (or EOF)
+     *
      * @author leo
-     * 
+     *
      */
-    private class Reducer implements Callable<Void> {
-        private final SilkEventHandler handler;
-        private ArrayDeque<SilkEvent> eventQueue = null;
-        private int eventCount = 0;
+    private static interface Chunk
+    {
+        public ArrayList<String> decodeLines();
+    }
 
-        public Reducer(SilkEventHandler handler) {
-            this.handler = handler;
+    private static class ByteChunk implements Chunk
+    {
+        private final byte[] buf;
+        private final int    length;
+
+        ByteChunk(byte[] buf, int length) {
+            this.buf = buf;
+            this.length = length;
         }
 
-        public Void call() throws Exception {
-            try {
-                consumeEvent();
+        public ArrayList<String> decodeLines() {
+            ArrayList<String> lines = new ArrayList<String>();
+            int start = 0;
+            for (int i = 0; i < length; i++) {
+                if (buf[i] == '\n') {
+                    int end = (i > start && buf[i - 1] == '\r') ? i - 1 : i;
+                    lines.add(new String(buf, start, end - start, UTF8));
+                    start = i + 1;
+                }
             }
-            finally {
-                // process remaining events
-                consumeEvent();
+            if (start < length) {
+                int end = buf[length - 1] == '\r' ? length - 1 : length;
+                lines.add(new String(buf, start, end - start, UTF8));
+            }
+            return lines;
+        }
+    }
+
+    private static class CharChunk implements Chunk
+    {
+        private final char[] buf;
+        private final int    length;
 
-                handler.handle(new SilkEvent(SilkEventType.END_OF_FILE, null));
+        CharChunk(char[] buf, int length) {
+            this.buf = buf;
+            this.length = length;
+        }
+
+        public ArrayList<String> decodeLines() {
+            ArrayList<String> lines = new ArrayList<String>();
+            int start = 0;
+            for (int i = 0; i < length; i++) {
+                if (buf[i] == '\n') {
+                    int end = (i > start && buf[i - 1] == '\r') ? i - 1 : i;
+                    lines.add(new String(buf, start, end - start));
+                    start = i + 1;
+                }
             }
+            if (start < length) {
+                int end = buf[length - 1] == '\r' ? length - 1 : length;
+                lines.add(new String(buf, start, end - start));
+            }
+            return lines;
+        }
+    }
 
-            return null;
+    private static interface ChunkReader
+    {
+        /**
+         * @return the next chunk, or null when reached EOF
+         * @throws IOException
+         */
+        public Chunk next() throws IOException;
+
+        public void close() throws IOException;
+    }
+
+    /**
+     * Reads chunks of raw bytes. The bytes are split at '\n' without decoding,
+     * which is safe for UTF-8 since no multi-byte character contains the '\n'
+     * byte.
+     *
+     * @author leo
+     *
+     */
+    private static class ByteChunkReader implements ChunkReader
+    {
+        private final InputStream in;
+        private final int         chunkSize;
+        private byte[]            carry       = new byte[0];
+        private boolean           foundEOF    = false;
+
+        ByteChunkReader(InputStream in, int chunkSize) {
+            this.in = in;
+            this.chunkSize = chunkSize;
         }
 
-        public void consumeEvent() throws Exception {
-            while ((eventQueue = getNext()) != null) {
-                while (!eventQueue.isEmpty()) {
-                    SilkEvent e = null;
-                    try {
-                        e = eventQueue.getFirst();
+        public Chunk next() throws IOException {
+            if (foundEOF)
+                return null;
+
+            byte[] buf = new byte[Math.max(chunkSize, carry.length * 2)];
+            System.arraycopy(carry, 0, buf, 0, carry.length);
+            int len = carry.length;
+            int scanStart = 0;
+            while (true) {
+                while (len < buf.length) {
+                    int readLen = in.read(buf, len, buf.length - len);
+                    if (readLen == -1) {
+                        foundEOF = true;
+                        carry = null;
+                        return len > 0 ? new ByteChunk(buf, len) : null;
                     }
-                    finally {
-                        if (e != null) {
-                            eventQueue.removeFirst();
-                            handler.handle(e);
-                            eventCount++;
-                        }
+                    len += readLen;
+                }
+
+                // split the buffer at the last new line
+                for (int i = len - 1; i >= scanStart; i--) {
+                    if (buf[i] == '\n') {
+                        carry = Arrays.copyOfRange(buf, i + 1, len);
+                        return new ByteChunk(buf, i + 1);
                     }
                 }
+                // no new line is found. extend the buffer
+                scanStart = len;
+                buf = Arrays.copyOf(buf, buf.length * 2);
             }
         }
 
-        public ArrayDeque<SilkEvent> getNext() throws ExecutionException {
-            if (eventQueue != null && !eventQueue.isEmpty())
-                return eventQueue;
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+
+    /**
+     * Reads chunks of chars from a {@link Reader}
+     *
+     * @author leo
+     *
+     */
+    private static class CharChunkReader implements ChunkReader
+    {
+        private final Reader in;
+        private final int    chunkSize;
+        private char[]       carry    = new char[0];
+        private boolean      foundEOF = false;
+
+        CharChunkReader(Reader in, int chunkSize) {
+            this.in = in;
+            this.chunkSize = chunkSize;
+        }
 
-            if (noMoreJob && eventContainer.isEmpty())
+        public Chunk next() throws IOException {
+            if (foundEOF)
                 return null;
 
-            try {
-                Future<ArrayDeque<SilkEvent>> container = eventContainer.take();
-                return container.get();
-            }
-            catch (InterruptedException e) {
-                if (eventContainer.isEmpty())
-                    return null;
-                else
-                    return getNext();
+            char[] buf = new char[Math.max(chunkSize, carry.length * 2)];
+            System.arraycopy(carry, 0, buf, 0, carry.length);
+            int len = carry.length;
+            int scanStart = 0;
+            while (true) {
+                while (len < buf.length) {
+                    int readLen = in.read(buf, len, buf.length - len);
+                    if (readLen == -1) {
+                        foundEOF = true;
+                        carry = null;
+                        return len > 0 ? new CharChunk(buf, len) : null;
+                    }
+                    len += readLen;
+                }
+
+                for (int i = len - 1; i >= scanStart; i--) {
+                    if (buf[i] == '\n') {
+                        carry = Arrays.copyOfRange(buf, i + 1, len);
+                        return new CharChunk(buf, i + 1);
+                    }
+                }
+                scanStart = len;
+                buf = Arrays.copyOf(buf, buf.length * 2);
             }
+        }
+
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+
+    private static class SilkThreadFactory implements ThreadFactory
+    {
+        private static final AtomicInteger poolCount   = new AtomicInteger(0);
+        private final AtomicInteger        threadCount = new AtomicInteger(0);
+        private final String               prefix;
 
+        SilkThreadFactory(String stage) {
+            this.prefix = String.format("silk-%s-%d-", stage, poolCount.incrementAndGet());
         }
 
+        public Thread newThread(Runnable r) {
+            Thread t = new Thread(r, prefix + threadCount.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        }
     }
 
 }
@@ -29,14 +29,15 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
 import java.net.URL;
-import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.TimeUnit;
 
+import org.xerial.core.XerialError;
+import org.xerial.core.XerialErrorCode;
 import org.xerial.core.XerialException;
 import org.xerial.util.ArrayDeque;
+import org.xerial.util.thread.RingBuffer;
 
 /**
  * Pull parser of the Silk format. Pull-style means each parsing event is
@@ -47,11 +48,9 @@ import org.xerial.util.ArrayDeque;
  */
 public class SilkLinePullParser {
 
-    private final int eventQueueMax = 10000;
-    volatile private boolean foundEOF = false;
+    private boolean foundEOF = false;
 
-    private ArrayBlockingQueue<SilkEvent> eventQueue = new ArrayBlockingQueue<SilkEvent>(
-            eventQueueMax);
+    private final RingBuffer<SilkEvent> eventQueue;
 
     private SilkLinePushParser parser;
     private ExecutorService threadPool;
@@ -65,9 +64,15 @@ public class SilkLinePullParser {
     }
 
     public SilkLinePullParser(Reader input) throws IOException {
+        this(input, new SilkParserConfig());
+    }
+
+    public SilkLinePullParser(Reader input, SilkParserConfig config) throws IOException {
         threadPool = Executors.newFixedThreadPool(1);
+        eventQueue = new RingBuffer<SilkEvent>(config.eventBufferSize, config.eventBatchSize,
+                config.waitStrategy);
 
-        parser = new SilkLinePushParser(input);
+        parser = new SilkLinePushParser(input, config);
         threadPool.submit(new SilkEventProducer());
     }
 
@@ -76,19 +81,27 @@ public class SilkLinePullParser {
 
         public void handle(SilkEvent event) throws XerialException {
             try {
-                if (!Thread.currentThread().isInterrupted())
-                    eventQueue.put(event);
+                eventQueue.put(event);
             }
             catch (InterruptedException e) {
-
+                throw new XerialException(XerialErrorCode.INTERRUPTED, e);
             }
         }
 
         public Boolean call() throws Exception {
-            parser.parse(this);
-            foundEOF = true;
-            threadPool.shutdownNow();
-            return true;
+            Exception error = null;
+            try {
+                parser.parse(this);
+                return true;
+            }
+            catch (Exception e) {
+                error = e;
+                throw e;
+            }
+            finally {
+                eventQueue.close(error);
+                threadPool.shutdownNow();
+            }
         }
 
     }
@@ -99,9 +112,8 @@ public class SilkLinePullParser {
         if (!prefetchedEventQueue.isEmpty())
             return true;
 
-        if (foundEOF) {
-            return !eventQueue.isEmpty();
-        }
+        if (foundEOF)
+            return false;
 
         fetchNext();
 
@@ -109,28 +121,31 @@ public class SilkLinePullParser {
     }
 
     public SilkEvent next() throws XerialException {
-        if (!prefetchedEventQueue.isEmpty())
+        if (hasNext())
             return prefetchedEventQueue.removeFirst();
-
-        if (foundEOF)
-            return eventQueue.poll();
-
-        fetchNext();
-
-        return next();
+        else
+            return null;
     }
 
     private void fetchNext() throws XerialException {
         try {
-            SilkEvent e = null;
-            while (!foundEOF && (e = eventQueue.poll(1, TimeUnit.MILLISECONDS)) == null) {}
-            if (e != null)
-                prefetchedEventQueue.addLast(e);
+            // receives a batch of events at once
+            if (eventQueue.drainTo(prefetchedEventQueue) > 0)
+                return;
         }
         catch (InterruptedException e) {
-            foundEOF = true;
+            // not the end of the stream
+            Thread.currentThread().interrupt();
+            throw new XerialError(XerialErrorCode.INTERRUPTED, e);
+        }
+
+        foundEOF = true;
+        Throwable error = eventQueue.getError();
+        if (error != null) {
+            if (error instanceof XerialException)
+                throw (XerialException) error;
+            throw new XerialException(XerialErrorCode.INHERITED, error);
         }
-        return;
     }
 
     public long getNumReadLine() {
@@ -26,6 +26,7 @@ package org.xerial.silk;
 
 import java.io.BufferedReader;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileReader;
 import java.io.IOException;
 import java.io.InputStream;
@@ -33,6 +34,7 @@ import java.io.InputStreamReader;
 import java.io.Reader;
 import java.lang.reflect.Field;
 import java.net.MalformedURLException;
+import java.net.URISyntaxException;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -52,6 +54,7 @@ import org.xerial.json.JSONPullParser;
 import org.xerial.json.JSONUtil;
 import org.xerial.json.JSONValue;
 import org.xerial.json.JSONValueType;
+import org.xerial.silk.model.SilkColumnCursor;
 import org.xerial.silk.model.SilkDataLine;
 import org.xerial.silk.model.SilkFunction;
 import org.xerial.silk.model.SilkFunctionArg;
@@ -59,6 +62,8 @@ import org.xerial.silk.model.SilkJSONValue;
 import org.xerial.silk.model.SilkNode;
 import org.xerial.silk.model.SilkNodeOccurrence;
 import org.xerial.silk.model.SilkValue;
+import org.xerial.silk.query.SilkFind;
+import org.xerial.silk.query.SilkFindFilter;
 import org.xerial.silk.plugin.SilkFunctionArgument;
 import org.xerial.silk.plugin.SilkFunctionPlugin;
 import org.xerial.util.FileResource;
@@ -66,6 +71,7 @@ import org.xerial.util.ReflectionUtil;
 import org.xerial.util.StringUtil;
 import org.xerial.util.TypeInfo;
 import org.xerial.util.log.Logger;
+import org.xerial.util.tree.CharSequenceTreeEventHandler;
 import org.xerial.util.tree.TreeEventHandler;
 import org.xerial.util.tree.TreeParser;
 import org.xerial.util.tree.impl.TreeEventQueue;
@@ -84,8 +90,26 @@ public class SilkParser implements SilkEventHandler, TreeParser
     private final SilkEnv          parseContext;
     private final SilkParserConfig config;
 
-    private final TreeEventQueue   eventQueue  = new TreeEventQueue();
-    private long                   numReadLine = 0;
+    private final TreeEventQueue   eventQueue   = new TreeEventQueue();
+    private final SilkColumnCursor columnCursor = new SilkColumnCursor();
+    private long                   numReadLine  = 0;
+
+    private SilkTableRowHandler    rowHandler   = null;
+    private SilkNode               tableSchema  = null;
+    private boolean                isRowHandled = false;
+
+    private static final int       NOT_REJECTED = -1;
+
+    private SilkFindFilter         filter       = null;
+    /**
+     * indent level of the target node rejected by the filter, whose
+     * following lines are skipped
+     */
+    private int                    rejectedNodeIndent = NOT_REJECTED;
+
+    private SilkIndex.Builder      indexBuilder = null;
+    private SilkIndex              index        = null;
+    private String                 sourceLine   = null;
 
     /**
      * Creates a new reader with the specified reader
@@ -108,7 +132,52 @@ public class SilkParser implements SilkEventHandler, TreeParser
      * @throws IOException
      */
     public SilkParser(File input) throws IOException {
-        this(new BufferedReader(new FileReader(input)), SilkEnv.newEnv(getResourceBasePath(input)));
+        this(input, SilkEnv.newEnv(getResourceBasePath(input)), new SilkParserConfig());
+    }
+
+    public SilkParser(File input, SilkParserConfig config) throws IOException {
+        this(input, SilkEnv.newEnv(getResourceBasePath(input)), config);
+    }
+
+    public SilkParser(File input, SilkEnv env, SilkParserConfig config) throws IOException {
+        this.config = config;
+        this.parser = newFileParser(input, config);
+        this.parseContext = env;
+        if (config.indexInterval > 0)
+            this.indexBuilder = new SilkIndex.Builder(config.indexInterval, input.length());
+    }
+
+    /**
+     * Creates a reader of the range of the input file, which starts from the
+     * checkpoint and ends at the next checkpoint. The node lines of the
+     * contexts at the start checkpoint are parsed first.
+     * 
+     * @param input
+     * @param from
+     *            checkpoint to start reading
+     * @param to
+     *            checkpoint to stop reading. If null, the file is read until
+     *            its end.
+     * @param config
+     * @throws IOException
+     */
+    public SilkParser(File input, SilkIndex.Checkpoint from, SilkIndex.Checkpoint to, SilkParserConfig config)
+            throws IOException {
+        this.config = config;
+        this.parser = new SilkLinePushParser(input, from, to != null ? to.offset : Long.MAX_VALUE, config);
+        this.parseContext = SilkEnv.newEnv(getResourceBasePath(input));
+    }
+
+    private static SilkParserBase newFileParser(File input, SilkParserConfig config) throws IOException {
+        if (config.indexInterval > 0)
+            // the index records the file offsets of the memory-mapped lines
+            return new SilkLinePushParser(input, config);
+        else if (config.numWorkers > 1)
+            return new SilkLineFastParser(new FileInputStream(input), config);
+        else if (config.useMemoryMappedFile)
+            return new SilkLinePushParser(input, config);
+        else
+            return new SilkLinePushParser(new BufferedReader(new FileReader(input)), config);
     }
 
     /**
@@ -141,19 +210,47 @@ public class SilkParser implements SilkEventHandler, TreeParser
     }
 
     public SilkParser(URL resource, SilkEnv env, SilkParserConfig config) throws IOException {
-        this(new InputStreamReader(resource.openStream(), "UTF8"), SilkEnv.newEnv(env, getResourceBasePath(resource)),
-                config);
+        this.config = config;
+        File file = toLocalFile(resource);
+        if (file != null)
+            this.parser = newFileParser(file, config);
+        else if (config.numWorkers > 1)
+            // UTF-8 decoding is performed in the worker threads
+            this.parser = new SilkLineFastParser(resource.openStream(), config);
+        else
+            this.parser = new SilkLinePushParser(new InputStreamReader(resource.openStream(), "UTF8"), config);
+        this.parseContext = SilkEnv.newEnv(env, getResourceBasePath(resource));
     }
 
     public SilkParser(Reader input, SilkEnv env, SilkParserConfig config) throws IOException {
         this.config = config;
         if (config.numWorkers > 1)
-            this.parser = new SilkLineFastParser(input);
+            this.parser = new SilkLineFastParser(input, config);
         else
-            this.parser = new SilkLinePushParser(input);
+            this.parser = new SilkLinePushParser(input, config);
         this.parseContext = env;
     }
 
+    /**
+     * @param resource
+     * @return the file of the resource URL, or null if the resource is not a
+     *         local file
+     */
+    private static File toLocalFile(URL resource) {
+        if (!"file".equals(resource.getProtocol()))
+            return null;
+        try {
+            File file = new File(resource.toURI());
+            return file.isFile() ? file : null;
+        }
+        catch (URISyntaxException e) {
+            return null;
+        }
+        catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
     static String getResourceBasePath(File resourcePath) throws IOException {
         try {
             URL resource = resourcePath.toURI().toURL();
@@ -188,12 +285,64 @@ public class SilkParser implements SilkEventHandler, TreeParser
 
     TreeEventHandler handler;
 
+    /**
+     * Set a handler that receives the data lines of tab-separated tables
+     * directly, bypassing the tree events.
+     * 
+     * @param rowHandler
+     */
+    public void setTableRowHandler(SilkTableRowHandler rowHandler) {
+        this.rowHandler = rowHandler;
+        this.tableSchema = null;
+    }
+
+    /**
+     * Set a query whose predicates are tested for each target node. The data
+     * lines and the node lines (with their descendants) that fail the
+     * predicates are skipped without generating tree events.
+     * 
+     * @param query
+     */
+    public void setFilter(SilkFind query) {
+        this.filter = query == null ? null : new SilkFindFilter(query);
+        this.rejectedNodeIndent = NOT_REJECTED;
+    }
+
+    /**
+     * @return the filter of the query given to {@link #setFilter(SilkFind)},
+     *         or null
+     */
+    public SilkFindFilter getFilter() {
+        return filter;
+    }
+
+    private boolean isHandledByRowHandler(SilkNode schema) throws Exception {
+        if (rowHandler == null)
+            return false;
+        if (schema != tableSchema) {
+            tableSchema = schema;
+            isRowHandled = rowHandler.accept(schema);
+        }
+        return isRowHandled;
+    }
+
+    /**
+     * Get the index built by the last parse. To build the index, set
+     * {@link SilkParserConfig#indexInterval}.
+     * 
+     * @return the index of the input file, or null if no index is built
+     */
+    public SilkIndex getIndex() {
+        return index;
+    }
+
     public void parse(TreeEventHandler handler) throws Exception {
         this.handler = handler;
 
         handler.init();
         parser.parse(this);
         closeContextUpTo(parseContext.getIndentationOffset());
+        buildIndex();
 
         handler.finish();
     }
@@ -203,9 +352,27 @@ public class SilkParser implements SilkEventHandler, TreeParser
 
         parser.parse(this);
         closeContextUpTo(parseContext.getIndentationOffset());
+        buildIndex();
+    }
+
+    private void buildIndex() {
+        if (indexBuilder != null)
+            index = indexBuilder.build();
     }
 
     public void handle(SilkEvent event) throws Exception {
+        if (indexBuilder != null) {
+            SilkLinePushParser lineParser = SilkLinePushParser.class.cast(parser);
+            indexBuilder.beforeEvent(event, lineParser.getNumReadLine() - 1, lineParser.getCurrentLineOffset(),
+                    parseContext);
+            sourceLine = lineParser.getCurrentLine();
+        }
+
+        if (isInRejectedNode(event)) {
+            numReadLine++;
+            return;
+        }
+
         try {
             switch (event.getType()) {
             case DATA_LINE:
@@ -248,6 +415,40 @@ public class SilkParser implements SilkEventHandler, TreeParser
         numReadLine++;
     }
 
+    /**
+     * @param event
+     * @return true if the event is in the lines of the node rejected by the
+     *         filter
+     */
+    private boolean isInRejectedNode(SilkEvent event) {
+        if (rejectedNodeIndent == NOT_REJECTED)
+            return false;
+
+        int indentLevel;
+        switch (event.getType()) {
+        case NODE:
+        case BLOCK_NODE:
+            indentLevel = SilkNode.class.cast(event.getElement()).getIndentLevel();
+            break;
+        case FUNCTION:
+            indentLevel = SilkFunction.class.cast(event.getElement()).getIndentLevel();
+            break;
+        case END_OF_FILE:
+            rejectedNodeIndent = NOT_REJECTED;
+            return false;
+        default:
+            return true;
+        }
+
+        if (indentLevel != SilkNode.NO_INDENT)
+            indentLevel += parseContext.getIndentationOffset();
+        if (indentLevel > rejectedNodeIndent)
+            return true;
+
+        rejectedNodeIndent = NOT_REJECTED;
+        return false;
+    }
+
     private void parseDataLine(SilkEvent currentEvent) throws Exception {
         // pop the context stack until finding a node for stream data node occurrence
         while (!parseContext.isContextNodeStackEmpty()) {
@@ -265,14 +466,14 @@ public class SilkParser implements SilkEventHandler, TreeParser
         if (parseContext.isContextNodeStackEmpty()) {
             // use default column names(c1, c2, ...) 
             SilkDataLine line = SilkDataLine.class.cast(currentEvent.getElement());
-            ArrayList<String> columns = StringUtil.splitAtTab(line.getTrimmedDataLine());
-            int index = 1;
+            SilkColumnCursor column = columnCursor.reset(line);
+            int index = 0;
             visit("row", null);
-            for (String each : columns) {
-                String columnName = String.format("c%d", index++);
+            while (column.next()) {
+                String columnName = defaultColumnName(index++);
 
                 // TODO use evalColumnData
-                visit(columnName, each);
+                visitColumn(columnName, column);
                 leave(columnName);
             }
             leave("row");
@@ -295,9 +496,17 @@ public class SilkParser implements SilkEventHandler, TreeParser
             }
                 break;
             case TABBED_SEQUENCE: {
-                ArrayList<String> columns = StringUtil.splitAtTab(line.getTrimmedDataLine());
+                if (filter != null && !filter.accept(schema, line))
+                    break;
+
+                if (isHandledByRowHandler(schema)) {
+                    rowHandler.handleRow(schema, columnCursor.reset(line));
+                    break;
+                }
 
-                int columnIndex = 0;
+                // scan columns without splitting the line into Strings
+                SilkColumnCursor column = columnCursor.reset(line);
+                boolean hasColumn = true;
                 visit(schema.getName(), schema.hasValue() ? schema.getValue().toString() : null);
                 for (int i = 0; i < schema.getChildNodes().size(); i++) {
                     SilkNode child = schema.getChildNodes().get(i);
@@ -306,10 +515,10 @@ public class SilkParser implements SilkEventHandler, TreeParser
                         evalDatalineColumn(child, child.getValue().toString());
                     }
                     else {
-                        if (columnIndex < columns.size()) {
-                            String columnData = columns.get(columnIndex++).trim();
-                            if (columnData.length() > 0)
-                                evalDatalineColumn(child, columnData);
+                        if (hasColumn && (hasColumn = column.next())) {
+                            column.trim();
+                            if (column.length() > 0)
+                                evalDatalineColumn(child, column);
                         }
                     }
                 }
@@ -333,6 +542,38 @@ public class SilkParser implements SilkEventHandler, TreeParser
 
     }
 
+    /**
+     * Enqueues a visit event with a node value in the data line. The value is
+     * passed as a {@link CharSequence} view when the handler accepts it.
+     * 
+     * @param nodeName
+     * @param immediateNodeValue
+     * @throws Exception
+     */
+    private void visitColumn(String nodeName, SilkColumnCursor immediateNodeValue) throws Exception {
+        if (handler instanceof CharSequenceTreeEventHandler)
+            ((CharSequenceTreeEventHandler) handler).visitNode(nodeName, immediateNodeValue);
+        else
+            handler.visitNode(nodeName, immediateNodeValue.toString());
+    }
+
+    private static final String[] defaultColumnNames = new String[64];
+
+    /**
+     * @param index
+     *            0-origin column index
+     * @return c1, c2, ...
+     */
+    private static String defaultColumnName(int index) {
+        if (index >= defaultColumnNames.length)
+            return String.format("c%d", index + 1);
+
+        String name = defaultColumnNames[index];
+        if (name == null)
+            defaultColumnNames[index] = name = String.format("c%d", index + 1);
+        return name;
+    }
+
     /**
      * Enqueues a leave event
      * 
@@ -391,27 +632,37 @@ public class SilkParser implements SilkEventHandler, TreeParser
             indentLevel += parseContext.getIndentationOffset();
 
         closeContextUpTo(indentLevel);
-        openContext_internal(node);
+        if (!openContext_internal(node) && indentLevel != SilkNode.NO_INDENT)
+            rejectedNodeIndent = indentLevel;
     }
 
-    private void openContext_internal(SilkNode node) throws Exception {
+    /**
+     * @param node
+     * @return false if the node is rejected by the filter
+     * @throws Exception
+     */
+    private boolean openContext_internal(SilkNode node) throws Exception {
 
         // no name node handling
         if (node.getName() == null) {
             for (SilkNode eachChild : node.getChildNodes()) {
                 openContext_internal(eachChild);
             }
-            return;
+            return true;
         }
 
+        if (filter != null && !filter.accept(node))
+            return false;
+
         // push the current node context to the stack
         SilkContext currentContext = new SilkContext(node, true);
+        currentContext.sourceLine = sourceLine;
         parseContext.pushContext(currentContext);
 
         SilkNodeOccurrence occurrence = node.getOccurrence();
         if (node.isTableSchema()) {
             currentContext.isOpen = false;
-            return; // do not invoke visit events
+            return true; // do not invoke visit events
         }
 
         String nodeName = node.getName();
@@ -446,7 +697,7 @@ public class SilkParser implements SilkEventHandler, TreeParser
                 SilkFunction function = SilkFunction.class.cast(textValue);
                 evalFunction(function);
 
-                return;
+                return true;
             }
             else if (occurrence == SilkNodeOccurrence.ZERO_OR_MORE) {
                 currentContext.isOpen = false;
@@ -455,7 +706,7 @@ public class SilkParser implements SilkEventHandler, TreeParser
                     visit(nodeName, each.trim());
                     leave(nodeName);
                 }
-                return;
+                return true;
             }
             else {
                 // Simple text value will be reported as it is.
@@ -465,7 +716,7 @@ public class SilkParser implements SilkEventHandler, TreeParser
         else {
             if (occurrence == SilkNodeOccurrence.ZERO_OR_MORE) {
                 // CSV data
-                return; // do not invoke visit events
+                return true; // do not invoke visit events
             }
 
             // Report a visit event without text value
@@ -480,6 +731,7 @@ public class SilkParser implements SilkEventHandler, TreeParser
             }
         }
 
+        return true;
     }
 
     /**
@@ -566,6 +818,17 @@ public class SilkParser implements SilkEventHandler, TreeParser
         }
     }
 
+    private void evalDatalineColumn(SilkNode node, SilkColumnCursor column) throws Exception {
+        if (!node.hasChildren() && !node.hasManyOccurrences() && !"json".equalsIgnoreCase(node.getDataType())) {
+            // plain text value. No need to materialize the column
+            column.unquote();
+            visitColumn(node.getName(), column);
+            leave(node.getName());
+        }
+        else
+            evalDatalineColumn(node, column.toString());
+    }
+
     private void evalDatalineColumn(SilkNode node, String columnData) throws Exception {
         // 7600 lines/sec
 
@@ -24,6 +24,8 @@
 //--------------------------------------
 package org.xerial.silk;
 
+import org.xerial.util.thread.RingBuffer;
+
 /**
  * SilkParserConfig
  * 
@@ -33,6 +35,51 @@ package org.xerial.silk;
 public class SilkParserConfig {
     public int bufferSize = 1024 * 1024; // 1M
     public int numWorkers = 1;
+    /**
+     * @deprecated {@link SilkLineFastParser} splits the input by
+     *             {@link #chunkSize}. This parameter is no longer used.
+     */
+    @Deprecated
     public int numLinesInBlock = 1000;
+    /**
+     * Size of the input block processed by each worker of
+     * {@link SilkLineFastParser}. A block ends at a new line, so it can be
+     * larger than this size when a line is longer than the block.
+     */
+    public int chunkSize = 256 * 1024; // 256K
+    /**
+     * Read local files through memory-mapped I/O (see
+     * {@link org.xerial.util.io.MappedLineReader}) when {@link #numWorkers} is
+     * 1.
+     */
+    public boolean useMemoryMappedFile = true;
+    /**
+     * Size of the memory-mapped region of the input file. Files larger than
+     * this size are mapped by sliding the window.
+     */
+    public int mappedWindowSize = 64 * 1024 * 1024; // 64M
+    /**
+     * When positive, {@link SilkParser} reading a local file builds a
+     * {@link SilkIndex} that has a checkpoint every this number of records.
+     * The index is available from {@link SilkParser#getIndex()} after
+     * parsing.
+     */
+    public int indexInterval = 0;
+    /**
+     * Capacity of the event buffer between the background parser and the
+     * consumer of {@link SilkPullParser} and {@link SilkLinePullParser}
+     */
+    public int eventBufferSize = 16 * 1024;
+    /**
+     * The number of events the background parser hands off to the consumer at
+     * a time
+     */
+    public int eventBatchSize = 128;
+    /**
+     * How the background parser and the consumer of the pull parsers wait for
+     * each other. {@link RingBuffer.WaitStrategy#BUSY_SPIN} is faster when
+     * both threads have their own CPU cores.
+     */
+    public RingBuffer.WaitStrategy waitStrategy = RingBuffer.WaitStrategy.BLOCKING;
 
 }
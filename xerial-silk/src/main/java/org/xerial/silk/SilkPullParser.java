@@ -30,18 +30,25 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
 import java.net.URL;
-import java.util.concurrent.ArrayBlockingQueue;
+import java.util.ArrayList;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.TimeUnit;
 
+import org.xerial.core.XerialError;
+import org.xerial.core.XerialErrorCode;
 import org.xerial.core.XerialException;
 import org.xerial.util.ArrayDeque;
 import org.xerial.util.log.Logger;
+import org.xerial.util.thread.RingBuffer;
+import org.xerial.util.tree.InternedTreeStreamReader;
+import org.xerial.util.tree.MutableTreeEvent;
+import org.xerial.util.tree.NodeNameTable;
 import org.xerial.util.tree.TreeEvent;
 import org.xerial.util.tree.TreeEventHandler;
+import org.xerial.util.tree.TreeEventPool;
 import org.xerial.util.tree.TreeStreamReader;
+import org.xerial.util.tree.TreeEvent.EventType;
 
 /**
  * {@link TreeStreamReader} implementation for the Silk data format.
@@ -49,13 +56,19 @@ import org.xerial.util.tree.TreeStreamReader;
  * @author leo
  * 
  */
-public class SilkPullParser implements TreeStreamReader {
+public class SilkPullParser implements InternedTreeStreamReader {
     private static Logger _logger = Logger.getLogger(SilkPullParser.class);
 
     private final SilkParser parser;
-    private final ArrayBlockingQueue<TreeEvent> eventQueue = new ArrayBlockingQueue<TreeEvent>(
-            10000);
-    private final ArrayDeque<TreeEvent> prefetchedEventQueue = new ArrayDeque<TreeEvent>();
+    private final RingBuffer<MutableTreeEvent> eventQueue;
+    private final ArrayDeque<MutableTreeEvent> prefetchedEventQueue = new ArrayDeque<MutableTreeEvent>();
+    private final NodeNameTable nodeNameTable = new NodeNameTable();
+    // used by the background parser
+    private final TreeEventPool eventPool;
+    // consumed events, which are returned to the background parser for reuse
+    private final RingBuffer<MutableTreeEvent> releasedEventQueue;
+    // the event at the cursor
+    private MutableTreeEvent current = null;
 
     private long numReadLine = 0;
 
@@ -95,6 +108,11 @@ public class SilkPullParser implements TreeStreamReader {
      */
     public SilkPullParser(Reader input, SilkEnv env, SilkParserConfig config) throws IOException {
         this.parser = new SilkParser(input, env, config);
+        this.eventQueue = new RingBuffer<MutableTreeEvent>(config.eventBufferSize,
+                config.eventBatchSize, config.waitStrategy);
+        this.eventPool = new TreeEventPool(nodeNameTable, config.eventBufferSize);
+        this.releasedEventQueue = new RingBuffer<MutableTreeEvent>(config.eventBufferSize,
+                config.eventBatchSize, config.waitStrategy);
 
         this.threadManager = Executors.newFixedThreadPool(1);
         threadManager.submit(new BackgroundParser());
@@ -140,64 +158,104 @@ public class SilkPullParser implements TreeStreamReader {
 
     private class BackgroundParser implements Callable<Void> {
 
+        private final ArrayList<MutableTreeEvent> reclaimed = new ArrayList<MutableTreeEvent>();
+
+        private void put(MutableTreeEvent e) throws InterruptedException {
+            eventQueue.put(e);
+            if (eventPool.isEmpty()) {
+                // reuse the events released by the consumer
+                releasedEventQueue.drainAvailableTo(reclaimed);
+                eventPool.releaseAll(reclaimed);
+                reclaimed.clear();
+            }
+        }
+
         public Void call() throws Exception {
+            Exception error = null;
             try {
                 parser.parse(new TreeEventHandler() {
-                    public void finish() throws Exception {
-                        hasParsingFinished = true;
-                    }
+                    public void finish() throws Exception {}
 
-                    public void init() throws Exception {
-                        hasParsingFinished = false;
-                    }
+                    public void init() throws Exception {}
 
                     public void leaveNode(String nodeName) throws Exception {
-                        eventQueue.put(TreeEvent.newLeaveEvent(nodeName));
+                        put(eventPool.newLeaveEvent(nodeName));
                     }
 
                     public void text(String nodeName, String textDataFragment) throws Exception {
-                        eventQueue.put(TreeEvent.newTextEvent(nodeName, textDataFragment));
+                        put(eventPool.newTextEvent(nodeName, textDataFragment));
                     }
 
                     public void visitNode(String nodeName, String immediateNodeValue)
                             throws Exception {
-                        eventQueue.put(TreeEvent.newVisitEvent(nodeName, immediateNodeValue));
+                        put(eventPool.newVisitEvent(nodeName, immediateNodeValue));
 
                     }
                 });
                 return null;
             }
             catch (Exception e) {
-                hasParsingFinished = true;
+                error = e;
                 throw e;
             }
             finally {
+                eventQueue.close(error);
                 threadManager.shutdown();
             }
         }
 
     }
 
+    public NodeNameTable getNodeNameTable() {
+        return nodeNameTable;
+    }
+
     public TreeEvent peekNext() throws XerialException {
         if (hasNext())
-            return prefetchedEventQueue.getFirst();
+            return prefetchedEventQueue.getFirst().toTreeEvent();
         else
             return null;
     }
 
     public TreeEvent next() throws XerialException {
         if (hasNext()) {
-            TreeEvent e = prefetchedEventQueue.removeFirst();
-            return e;
+            MutableTreeEvent e = prefetchedEventQueue.removeFirst();
+            TreeEvent result = e.toTreeEvent();
+            release(e);
+            return result;
         }
         else
             return null;
     }
 
-    /**
-     * Has finished reading the stream?
-     */
-    private volatile boolean hasParsingFinished = false;
+    public boolean advance() throws XerialException {
+        release(current);
+        current = hasNext() ? prefetchedEventQueue.removeFirst() : null;
+        return current != null;
+    }
+
+    public EventType getEventType() {
+        return current != null ? current.getEventType() : null;
+    }
+
+    public int getNodeId() {
+        return current != null ? current.getNodeId() : NodeNameTable.NO_ID;
+    }
+
+    public String getNodeName() {
+        return current != null ? current.getNodeName() : null;
+    }
+
+    public String getNodeValue() {
+        return current != null ? current.getNodeValue() : null;
+    }
+
+    private void release(MutableTreeEvent e) {
+        // dropped when the background parser has stopped or the queue is full
+        if (e != null && !hasPrefetchFinished)
+            releasedEventQueue.offer(e);
+    }
+
     private boolean hasPrefetchFinished = false;
 
     /**
@@ -213,27 +271,24 @@ public class SilkPullParser implements TreeStreamReader {
         if (hasPrefetchFinished)
             return false;
 
-        if (hasParsingFinished) {
-            int count = eventQueue.drainTo(prefetchedEventQueue);
-            hasPrefetchFinished = true;
-            return hasNext();
-        }
-
         try {
-            TreeEvent e = null;
-            while (!hasParsingFinished && (e = eventQueue.poll(1, TimeUnit.SECONDS)) == null) {}
-
-            if (e != null) {
-                prefetchedEventQueue.addLast(e);
+            // receives a batch of events at once
+            if (eventQueue.drainTo(prefetchedEventQueue) > 0)
                 return true;
-            }
-
-            return hasNext();
         }
         catch (InterruptedException e) {
-
+            // not the end of the stream
+            Thread.currentThread().interrupt();
+            throw new XerialError(XerialErrorCode.INTERRUPTED, e);
         }
 
+        hasPrefetchFinished = true;
+        Throwable error = eventQueue.getError();
+        if (error != null) {
+            if (error instanceof XerialException)
+                throw (XerialException) error;
+            throw new XerialException(XerialErrorCode.INHERITED, error);
+        }
         return false;
     }
 
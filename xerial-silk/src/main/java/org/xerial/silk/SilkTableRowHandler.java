@@ -0,0 +1,62 @@
+/*--------------------------------------------------------------------------
+ *  Copyright 2009 Taro L. Saito
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *--------------------------------------------------------------------------*/
+//--------------------------------------
+// XerialJ
+//
+// SilkTableRowHandler.java
+// Since: 2026/10/17
+//
+// $URL$
+// $Author$
+//--------------------------------------
+package org.xerial.silk;
+
+import org.xerial.silk.model.SilkColumnCursor;
+import org.xerial.silk.model.SilkNode;
+
+/**
+ * Handler of the data lines in tab-separated tables (e.g.,
+ * <tt>-gene(id, name)|</tt>). When a table is accepted by this handler,
+ * {@link SilkParser} passes its data lines to
+ * {@link #handleRow(SilkNode, SilkColumnCursor)} instead of generating tree
+ * events for them.
+ * 
+ * @author leo
+ * 
+ */
+public interface SilkTableRowHandler
+{
+    /**
+     * Called once for each table schema found in the input.
+     * 
+     * @param tableSchema
+     *            schema node of the table
+     * @return true if the data lines of this table are handled by this handler
+     * @throws Exception
+     */
+    public boolean accept(SilkNode tableSchema) throws Exception;
+
+    /**
+     * Handles a data line of the accepted table
+     * 
+     * @param tableSchema
+     * @param columns
+     *            cursor positioned before the first column of the line. This
+     *            cursor is reused for the next line.
+     * @throws Exception
+     */
+    public void handleRow(SilkNode tableSchema, SilkColumnCursor columns) throws Exception;
+}
@@ -24,6 +24,8 @@
 //--------------------------------------
 package org.xerial.silk;
 
+import java.io.CharArrayWriter;
+import java.io.IOException;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
@@ -36,6 +38,12 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -137,6 +145,21 @@ public class SilkWriter
             isFirstLine = false;
     }
 
+    /**
+     * Creates a writer of a fragment, which has the same indentation level
+     * and format with the base writer
+     * 
+     * @param base
+     * @param fragment
+     */
+    private SilkWriter(SilkWriter base, Writer fragment) {
+        this.parent = base.parent;
+        this.out = new PrintWriter(fragment);
+        this.levelOffset = base.levelOffset;
+        this.contextNodeName = base.contextNodeName;
+        this.formatConfig = base.formatConfig;
+    }
+
     public void setFormatConfig(FormatConfig config) {
         if (config == null)
             throw new NullPointerException("config is null");
@@ -631,6 +654,109 @@ public class SilkWriter
         return this;
     }
 
+    /**
+     * The maximum number of values rendered by a thread at a time in
+     * {@link #leafObjectList(String, List, ExecutorService, int)}
+     */
+    public static final int MAX_FRAGMENT_SIZE = 1024;
+
+    /**
+     * Output the input values in Silk format under the specified node name
+     * using the threads of the given executor. Each thread renders a
+     * contiguous slice of the values into its own buffer, and the buffers are
+     * written to the output in the input order. The result is the same with
+     * calling {@link #leafObject(String, Object)} for each value.
+     * 
+     * <pre>
+     * ExecutorService pool = Executors.newFixedThreadPool(4);
+     * try {
+     *     w.leafObjectList(&quot;gene&quot;, geneList, pool, 4);
+     * }
+     * finally {
+     *     pool.shutdown();
+     * }
+     * </pre>
+     * 
+     * @param <Value>
+     * @param leafNodeName
+     *            node name
+     * @param values
+     *            objects to convert into Silk
+     * @param executor
+     *            runs the rendering tasks. The executor can be reused across
+     *            calls, and is not shut down by this method.
+     * @param numThreads
+     *            the number of threads of the executor to use. At most twice
+     *            this number of slices are rendered ahead of the output.
+     * @return
+     */
+    public <Value> SilkWriter leafObjectList(final String leafNodeName, final List<Value> values,
+            ExecutorService executor, int numThreads) {
+        final int sliceSize = Math.min(MAX_FRAGMENT_SIZE, (values.size() + numThreads - 1) / Math.max(1, numThreads));
+        if (numThreads <= 1 || values.size() <= sliceSize || nodeValueSyntaxType == SyntaxType.SEQUENCE
+                || (parent != null && formatConfig.preferUsingAttribute)) {
+            // attributes or sequence symbols cannot be rendered in separate buffers
+            for (Value each : values)
+                leafObject(leafNodeName, each);
+            return this;
+        }
+
+        usabilityCheck();
+
+        // rendering tasks in the input order
+        BlockingQueue<Future<CharArrayWriter>> pending = new ArrayBlockingQueue<Future<CharArrayWriter>>(
+                numThreads * 2);
+        try {
+            int next = 0;
+            while (next < values.size() || !pending.isEmpty()) {
+                // keep the threads busy while writing the fragments in order
+                while (next < values.size() && pending.remainingCapacity() > 0) {
+                    final List<Value> slice = values.subList(next, Math.min(values.size(), next + sliceSize));
+                    pending.add(executor.submit(new Callable<CharArrayWriter>() {
+                        public CharArrayWriter call() throws Exception {
+                            CharArrayWriter buf = new CharArrayWriter();
+                            SilkWriter fragment = new SilkWriter(SilkWriter.this, buf);
+                            for (Value each : slice)
+                                fragment.leafObject(leafNodeName, each);
+                            fragment.endNode();
+                            fragment.flush();
+                            return buf;
+                        }
+                    }));
+                    next += slice.size();
+                }
+
+                CharArrayWriter buf = pending.poll().get();
+                if (buf.size() > 0) {
+                    attributeParenCloseCheck(true);
+                    out.flush();
+                    buf.writeTo(out);
+                }
+            }
+        }
+        catch (InterruptedException e) {
+            throw new XerialError(XerialErrorCode.INTERRUPTED, e);
+        }
+        catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException)
+                throw (RuntimeException) cause;
+            if (cause instanceof Error)
+                throw (Error) cause;
+            throw new XerialError(XerialErrorCode.INVALID_STATE, cause);
+        }
+        catch (IOException e) {
+            throw new XerialError(XerialErrorCode.IO_EXCEPTION, e);
+        }
+        finally {
+            Future<CharArrayWriter> task;
+            while ((task = pending.poll()) != null)
+                task.cancel(true);
+        }
+
+        return this;
+    }
+
     private void outputLeaf(String leafNodeName, String value) {
         if (parent != null && formatConfig.preferUsingAttribute)
             attribute(leafNodeName, value);
@@ -0,0 +1,755 @@
+/*--------------------------------------------------------------------------
+ *  Copyright 2009 Taro L. Saito
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *--------------------------------------------------------------------------*/
+//--------------------------------------
+// XerialJ
+//
+// SilkNodeScanner.java
+// Since: 2026/10/17
+//
+// $URL$
+// $Author$
+//--------------------------------------
+package org.xerial.silk.impl;
+
+import static org.xerial.silk.impl.SilkLineLexer.*;
+
+import org.antlr.runtime.Token;
+import org.xerial.core.XerialErrorCode;
+import org.xerial.core.XerialException;
+import org.xerial.silk.model.SilkElement;
+import org.xerial.silk.model.SilkFunction;
+import org.xerial.silk.model.SilkNode;
+import org.xerial.silk.model.SilkNodeOccurrence;
+import org.xerial.silk.model.SilkNode.SilkNodeBuilder;
+
+/**
+ * Hand-written scanner and parser of Silk node, function and attribute lines
+ * (lines beginning with '-' or '@'). This class produces the same
+ * {@link SilkNode} and {@link SilkFunction} models with {@link SilkLineLexer}
+ * + {@link SilkNodeParser}, but tokenizes the line in a single pass over a
+ * reusable char buffer, emulating the lexer states of {@link SilkLexerState}
+ * with int values. No token objects are created; only the strings stored in
+ * the resulting model are allocated.
+ *
+ * <p>
+ * Differences from the ANTLR grammar: tokens are read lazily, so invalid
+ * characters after the end of a node definition are ignored, and every
+ * lexical error is reported as a {@link XerialErrorCode#PARSE_ERROR} instead
+ * of a {@link org.xerial.core.XerialError}. In-line JSON values are extracted
+ * by matching brackets, and their contents are not validated.
+ * </p>
+ *
+ * <p>
+ * An instance of this class is not thread-safe. Use one scanner per thread.
+ * </p>
+ *
+ * @author leo
+ *
+ */
+public class SilkNodeScanner
+{
+    // lexer states (see SilkLexerState.State)
+    private static final int INIT      = 0;
+    private static final int OUT_KEY   = 1;
+    private static final int OUT_VALUE = 2;
+    private static final int IN_VALUE  = 3;
+    private static final int IN_KEY    = 4;
+
+    private char[]           buf       = new char[256];
+    private int              len       = 0;
+    private int              pos       = 0;
+
+    private int              state     = INIT;
+    private int[]            stateStack = new int[8];
+    private int              stackSize = 0;
+
+    // token buffer. String tokens do not include the enclosing double quotes
+    private int[]            tokenType  = new int[32];
+    private int[]            tokenStart = new int[32];
+    private int[]            tokenEnd   = new int[32];
+    private int              numTokens  = 0;
+    private boolean          reachedEOF = false;
+
+    // cursor of the parser
+    private int              p          = 0;
+
+    public SilkNodeScanner() {
+
+    }
+
+    /**
+     * Parses a node or function line.
+     *
+     * @param line
+     *            a line beginning with (indented) '-' or '@'
+     * @return {@link SilkNode} or {@link SilkFunction}
+     * @throws XerialException
+     *             PARSE_ERROR when the line has a syntax error
+     */
+    public SilkElement parse(String line) throws XerialException {
+        reset(line);
+
+        switch (LA(1)) {
+        case NodeIndent:
+            if (LA(2) == At)
+                return parseFunction();
+            else
+                return parseSilkNode().build();
+        case BlockIndent:
+        case PullUpNodeIndent: {
+            SilkNodeBuilder node = parseSilkNode();
+            node.setOccurrence(SilkNodeOccurrence.SEQUENCE_PRESERVING_WHITESPACES);
+            return node.build();
+        }
+        case FunctionIndent:
+            return parseFunction();
+        default:
+            throw unexpectedToken(1, NodeIndent, FunctionIndent);
+        }
+    }
+
+    private void reset(String line) {
+        len = line.length();
+        if (len > buf.length)
+            buf = new char[Math.max(len, buf.length * 2)];
+        line.getChars(0, len, buf, 0);
+
+        pos = 0;
+        state = INIT;
+        stackSize = 0;
+        numTokens = 0;
+        reachedEOF = false;
+        p = 0;
+    }
+
+    /*
+     * parser
+     */
+
+    private SilkNodeBuilder parseSilkNode() throws XerialException {
+        SilkNodeBuilder node = new SilkNodeBuilder();
+        node.setIndent(text(1));
+        consume();
+
+        if (nextTokenIs(LParen)) {
+            consume();
+            parseAttributeList(node);
+            testAndConsume(RParen);
+        }
+        else
+            parseNodeItem(node);
+
+        return node;
+    }
+
+    private SilkNodeBuilder parseNodeItem(SilkNodeBuilder node) throws XerialException {
+        node.setName(parseNodeName());
+
+        // data type
+        if (nextTokenIs(LBracket)) {
+            consume();
+            node.setDataType(matchText(PlainOneLine));
+            testAndConsume(RBracket);
+        }
+
+        // attributes
+        if (nextTokenIs(LParen)) {
+            consume();
+            parseAttributeList(node);
+            testAndConsume(RParen);
+        }
+
+        // plural
+        switch (LA(1)) {
+        case Star:
+            node.setOccurrence(SilkNodeOccurrence.ZERO_OR_MORE);
+            consume();
+            break;
+        case Plus:
+            node.setOccurrence(SilkNodeOccurrence.ONE_OR_MORE);
+            consume();
+            break;
+        case Question:
+            node.setOccurrence(SilkNodeOccurrence.ZERO_OR_ONE);
+            consume();
+            break;
+        case Seq:
+            node.setOccurrence(SilkNodeOccurrence.SEQUENCE);
+            consume();
+            break;
+        case TabSeq:
+            node.setOccurrence(SilkNodeOccurrence.TABBED_SEQUENCE);
+            consume();
+            break;
+        default:
+            break;
+        }
+
+        // node value
+        if (nextTokenIs(Colon)) {
+            consume();
+            switch (LA(1)) {
+            case At:
+                node.setFunction(parseFunctionInternal(new SilkFunction()));
+                break;
+            case PlainOneLine:
+            case String:
+                node.setValue(text(1));
+                consume();
+                break;
+            case JSON:
+                node.setJSON(text(1));
+                consume();
+                break;
+            default:
+                throw unexpectedToken(1, At, PlainOneLine, String);
+            }
+        }
+
+        return node;
+    }
+
+    private void parseAttributeList(SilkNodeBuilder node) throws XerialException {
+        node.addSilkNode(parseNodeItem(new SilkNodeBuilder()));
+        while (nextTokenIs(Comma)) {
+            consume();
+            node.addSilkNode(parseNodeItem(new SilkNodeBuilder()));
+        }
+    }
+
+    private String parseNodeName() throws XerialException {
+        switch (LA(1)) {
+        case PlainOneLine:
+        case String: {
+            String name = text(1).trim();
+            consume();
+            return name;
+        }
+        default:
+            throw unexpectedToken(1, PlainOneLine, String);
+        }
+    }
+
+    private String parseArgumentValue() throws XerialException {
+        switch (LA(1)) {
+        case At:
+            throw new XerialException(XerialErrorCode.PARSE_ERROR, "nested function is not yet supported");
+        case PlainOneLine:
+        case String: {
+            String value = text(1);
+            consume();
+            return value;
+        }
+        default:
+            throw unexpectedToken(1, At, PlainOneLine, String);
+        }
+    }
+
+    private SilkFunction parseFunction() throws XerialException {
+        SilkFunction func = new SilkFunction();
+        func.setNodeIndent(text(1));
+        if (LA(1) == FunctionIndent) {
+            consume();
+            func.setName(matchText(PlainOneLine).trim());
+            parseFunctionArgs(func);
+            return func;
+        }
+        else {
+            consume();
+            return parseFunctionInternal(func);
+        }
+    }
+
+    private SilkFunction parseFunctionInternal(SilkFunction func) throws XerialException {
+        testAndConsume(At);
+        func.setName(matchText(PlainOneLine).trim());
+        parseFunctionArgs(func);
+        return func;
+    }
+
+    private void parseFunctionArgs(SilkFunction func) throws XerialException {
+        testAndConsume(LParen);
+        if (!nextTokenIs(RParen)) {
+            parseFunctionArg(func);
+            while (nextTokenIs(Comma)) {
+                consume();
+                parseFunctionArg(func);
+            }
+        }
+        testAndConsume(RParen);
+    }
+
+    private void parseFunctionArg(SilkFunction func) throws XerialException {
+        int t = LA(1);
+        if ((t == String || t == PlainOneLine) && LA(2) == Colon) {
+            String key = text(1).trim();
+            consume();
+            consume();
+            func.addKeyAndValue(key, parseArgumentValue().trim());
+            return;
+        }
+
+        func.addArgument(parseArgumentValue());
+    }
+
+    private boolean nextTokenIs(int type) throws XerialException {
+        return LA(1) == type;
+    }
+
+    private void consume() {
+        p++;
+    }
+
+    private void testAndConsume(int type) throws XerialException {
+        if (LA(1) != type)
+            throw unexpectedToken(1, type);
+        consume();
+    }
+
+    /**
+     * Consumes the next token of the specified type
+     *
+     * @return the text of the matched token
+     */
+    private String matchText(int type) throws XerialException {
+        if (LA(1) != type)
+            throw unexpectedToken(1, type);
+        String text = text(1);
+        consume();
+        return text;
+    }
+
+    private String text(int i) {
+        int index = p + i - 1;
+        return new String(buf, tokenStart[index], tokenEnd[index] - tokenStart[index]);
+    }
+
+    private XerialException unexpectedToken(int i, int... expectedTokenTypes) {
+        StringBuilder expected = new StringBuilder();
+        for (int k = 0; k < expectedTokenTypes.length; k++) {
+            if (k > 0)
+                expected.append(" or ");
+            expected.append(SilkLineParser.tokenNames[expectedTokenTypes[k]]);
+        }
+
+        int index = p + i - 1;
+        String found;
+        if (index >= numTokens)
+            found = "[<EOF>]";
+        else
+            found = java.lang.String.format("[%s at char %d: %s]", SilkLineParser.tokenNames[tokenType[index]],
+                    tokenStart[index], text(i));
+
+        return new XerialException(XerialErrorCode.PARSE_ERROR, java.lang.String.format("expected %s, but %s",
+                expected, found));
+    }
+
+    /*
+     * lexer
+     */
+
+    /**
+     * Look ahead the i-th token type from the current cursor
+     */
+    private int LA(int i) throws XerialException {
+        int index = p + i - 1;
+        while (numTokens <= index) {
+            if (reachedEOF || !nextToken())
+                return Token.EOF;
+        }
+        return tokenType[index];
+    }
+
+    private void emit(int type, int start, int end) {
+        if (numTokens >= tokenType.length) {
+            int newSize = tokenType.length * 2;
+            tokenType = copyOf(tokenType, newSize);
+            tokenStart = copyOf(tokenStart, newSize);
+            tokenEnd = copyOf(tokenEnd, newSize);
+        }
+        tokenType[numTokens] = type;
+        tokenStart[numTokens] = start;
+        tokenEnd[numTokens] = end;
+        numTokens++;
+    }
+
+    private static int[] copyOf(int[] array, int newSize) {
+        int[] newArray = new int[newSize];
+        System.arraycopy(array, 0, newArray, 0, array.length);
+        return newArray;
+    }
+
+    private void pushState() {
+        if (stackSize >= stateStack.length)
+            stateStack = copyOf(stateStack, stateStack.length * 2);
+        stateStack[stackSize++] = state;
+    }
+
+    private void enterParen() {
+        if (state != OUT_VALUE)
+            pushState();
+        if (state == OUT_KEY || state == IN_VALUE)
+            state = IN_KEY;
+    }
+
+    private void leaveParen() {
+        if (state != OUT_VALUE && stackSize > 0)
+            state = stateStack[--stackSize];
+    }
+
+    private void leaveValue() {
+        if (state == IN_VALUE)
+            state = IN_KEY;
+    }
+
+    private static boolean isWhiteSpace(char c) {
+        return c == ' ' || c == '\t';
+    }
+
+    private boolean isKey() {
+        return state == OUT_KEY || state == IN_KEY;
+    }
+
+    private boolean isValue() {
+        return state == OUT_VALUE || state == IN_VALUE;
+    }
+
+    /**
+     * Reads the next token into the token buffer
+     *
+     * @return false when reached the end of the line
+     */
+    private boolean nextToken() throws XerialException {
+        if (pos == 0)
+            return scanIndent();
+
+        // skip white spaces
+        while (pos < len && isWhiteSpace(buf[pos]))
+            pos++;
+
+        if (pos >= len) {
+            reachedEOF = true;
+            return false;
+        }
+
+        int start = pos;
+        char c = buf[pos];
+
+        if (c == '"') {
+            scanString();
+            leaveValue();
+            return true;
+        }
+
+        switch (state) {
+        case OUT_VALUE:
+            switch (c) {
+            case '@':
+                pos++;
+                emit(At, start, pos);
+                pushState();
+                state = OUT_KEY;
+                return true;
+            case '{':
+            case '[':
+                scanJSON();
+                return true;
+            default:
+                // the rest of the line until a double quote
+                while (pos < len && buf[pos] != '"')
+                    pos++;
+                emit(PlainOneLine, start, pos);
+                return true;
+            }
+        case IN_VALUE:
+            switch (c) {
+            case '{':
+            case '[':
+                scanJSON();
+                return true;
+            case ':':
+            case '?':
+                if (pos + 1 < len && isNonSpaceChar(buf[pos + 1])) {
+                    pos += 2;
+                    scanPlainInValue(start);
+                    return true;
+                }
+                break;
+            case '-':
+            case '=':
+            case '+':
+            case '*':
+                pos++;
+                scanPlainInValue(start);
+                return true;
+            default:
+                if (isPlainFirst(c)) {
+                    pos++;
+                    scanPlainInValue(start);
+                    return true;
+                }
+                break;
+            }
+            break;
+        case OUT_KEY:
+        case IN_KEY:
+            if (isPlainFirst(c)) {
+                pos++;
+                while (pos < len && isPlainSafeKey(buf[pos]))
+                    pos++;
+                emit(PlainOneLine, start, pos);
+                return true;
+            }
+            break;
+        default:
+            break;
+        }
+
+        // indicators
+        pos++;
+        switch (c) {
+        case '(':
+            emit(LParen, start, pos);
+            enterParen();
+            return true;
+        case ')':
+            emit(RParen, start, pos);
+            leaveParen();
+            return true;
+        case '[':
+            emit(LBracket, start, pos);
+            enterParen();
+            return true;
+        case ']':
+            emit(RBracket, start, pos);
+            return true;
+        case ',':
+            emit(Comma, start, pos);
+            return true;
+        case ':':
+            emit(Colon, start, pos);
+            if (state == OUT_KEY)
+                state = OUT_VALUE;
+            else if (state == IN_KEY)
+                state = IN_VALUE;
+            return true;
+        case '>':
+            emit(Seq, start, pos);
+            return true;
+        case '|':
+            emit(TabSeq, start, pos);
+            return true;
+        case '*':
+            emit(Star, start, pos);
+            return true;
+        case '+':
+            emit(Plus, start, pos);
+            return true;
+        case '?':
+            emit(Question, start, pos);
+            return true;
+        case '@':
+            emit(At, start, pos);
+            pushState();
+            return true;
+        default:
+            throw new XerialException(XerialErrorCode.PARSE_ERROR, java.lang.String.format(
+                    "invalid character '%s' at char %d", c, start));
+        }
+    }
+
+    private boolean scanIndent() throws XerialException {
+        while (pos < len && buf[pos] == ' ')
+            pos++;
+
+        int type;
+        if (pos < len && buf[pos] == '-') {
+            pos++;
+            if (pos < len && buf[pos] == '-') {
+                pos++;
+                type = BlockIndent;
+            }
+            else if (pos < len && buf[pos] == '>') {
+                pos++;
+                type = PullUpNodeIndent;
+            }
+            else
+                type = NodeIndent;
+        }
+        else if (pos < len && buf[pos] == '@') {
+            pos++;
+            type = FunctionIndent;
+        }
+        else
+            throw new XerialException(XerialErrorCode.PARSE_ERROR, java.lang.String.format(
+                    "expected a node indent at char %d", pos));
+
+        emit(type, 0, pos);
+        state = OUT_KEY;
+        return true;
+    }
+
+    private void scanPlainInValue(int start) {
+        while (pos < len) {
+            char c = buf[pos];
+            if (c == '"' || c == '(' || c == ')' || c == ',')
+                break;
+            pos++;
+        }
+        emit(PlainOneLine, start, pos);
+        leaveValue();
+    }
+
+    private void scanString() throws XerialException {
+        int start = pos;
+        pos++; // '"'
+        while (pos < len) {
+            char c = buf[pos];
+            if (c == '"') {
+                emit(String, start + 1, pos);
+                pos++;
+                return;
+            }
+            if (c == '\\') {
+                pos += escapeSequenceLength(pos);
+            }
+            else
+                pos++;
+        }
+        throw new XerialException(XerialErrorCode.PARSE_ERROR, java.lang.String.format(
+                "string beginning at char %d is not closed", start));
+    }
+
+    private int escapeSequenceLength(int at) throws XerialException {
+        if (at + 1 < len) {
+            switch (buf[at + 1]) {
+            case '"':
+            case '\\':
+            case '/':
+            case 'b':
+            case 'f':
+            case 'n':
+            case 'r':
+            case 't':
+                return 2;
+            case 'u':
+                if (at + 5 < len && isHexDigit(buf[at + 2]) && isHexDigit(buf[at + 3]) && isHexDigit(buf[at + 4])
+                        && isHexDigit(buf[at + 5]))
+                    return 6;
+                break;
+            default:
+                break;
+            }
+        }
+        throw new XerialException(XerialErrorCode.PARSE_ERROR, java.lang.String.format(
+                "invalid escape sequence at char %d", at));
+    }
+
+    /**
+     * Reads an in-line JSON object or array until its brackets are balanced
+     */
+    private void scanJSON() {
+        int start = pos;
+        int nesting = 0;
+        while (pos < len) {
+            char c = buf[pos];
+            if (c == '"') {
+                // skip the string
+                pos++;
+                while (pos < len && buf[pos] != '"') {
+                    if (buf[pos] == '\\')
+                        pos++;
+                    pos++;
+                }
+                if (pos < len)
+                    pos++;
+                continue;
+            }
+
+            pos++;
+            if (c == '{' || c == '[')
+                nesting++;
+            else if (c == '}' || c == ']') {
+                nesting--;
+                if (nesting <= 0)
+                    break;
+            }
+        }
+        if (pos > len)
+            pos = len;
+        emit(JSON, start, pos);
+    }
+
+    private static boolean isHexDigit(char c) {
+        return (c >= '0' && c <= '9') || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F');
+    }
+
+    private static boolean isNonSpaceChar(char c) {
+        return !(c == '"' || c == '\\' || isWhiteSpace(c));
+    }
+
+    private static boolean isPlainFirst(char c) {
+        switch (c) {
+        case '-':
+        case '+':
+        case '?':
+        case '"':
+        case ' ':
+        case '\t':
+        case '(':
+        case ')':
+        case '[':
+        case ']':
+        case '{':
+        case '}':
+        case ',':
+        case ':':
+        case '>':
+        case '|':
+        case '*':
+        case '\'':
+        case '@':
+        case '%':
+        case '\\':
+        case '=':
+            return false;
+        default:
+            return true;
+        }
+    }
+
+    private static boolean isPlainSafeKey(char c) {
+        switch (c) {
+        case '"':
+        case '(':
+        case ')':
+        case '[':
+        case ']':
+        case '{':
+        case '}':
+        case ',':
+        case ':':
+        case '>':
+        case '*':
+        case '|':
+        case '=':
+            return false;
+        default:
+            return true;
+        }
+    }
+
+}
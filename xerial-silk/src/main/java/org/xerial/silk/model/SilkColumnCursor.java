@@ -0,0 +1,166 @@
+/*--------------------------------------------------------------------------
+ *  Copyright 2009 Taro L. Saito
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *--------------------------------------------------------------------------*/
+//--------------------------------------
+// XerialJ
+//
+// SilkColumnCursor.java
+// Since: 2026/10/17
+//
+// $URL$
+// $Author$
+//--------------------------------------
+package org.xerial.silk.model;
+
+/**
+ * Cursor over the tab-separated columns of a {@link SilkDataLine}. The cursor
+ * itself is a {@link CharSequence} view of the current column, i.e., an
+ * offset/length pair into the original line, so no String is created until
+ * {@link #toString()} is called.
+ *
+ * <pre>
+ * SilkColumnCursor cursor = dataLine.columnCursor();
+ * while (cursor.next()) {
+ *     cursor.trim();
+ *     ...
+ * }
+ * </pre>
+ *
+ * The columns are the same with
+ * <tt>StringUtil.splitAtTab(dataLine.getTrimmedDataLine())</tt>. A cursor can
+ * be reused for another line by calling {@link #reset(SilkDataLine)}.
+ *
+ * @author leo
+ *
+ */
+public class SilkColumnCursor implements CharSequence
+{
+    private String line        = "";
+    private int    end         = 0;  // end of the trimmed data line
+    private int    nextStart   = 1;  // greater than end when no more column exists
+
+    private int    columnStart = 0;
+    private int    columnEnd   = 0;
+
+    public SilkColumnCursor() {
+
+    }
+
+    /**
+     * Sets the cursor before the first column of the given data line
+     *
+     * @param dataLine
+     * @return this cursor
+     */
+    public SilkColumnCursor reset(SilkDataLine dataLine) {
+        line = dataLine.getDataLine();
+
+        // the same range with SilkDataLine.getTrimmedDataLine()
+        int st = 0;
+        int len = line.length();
+        while (st < len && line.charAt(st) <= ' ')
+            st++;
+        while (st < len && line.charAt(len - 1) <= ' ')
+            len--;
+        if (st < len && line.charAt(st) == '\\')
+            st++;
+
+        end = len;
+        nextStart = st;
+        columnStart = columnEnd = st;
+        return this;
+    }
+
+    /**
+     * Moves the cursor to the next column
+     *
+     * @return false if no more column exists
+     */
+    public boolean next() {
+        if (nextStart > end)
+            return false;
+
+        columnStart = nextStart;
+        int tabPos = line.indexOf('\t', columnStart);
+        columnEnd = (tabPos < 0 || tabPos > end) ? end : tabPos;
+        nextStart = columnEnd + 1;
+        return true;
+    }
+
+    /**
+     * Removes leading and trailing white spaces of the current column
+     */
+    public void trim() {
+        while (columnStart < columnEnd && line.charAt(columnStart) <= ' ')
+            columnStart++;
+        while (columnStart < columnEnd && line.charAt(columnEnd - 1) <= ' ')
+            columnEnd--;
+    }
+
+    /**
+     * Removes the enclosing double or single quotations of the current column
+     *
+     * @see org.xerial.util.StringUtil#unquote(String)
+     */
+    public void unquote() {
+        if (length() > 1) {
+            char first = line.charAt(columnStart);
+            char last = line.charAt(columnEnd - 1);
+            if ((first == '"' && last == '"') || (first == '\'' && last == '\'')) {
+                columnStart++;
+                columnEnd--;
+            }
+        }
+    }
+
+    /**
+     * @return the original line
+     */
+    public String getLine() {
+        return line;
+    }
+
+    /**
+     * @return the offset of the current column in the original line
+     */
+    public int getOffset() {
+        return columnStart;
+    }
+
+    public int length() {
+        return columnEnd - columnStart;
+    }
+
+    public char charAt(int index) {
+        if (index < 0 || index >= length())
+            throw new IndexOutOfBoundsException(Integer.toString(index));
+        return line.charAt(columnStart + index);
+    }
+
+    public CharSequence subSequence(int start, int end) {
+        if (start < 0 || end > length() || start > end)
+            throw new IndexOutOfBoundsException(String.format("[%d, %d)", start, end));
+        return line.subSequence(columnStart + start, columnStart + end);
+    }
+
+    /**
+     * Materializes the current column
+     */
+    @Override
+    public String toString() {
+        return line.substring(columnStart, columnEnd);
+    }
+
+}
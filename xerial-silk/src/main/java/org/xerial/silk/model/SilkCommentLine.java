@@ -36,4 +36,9 @@ public class SilkCommentLine implements SilkElement {
     public SilkCommentLine(String line) {
         this.line = line;
     }
+
+    @Override
+    public String toString() {
+        return line;
+    }
 }
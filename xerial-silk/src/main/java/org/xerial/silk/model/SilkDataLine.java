@@ -69,6 +69,15 @@ public class SilkDataLine implements SilkElement {
         return sanitizeDataLine(dataLine.trim());
     }
 
+    /**
+     * Create a cursor over the tab-separated columns of the trimmed data line.
+     * 
+     * @return
+     */
+    public SilkColumnCursor columnCursor() {
+        return new SilkColumnCursor().reset(this);
+    }
+
     private static String sanitizeDataLine(String line) {
         if (line.startsWith("\\"))
             return line.substring(1);
@@ -24,13 +24,82 @@
 //--------------------------------------
 package org.xerial.silk.query;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.xerial.util.lens.ObjectLens;
+
 /**
- * Find an element
- * 
+ * Find an element. The predicates on the attribute values of the target node
+ * are evaluated by {@link org.xerial.silk.SilkParser} for each data line of
+ * the target table and for each target node written in the node form, and the
+ * target nodes that fail the predicates are skipped before generating any tree
+ * event.
+ *
+ * <pre>
+ * SilkFind query = new SilkFind(&quot;gene&quot;).where(SilkPredicate.eq(&quot;chr&quot;, &quot;chr1&quot;)).where(
+ *         SilkPredicate.range(&quot;start&quot;, 10000, 20000));
+ * SilkParser parser = new SilkParser(silkFile);
+ * parser.setFilter(query);
+ * </pre>
+ *
+ * A query is immutable, and can be shared by parsers. The state of each parse
+ * is held by {@link SilkFindFilter}. See {@link SilkFindFilter} for the target
+ * node forms that can be tested.
+ *
  * @author leo
- * 
+ *
  */
 public class SilkFind
 {
+    private final String              targetNodeName;
+    private final List<SilkPredicate> predicateList;
+
+    public SilkFind(String targetNodeName) {
+        this(ObjectLens.getCanonicalParameterName(targetNodeName), new ArrayList<SilkPredicate>());
+    }
+
+    private SilkFind(String targetNodeName, List<SilkPredicate> predicateList) {
+        this.targetNodeName = targetNodeName;
+        this.predicateList = Collections.unmodifiableList(predicateList);
+    }
+
+    /**
+     * Creates a query with an additional predicate. All of the predicates
+     * must be satisfied.
+     *
+     * @param predicate
+     * @return new query
+     */
+    public SilkFind where(SilkPredicate predicate) {
+        List<SilkPredicate> newPredicateList = new ArrayList<SilkPredicate>(predicateList);
+        newPredicateList.add(predicate);
+        return new SilkFind(targetNodeName, newPredicateList);
+    }
+
+    /**
+     * @return the canonical name of the target node
+     */
+    public String getTargetNodeName() {
+        return targetNodeName;
+    }
+
+    public List<SilkPredicate> getPredicateList() {
+        return predicateList;
+    }
+
+    /**
+     * @param nodeName
+     * @return true if the node name is the target node name
+     */
+    boolean isTarget(String nodeName) {
+        return nodeName != null && targetNodeName.equals(ObjectLens.getCanonicalParameterName(nodeName));
+    }
+
+    @Override
+    public String toString() {
+        return String.format("find %s where %s", targetNodeName, predicateList);
+    }
 
 }
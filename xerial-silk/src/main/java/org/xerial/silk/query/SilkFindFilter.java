@@ -0,0 +1,260 @@
+/*--------------------------------------------------------------------------
+ *  Copyright 2011 Taro L. Saito
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *--------------------------------------------------------------------------*/
+//--------------------------------------
+// XerialJ
+//
+// SilkFindFilter.java
+// Since: 2026/10/17
+//
+// $URL$
+// $Author$
+//--------------------------------------
+package org.xerial.silk.query;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import org.xerial.core.XerialErrorCode;
+import org.xerial.core.XerialException;
+import org.xerial.silk.model.SilkColumnCursor;
+import org.xerial.silk.model.SilkDataLine;
+import org.xerial.silk.model.SilkNode;
+import org.xerial.silk.model.SilkNodeOccurrence;
+import org.xerial.util.StringUtil;
+import org.xerial.util.lens.ObjectLens;
+
+/**
+ * Evaluates the predicates of a {@link SilkFind} query while
+ * {@link org.xerial.silk.SilkParser} reads a Silk data. A filter holds the
+ * state of a parse, and is created for each parser.
+ *
+ * The target nodes are tested in the following forms:
+ * <ul>
+ * <li>data lines of a tab-separated table of the target node, e.g.,
+ * <tt>-gene(id, chr, start)|</tt>. An attribute that is not in the table
+ * schema, or has an empty column, fails the predicate.</li>
+ * <li>node lines of the target node, e.g., <tt>-gene(id:1, start:5)</tt>.
+ * The attributes tested by the predicates must be written in the node line.</li>
+ * </ul>
+ * The other forms of the target nodes (CSV or JSON rows, target nodes in the
+ * table columns, or node lines whose attributes are given in the following
+ * lines) cannot be tested before the nodes are reported, so that the filter
+ * rejects the query with {@link XerialErrorCode#UNSUPPORTED}.
+ *
+ * @author leo
+ *
+ */
+public class SilkFindFilter
+{
+    private final SilkFind         query;
+
+    private final SilkColumnCursor cursor          = new SilkColumnCursor();
+    private long                   numScannedLines = 0;
+    private long                   numSkippedLines = 0;
+
+    // compiled plan for the current table schema
+    private SilkNode               schema          = null;
+    private boolean                isTarget        = false;
+    private boolean                rejectAll       = false;
+    private int[]                  columnIndex     = new int[0];
+    private SilkPredicate[]        columnPredicate = new SilkPredicate[0];
+
+    public SilkFindFilter(SilkFind query) {
+        this.query = query;
+    }
+
+    public SilkFind getQuery() {
+        return query;
+    }
+
+    /**
+     * @return the number of data lines and node lines of the target node
+     *         tested by this filter
+     */
+    public long getNumScannedLines() {
+        return numScannedLines;
+    }
+
+    /**
+     * @return the number of data lines and node lines skipped since they
+     *         failed the predicates
+     */
+    public long getNumSkippedLines() {
+        return numSkippedLines;
+    }
+
+    /**
+     * Tests a node before it is opened
+     *
+     * @param node
+     * @return false if the node is the target node and fails the predicates.
+     *         The node and its descendants must be skipped.
+     * @throws XerialException
+     *             UNSUPPORTED when the node has the target nodes that cannot
+     *             be tested
+     */
+    public boolean accept(SilkNode node) throws XerialException {
+        if (query.getPredicateList().isEmpty())
+            return true;
+
+        if (!query.isTarget(node.getName())) {
+            if (node.isTableSchema() && hasTargetNode(node.getChildNodes()))
+                throw unsupported(node, "the target nodes in the table columns");
+            return true;
+        }
+
+        if (node.getOccurrence() == SilkNodeOccurrence.TABBED_SEQUENCE)
+            return true; // the data lines are tested by accept(SilkNode, SilkDataLine)
+
+        if (node.hasManyOccurrences())
+            throw unsupported(node, "CSV or JSON rows");
+
+        numScannedLines++;
+        for (SilkPredicate each : query.getPredicateList()) {
+            SilkNode attribute = null;
+            for (SilkNode child : node.getChildNodes()) {
+                if (child.hasValue()
+                        && each.getAttributeName().equals(ObjectLens.getCanonicalParameterName(child.getName()))) {
+                    attribute = child;
+                    break;
+                }
+            }
+            if (attribute == null)
+                throw unsupported(node, each.getAttributeName() + " is not in the node line");
+
+            String value = StringUtil.unquote(attribute.getValue().toString().trim());
+            if (value.length() == 0 || !each.accept(value)) {
+                numSkippedLines++;
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean hasTargetNode(List<SilkNode> nodeList) {
+        for (SilkNode each : nodeList) {
+            if (query.isTarget(each.getName()) || hasTargetNode(each.getChildNodes()))
+                return true;
+        }
+        return false;
+    }
+
+    private XerialException unsupported(SilkNode node, String reason) {
+        return new XerialException(XerialErrorCode.UNSUPPORTED, String.format("cannot evaluate %s for %s: %s",
+                query.getPredicateList(), node, reason));
+    }
+
+    /**
+     * Tests the data line of the table
+     *
+     * @param tableSchema
+     * @param line
+     * @return false if the data line is of the target node and fails the
+     *         predicates
+     */
+    public boolean accept(SilkNode tableSchema, SilkDataLine line) {
+        if (tableSchema != schema)
+            compile(tableSchema);
+
+        if (!isTarget)
+            return true;
+
+        numScannedLines++;
+        if (rejectAll || !evalColumns(line)) {
+            numSkippedLines++;
+            return false;
+        }
+        return true;
+    }
+
+    private boolean evalColumns(SilkDataLine line) {
+        cursor.reset(line);
+        int column = -1;
+        for (int i = 0; i < columnIndex.length; i++) {
+            while (column < columnIndex[i]) {
+                if (!cursor.next())
+                    return false;
+                column++;
+                if (column == columnIndex[i]) {
+                    cursor.trim();
+                    cursor.unquote();
+                }
+            }
+
+            if (cursor.length() == 0 || !columnPredicate[i].accept(cursor))
+                return false;
+        }
+        return true;
+    }
+
+    private void compile(SilkNode tableSchema) {
+        schema = tableSchema;
+        isTarget = query.isTarget(tableSchema.getName());
+        rejectAll = false;
+        if (!isTarget)
+            return;
+
+        final List<Integer> index = new ArrayList<Integer>();
+        List<SilkPredicate> predicate = new ArrayList<SilkPredicate>();
+        for (SilkPredicate each : query.getPredicateList()) {
+            int dataColumn = 0;
+            boolean found = false;
+            for (SilkNode child : tableSchema.getChildNodes()) {
+                boolean isMatch = each.getAttributeName().equals(ObjectLens.getCanonicalParameterName(child.getName()));
+                if (child.hasValue()) {
+                    // the column has a default value, and no data in the data lines
+                    if (isMatch) {
+                        found = true;
+                        if (!each.accept(StringUtil.unquote(child.getValue().toString())))
+                            rejectAll = true;
+                        break;
+                    }
+                }
+                else {
+                    if (isMatch) {
+                        found = true;
+                        index.add(dataColumn);
+                        predicate.add(each);
+                        break;
+                    }
+                    dataColumn++;
+                }
+            }
+            if (!found)
+                rejectAll = true;
+        }
+
+        // evaluate predicates in the column order
+        Integer[] order = new Integer[index.size()];
+        for (int i = 0; i < order.length; i++)
+            order[i] = i;
+        Arrays.sort(order, new Comparator<Integer>() {
+            public int compare(Integer o1, Integer o2) {
+                return index.get(o1).compareTo(index.get(o2));
+            }
+        });
+
+        columnIndex = new int[order.length];
+        columnPredicate = new SilkPredicate[order.length];
+        for (int i = 0; i < order.length; i++) {
+            columnIndex[i] = index.get(order[i]);
+            columnPredicate[i] = predicate.get(order[i]);
+        }
+    }
+
+}
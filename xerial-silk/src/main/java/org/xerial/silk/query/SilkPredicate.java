@@ -0,0 +1,129 @@
+/*--------------------------------------------------------------------------
+ *  Copyright 2011 Taro L. Saito
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *--------------------------------------------------------------------------*/
+//--------------------------------------
+// XerialJ
+//
+// SilkPredicate.java
+// Since: 2026/10/17
+//
+// $URL$
+// $Author$
+//--------------------------------------
+package org.xerial.silk.query;
+
+import org.xerial.util.lens.ObjectLens;
+
+/**
+ * Condition on an attribute value of the target node of {@link SilkFind}. The
+ * value given to {@link #accept(CharSequence)} is the column value of a data
+ * line, after removing the surrounding white spaces and quotations.
+ *
+ * @author leo
+ *
+ */
+public abstract class SilkPredicate
+{
+    private final String attributeName;
+
+    protected SilkPredicate(String attributeName) {
+        this.attributeName = ObjectLens.getCanonicalParameterName(attributeName);
+    }
+
+    /**
+     * @return the canonical name of the attribute
+     */
+    public String getAttributeName() {
+        return attributeName;
+    }
+
+    /**
+     * @param value
+     *            attribute value. Never be null.
+     * @return true if the value satisfies this predicate
+     */
+    public abstract boolean accept(CharSequence value);
+
+    /**
+     * attribute = value
+     */
+    public static SilkPredicate eq(String attributeName, final String value) {
+        return new SilkPredicate(attributeName) {
+            @Override
+            public boolean accept(CharSequence v) {
+                if (v.length() != value.length())
+                    return false;
+                for (int i = 0; i < v.length(); i++) {
+                    if (v.charAt(i) != value.charAt(i))
+                        return false;
+                }
+                return true;
+            }
+
+            @Override
+            public String toString() {
+                return String.format("%s = %s", getAttributeName(), value);
+            }
+        };
+    }
+
+    /**
+     * attribute starts with the prefix
+     */
+    public static SilkPredicate prefix(String attributeName, final String prefix) {
+        return new SilkPredicate(attributeName) {
+            @Override
+            public boolean accept(CharSequence v) {
+                if (v.length() < prefix.length())
+                    return false;
+                for (int i = 0; i < prefix.length(); i++) {
+                    if (v.charAt(i) != prefix.charAt(i))
+                        return false;
+                }
+                return true;
+            }
+
+            @Override
+            public String toString() {
+                return String.format("%s startsWith %s", getAttributeName(), prefix);
+            }
+        };
+    }
+
+    /**
+     * min &lt;= attribute &lt;= max, where the attribute is a number. Non-numeric
+     * values are rejected.
+     */
+    public static SilkPredicate range(String attributeName, final double min, final double max) {
+        return new SilkPredicate(attributeName) {
+            @Override
+            public boolean accept(CharSequence v) {
+                try {
+                    double d = Double.parseDouble(v.toString());
+                    return min <= d && d <= max;
+                }
+                catch (NumberFormatException e) {
+                    return false;
+                }
+            }
+
+            @Override
+            public String toString() {
+                return String.format("%s in [%s, %s]", getAttributeName(), min, max);
+            }
+        };
+    }
+
+}
@@ -0,0 +1,258 @@
+/*--------------------------------------------------------------------------
+ *  Copyright 2009 Taro L. Saito
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *--------------------------------------------------------------------------*/
+//--------------------------------------
+// XerialJ
+//
+// SilkIndexTest.java
+// Since: 2026/10/17
+//
+// $URL$
+// $Author$
+//--------------------------------------
+package org.xerial.silk;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+import org.xerial.silk.SilkIndex.Checkpoint;
+import org.xerial.util.FileUtil;
+import org.xerial.util.StopWatch;
+import org.xerial.util.StringUtil;
+import org.xerial.util.log.Logger;
+import org.xerial.util.tree.TreeEventHandlerBase;
+
+public class SilkIndexTest
+{
+    private static Logger _logger = Logger.getLogger(SilkIndexTest.class);
+
+    private static File createSilkFile(int numTracks, int numGenes) throws Exception {
+        File file = FileUtil.createTempFile(new File("target"), "index-test", ".silk");
+        file.deleteOnExit();
+        Writer out = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+        out.write("%silk(version:1.0)\n");
+        out.write("# sample data\n");
+        for (int t = 0; t < numTracks; t++) {
+            out.write(String.format("-track(name:track%d, species:human)\n", t));
+            out.write(" -gene(id, start, strand:+)|\n");
+            for (int g = 0; g < numGenes; g++)
+                out.write(String.format("g%d.%d\t%d\n", t, g, g * 100));
+            out.write(" -description>\n");
+            out.write("  description of track " + t + "\n");
+            out.write("\n");
+            out.write(" -gene(id, start)|\n");
+            out.write("x" + t + "\t1\n");
+        }
+        out.close();
+        return file;
+    }
+
+    /**
+     * Records visit events of the gene nodes and text data with their paths.
+     * The enclosing nodes are visited again when resuming from a checkpoint,
+     * so their events are not recorded.
+     */
+    static class GeneCollector extends TreeEventHandlerBase
+    {
+        List<String> path  = new ArrayList<String>();
+        List<String> genes = new ArrayList<String>();
+
+        @Override
+        public void visitNode(String nodeName, String immediateNodeValue) throws Exception {
+            path.add(nodeName);
+            if (path.contains("gene"))
+                genes.add(String.format("%s:%s", StringUtil.join(path, "."), immediateNodeValue));
+        }
+
+        @Override
+        public void text(String nodeName, String textDataFragment) throws Exception {
+            genes.add(String.format("%s text:%s", StringUtil.join(path, "."), textDataFragment));
+        }
+
+        @Override
+        public void leaveNode(String nodeName) throws Exception {
+            path.remove(path.size() - 1);
+        }
+    }
+
+    private static List<String> parse(File file, Checkpoint from, Checkpoint to) throws Exception {
+        GeneCollector c = new GeneCollector();
+        new SilkParser(file, from, to, new SilkParserConfig()).parse(c);
+        assertEquals(0, c.path.size());
+        return c.genes;
+    }
+
+    @Test
+    public void split() throws Exception {
+        File file = createSilkFile(5, 20);
+        GeneCollector expected = new GeneCollector();
+        new SilkParser(file).parse(expected);
+
+        for (int interval : new int[] { 1, 3, 7, 100 }) {
+            SilkIndex index = SilkIndex.build(file, interval);
+            assertEquals(file.length(), index.getFileSize());
+
+            List<Checkpoint> checkpoints = index.getCheckpointList();
+            assertTrue(checkpoints.size() > 1);
+
+            // read the file range by range
+            List<String> genes = new ArrayList<String>();
+            for (int i = 0; i < checkpoints.size(); i++)
+                genes.addAll(parse(file, checkpoints.get(i), i + 1 < checkpoints.size() ? checkpoints.get(i + 1)
+                        : null));
+            assertEquals("interval " + interval, expected.genes, genes);
+
+            for (int numSplits : new int[] { 1, 2, 4 }) {
+                Checkpoint[] split = index.split(numSplits);
+                assertTrue(split.length <= numSplits);
+                genes.clear();
+                for (int i = 0; i < split.length; i++)
+                    genes.addAll(parse(file, split[i], i + 1 < split.length ? split[i + 1] : null));
+                assertEquals(expected.genes, genes);
+            }
+        }
+    }
+
+    @Test
+    public void seek() throws Exception {
+        File file = createSilkFile(3, 10);
+        SilkIndex index = SilkIndex.build(file, 4);
+
+        long lastRecord = 0;
+        for (Checkpoint each : index.getCheckpointList())
+            lastRecord = Math.max(lastRecord, each.record);
+
+        for (long record = 0; record <= lastRecord + 10; record++) {
+            Checkpoint c = index.seek(record);
+            assertTrue(c.record <= record);
+            assertTrue(record - c.record < 4 || record > lastRecord);
+        }
+
+        // checkpoints at data lines of the gene tables
+        int numCheckpointsInTable = 0;
+        for (Checkpoint c : index.getCheckpointList()) {
+            if (c.contextLines.isEmpty())
+                continue;
+            numCheckpointsInTable++;
+            assertTrue(c.toString(), c.contextLines.get(0).startsWith("-track"));
+            assertTrue(c.toString(), parse(file, c, null).size() > 0);
+        }
+        assertTrue(numCheckpointsInTable > 0);
+    }
+
+    @Test
+    public void saveAndLoad() throws Exception {
+        File file = createSilkFile(3, 10);
+        SilkIndex index = SilkIndex.build(file, 2);
+
+        File indexFile = SilkIndex.getIndexFile(file);
+        indexFile.deleteOnExit();
+        index.save(indexFile);
+
+        SilkIndex loaded = SilkIndex.load(indexFile);
+        assertEquals(index.getInterval(), loaded.getInterval());
+        assertEquals(index.getFileSize(), loaded.getFileSize());
+        assertEquals(index.getCheckpointList().size(), loaded.getCheckpointList().size());
+        for (int i = 0; i < index.getCheckpointList().size(); i++)
+            assertEquals(index.getCheckpointList().get(i).toString(), loaded.getCheckpointList().get(i).toString());
+    }
+
+    @Test
+    public void saveLongContextLine() throws Exception {
+        // node line longer than 64KB in UTF-8
+        StringBuilder name = new StringBuilder();
+        for (int i = 0; i < 30000; i++)
+            name.append("\u3042a");
+        File file = FileUtil.createTempFile(new File("target"), "index-test", ".silk");
+        file.deleteOnExit();
+        Writer out = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+        out.write(String.format("-track(name:%s)\n", name));
+        out.write(" -gene(id, start)|\n");
+        for (int g = 0; g < 10; g++)
+            out.write(String.format("g%d\t%d\n", g, g * 100));
+        out.close();
+
+        SilkIndex index = SilkIndex.build(file, 2);
+        File indexFile = SilkIndex.getIndexFile(file);
+        indexFile.deleteOnExit();
+        index.save(indexFile);
+
+        SilkIndex loaded = SilkIndex.load(indexFile);
+        Checkpoint last = loaded.getCheckpointList().get(loaded.getCheckpointList().size() - 1);
+        assertTrue(last.contextLines.get(0).contains(name));
+        assertEquals(index.getCheckpointList().get(index.getCheckpointList().size() - 1).contextLines,
+                last.contextLines);
+        assertTrue(parse(file, last, null).size() > 0);
+    }
+
+    @Test
+    public void performance() throws Exception {
+        final File file = createSilkFile(10, 20000);
+        final int numThreads = Math.max(2, Runtime.getRuntime().availableProcessors());
+
+        StopWatch timer = new StopWatch();
+        SilkIndex index = SilkIndex.build(file, 10000);
+        double indexTime = timer.getElapsedTime();
+
+        for (int trial = 0; trial < 3; trial++) {
+            timer.reset();
+            List<String> expected = parse(file, index.getCheckpointList().get(0), null);
+            double serialTime = timer.getElapsedTime();
+
+            timer.reset();
+            ExecutorService pool = Executors.newFixedThreadPool(numThreads);
+            final Checkpoint[] split = index.split(numThreads);
+            List<Future<List<String>>> result = new ArrayList<Future<List<String>>>();
+            for (int i = 0; i < split.length; i++) {
+                final Checkpoint from = split[i];
+                final Checkpoint to = i + 1 < split.length ? split[i + 1] : null;
+                result.add(pool.submit(new Callable<List<String>>() {
+                    public List<String> call() throws Exception {
+                        return parse(file, from, to);
+                    }
+                }));
+            }
+            int count = 0;
+            for (Future<List<String>> each : result)
+                count += each.get().size();
+            pool.shutdown();
+            double parallelTime = timer.getElapsedTime();
+            assertEquals(expected.size(), count);
+
+            // read the last 10 records
+            timer.reset();
+            List<Checkpoint> checkpoints = index.getCheckpointList();
+            Checkpoint last = checkpoints.get(checkpoints.size() - 1);
+            parse(file, index.seek(last.record + 10), null);
+            double seekTime = timer.getElapsedTime();
+
+            _logger.info(String.format(
+                    "index: %.3f sec., serial: %.3f sec., %d splits: %.3f sec., seek to the last: %.3f sec.",
+                    indexTime, serialTime, split.length, parallelTime, seekTime));
+        }
+    }
+
+}
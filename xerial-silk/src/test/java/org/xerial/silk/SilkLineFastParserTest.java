@@ -25,11 +25,16 @@
 package org.xerial.silk;
 
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
+import org.xerial.core.XerialErrorCode;
 import org.xerial.core.XerialException;
 import org.xerial.json.JSONStreamWalker;
 import org.xerial.util.FileResource;
@@ -67,4 +72,79 @@ public class SilkLineFastParserTest
         compare("small.silk", "small.json");
     }
 
+    private static class EventCollector implements SilkEventHandler
+    {
+        List<String> events = new ArrayList<String>();
+
+        public void handle(SilkEvent event) throws Exception {
+            events.add(event.toString());
+        }
+    }
+
+    /**
+     * Compares the event sequences of the push parser and the fast parser
+     * 
+     * @param silkFile
+     * @throws Exception
+     */
+    public static void compareEvents(String silkFile) throws Exception {
+        URL silk = FileResource.find(SilkLineFastParserTest.class, silkFile);
+        SilkParserConfig config = new SilkParserConfig();
+        config.numWorkers = 4;
+        config.chunkSize = 32; // split the input into many chunks
+
+        EventCollector expected = new EventCollector();
+        new SilkLinePushParser(silk).parse(expected);
+
+        // byte input
+        EventCollector byteInput = new EventCollector();
+        new SilkLineFastParser(silk, config).parse(byteInput);
+        Assert.assertEquals(silkFile, expected.events, byteInput.events);
+
+        // char input
+        EventCollector charInput = new EventCollector();
+        new SilkLineFastParser(new InputStreamReader(silk.openStream(), "UTF8"), config).parse(charInput);
+        Assert.assertEquals(silkFile, expected.events, charInput.events);
+    }
+
+    @Test
+    public void preserveOrder() throws Exception {
+        compareEvents("small.silk");
+        compareEvents("tab.silk");
+        compareEvents("example.silk");
+        compareEvents("utf8.silk");
+        compareEvents("scaffold5001.silk");
+    }
+
+    @Test
+    public void multiLineBlock() throws Exception {
+        compareEvents("heredoc.silk");
+        compareEvents("mltext.silk");
+        compareEvents("multiline.silk");
+    }
+
+    @Test
+    public void cancel() throws Exception {
+        SilkParserConfig config = new SilkParserConfig();
+        config.numWorkers = 2;
+        config.chunkSize = 32;
+
+        SilkLineFastParser parser = new SilkLineFastParser(FileResource.find(SilkLineFastParserTest.class,
+                "scaffold5001.silk"), config);
+        try {
+            parser.parse(new SilkEventHandler() {
+                int count = 0;
+
+                public void handle(SilkEvent event) throws Exception {
+                    if (++count > 10)
+                        throw new XerialException(XerialErrorCode.INVALID_STATE, "stop");
+                }
+            });
+            Assert.fail("the handler error must be reported");
+        }
+        catch (XerialException e) {
+            Assert.assertEquals(XerialErrorCode.INVALID_STATE, e.getErrorCode());
+        }
+    }
+
 }
@@ -24,14 +24,23 @@
 //--------------------------------------
 package org.xerial.silk;
 
+import static org.junit.Assert.*;
+
 import java.io.IOException;
+import java.io.PipedReader;
+import java.io.PipedWriter;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import org.xerial.core.XerialError;
+import org.xerial.core.XerialErrorCode;
 import org.xerial.core.XerialException;
 import org.xerial.util.FileResource;
 import org.xerial.util.log.Logger;
+import org.xerial.util.thread.RingBuffer;
 
 public class SilkLinePullParserTest
 {
@@ -152,4 +161,56 @@ public class SilkLinePullParserTest
         pull("sample.bed.silk");
     }
 
+    private static List<String> pullAll(String silkFile, SilkParserConfig config) throws IOException,
+            XerialException
+    {
+        SilkLinePullParser p = new SilkLinePullParser(FileResource.open(SilkLinePullParserTest.class, silkFile),
+                config);
+        List<String> events = new ArrayList<String>();
+        while (p.hasNext())
+            events.add(p.next().toString());
+        assertNull(p.next());
+        return events;
+    }
+
+    @Test
+    public void waitStrategy() throws Exception
+    {
+        List<String> expected = pullAll("scaffold5001.silk", new SilkParserConfig());
+        assertTrue(expected.size() > 0);
+
+        for (RingBuffer.WaitStrategy each : RingBuffer.WaitStrategy.values())
+        {
+            SilkParserConfig config = new SilkParserConfig();
+            config.waitStrategy = each;
+            config.eventBufferSize = 16;
+            config.eventBatchSize = 5;
+            assertEquals(each.name(), expected, pullAll("scaffold5001.silk", config));
+        }
+    }
+
+    @Test
+    public void interrupted() throws Exception
+    {
+        // the background parser waits for the input that never comes
+        PipedWriter writer = new PipedWriter();
+        SilkLinePullParser p = new SilkLinePullParser(new PipedReader(writer));
+        Thread.currentThread().interrupt();
+        try
+        {
+            p.hasNext();
+            fail("no exception");
+        }
+        catch (XerialError e)
+        {
+            assertEquals(XerialErrorCode.INTERRUPTED, e.getErrorCode());
+            // the interrupt status is kept
+            assertTrue(Thread.interrupted());
+        }
+        finally
+        {
+            writer.close();
+        }
+    }
+
 }
@@ -0,0 +1,128 @@
+/*--------------------------------------------------------------------------
+ *  Copyright 2009 Taro L. Saito
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *--------------------------------------------------------------------------*/
+//--------------------------------------
+// XerialJ
+//
+// SilkPullParserTest.java
+// Since: 2026/10/17
+//
+// $URL$
+// $Author$
+//--------------------------------------
+package org.xerial.silk;
+
+import static org.junit.Assert.*;
+
+import java.io.PipedReader;
+import java.io.PipedWriter;
+import java.io.StringReader;
+
+import org.junit.Test;
+import org.xerial.core.XerialError;
+import org.xerial.core.XerialErrorCode;
+import org.xerial.util.FileResource;
+import org.xerial.util.tree.NodeNameTable;
+import org.xerial.util.tree.TreeEvent;
+
+public class SilkPullParserTest
+{
+    private static SilkParserConfig config() {
+        SilkParserConfig config = new SilkParserConfig();
+        config.eventBufferSize = 64;
+        config.eventBatchSize = 8;
+        return config;
+    }
+
+    @Test
+    public void nodeNameTable() throws Exception {
+        for (String file : new String[] { "small.silk", "sequence.silk", "scaffold5001.silk" }) {
+            SilkPullParser reader = new SilkPullParser(FileResource.find(SilkPullParserTest.class, file),
+                    config());
+            NodeNameTable table = reader.getNodeNameTable();
+            int count = 0;
+            TreeEvent e;
+            while ((e = reader.next()) != null) {
+                assertEquals(e.nodeName, table.getName(e.getNodeId()));
+                if (e.nodeName != null)
+                    assertSame(table.getName(table.getId(e.nodeName)), e.nodeName);
+                count++;
+            }
+            assertTrue(file, count > 0);
+        }
+    }
+
+    @Test
+    public void cursor() throws Exception {
+        for (String file : new String[] { "small.silk", "sequence.silk", "scaffold5001.silk" }) {
+            SilkPullParser reader = new SilkPullParser(FileResource.find(SilkPullParserTest.class, file),
+                    config());
+            SilkPullParser cursor = new SilkPullParser(FileResource.find(SilkPullParserTest.class, file),
+                    config());
+            TreeEvent e;
+            while ((e = reader.next()) != null) {
+                assertTrue(file, cursor.advance());
+                assertEquals(e.event, cursor.getEventType());
+                assertEquals(e.nodeName, cursor.getNodeName());
+                assertEquals(e.nodeValue, cursor.getNodeValue());
+                assertEquals(e.nodeName, cursor.getNodeNameTable().getName(cursor.getNodeId()));
+            }
+            assertFalse(file, cursor.advance());
+        }
+    }
+
+    @Test
+    public void nodeId() throws Exception {
+        SilkPullParser reader = new SilkPullParser(new StringReader("-gene(id, start)|\ng1\t10\ng2\t20\n"),
+                SilkEnv.newEnv(), config());
+        int geneId = reader.getNodeNameTable().intern("gene");
+        int startId = reader.getNodeNameTable().intern("start");
+
+        int numGenes = 0;
+        int sum = 0;
+        TreeEvent e;
+        while ((e = reader.next()) != null) {
+            if (!e.isVisit())
+                continue;
+            if (e.getNodeId() == geneId)
+                numGenes++;
+            else if (e.getNodeId() == startId)
+                sum += Integer.parseInt(e.nodeValue);
+        }
+        assertEquals(2, numGenes);
+        assertEquals(30, sum);
+    }
+
+    @Test
+    public void interrupted() throws Exception {
+        // the background parser waits for the input that never comes
+        PipedWriter writer = new PipedWriter();
+        SilkPullParser reader = new SilkPullParser(new PipedReader(writer), SilkEnv.newEnv(), config());
+        Thread.currentThread().interrupt();
+        try {
+            reader.next();
+            fail("no exception");
+        }
+        catch (XerialError e) {
+            assertEquals(XerialErrorCode.INTERRUPTED, e.getErrorCode());
+            // the interrupt status is kept
+            assertTrue(Thread.interrupted());
+        }
+        finally {
+            writer.close();
+        }
+    }
+
+}
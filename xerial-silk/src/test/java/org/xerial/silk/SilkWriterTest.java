@@ -30,12 +30,16 @@ import java.io.StringReader;
 import java.io.StringWriter;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.junit.After;
 import org.junit.Before;
+import org.junit.Ignore;
 import org.junit.Test;
 import org.xerial.silk.SilkWriter.FormatConfig;
 import org.xerial.util.FileResource;
+import org.xerial.util.StopWatch;
 import org.xerial.util.StringUtil;
 import org.xerial.util.log.Logger;
 import org.xerial.util.tree.TreeWalkLog;
@@ -248,4 +252,98 @@ public class SilkWriterTest
 
     }
 
+    private static String writeSerially(List< ? > input, boolean nested, FormatConfig config) {
+        StringWriter buf = new StringWriter();
+        SilkWriter w = new SilkWriter(buf);
+        w.setFormatConfig(config);
+        SilkWriter target = nested ? w.node("silk") : w;
+        for (Object each : input)
+            target.leafObject("a", each);
+        w.endDocument();
+        return buf.toString();
+    }
+
+    private static String writeInParallel(List< ? > input, boolean nested, FormatConfig config,
+            ExecutorService pool, int numThreads) {
+        StringWriter buf = new StringWriter();
+        SilkWriter w = new SilkWriter(buf);
+        w.setFormatConfig(config);
+        SilkWriter target = nested ? w.node("silk") : w;
+        target.leafObjectList("a", input, pool, numThreads);
+        w.endDocument();
+        return buf.toString();
+    }
+
+    private static List<A> createInput(int size) {
+        List<A> input = new ArrayList<A>();
+        for (int i = 0; i < size; i++) {
+            A a = new A();
+            a.name = "a" + i;
+            a.flag = i % 2 == 0;
+            for (int j = 0; j < i % 3; j++) {
+                B b = new B(j);
+                b.item.add("item" + j);
+                a.b.add(b);
+            }
+            input.add(a);
+        }
+        return input;
+    }
+
+    @Test
+    public void parallelWriter() throws Exception {
+        List<A> input = createInput(3000);
+        List<String> strings = new ArrayList<String>();
+        for (int i = 0; i < 3000; i++)
+            strings.add("v" + i);
+
+        FormatConfig attributeConfig = new FormatConfig();
+        attributeConfig.preferUsingAttribute = true;
+
+        // the pool is reused by all of the writers
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            for (FormatConfig config : new FormatConfig[] { new FormatConfig(), attributeConfig }) {
+                for (boolean nested : new boolean[] { false, true }) {
+                    for (int numThreads : new int[] { 1, 2, 4 }) {
+                        assertEquals(writeSerially(input, nested, config), writeInParallel(input, nested, config,
+                                pool, numThreads));
+                        assertEquals(writeSerially(strings, nested, config), writeInParallel(strings, nested,
+                                config, pool, numThreads));
+                    }
+                }
+            }
+        }
+        finally {
+            pool.shutdown();
+        }
+    }
+
+    @Ignore
+    @Test
+    public void parallelWriterPerformance() throws Exception {
+        List<A> input = createInput(100000);
+        int numThreads = Math.max(2, Runtime.getRuntime().availableProcessors());
+        ExecutorService pool = Executors.newFixedThreadPool(numThreads);
+
+        try {
+            for (int trial = 0; trial < 3; trial++) {
+                StopWatch timer = new StopWatch();
+                String serial = writeSerially(input, true, new FormatConfig());
+                double serialTime = timer.getElapsedTime();
+
+                timer.reset();
+                String parallel = writeInParallel(input, true, new FormatConfig(), pool, numThreads);
+                double parallelTime = timer.getElapsedTime();
+
+                assertEquals(serial.length(), parallel.length());
+                _logger.info(String.format("serial: %.3f sec., parallel (%d threads): %.3f sec.", serialTime,
+                        numThreads, parallelTime));
+            }
+        }
+        finally {
+            pool.shutdown();
+        }
+    }
+
 }
@@ -0,0 +1,252 @@
+/*--------------------------------------------------------------------------
+ *  Copyright 2009 Taro L. Saito
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *--------------------------------------------------------------------------*/
+//--------------------------------------
+// XerialJ
+//
+// SilkNodeScannerTest.java
+// Since: 2026/10/17
+//
+// $URL$
+// $Author$
+//--------------------------------------
+package org.xerial.silk.impl;
+
+import static org.junit.Assert.*;
+
+import java.io.BufferedReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.antlr.runtime.ANTLRStringStream;
+import org.antlr.runtime.CommonTokenStream;
+import org.junit.Test;
+import org.xerial.core.XerialError;
+import org.xerial.core.XerialErrorCode;
+import org.xerial.core.XerialException;
+import org.xerial.silk.model.SilkElement;
+import org.xerial.silk.model.SilkFunction;
+import org.xerial.silk.model.SilkFunctionArg;
+import org.xerial.silk.model.SilkNode;
+import org.xerial.util.FileResource;
+import org.xerial.util.StopWatch;
+import org.xerial.util.log.Logger;
+
+public class SilkNodeScannerTest
+{
+    private static Logger         _logger      = Logger.getLogger(SilkNodeScannerTest.class);
+
+    private static final String[] craftedLines = {
+            "-a",
+            "  -a",
+            "-a:b",
+            "- a b : c ",
+            "-a: x \"y\" z",
+            "-a: \"x\\\"y\"",
+            "-\"quoted name\": value",
+            "-a(b: x y )",
+            "-a(b, c, d)",
+            "-a(b:1, c(d:2, e:3)*, f)|",
+            "-a(b:[1], c:d)",
+            "-a(b:{\"x\":[1,2]}, c:d)",
+            "-a(b:\"x\", c:d)",
+            "-a(b:-1, c:+2, d:=3, e:*)",
+            "-a(b:http://xerial.org/, c:?x)",
+            "-a: [1, \"]\", 2] tail",
+            "-a: [1, [2",
+            "-a: {\"k\":\"v\"}",
+            "-a[int]: 10",
+            "-a[json](b, c)*: [1]",
+            "-a+", "-a?", "-a>", "-a|", "-a*",
+            "-(a, b:1)",
+            "-(a",
+            "-a(b",
+            "-a[int",
+            "-a:",
+            "--",
+            "--code",
+            " ->name:chr1",
+            "@f()",
+            "@f(a, b:c, \"d\":e)",
+            "  @import(small.silk, head:1)",
+            "-@f(x:1)",
+            "-a:@f(x:1, y)",
+            "-a:@f(x:@g())",
+            "-a(b: (c, d), e:f)",
+            "-a:b:c",
+            "-a: \"unterminated",
+            "-a: \"bad\\qescape\"",
+            "-'a'",
+            "-{a}",
+            "- a(b:c)(d:e)",
+    };
+
+    /**
+     * Describes the whole content of the parse result, including indentation
+     * levels and value types, which are not shown in toString()
+     */
+    static String describe(SilkElement e) {
+        if (e instanceof SilkFunction) {
+            SilkFunction f = (SilkFunction) e;
+            StringBuilder s = new StringBuilder();
+            s.append(String.format("function[%d] %s(", f.getIndentLevel(), f.getName()));
+            for (SilkFunctionArg arg : f.getArgumentList()) {
+                s.append(String.format("{%s:%s,%s}", arg.getName(), arg.getValue().getValue(), arg.getValue()
+                        .isJSON()));
+            }
+            s.append(")");
+            return s.toString();
+        }
+        else {
+            SilkNode node = (SilkNode) e;
+            StringBuilder s = new StringBuilder();
+            s.append(String.format("node[%d] %s", node.getIndentLevel(), node.toString()));
+            if (node.hasValue()) {
+                if (node.getValue().isFunction())
+                    s.append(" value=" + describe((SilkFunction) node.getValue()));
+                else
+                    s.append(String.format(" value=%s,%s", node.getValue().getValue(), node.getValue().isJSON()));
+            }
+            for (SilkNode child : node.getChildNodes())
+                s.append(" child=" + describe(child));
+            return s.toString();
+        }
+    }
+
+    static SilkElement parseWithANTLR(String line) throws XerialException {
+        SilkLineLexer lexer = new SilkLineLexer(new ANTLRStringStream(line));
+        return new SilkNodeParser(new CommonTokenStream(lexer)).parse();
+    }
+
+    static List<String> corpus() throws Exception {
+        List<String> lines = new ArrayList<String>();
+        BufferedReader in = new BufferedReader(FileResource.open(SilkNodeScannerTest.class, "node-lines.silk"));
+        for (String line; (line = in.readLine()) != null;)
+            lines.add(line);
+        in.close();
+
+        for (String each : craftedLines)
+            lines.add(each);
+        return lines;
+    }
+
+    @Test
+    public void conformance() throws Exception {
+        SilkNodeScanner scanner = new SilkNodeScanner();
+
+        int numParsed = 0;
+        int numErrors = 0;
+        for (String line : corpus()) {
+            String expected = null;
+            try {
+                expected = describe(parseWithANTLR(line));
+            }
+            catch (XerialException e) {
+                assertEquals(XerialErrorCode.PARSE_ERROR, e.getErrorCode());
+            }
+            catch (XerialError e) {
+                // lexer error
+            }
+
+            if (expected != null) {
+                assertEquals(line, expected, describe(scanner.parse(line)));
+                numParsed++;
+            }
+            else {
+                // The scanner may accept invalid characters after the node definition
+                try {
+                    String result = describe(scanner.parse(line));
+                    _logger.debug(String.format("accepted an invalid line: %s -> %s", line, result));
+                }
+                catch (XerialException e) {
+                    assertEquals(XerialErrorCode.PARSE_ERROR, e.getErrorCode());
+                }
+                numErrors++;
+            }
+        }
+
+        _logger.debug(String.format("parsed: %d, errors: %d", numParsed, numErrors));
+        assertTrue(numParsed > 500);
+    }
+
+    @Test
+    public void reuseBuffer() throws Exception {
+        SilkNodeScanner scanner = new SilkNodeScanner();
+        StringBuilder longName = new StringBuilder();
+        for (int i = 0; i < 1000; i++)
+            longName.append("n");
+
+        String longLine = "-" + longName + "(a:1, b:2)";
+        assertEquals(describe(parseWithANTLR(longLine)), describe(scanner.parse(longLine)));
+        assertEquals(describe(parseWithANTLR("-a:b")), describe(scanner.parse("-a:b")));
+    }
+
+    @Test
+    public void parseError() throws Exception {
+        SilkNodeScanner scanner = new SilkNodeScanner();
+        String[] invalid = { "-(a", "-a(b", "-a[int", "-a:", "-a: \"unterminated", "-'a'", "-a:@f(x:@g())" };
+        for (String line : invalid) {
+            try {
+                scanner.parse(line);
+                fail(line);
+            }
+            catch (XerialException e) {
+                assertEquals(XerialErrorCode.PARSE_ERROR, e.getErrorCode());
+            }
+        }
+    }
+
+    @Test
+    public void performance() throws Exception {
+        List<String> lines = new ArrayList<String>();
+        for (String line : corpus()) {
+            try {
+                parseWithANTLR(line);
+                lines.add(line);
+            }
+            catch (Exception e) {
+                // skip invalid lines
+            }
+        }
+
+        final int N = 50;
+        SilkLineLexer lexer = new SilkLineLexer();
+        CommonTokenStream tokenStream = new CommonTokenStream();
+        StopWatch timer = new StopWatch();
+        for (int i = 0; i < N; i++) {
+            for (String line : lines) {
+                lexer.resetContext();
+                lexer.setCharStream(new ANTLRStringStream(line));
+                tokenStream.setTokenSource(lexer);
+                new SilkNodeParser(tokenStream).parse();
+            }
+        }
+        double antlrTime = timer.getElapsedTime();
+
+        SilkNodeScanner scanner = new SilkNodeScanner();
+        timer.reset();
+        for (int i = 0; i < N; i++) {
+            for (String line : lines)
+                scanner.parse(line);
+        }
+        double scannerTime = timer.getElapsedTime();
+
+        double numLines = (double) N * lines.size();
+        _logger.info(String.format("ANTLR lexer: %.2f sec. (%,.0f lines/sec)", antlrTime, numLines / antlrTime));
+        _logger.info(String.format("SilkNodeScanner: %.2f sec. (%,.0f lines/sec)", scannerTime, numLines
+                / scannerTime));
+    }
+
+}
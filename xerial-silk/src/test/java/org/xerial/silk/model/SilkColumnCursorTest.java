@@ -0,0 +1,143 @@
+/*--------------------------------------------------------------------------
+ *  Copyright 2009 Taro L. Saito
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *--------------------------------------------------------------------------*/
+//--------------------------------------
+// XerialJ
+//
+// SilkColumnCursorTest.java
+// Since: 2026/10/17
+//
+// $URL$
+// $Author$
+//--------------------------------------
+package org.xerial.silk.model;
+
+import static org.junit.Assert.*;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import org.xerial.silk.SilkParser;
+import org.xerial.silk.SilkWalkerTest;
+import org.xerial.util.FileResource;
+import org.xerial.util.StringUtil;
+import org.xerial.util.tree.CharSequenceTreeEventHandler;
+import org.xerial.util.tree.TreeEventHandlerBase;
+
+public class SilkColumnCursorTest
+{
+    @Test
+    public void sameWithSplitAtTab() throws Exception {
+        String[] lines = { "", "a", "  a\tb\tc  ", "a\t\tb\t", "\t", " \\-a\tb", "\\", "\t x \t \"y\" \t" };
+
+        SilkColumnCursor cursor = new SilkColumnCursor();
+        for (String each : lines) {
+            SilkDataLine line = new SilkDataLine(each);
+            ArrayList<String> expected = StringUtil.splitAtTab(line.getTrimmedDataLine());
+
+            List<String> columns = new ArrayList<String>();
+            cursor.reset(line);
+            while (cursor.next()) {
+                assertEquals(cursor.toString(), cursor.getLine().substring(cursor.getOffset(),
+                        cursor.getOffset() + cursor.length()));
+                columns.add(cursor.toString());
+            }
+            assertEquals(each, expected, columns);
+        }
+    }
+
+    @Test
+    public void trimAndUnquote() throws Exception {
+        SilkColumnCursor cursor = new SilkDataLine("1\t \"quoted\" \t' x '\t\"").columnCursor();
+
+        assertTrue(cursor.next());
+        assertEquals("1", cursor.toString());
+
+        assertTrue(cursor.next());
+        cursor.trim();
+        cursor.unquote();
+        assertEquals("quoted", cursor.toString());
+        assertEquals(6, cursor.length());
+        assertEquals('q', cursor.charAt(0));
+        assertEquals("uot", cursor.subSequence(1, 4).toString());
+
+        assertTrue(cursor.next());
+        cursor.unquote();
+        assertEquals(" x ", cursor.toString());
+
+        assertTrue(cursor.next());
+        cursor.unquote();
+        assertEquals("\"", cursor.toString());
+
+        assertFalse(cursor.next());
+    }
+
+    static class EventCollector extends TreeEventHandlerBase
+    {
+        List<String> events = new ArrayList<String>();
+
+        @Override
+        public void visitNode(String nodeName, String immediateNodeValue) throws Exception {
+            events.add(String.format("visit %s: %s", nodeName, immediateNodeValue));
+        }
+
+        @Override
+        public void text(String nodeName, String textDataFragment) throws Exception {
+            events.add(String.format("text %s: %s", nodeName, textDataFragment));
+        }
+
+        @Override
+        public void leaveNode(String nodeName) throws Exception {
+            events.add(String.format("leave %s", nodeName));
+        }
+    }
+
+    static class ViewCollector extends EventCollector implements CharSequenceTreeEventHandler
+    {
+        int numViews = 0;
+
+        public void visitNode(String nodeName, CharSequence immediateNodeValue) throws Exception {
+            numViews++;
+            visitNode(nodeName, immediateNodeValue.toString());
+        }
+    }
+
+    @Test
+    public void charSequenceHandler() throws Exception {
+        for (String file : new String[] { "tab.silk", "tab-node.silk", "tab-node2.silk" }) {
+            EventCollector expected = new EventCollector();
+            new SilkParser(FileResource.find(SilkWalkerTest.class, file)).parse(expected);
+
+            ViewCollector views = new ViewCollector();
+            new SilkParser(FileResource.find(SilkWalkerTest.class, file)).parse(views);
+
+            assertEquals(file, expected.events, views.events);
+            assertTrue(file, views.numViews > 0);
+        }
+    }
+
+    @Test
+    public void defaultColumnNames() throws Exception {
+        ViewCollector views = new ViewCollector();
+        new SilkParser(new StringReader("a\tb\t\"c\"\n")).parse(views);
+
+        assertEquals(3, views.numViews);
+        assertTrue(views.events.contains("visit c1: a"));
+        assertTrue(views.events.contains("visit c3: \"c\""));
+    }
+
+}
@@ -0,0 +1,198 @@
+/*--------------------------------------------------------------------------
+ *  Copyright 2011 Taro L. Saito
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *--------------------------------------------------------------------------*/
+//--------------------------------------
+// XerialJ
+//
+// SilkFindTest.java
+// Since: 2026/10/17
+//
+// $URL$
+// $Author$
+//--------------------------------------
+package org.xerial.silk.query;
+
+import static org.junit.Assert.*;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import org.xerial.core.XerialErrorCode;
+import org.xerial.core.XerialException;
+import org.xerial.silk.SilkParser;
+import org.xerial.util.StopWatch;
+import org.xerial.util.log.Logger;
+import org.xerial.util.tree.TreeEventHandlerBase;
+
+public class SilkFindTest
+{
+    private static Logger _logger = Logger.getLogger(SilkFindTest.class);
+
+    static class IdCollector extends TreeEventHandlerBase
+    {
+        List<String> idList = new ArrayList<String>();
+        int          numVisits;
+
+        @Override
+        public void visitNode(String nodeName, String immediateNodeValue) throws Exception {
+            numVisits++;
+            if (nodeName.equals("id"))
+                idList.add(immediateNodeValue);
+        }
+    }
+
+    private static final String data = "-gene(id, chr, start, type:coding)|\n" //
+                                             + "g1\tchr1\t100\n" //
+                                             + "g2\tchr2\t200\n" //
+                                             + "g3\t\"chr1\"\t300\n" //
+                                             + "g4\tchr10\t400\n" //
+                                             + "g5\tchr1\n" //
+                                             + "-read(id, chr)|\n" //
+                                             + "r1\tchr2\n";
+
+    private static List<String> find(SilkFind query) throws Exception {
+        return find(query, new SilkParser(new StringReader(data)));
+    }
+
+    private static List<String> find(SilkFind query, SilkParser parser) throws Exception {
+        parser.setFilter(query);
+        IdCollector c = new IdCollector();
+        parser.parse(c);
+        return c.idList;
+    }
+
+    private static List<String> list(String... id) {
+        List<String> result = new ArrayList<String>();
+        for (String each : id)
+            result.add(each);
+        return result;
+    }
+
+    @Test
+    public void predicates() throws Exception {
+        assertEquals(list("g1", "g2", "g3", "g4", "g5", "r1"), find(new SilkFind("gene")));
+
+        SilkFind q = new SilkFind("gene").where(SilkPredicate.eq("chr", "chr1"));
+        SilkParser parser = new SilkParser(new StringReader(data));
+        assertEquals(list("g1", "g3", "g5", "r1"), find(q, parser));
+        assertEquals(5, parser.getFilter().getNumScannedLines());
+        assertEquals(2, parser.getFilter().getNumSkippedLines());
+
+        assertEquals(list("g1", "g3", "g4", "g5", "r1"), find(new SilkFind("gene").where(SilkPredicate.prefix("chr",
+                "chr1"))));
+        assertEquals(list("g2", "g3", "r1"), find(new SilkFind("gene").where(SilkPredicate.range("start", 150, 300))));
+        assertEquals(list("g3", "r1"), find(new SilkFind("gene").where(SilkPredicate.range("start", 150, 300)).where(
+                SilkPredicate.eq("chr", "chr1"))));
+
+        // default column value
+        assertEquals(list("g1", "g2", "g3", "g4", "g5", "r1"), find(new SilkFind("gene").where(SilkPredicate.eq(
+                "type", "coding"))));
+        assertEquals(list("r1"), find(new SilkFind("gene").where(SilkPredicate.eq("type", "rna"))));
+
+        // unknown attribute
+        assertEquals(list("r1"), find(new SilkFind("gene").where(SilkPredicate.eq("name", "g1"))));
+        // other tables are not filtered
+        assertEquals(list("g1", "g2", "g3", "g4", "g5"), find(new SilkFind("read").where(SilkPredicate.eq("chr",
+                "chr1"))));
+    }
+
+    @Test
+    public void immutableQuery() throws Exception {
+        SilkFind q = new SilkFind("gene");
+        SilkFind q2 = q.where(SilkPredicate.eq("chr", "chr1"));
+        assertEquals(0, q.getPredicateList().size());
+        assertEquals(1, q2.getPredicateList().size());
+        // the query can be shared by parsers
+        assertEquals(find(q2), find(q2));
+    }
+
+    @Test
+    public void nodeForm() throws Exception {
+        String nodes = "-gene(id:g1, chr:chr1)\n" //
+                + " -exon(id:e1)\n" //
+                + "-gene(id:g2, chr:chr2)\n" //
+                + " -exon(id:e2)\n" //
+                + "  -note: skipped\n" //
+                + " -exon(start, id)|\n" //
+                + "1\te3\n" //
+                + "-gene(id:g3, chr:\"chr1\", start:10)\n" //
+                + "-read(id:r1, chr:chr2)\n";
+
+        SilkFind q = new SilkFind("gene").where(SilkPredicate.eq("chr", "chr1"));
+        SilkParser parser = new SilkParser(new StringReader(nodes));
+        assertEquals(list("g1", "e1", "g3", "r1"), find(q, parser));
+        assertEquals(3, parser.getFilter().getNumScannedLines());
+        assertEquals(1, parser.getFilter().getNumSkippedLines());
+
+        assertEquals(list("g3", "r1"), find(q.where(SilkPredicate.range("start", 0, 100)), new SilkParser(
+                new StringReader("-gene(id:g1, chr:chr1, start:200)\n" + nodes.substring(nodes.indexOf("-gene(id:g3"))))));
+    }
+
+    private static void assertUnsupported(SilkFind query, String silk) throws Exception {
+        try {
+            find(query, new SilkParser(new StringReader(silk)));
+            fail(silk);
+        }
+        catch (XerialException e) {
+            assertEquals(XerialErrorCode.UNSUPPORTED, e.getErrorCode());
+        }
+    }
+
+    @Test
+    public void unsupportedForms() throws Exception {
+        SilkFind q = new SilkFind("gene").where(SilkPredicate.eq("chr", "chr1"));
+        // CSV rows
+        assertUnsupported(q, "-gene*\ng1, g2\n");
+        assertUnsupported(q, "-gene(id, chr)*\n[[\"g1\", \"chr1\"]]\n");
+        // the attribute is not in the node line
+        assertUnsupported(q, "-gene(id:g1)\n -chr: chr1\n");
+
+        // no predicate to evaluate
+        assertEquals(list("g1", "g2"), find(new SilkFind("gene"), new SilkParser(new StringReader(
+                "-gene(id:g1)\n -chr: chr1\n-gene(id:g2)\n"))));
+    }
+
+    @Test
+    public void performance() throws Exception {
+        StringBuilder s = new StringBuilder();
+        s.append("-gene(id, chr, start, end, strand, name)|\n");
+        for (int i = 0; i < 200000; i++)
+            s.append(String.format("%d\tchr%d\t%d\t%d\t+\tgene%d\n", i, i % 22, i * 100, i * 100 + 50, i));
+        String input = s.toString();
+
+        for (int trial = 0; trial < 3; trial++) {
+            StopWatch timer = new StopWatch();
+            IdCollector all = new IdCollector();
+            new SilkParser(new StringReader(input)).parse(all);
+            double fullTime = timer.getElapsedTime();
+
+            timer.reset();
+            SilkFind q = new SilkFind("gene").where(SilkPredicate.eq("chr", "chr3"));
+            SilkParser parser = new SilkParser(new StringReader(input));
+            parser.setFilter(q);
+            IdCollector selected = new IdCollector();
+            parser.parse(selected);
+            double filterTime = timer.getElapsedTime();
+
+            assertEquals(all.idList.size(), parser.getFilter().getNumScannedLines());
+            assertEquals(all.idList.size() - selected.idList.size(), parser.getFilter().getNumSkippedLines());
+            _logger.info(String.format("full scan: %.3f sec. (%d visits), push-down filter: %.3f sec. (%d visits)",
+                    fullTime, all.numVisits, filterTime, selected.numVisits));
+        }
+    }
+
+}
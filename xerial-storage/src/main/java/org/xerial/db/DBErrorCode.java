@@ -50,7 +50,7 @@ public enum DBErrorCode implements ErrorCode {
 
     FailureOnConnectionClose, QueryError, UpdateError,
 
-    SQLiteDBFileNotFound, JDBCConnectionError,
+    SQLiteDBFileNotFound, JDBCConnectionError, ConnectionTimeout,
 
     InvalidSQLExpression,
 
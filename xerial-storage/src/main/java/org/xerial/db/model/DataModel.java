@@ -194,10 +194,8 @@ public class DataModel
                     .getEdgeLabel(edge)));
         }
 
-        for (NodeData node : nodeList)
-            query.insert("node", node);
-        for (EdgeData edge : edgeList)
-            query.insert("edge", edge);
+        query.insertAll("node", nodeList);
+        query.insertAll("edge", edgeList);
 
     }
 
@@ -0,0 +1,108 @@
+/*--------------------------------------------------------------------------
+ *  Copyright 2011 Taro L. Saito
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *--------------------------------------------------------------------------*/
+//--------------------------------------
+// XerialJ
+//
+// BeanInsertBinder.java
+// Since: 2026/10/17
+//
+// $URL$
+// $Author$
+//--------------------------------------
+package org.xerial.db.sql;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import org.xerial.core.XerialException;
+import org.xerial.db.DBErrorCode;
+import org.xerial.db.DBException;
+import org.xerial.db.Relation;
+import org.xerial.db.datatype.DataType;
+import org.xerial.util.StringUtil;
+import org.xerial.util.lens.ObjectLens;
+import org.xerial.util.lens.impl.ParameterGetter;
+
+/**
+ * Insert statement of a table for a bean class. The columns of the table are
+ * bound to the parameters of a prepared statement with the getters of the bean
+ * class.
+ * 
+ * @author leo
+ * 
+ */
+class BeanInsertBinder implements PreparedStatementBatchHandler<Object>
+{
+    final Class< ? >                beanType;
+    /**
+     * insert statement with '?' marks for the columns that have getters
+     */
+    final String                    sql;
+    private final ParameterGetter[] getters;
+
+    BeanInsertBinder(String tableName, Relation relation, Class< ? > beanType) throws DBException {
+        this.beanType = beanType;
+
+        HashMap<String, ParameterGetter> getterTable = new HashMap<String, ParameterGetter>();
+        for (ParameterGetter each : ObjectLens.getObjectLens(beanType).getGetterContainer())
+            getterTable.put(each.getCanonicalParamName(), each);
+
+        List<String> columnList = new ArrayList<String>();
+        List<String> markList = new ArrayList<String>();
+        List<ParameterGetter> getterList = new ArrayList<ParameterGetter>();
+        for (DataType dt : relation.getDataTypeList()) {
+            ParameterGetter getter = getterTable.get(ObjectLens.getCanonicalParameterName(dt.getName()));
+            if (getter == null)
+                continue; // use the default value of the column
+            columnList.add(dt.getName());
+            markList.add("?");
+            getterList.add(getter);
+        }
+        if (getterList.isEmpty())
+            throw new DBException(DBErrorCode.InvalidBeanClass, String.format(
+                    "%s has no parameter corresponding to the columns of %s", beanType.getName(), tableName));
+
+        getters = getterList.toArray(new ParameterGetter[getterList.size()]);
+        sql = String.format("insert into %s(%s) values(%s)", tableName, StringUtil.join(columnList, ", "), StringUtil
+                .join(markList, ", "));
+    }
+
+    public void setup(PreparedStatement preparedStatement, Object bean) throws SQLException, XerialException {
+        if (bean == null)
+            throw new DBException(DBErrorCode.InvalidInput, "null bean");
+        if (bean.getClass() != beanType)
+            throw new DBException(DBErrorCode.InvalidBeanClass, String.format("%s is given where %s is expected",
+                    bean.getClass().getName(), beanType.getName()));
+
+        for (int i = 0; i < getters.length; i++)
+            bindValue(preparedStatement, i + 1, getters[i].get(bean));
+    }
+
+    static void bindValue(PreparedStatement preparedStatement, int index, Object value) throws SQLException {
+        if (value == null)
+            preparedStatement.setNull(index, Types.NULL);
+        else if (value instanceof Number || value instanceof String || value instanceof Boolean
+                || value instanceof byte[])
+            preparedStatement.setObject(index, value);
+        else
+            preparedStatement.setString(index, value.toString());
+    }
+
+}
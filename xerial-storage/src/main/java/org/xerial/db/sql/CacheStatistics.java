@@ -0,0 +1,90 @@
+/*--------------------------------------------------------------------------
+ *  Copyright 2011 Taro L. Saito
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *--------------------------------------------------------------------------*/
+//--------------------------------------
+// XerialJ
+//
+// CacheStatistics.java
+// Since: 2026/10/17
+//
+// $URL$
+// $Author$
+//--------------------------------------
+package org.xerial.db.sql;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hit and miss counts of a cache in {@link DatabaseAccessBase}
+ * 
+ * @author leo
+ * 
+ */
+public class CacheStatistics
+{
+    private final AtomicLong hits      = new AtomicLong(0);
+    private final AtomicLong misses    = new AtomicLong(0);
+    private final AtomicLong evictions = new AtomicLong(0);
+
+    void hit() {
+        hits.incrementAndGet();
+    }
+
+    void miss() {
+        misses.incrementAndGet();
+    }
+
+    void evict() {
+        evictions.incrementAndGet();
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * @return the number of entries removed from the cache because of the
+     *         capacity or invalidation
+     */
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    /**
+     * @return hits / (hits + misses), or 0 if the cache has not been accessed
+     */
+    public double getHitRate() {
+        long h = hits.get();
+        long total = h + misses.get();
+        return total == 0 ? 0.0 : (double) h / total;
+    }
+
+    public void reset() {
+        hits.set(0);
+        misses.set(0);
+        evictions.set(0);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("hit rate:%.3f (hits:%d, misses:%d, evictions:%d)", getHitRate(), getHits(),
+                getMisses(), getEvictions());
+    }
+
+}
@@ -0,0 +1,619 @@
+/*--------------------------------------------------------------------------
+ *  Copyright 2011 Taro L. Saito
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *--------------------------------------------------------------------------*/
+//--------------------------------------
+// XerialJ
+//
+// ConcurrentConnectionPool.java
+// Since: 2026/10/17
+//
+// $URL$
+// $Author$
+//--------------------------------------
+package org.xerial.db.sql;
+
+import java.lang.ref.WeakReference;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.xerial.db.DBErrorCode;
+import org.xerial.db.DBException;
+import org.xerial.util.log.Logger;
+
+/**
+ * Connection pool whose borrow and return do not take a lock.
+ * 
+ * <p>
+ * A connection is borrowed in the following order:
+ * <ol>
+ * <li>the connection that the current thread returned last time,</li>
+ * <li>an idle connection in the pool, which is taken by compare-and-set of its
+ * state,</li>
+ * <li>a new connection, if the pool has less than the maximum number of
+ * connections,</li>
+ * <li>a connection handed off by a returning thread, waiting up to the borrow
+ * timeout.</li>
+ * </ol>
+ * 
+ * Connections that have been idle longer than the validation interval are
+ * validated before being borrowed, and connections idle longer than the idle
+ * timeout are closed by a housekeeping task, keeping at least the minimum
+ * number of idle connections. Memory databases, which are lost when their
+ * connection is closed, should keep the same number of minimum and maximum
+ * connections.
+ * 
+ * <p>
+ * The pool records the number of active and idle connections, and the
+ * histogram of the time spent in {@link #getConnection()}.
+ * 
+ * @author leo
+ * 
+ */
+public class ConcurrentConnectionPool implements ConnectionPool
+{
+    private static Logger                                            _logger                   = Logger.getLogger(ConcurrentConnectionPool.class);
+
+    /**
+     * number of buckets in the wait time histogram
+     */
+    public static final int                                          NUM_WAIT_TIME_BUCKETS     = 32;
+
+    private static final long                                        HOUSEKEEPING_PERIOD_MILLI = 30 * 1000;
+
+    private static final int                                         IDLE                      = 0;
+    private static final int                                         IN_USE                    = 1;
+    private static final int                                         REMOVED                   = 2;
+
+    private static class PooledConnection extends AtomicInteger
+    {
+        private static final long serialVersionUID = 1L;
+
+        final Connection          connection;
+        volatile long             lastAccessed     = System.currentTimeMillis();
+
+        PooledConnection(Connection connection) {
+            super(IN_USE);
+            this.connection = connection;
+        }
+    }
+
+    private final String                                             driver;
+    private final String                                             address;
+    private final String                                             user;
+    private final String                                             pass;
+    private final int                                                maxConnections;
+
+    private volatile int                                             minIdle                   = 1;
+    private volatile long                                            borrowTimeoutMilli        = 30 * 1000;
+    private volatile long                                            idleTimeoutMilli          = 10 * 60 * 1000;
+    private volatile long                                            validationIntervalMilli   = 500;
+    private volatile String                                          validationQuery           = null;
+    private volatile boolean                                         isValidSupported          = true;
+    private volatile boolean                                         closed                    = false;
+
+    private final CopyOnWriteArrayList<PooledConnection>             pool                      = new CopyOnWriteArrayList<PooledConnection>();
+    private final ConcurrentHashMap<Connection, PooledConnection>    connectionTable           = new ConcurrentHashMap<Connection, PooledConnection>();
+    private final ThreadLocal<WeakReference<PooledConnection>>       lastUsed                  = new ThreadLocal<WeakReference<PooledConnection>>();
+    private final SynchronousQueue<PooledConnection>                 handoffQueue              = new SynchronousQueue<PooledConnection>(true);
+    private final AtomicInteger                                      numConnections            = new AtomicInteger(0);
+    private final AtomicInteger                                      numActive                 = new AtomicInteger(0);
+    private final AtomicInteger                                      numWaiting                = new AtomicInteger(0);
+
+    private final AtomicLong                                         numBorrowed               = new AtomicLong(0);
+    private final AtomicLong                                         numTimeouts               = new AtomicLong(0);
+    private final AtomicLong                                         numValidationFailures     = new AtomicLong(0);
+    private final AtomicLong                                         numEvicted                = new AtomicLong(0);
+    private final AtomicLong                                         totalWaitTimeNano         = new AtomicLong(0);
+    private final AtomicLongArray                                    waitTimeHistogram         = new AtomicLongArray(NUM_WAIT_TIME_BUCKETS);
+
+    private final ScheduledFuture< ? >                               housekeeping;
+
+    /**
+     * Creates a pool of a single connection, which is suited for memory
+     * databases
+     * 
+     * @param JDBCDriver
+     *            driver name: e.g. "org.sqlite.JDBC"
+     * @param databaseAddress
+     *            database address, e.g. "jdbc:sqlite:db.sqlite3"
+     * @throws DBException
+     *             when loading the driver or establishing the connection fails
+     */
+    public ConcurrentConnectionPool(String JDBCDriver, String databaseAddress) throws DBException {
+        this(JDBCDriver, databaseAddress, 1);
+    }
+
+    /**
+     * @param JDBCDriver
+     *            driver name: e.g. "org.sqlite.JDBC"
+     * @param databaseAddress
+     *            database address, e.g. "jdbc:sqlite:db.sqlite3"
+     * @param maxConnections
+     *            the maximum number of connections
+     * @throws DBException
+     *             when loading the driver or establishing the connection fails
+     */
+    public ConcurrentConnectionPool(String JDBCDriver, String databaseAddress, int maxConnections) throws DBException {
+        this(JDBCDriver, databaseAddress, null, null, maxConnections);
+    }
+
+    public ConcurrentConnectionPool(String JDBCDriver, String databaseAddress, String user, String pass)
+            throws DBException {
+        this(JDBCDriver, databaseAddress, user, pass, 1);
+    }
+
+    public ConcurrentConnectionPool(String JDBCDriver, String databaseAddress, String user, String pass,
+            int maxConnections) throws DBException {
+        if (maxConnections <= 0)
+            throw new DBException(DBErrorCode.InvalidInput, "the number of connections must be positive: "
+                    + maxConnections);
+
+        this.driver = JDBCDriver;
+        this.address = databaseAddress;
+        this.user = user;
+        this.pass = pass;
+        this.maxConnections = maxConnections;
+
+        try {
+            Class.forName(driver);
+        }
+        catch (ClassNotFoundException e) {
+            throw new DBException(DBErrorCode.UnknownJDBCDriver, e);
+        }
+
+        // establish a connection to report the connection error early
+        PooledConnection first = createConnection();
+        first.set(IDLE);
+
+        housekeeping = Housekeeper.schedule(this);
+    }
+
+    /**
+     * Sets the minimum number of connections kept in the pool after the idle
+     * connections are evicted
+     * 
+     * @param minIdle
+     */
+    public void setMinIdle(int minIdle) {
+        this.minIdle = Math.min(minIdle, maxConnections);
+    }
+
+    /**
+     * Sets the maximum time to wait for a connection in
+     * {@link #getConnection()}
+     * 
+     * @param milliSec
+     */
+    public void setBorrowTimeout(long milliSec) {
+        this.borrowTimeoutMilli = milliSec;
+    }
+
+    /**
+     * Sets the time after which idle connections are closed. 0 disables the
+     * eviction
+     * 
+     * @param milliSec
+     */
+    public void setIdleTimeout(long milliSec) {
+        this.idleTimeoutMilli = milliSec;
+    }
+
+    /**
+     * Connections that are idle longer than this interval are validated
+     * before being borrowed. 0 validates the connection at every borrow
+     * 
+     * @param milliSec
+     */
+    public void setValidationInterval(long milliSec) {
+        this.validationIntervalMilli = milliSec;
+    }
+
+    /**
+     * Sets the query used to validate connections, e.g., "select 1". When no
+     * query is set, Connection.isValid() is used if the driver supports it.
+     * 
+     * @param sql
+     */
+    public void setValidationQuery(String sql) {
+        this.validationQuery = sql;
+    }
+
+    // @see org.xerial.db.sql.ConnectionPool#getConnection()
+    public Connection getConnection() throws DBException {
+        final long start = System.nanoTime();
+        PooledConnection entry = borrow(start);
+        numActive.incrementAndGet();
+        numBorrowed.incrementAndGet();
+        recordWaitTime(System.nanoTime() - start);
+        return entry.connection;
+    }
+
+    private PooledConnection borrow(long start) throws DBException {
+        final long deadline = start + TimeUnit.MILLISECONDS.toNanos(borrowTimeoutMilli);
+        for (;;) {
+            if (closed)
+                throw new DBException(DBErrorCode.JDBCConnectionError, "the connection pool is closed");
+
+            PooledConnection entry = tryAcquire();
+            if (entry == null) {
+                numWaiting.incrementAndGet();
+                try {
+                    // look up the pool again, since a connection may have been returned
+                    // before this thread is registered as a waiter
+                    entry = tryAcquire();
+                    if (entry == null) {
+                        long remaining = deadline - System.nanoTime();
+                        if (remaining <= 0) {
+                            numTimeouts.incrementAndGet();
+                            throw new DBException(DBErrorCode.ConnectionTimeout, String.format(
+                                    "no connection is available in %d msec. (active: %d, max: %d)",
+                                    borrowTimeoutMilli, numActive.get(), maxConnections));
+                        }
+                        PooledConnection handedOff = handoffQueue.poll(remaining, TimeUnit.NANOSECONDS);
+                        if (handedOff != null && handedOff.compareAndSet(IDLE, IN_USE))
+                            entry = handedOff;
+                    }
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new DBException(DBErrorCode.ThreadInterruption, e);
+                }
+                finally {
+                    numWaiting.decrementAndGet();
+                }
+            }
+
+            if (entry != null) {
+                if (isAlive(entry))
+                    return entry;
+                numValidationFailures.incrementAndGet();
+                discard(entry);
+            }
+        }
+    }
+
+    /**
+     * Takes an idle connection or creates a new one
+     * 
+     * @return null if all of the connections are in use
+     * @throws DBException
+     */
+    private PooledConnection tryAcquire() throws DBException {
+        WeakReference<PooledConnection> ref = lastUsed.get();
+        if (ref != null) {
+            PooledConnection entry = ref.get();
+            if (entry != null && entry.compareAndSet(IDLE, IN_USE))
+                return entry;
+        }
+
+        for (PooledConnection each : pool) {
+            if (each.compareAndSet(IDLE, IN_USE))
+                return each;
+        }
+
+        for (int n; (n = numConnections.get()) < maxConnections;) {
+            if (numConnections.compareAndSet(n, n + 1))
+                return establish();
+        }
+        return null;
+    }
+
+    private PooledConnection createConnection() throws DBException {
+        numConnections.incrementAndGet();
+        return establish();
+    }
+
+    /**
+     * Opens a new connection, whose slot is already reserved in
+     * numConnections
+     */
+    private PooledConnection establish() throws DBException {
+        try {
+            Connection connection = (user == null) ? DriverManager.getConnection(address) : DriverManager
+                    .getConnection(address, user, pass);
+            PooledConnection entry = new PooledConnection(connection);
+            connectionTable.put(connection, entry);
+            pool.add(entry);
+            _logger.debug("new connection: " + address);
+            return entry;
+        }
+        catch (SQLException e) {
+            numConnections.decrementAndGet();
+            throw new DBException(DBErrorCode.JDBCConnectionError, e);
+        }
+    }
+
+    private boolean isAlive(PooledConnection entry) {
+        if (System.currentTimeMillis() - entry.lastAccessed < validationIntervalMilli)
+            return true;
+
+        Connection connection = entry.connection;
+        try {
+            String sql = validationQuery;
+            if (sql != null) {
+                Statement statement = connection.createStatement();
+                try {
+                    statement.execute(sql);
+                }
+                finally {
+                    statement.close();
+                }
+                return true;
+            }
+
+            if (isValidSupported) {
+                try {
+                    return connection.isValid(1);
+                }
+                catch (AbstractMethodError e) {
+                    // JDBC drivers prior to JDBC 4.0
+                    isValidSupported = false;
+                }
+                catch (SQLException e) {
+                    // the driver does not implement isValid
+                    isValidSupported = false;
+                }
+            }
+            return !connection.isClosed();
+        }
+        catch (SQLException e) {
+            _logger.debug(e);
+            return false;
+        }
+    }
+
+    // @see org.xerial.db.sql.ConnectionPool#returnConnection(java.sql.Connection)
+    public void returnConnection(Connection leasedConnection) {
+        PooledConnection entry = connectionTable.get(leasedConnection);
+        if (entry == null || entry.get() != IN_USE) {
+            _logger.warn("returned connection is not leased from this pool");
+            return;
+        }
+        numActive.decrementAndGet();
+
+        if (closed) {
+            discard(entry);
+            return;
+        }
+
+        entry.lastAccessed = System.currentTimeMillis();
+        entry.set(IDLE);
+        WeakReference<PooledConnection> ref = lastUsed.get();
+        if (ref == null || ref.get() != entry)
+            lastUsed.set(new WeakReference<PooledConnection>(entry));
+
+        // hand off the connection to a waiting thread
+        while (numWaiting.get() > 0) {
+            if (entry.get() != IDLE || handoffQueue.offer(entry))
+                return;
+            Thread.yield();
+        }
+    }
+
+    private void discard(PooledConnection entry) {
+        entry.set(REMOVED);
+        connectionTable.remove(entry.connection);
+        if (pool.remove(entry))
+            numConnections.decrementAndGet();
+        try {
+            entry.connection.close();
+        }
+        catch (SQLException e) {
+            _logger.debug(e);
+        }
+    }
+
+    /**
+     * Closes the connections that have been idle longer than the idle timeout,
+     * while keeping the minimum number of connections. This method is called
+     * periodically by a housekeeping thread.
+     * 
+     * @return the number of closed connections
+     */
+    public int evictIdleConnections() {
+        long timeout = idleTimeoutMilli;
+        if (timeout <= 0)
+            return 0;
+
+        int count = 0;
+        long now = System.currentTimeMillis();
+        for (PooledConnection each : pool) {
+            if (numConnections.get() <= minIdle)
+                break;
+            if (now - each.lastAccessed > timeout && each.compareAndSet(IDLE, REMOVED)) {
+                discard(each);
+                count++;
+            }
+        }
+        numEvicted.addAndGet(count);
+        return count;
+    }
+
+    // @see org.xerial.db.sql.ConnectionPool#closeAll()
+    public void closeAll() throws DBException {
+        closed = true;
+        housekeeping.cancel(false);
+
+        // connections in use are closed when they are returned
+        int numFailures = 0;
+        for (PooledConnection each : pool) {
+            if (each.compareAndSet(IDLE, REMOVED)) {
+                connectionTable.remove(each.connection);
+                pool.remove(each);
+                numConnections.decrementAndGet();
+                try {
+                    each.connection.close();
+                }
+                catch (SQLException e) {
+                    _logger.error(e);
+                    numFailures++;
+                }
+            }
+        }
+        if (numFailures > 0)
+            throw new DBException(DBErrorCode.FailureOnConnectionClose, String.format(
+                    "failed to close %d connections", numFailures));
+    }
+
+    private void recordWaitTime(long nanoSec) {
+        totalWaitTimeNano.addAndGet(nanoSec);
+        long micro = nanoSec / 1000;
+        int bucket = 64 - Long.numberOfLeadingZeros(micro);
+        waitTimeHistogram.incrementAndGet(Math.min(bucket, NUM_WAIT_TIME_BUCKETS - 1));
+    }
+
+    /**
+     * @return the number of connections in use
+     */
+    public int getNumActive() {
+        return numActive.get();
+    }
+
+    /**
+     * @return the number of connections in the pool that are not in use
+     */
+    public int getNumIdle() {
+        return Math.max(0, numConnections.get() - numActive.get());
+    }
+
+    /**
+     * @return the number of established connections
+     */
+    public int getNumConnections() {
+        return numConnections.get();
+    }
+
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    /**
+     * @return the number of threads waiting for a connection
+     */
+    public int getNumWaiting() {
+        return numWaiting.get();
+    }
+
+    public long getNumBorrowed() {
+        return numBorrowed.get();
+    }
+
+    public long getNumTimeouts() {
+        return numTimeouts.get();
+    }
+
+    public long getNumValidationFailures() {
+        return numValidationFailures.get();
+    }
+
+    public long getNumEvicted() {
+        return numEvicted.get();
+    }
+
+    /**
+     * @return the total time spent in {@link #getConnection()}
+     */
+    public long getTotalWaitTimeNano() {
+        return totalWaitTimeNano.get();
+    }
+
+    /**
+     * Gets the histogram of the time spent in {@link #getConnection()}. The
+     * i-th bucket counts the waits of less than 2^i micro seconds and at least
+     * 2^(i-1) micro seconds. The last bucket also counts the longer waits.
+     * 
+     * @return the wait counts of the buckets
+     */
+    public long[] getWaitTimeHistogram() {
+        long[] histogram = new long[NUM_WAIT_TIME_BUCKETS];
+        for (int i = 0; i < histogram.length; i++)
+            histogram[i] = waitTimeHistogram.get(i);
+        return histogram;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s active:%d, idle:%d, waiting:%d, borrowed:%d, timeouts:%d, mean wait:%.1f usec.",
+                address, getNumActive(), getNumIdle(), getNumWaiting(), getNumBorrowed(), getNumTimeouts(),
+                getNumBorrowed() == 0 ? 0.0 : getTotalWaitTimeNano() / 1000.0 / getNumBorrowed());
+    }
+
+    /**
+     * Runs the idle eviction of the pools in a daemon thread shared by all of
+     * the pools. The task holds a pool by a weak reference, so that the pools
+     * not closed explicitly can be garbage collected.
+     * 
+     * @author leo
+     * 
+     */
+    private static class Housekeeper implements Runnable
+    {
+        private static ScheduledExecutorService                  executor;
+
+        private final WeakReference<ConcurrentConnectionPool>    poolRef;
+        private volatile ScheduledFuture< ? >                    future;
+
+        private Housekeeper(ConcurrentConnectionPool pool) {
+            this.poolRef = new WeakReference<ConcurrentConnectionPool>(pool);
+        }
+
+        static synchronized ScheduledFuture< ? > schedule(ConcurrentConnectionPool pool) {
+            if (executor == null) {
+                ScheduledThreadPoolExecutor e = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+                    public Thread newThread(Runnable r) {
+                        Thread t = new Thread(r, "xerial-connection-pool-housekeeper");
+                        t.setDaemon(true);
+                        return t;
+                    }
+                });
+                executor = e;
+            }
+            Housekeeper task = new Housekeeper(pool);
+            task.future = executor.scheduleWithFixedDelay(task, HOUSEKEEPING_PERIOD_MILLI,
+                    HOUSEKEEPING_PERIOD_MILLI, TimeUnit.MILLISECONDS);
+            return task.future;
+        }
+
+        public void run() {
+            ConcurrentConnectionPool pool = poolRef.get();
+            if (pool == null) {
+                future.cancel(false);
+                return;
+            }
+            try {
+                int count = pool.evictIdleConnections();
+                if (count > 0)
+                    _logger.debug(String.format("closed %d idle connections: %s", count, pool));
+            }
+            catch (RuntimeException e) {
+                _logger.error(e);
+            }
+        }
+    }
+
+}
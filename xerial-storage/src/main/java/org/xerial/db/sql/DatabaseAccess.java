@@ -27,6 +27,7 @@ package org.xerial.db.sql;
 import java.io.IOException;
 import java.io.Writer;
 import java.sql.PreparedStatement;
+import java.util.Collection;
 import java.util.List;
 
 import org.xerial.db.DBException;
@@ -113,6 +114,67 @@ public interface DatabaseAccess
      */
     public <T> List<T> query(String sql, Class<T> resultRowType, Predicate<T> filter) throws DBException;
 
+    /**
+     * Opens a cursor over the rows of the SQL query result. The rows are read
+     * from the database while iterating the cursor, and the connection used
+     * by the cursor is returned to the pool when the cursor is closed.
+     * 
+     * @param <T>
+     * @param sql
+     * @param resultRowType
+     * @return
+     * @throws DBException
+     */
+    public <T> ResultCursor<T> cursor(String sql, Class<T> resultRowType) throws DBException;
+
+    /**
+     * Opens a cursor whose rows are read and bound to objects in a background
+     * thread, up to the prefetch size ahead of the consumer. The prefetch
+     * overlaps the wait for a remote database with the processing of the
+     * rows, and is slower than {@link #cursor(String, Class)} for local
+     * databases. See {@link ResultCursor}.
+     * 
+     * @param <T>
+     * @param sql
+     * @param resultRowType
+     * @param prefetchSize
+     *            the maximum number of rows read ahead. 0 disables the
+     *            background thread
+     * @return
+     * @throws DBException
+     */
+    public <T> ResultCursor<T> cursor(String sql, Class<T> resultRowType, int prefetchSize) throws DBException;
+
+    /**
+     * Sets the number of rows fetched from the database at a time in cursors.
+     * 0 uses the default of the JDBC driver. Cursors disable the auto-commit
+     * mode of their connection while open, since PostgreSQL reads all of the
+     * rows in the auto-commit mode. MySQL Connector/J streams the rows only
+     * when the fetch size is {@link Integer#MIN_VALUE}, or when the connection
+     * URL has useCursorFetch=true.
+     * 
+     * @param fetchSize
+     */
+    public void setFetchSize(int fetchSize);
+
+    /**
+     * Performs an SQL query with a prepared statement, whose '?' marks are
+     * filled in the {@link PreparedStatementHandler}. Since the SQL text does
+     * not contain the parameter values, the prepared statement is reused for
+     * different parameters.
+     * 
+     * @param <T>
+     * @param sqlForPreparedStatement
+     *            the SQL query that may contain '?' marks
+     * @param handler
+     *            the handler for filling '?' marks in the sql statement
+     * @param resultRowType
+     * @return
+     * @throws DBException
+     */
+    public <T> List<T> queryWithPreparedStatement(String sqlForPreparedStatement, PreparedStatementHandler handler,
+            Class<T> resultRowType) throws DBException;
+
     /**
      * @param <T>
      * @param sql
@@ -198,6 +260,70 @@ public interface DatabaseAccess
      */
     public <T> int insert(String tableName, T bean) throws DBException;
 
+    /**
+     * Inserts the beans into a table with a batch update. The parameters of
+     * the beans are bound to the columns of the same names.
+     * 
+     * @param <T>
+     * @param tableName
+     * @param beanList
+     *            beans of the same class
+     * @return the number of inserted rows
+     * @throws DBException
+     * @see #updateBatch(String, Iterable, PreparedStatementBatchHandler)
+     */
+    public <T> int insertAll(String tableName, Collection<T> beanList) throws DBException;
+
+    /**
+     * Performs the update for each row using a single prepared statement. The
+     * updates are sent to the database every {@link #setBatchSize(int)} rows.
+     * In the auto-commit mode, the updates are committed every
+     * {@link #setRowsPerTransaction(int)} rows, and the uncommitted updates are
+     * rolled back when an error occurs. Otherwise, the transaction is left to
+     * the caller.
+     * 
+     * @param <T>
+     * @param sqlForPreparedStatement
+     *            the update SQL statement that may contain '?' mark that will
+     *            be filled in the handler
+     * @param rows
+     * @param handler
+     *            the handler for filling '?' marks with the values of each row
+     * @return the number of rows updated
+     * @throws DBException
+     */
+    public <T> int updateBatch(String sqlForPreparedStatement, Iterable<T> rows,
+            PreparedStatementBatchHandler< ? super T> handler) throws DBException;
+
+    /**
+     * Sets the number of rows sent to the database at a time in batch updates
+     * 
+     * @param batchSize
+     */
+    public void setBatchSize(int batchSize);
+
+    /**
+     * Sets the number of rows committed at a time in batch updates. 0 or less
+     * means all of the rows are committed at once
+     * 
+     * @param rowsPerTransaction
+     */
+    public void setRowsPerTransaction(int rowsPerTransaction);
+
+    /**
+     * Sets the number of prepared statements cached for each connection. 0
+     * disables the statement cache
+     * 
+     * @param size
+     */
+    public void setStatementCacheSize(int size);
+
+    /**
+     * Clears the cached table schema and prepared statements. Use this method
+     * when the schema is modified by other programs.
+     */
+    public void invalidateSchemaCache();
+
     /**
      * insert and retrieves a generated key
      * 
@@ -34,11 +34,14 @@ import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.xerial.core.XerialException;
 import org.xerial.db.DBErrorCode;
@@ -64,13 +67,28 @@ import org.xerial.util.log.Logger;
 public class DatabaseAccessBase implements DatabaseAccess
 {
 
-    private ConnectionPool            _connectionPool;
-    private static Logger             _logger              = Logger.getLogger(DatabaseAccessBase.class);
+    private ConnectionPool                                        _connectionPool;
+    private static Logger                                         _logger                  = Logger.getLogger(DatabaseAccessBase.class);
 
-    private int                       queryTimeout         = 60;
-    private boolean                   autoCommit           = true;
+    private int                                                   queryTimeout             = 60;
+    private boolean                                               autoCommit               = true;
+    private int                                                   batchSize                = 1000;
+    private int                                                   rowsPerTransaction       = 0;
+    private volatile int                                          statementCacheSize       = 64;
+    private int                                                   fetchSize                = 1000;
 
-    private HashMap<String, Relation> tableRelationCatalog = new HashMap<String, Relation>();
+    /**
+     * incremented when the schema is changed
+     */
+    private final AtomicInteger                                   schemaVersion            = new AtomicInteger(0);
+    private ConcurrentHashMap<String, Relation>                   tableRelationCatalog     = new ConcurrentHashMap<String, Relation>();
+    private ConcurrentHashMap<String, Set<String>>                primaryKeyCatalog        = new ConcurrentHashMap<String, Set<String>>();
+    private volatile List<String>                                 tableNameList            = null;
+    private ConcurrentHashMap<String, BeanInsertBinder>           insertBinderCatalog      = new ConcurrentHashMap<String, BeanInsertBinder>();
+    private ConcurrentHashMap<Connection, PreparedStatementCache> statementCacheTable      = new ConcurrentHashMap<Connection, PreparedStatementCache>();
+
+    private final CacheStatistics                                 statementCacheStatistics = new CacheStatistics();
+    private final CacheStatistics                                 schemaCacheStatistics    = new CacheStatistics();
 
     public DatabaseAccessBase(ConnectionPool connectionPool) throws DBException {
         _connectionPool = connectionPool;
@@ -81,6 +99,9 @@ public class DatabaseAccessBase implements DatabaseAccess
     }
 
     public void dispose() throws DBException {
+        for (PreparedStatementCache each : statementCacheTable.values())
+            each.clear();
+        statementCacheTable.clear();
         _connectionPool.closeAll();
     }
 
@@ -166,27 +187,30 @@ public class DatabaseAccessBase implements DatabaseAccess
      */
     public <T> void query(String sql, ResultSetHandler<T> pullHandler) throws DBException {
         Connection connection = null;
+        PreparedStatement statement = null;
+        boolean succeeded = false;
         try {
             connection = getConnection(true);
-            Statement statement = createStatement(connection);
+            statement = prepareStatement(connection, sql);
             _logger.debug(sql);
 
             pullHandler.init();
 
-            ResultSet rs = statement.executeQuery(sql);
+            ResultSet rs = statement.executeQuery();
             while (rs.next()) {
                 pullHandler.handle(rs);
             }
             rs.close();
-            statement.close();
+            succeeded = true;
         }
         catch (SQLException e) {
             throw new DBException(DBErrorCode.QueryError, e);
         }
         finally {
-
-            if (connection != null)
+            if (connection != null) {
+                releaseStatement(connection, sql, statement, succeeded);
                 _connectionPool.returnConnection(connection);
+            }
 
             pullHandler.finish();
         }
@@ -219,21 +243,37 @@ public class DatabaseAccessBase implements DatabaseAccess
 
     public <T> void query(String sql, Class<T> resultRowType, BeanResultHandler<T> beanResultHandler)
             throws DBException {
+        query(sql, null, resultRowType, beanResultHandler);
+    }
+
+    public <T> List<T> queryWithPreparedStatement(String sqlForPreparedStatement, PreparedStatementHandler handler,
+            Class<T> resultRowType) throws DBException {
+        BeanCollector<T> beanCollector = new BeanCollector<T>();
+        query(sqlForPreparedStatement, handler, resultRowType, beanCollector);
+        return beanCollector.result;
+    }
+
+    private <T> void query(String sql, PreparedStatementHandler parameterHandler, Class<T> resultRowType,
+            BeanResultHandler<T> beanResultHandler) throws DBException {
 
         Redirector<T> r = new Redirector<T>(beanResultHandler);
         Connection connection = null;
         ResultSet rs = null;
-        Statement stat = null;
+        PreparedStatement stat = null;
+        boolean succeeded = false;
         try {
             try {
                 connection = getConnection(true);
-                stat = createStatement(connection);
+                stat = prepareStatement(connection, sql);
                 _logger.debug(sql);
+                if (parameterHandler != null)
+                    parameterHandler.setup(stat);
 
-                rs = stat.executeQuery(sql);
+                rs = stat.executeQuery();
                 r.handler.init();
                 Lens.loadJDBCResultSet(resultRowType, rs, r);
                 r.handler.finish();
+                succeeded = true;
             }
             catch (Exception e) {
                 throw new DBException(DBErrorCode.QueryError, e);
@@ -241,10 +281,10 @@ public class DatabaseAccessBase implements DatabaseAccess
             finally {
                 if (rs != null)
                     rs.close();
-                if (stat != null)
-                    stat.close();
-                if (connection != null)
+                if (connection != null) {
+                    releaseStatement(connection, sql, stat, succeeded);
                     _connectionPool.returnConnection(connection);
+                }
             }
         }
         catch (SQLException e) {
@@ -253,6 +293,68 @@ public class DatabaseAccessBase implements DatabaseAccess
 
     }
 
+    public <T> ResultCursor<T> cursor(String sql, Class<T> resultRowType) throws DBException {
+        return cursor(sql, resultRowType, 0);
+    }
+
+    public <T> ResultCursor<T> cursor(String sql, Class<T> resultRowType, int prefetchSize) throws DBException {
+        Connection connection = null;
+        boolean restoreAutoCommit = false;
+        Statement statement = null;
+        ResultSet rs = null;
+        try {
+            connection = getConnection(true);
+            // Some drivers, e.g., PostgreSQL, ignore the fetch size in the auto-commit mode.
+            // The cursor reads the rows in a transaction, and restores the mode when closed.
+            if (connection.getAutoCommit()) {
+                connection.setAutoCommit(false);
+                restoreAutoCommit = true;
+            }
+            // The statement is not cached, since it is used until the cursor is closed
+            statement = connection.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setQueryTimeout(queryTimeout);
+            if (fetchSize != 0)
+                statement.setFetchSize(fetchSize);
+            _logger.debug(sql);
+
+            rs = statement.executeQuery(sql);
+            ResultCursor<T> cursor = new ResultCursor<T>(_connectionPool, connection, restoreAutoCommit, statement,
+                    rs, resultRowType, prefetchSize);
+            // the cursor returns the connection when closed
+            connection = null;
+            return cursor;
+        }
+        catch (SQLException e) {
+            throw new DBException(DBErrorCode.QueryError, e);
+        }
+        finally {
+            if (connection != null) {
+                if (rs != null) {
+                    try {
+                        rs.close();
+                    }
+                    catch (SQLException e) {
+                        _logger.error(e);
+                    }
+                }
+                close(statement);
+                if (restoreAutoCommit) {
+                    try {
+                        connection.setAutoCommit(true);
+                    }
+                    catch (SQLException e) {
+                        _logger.error(e);
+                    }
+                }
+                _connectionPool.returnConnection(connection);
+            }
+        }
+    }
+
+    public void setFetchSize(int fetchSize) {
+        this.fetchSize = fetchSize;
+    }
+
     /**
      * Accumulate the query result within the ResultSetHandler, then return the
      * result from the handler
@@ -265,30 +367,33 @@ public class DatabaseAccessBase implements DatabaseAccess
      */
     public <T> T accumulate(String sql, ResultSetHandler<T> handler) throws DBException {
         Connection connection = null;
+        PreparedStatement statement = null;
+        boolean succeeded = false;
         T result = null;
         try {
             connection = getConnection(true);
-            Statement statement = createStatement(connection);
+            statement = prepareStatement(connection, sql);
             _logger.debug(sql);
 
             handler.init();
 
-            ResultSet rs = statement.executeQuery(sql);
+            ResultSet rs = statement.executeQuery();
 
             while (rs.next()) {
                 result = handler.handle(rs);
             }
 
             rs.close();
-            statement.close();
-
+            succeeded = true;
         }
         catch (SQLException e) {
             throw new DBException(DBErrorCode.QueryError, e);
         }
         finally {
-            if (connection != null)
+            if (connection != null) {
+                releaseStatement(connection, sql, statement, succeeded);
                 _connectionPool.returnConnection(connection);
+            }
 
             handler.finish();
         }
@@ -301,18 +406,176 @@ public class DatabaseAccessBase implements DatabaseAccess
         return preparedStatement;
     }
 
+    /**
+     * Gets the prepared statement of the SQL from the statement cache of the
+     * connection. The statement must be released by
+     * {@link #releaseStatement(Connection, String, PreparedStatement, boolean)}
+     * before returning the connection to the pool.
+     */
+    private PreparedStatement prepareStatement(Connection connection, String sql) throws SQLException {
+        PreparedStatementCache cache = getStatementCache(connection);
+        if (cache == null)
+            return getPreparedStatement(connection, sql);
+
+        PreparedStatement preparedStatement = cache.get(sql);
+        if (preparedStatement == null) {
+            preparedStatement = getPreparedStatement(connection, sql);
+            cache.put(sql, preparedStatement);
+        }
+        return preparedStatement;
+    }
+
+    private PreparedStatementCache getStatementCache(Connection connection) {
+        final int capacity = statementCacheSize;
+        if (capacity <= 0)
+            return null;
+
+        // The connection is used only by the current thread until it is returned to the pool
+        final int version = schemaVersion.get();
+        PreparedStatementCache cache = statementCacheTable.get(connection);
+        if (cache == null || cache.capacity != capacity) {
+            if (cache != null)
+                cache.clear();
+            else {
+                // a new connection may replace the ones closed by the pool
+                removeStatementCachesOfClosedConnections();
+            }
+            cache = new PreparedStatementCache(capacity, statementCacheStatistics, version);
+            statementCacheTable.put(connection, cache);
+        }
+        else if (cache.schemaVersion != version) {
+            // the statements may refer to the old schema
+            cache.clear();
+            cache.schemaVersion = version;
+        }
+        return cache;
+    }
+
+    /**
+     * Drops the statement caches of the connections closed by the pool, e.g.,
+     * idle connections evicted by {@link ConcurrentConnectionPool} or the
+     * connections of {@link NaiveConnectionPool}, which are closed when
+     * returned. Since the cached statements refer to their connection, the
+     * caches of the closed connections would otherwise be kept until
+     * {@link #dispose()}.
+     */
+    private void removeStatementCachesOfClosedConnections() {
+        for (Map.Entry<Connection, PreparedStatementCache> each : statementCacheTable.entrySet()) {
+            boolean isClosed;
+            try {
+                isClosed = each.getKey().isClosed();
+            }
+            catch (SQLException e) {
+                _logger.debug(e);
+                isClosed = true;
+            }
+            if (isClosed && statementCacheTable.remove(each.getKey(), each.getValue()))
+                each.getValue().clear();
+        }
+    }
+
+    /**
+     * @return the number of connections that have the statement cache
+     */
+    int getNumStatementCaches() {
+        return statementCacheTable.size();
+    }
+
+    /**
+     * Keeps the statement in the cache, or closes the statement if it is not
+     * cached. Failed statements are removed from the cache.
+     */
+    private void releaseStatement(Connection connection, String sql, PreparedStatement preparedStatement,
+            boolean succeeded) {
+        if (preparedStatement == null)
+            return;
+
+        PreparedStatementCache cache = statementCacheTable.get(connection);
+        if (cache == null || !cache.contains(sql, preparedStatement)) {
+            close(preparedStatement);
+            return;
+        }
+
+        if (succeeded) {
+            try {
+                // release the parameter values, e.g., blobs
+                preparedStatement.clearParameters();
+                return;
+            }
+            catch (SQLException e) {
+                _logger.debug(e);
+            }
+        }
+        cache.remove(sql);
+    }
+
+    /**
+     * Sets the number of prepared statements cached for each connection. 0
+     * disables the statement cache
+     * 
+     * @param size
+     */
+    public void setStatementCacheSize(int size) {
+        this.statementCacheSize = size;
+    }
+
+    /**
+     * @return hit and miss counts of the prepared statement cache
+     */
+    public CacheStatistics getStatementCacheStatistics() {
+        return statementCacheStatistics;
+    }
+
+    /**
+     * @return hit and miss counts of the table schema cache used in
+     *         {@link #getRelation(String)}, {@link #getPrimaryKeyColumns(String)}
+     *         and {@link #getTableNameList()}
+     */
+    public CacheStatistics getSchemaCacheStatistics() {
+        return schemaCacheStatistics;
+    }
+
+    /**
+     * Clears the cached table schema and prepared statements. The cache is
+     * invalidated automatically when DDL statements (create, drop or alter)
+     * are issued through this object; call this method when the schema is
+     * modified by other programs.
+     */
+    public void invalidateSchemaCache() {
+        schemaVersion.incrementAndGet();
+        tableRelationCatalog.clear();
+        primaryKeyCatalog.clear();
+        insertBinderCatalog.clear();
+        tableNameList = null;
+    }
+
+    /**
+     * @param sql
+     * @return true if the SQL statement changes the schema
+     */
+    static boolean isDDL(String sql) {
+        int begin = 0;
+        while (begin < sql.length() && Character.isWhitespace(sql.charAt(begin)))
+            begin++;
+        return sql.regionMatches(true, begin, "create", 0, 6) || sql.regionMatches(true, begin, "drop", 0, 4)
+                || sql.regionMatches(true, begin, "alter", 0, 5);
+    }
+
     public int updateWithPreparedStatement(String sqlForPreparedStatement, PreparedStatementHandler handler)
             throws DBException {
+        final boolean isDDL = isDDL(sqlForPreparedStatement);
         Connection connection = null;
+        PreparedStatement preparedStatement = null;
+        boolean succeeded = false;
         try {
             connection = getConnection(false);
             _logger.debug(sqlForPreparedStatement);
-            PreparedStatement preparedStatement = getPreparedStatement(connection, sqlForPreparedStatement);
+            if (isDDL)
+                clearStatementCache(connection);
+            preparedStatement = prepareStatement(connection, sqlForPreparedStatement);
             handler.setup(preparedStatement);
             int ret = preparedStatement.executeUpdate();
-
-            preparedStatement.close();
-
+            succeeded = true;
             return ret;
         }
         catch (SQLException e) {
@@ -320,21 +583,37 @@ public class DatabaseAccessBase implements DatabaseAccess
         }
         finally {
             if (connection != null) {
+                releaseStatement(connection, sqlForPreparedStatement, preparedStatement, succeeded);
                 _connectionPool.returnConnection(connection);
             }
+            if (isDDL)
+                invalidateSchemaCache();
         }
 
     }
 
+    /**
+     * Closes the cached statements of the connection, since some databases
+     * cannot change the tables used by open statements
+     */
+    private void clearStatementCache(Connection connection) {
+        PreparedStatementCache cache = statementCacheTable.get(connection);
+        if (cache != null)
+            cache.clear();
+    }
+
     public int update(String sql) throws DBException {
         return update(sql, autoCommit);
     }
 
     public int update(String sql, boolean autoCommit) throws DBException {
+        final boolean isDDL = isDDL(sql);
         Connection connection = null;
         try {
             connection = getConnection(false);
             connection.setAutoCommit(autoCommit);
+            if (isDDL)
+                clearStatementCache(connection);
             Statement statement = createStatement(connection);
 
             _logger.debug(sql);
@@ -349,6 +628,8 @@ public class DatabaseAccessBase implements DatabaseAccess
             if (connection != null) {
                 _connectionPool.returnConnection(connection);
             }
+            if (isDDL)
+                invalidateSchemaCache();
         }
 
     }
@@ -399,13 +680,24 @@ public class DatabaseAccessBase implements DatabaseAccess
     }
 
     public Set<String> getPrimaryKeyColumns(String tableName) throws DBException {
+        Set<String> primaryKeyColumnSet = primaryKeyCatalog.get(tableName);
+        if (primaryKeyColumnSet != null) {
+            schemaCacheStatistics.hit();
+            return new HashSet<String>(primaryKeyColumnSet);
+        }
+        schemaCacheStatistics.miss();
 
+        final int version = schemaVersion.get();
         Connection connection = null;
 
         try {
             connection = getConnection(true);
             DatabaseMetaData metadata = connection.getMetaData();
-            return getPrimaryKeyColumns(metadata, tableName);
+            primaryKeyColumnSet = getPrimaryKeyColumns(metadata, tableName);
+            // do not cache the schema read before the last schema change
+            if (version == schemaVersion.get())
+                primaryKeyCatalog.put(tableName, new HashSet<String>(primaryKeyColumnSet));
+            return primaryKeyColumnSet;
         }
         catch (SQLException e) {
             throw new DBException(DBErrorCode.QueryError, e);
@@ -431,9 +723,14 @@ public class DatabaseAccessBase implements DatabaseAccess
     }
 
     public Relation getRelation(String tableName) throws DBException {
-        if (tableRelationCatalog.containsKey(tableName))
-            return tableRelationCatalog.get(tableName);
+        Relation cachedRelation = tableRelationCatalog.get(tableName);
+        if (cachedRelation != null) {
+            schemaCacheStatistics.hit();
+            return cachedRelation;
+        }
+        schemaCacheStatistics.miss();
 
+        final int version = schemaVersion.get();
         Relation relation = new Relation();
 
         Connection connection = null;
@@ -471,11 +768,20 @@ public class DatabaseAccessBase implements DatabaseAccess
                 _connectionPool.returnConnection(connection);
         }
 
-        tableRelationCatalog.put(tableName, relation);
+        if (version == schemaVersion.get())
+            tableRelationCatalog.put(tableName, relation);
         return relation;
     }
 
     public List<String> getTableNameList() throws DBException {
+        List<String> cachedTableNameList = this.tableNameList;
+        if (cachedTableNameList != null) {
+            schemaCacheStatistics.hit();
+            return new ArrayList<String>(cachedTableNameList);
+        }
+        schemaCacheStatistics.miss();
+
+        final int version = schemaVersion.get();
         ArrayList<String> tableNameList = new ArrayList<String>();
 
         Connection connection = null;
@@ -495,6 +801,8 @@ public class DatabaseAccessBase implements DatabaseAccess
                 _connectionPool.returnConnection(connection);
         }
 
+        if (version == schemaVersion.get())
+            this.tableNameList = new ArrayList<String>(tableNameList);
         return tableNameList;
     }
 
@@ -504,15 +812,17 @@ public class DatabaseAccessBase implements DatabaseAccess
 
     protected <T> List<T> queryWithHandler(String sql, ResultSetHandler<T> handler) throws DBException {
         Connection connection = null;
+        PreparedStatement statement = null;
+        boolean succeeded = false;
         ArrayList<T> result = new ArrayList<T>();
         try {
             connection = getConnection(true);
-            Statement statement = createStatement(connection);
+            statement = prepareStatement(connection, sql);
             _logger.debug(sql);
 
             handler.init();
 
-            ResultSet rs = statement.executeQuery(sql);
+            ResultSet rs = statement.executeQuery();
             while (rs.next()) {
                 T row = handler.handle(rs);
                 if (row != null)
@@ -522,14 +832,16 @@ public class DatabaseAccessBase implements DatabaseAccess
             }
 
             rs.close();
-            statement.close();
+            succeeded = true;
         }
         catch (SQLException e) {
             throw new DBException(DBErrorCode.QueryError, e);
         }
         finally {
-            if (connection != null)
+            if (connection != null) {
+                releaseStatement(connection, sql, statement, succeeded);
                 _connectionPool.returnConnection(connection);
+            }
 
             handler.finish();
         }
@@ -537,15 +849,168 @@ public class DatabaseAccessBase implements DatabaseAccess
     }
 
     public <T> int insert(String tableName, T bean) throws DBException {
-        String sql;
+        if (bean == null)
+            throw new DBException(DBErrorCode.InvalidInput, "null bean");
+
+        BeanInsertBinder binder = getInsertBinder(tableName, bean.getClass());
+        Connection connection = null;
+        PreparedStatement preparedStatement = null;
+        boolean succeeded = false;
         try {
-            sql = SQLExpression.fillTemplate("insert into $1 values($2)", tableName,
-                    createValueTupleFromBean(tableName, bean));
-            return update(sql);
+            connection = getConnection(false);
+            _logger.debug(binder.sql);
+            preparedStatement = prepareStatement(connection, binder.sql);
+            binder.setup(preparedStatement, bean);
+            int ret = preparedStatement.executeUpdate();
+            succeeded = true;
+            return ret;
+        }
+        catch (SQLException e) {
+            throw new DBException(DBErrorCode.UpdateError, e);
         }
         catch (XerialException e) {
             throw new DBException(DBErrorCode.InvalidBeanClass, e);
         }
+        finally {
+            if (connection != null) {
+                releaseStatement(connection, binder.sql, preparedStatement, succeeded);
+                _connectionPool.returnConnection(connection);
+            }
+        }
+    }
+
+    public <T> int insertAll(String tableName, Collection<T> beanList) throws DBException {
+        if (beanList.isEmpty())
+            return 0;
+        T first = beanList.iterator().next();
+        if (first == null)
+            throw new DBException(DBErrorCode.InvalidInput, "null bean");
+
+        BeanInsertBinder binder = getInsertBinder(tableName, first.getClass());
+        return updateBatch(binder.sql, beanList, binder);
+    }
+
+    /**
+     * Gets the insert statement of the table for the bean class. The statements
+     * are cached for each table.
+     */
+    private BeanInsertBinder getInsertBinder(String tableName, Class< ? > beanType) throws DBException {
+        BeanInsertBinder binder = insertBinderCatalog.get(tableName);
+        if (binder == null || binder.beanType != beanType) {
+            binder = new BeanInsertBinder(tableName, getRelation(tableName), beanType);
+            insertBinderCatalog.put(tableName, binder);
+        }
+        return binder;
+    }
+
+    public <T> int updateBatch(String sqlForPreparedStatement, Iterable<T> rows,
+            PreparedStatementBatchHandler< ? super T> handler) throws DBException {
+        Connection connection = null;
+        PreparedStatement preparedStatement = null;
+        // In the auto-commit mode, this method manages the transactions
+        final boolean manageTransaction = autoCommit;
+        boolean succeeded = false;
+        try {
+            connection = getConnection(false);
+            if (manageTransaction)
+                connection.setAutoCommit(false);
+            _logger.debug(sqlForPreparedStatement);
+            preparedStatement = prepareStatement(connection, sqlForPreparedStatement);
+
+            int updateCount = 0;
+            int rowsInBatch = 0;
+            int rowsInTransaction = 0;
+            for (T row : rows) {
+                handler.setup(preparedStatement, row);
+                preparedStatement.addBatch();
+
+                if (++rowsInBatch >= batchSize) {
+                    updateCount += executeBatch(preparedStatement);
+                    rowsInBatch = 0;
+                }
+                if (manageTransaction && rowsPerTransaction > 0 && ++rowsInTransaction >= rowsPerTransaction) {
+                    if (rowsInBatch > 0) {
+                        updateCount += executeBatch(preparedStatement);
+                        rowsInBatch = 0;
+                    }
+                    connection.commit();
+                    rowsInTransaction = 0;
+                }
+            }
+            if (rowsInBatch > 0)
+                updateCount += executeBatch(preparedStatement);
+            if (manageTransaction)
+                connection.commit();
+            succeeded = true;
+            return updateCount;
+        }
+        catch (SQLException e) {
+            rollback(connection, manageTransaction);
+            throw new DBException(DBErrorCode.UpdateError, e);
+        }
+        catch (XerialException e) {
+            rollback(connection, manageTransaction);
+            throw new DBException(DBErrorCode.UpdateError, e);
+        }
+        catch (RuntimeException e) {
+            rollback(connection, manageTransaction);
+            throw e;
+        }
+        finally {
+            if (connection != null) {
+                releaseStatement(connection, sqlForPreparedStatement, preparedStatement, succeeded);
+                if (manageTransaction) {
+                    try {
+                        connection.setAutoCommit(true);
+                    }
+                    catch (SQLException e) {
+                        _logger.error(e);
+                    }
+                }
+                _connectionPool.returnConnection(connection);
+            }
+        }
+    }
+
+    private static int executeBatch(PreparedStatement preparedStatement) throws SQLException {
+        int count = 0;
+        for (int each : preparedStatement.executeBatch()) {
+            // some drivers do not report the update count of each row
+            count += (each == Statement.SUCCESS_NO_INFO) ? 1 : each;
+        }
+        return count;
+    }
+
+    private static void rollback(Connection connection, boolean manageTransaction) {
+        if (connection == null || !manageTransaction)
+            return;
+        try {
+            connection.rollback();
+        }
+        catch (SQLException e) {
+            _logger.error(e);
+        }
+    }
+
+    private static void close(Statement statement) {
+        if (statement == null)
+            return;
+        try {
+            statement.close();
+        }
+        catch (SQLException e) {
+            _logger.error(e);
+        }
+    }
+
+    public void setBatchSize(int batchSize) {
+        if (batchSize <= 0)
+            throw new IllegalArgumentException("batch size must be positive: " + batchSize);
+        this.batchSize = batchSize;
+    }
+
+    public void setRowsPerTransaction(int rowsPerTransaction) {
+        this.rowsPerTransaction = rowsPerTransaction;
     }
 
     /**
@@ -628,10 +1093,12 @@ public class DatabaseAccessBase implements DatabaseAccess
     public int insertAndRetrieveKeysWithPreparedStatement(String sqlForPreparedStatment,
             PreparedStatementHandler handler) throws DBException {
         Connection connection = null;
+        PreparedStatement preparedStatement = null;
+        boolean succeeded = false;
         try {
             connection = getConnection(false);
             connection.setAutoCommit(autoCommit);
-            PreparedStatement preparedStatement = getPreparedStatement(connection, sqlForPreparedStatment);
+            preparedStatement = prepareStatement(connection, sqlForPreparedStatment);
             handler.setup(preparedStatement);
             int ret = preparedStatement.executeUpdate();
 
@@ -641,7 +1108,7 @@ public class DatabaseAccessBase implements DatabaseAccess
                 id = rs.getInt(1);
             }
             rs.close();
-            preparedStatement.close();
+            succeeded = true;
             return id;
         }
         catch (SQLException e) {
@@ -649,6 +1116,7 @@ public class DatabaseAccessBase implements DatabaseAccess
         }
         finally {
             if (connection != null) {
+                releaseStatement(connection, sqlForPreparedStatment, preparedStatement, succeeded);
                 _connectionPool.returnConnection(connection);
             }
         }
@@ -224,6 +224,30 @@ public interface ObjectStorage
      */
     public <T> List<T> getAll(Class<T> classType, QueryParam queryParam) throws DBException;
 
+    /**
+     * Opens a cursor over all of the objects of the type T, which reads the
+     * objects from the database while iterating the cursor. The cursor must be
+     * closed unless all of the objects are read.
+     * 
+     * @param <T>
+     * @param classType
+     * @return
+     * @throws DBException
+     */
+    public <T> ResultCursor<T> cursor(Class<T> classType) throws DBException;
+
+    /**
+     * Opens a cursor over the objects of the type T selected by the
+     * {@link QueryParam}
+     * 
+     * @param <T>
+     * @param classType
+     * @param queryParam
+     * @return
+     * @throws DBException
+     */
+    public <T> ResultCursor<T> cursor(Class<T> classType, QueryParam queryParam) throws DBException;
+
     /**
      * Count the number of rows of the class T
      * 
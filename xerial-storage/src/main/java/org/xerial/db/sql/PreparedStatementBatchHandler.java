@@ -0,0 +1,45 @@
+/*--------------------------------------------------------------------------
+ *  Copyright 2011 Taro L. Saito
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *--------------------------------------------------------------------------*/
+//--------------------------------------
+// XerialJ
+//
+// PreparedStatementBatchHandler.java
+// Since: 2026/10/17
+//
+// $URL$
+// $Author$
+//--------------------------------------
+package org.xerial.db.sql;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+import org.xerial.core.XerialException;
+
+/**
+ * A handler interface for setting up a PreparedStatement for each row of a
+ * batch update
+ * 
+ * @author leo
+ * 
+ * @param <T>
+ *            row type
+ */
+public interface PreparedStatementBatchHandler<T>
+{
+    public void setup(PreparedStatement preparedStatement, T row) throws SQLException, XerialException;
+
+}
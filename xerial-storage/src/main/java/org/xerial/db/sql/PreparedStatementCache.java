@@ -0,0 +1,128 @@
+/*--------------------------------------------------------------------------
+ *  Copyright 2011 Taro L. Saito
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *--------------------------------------------------------------------------*/
+//--------------------------------------
+// XerialJ
+//
+// PreparedStatementCache.java
+// Since: 2026/10/17
+//
+// $URL$
+// $Author$
+//--------------------------------------
+package org.xerial.db.sql;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.xerial.util.log.Logger;
+
+/**
+ * LRU cache of the prepared statements of a connection, keyed by SQL text.
+ * Since a connection is used by a single thread at a time, this class is not
+ * synchronized.
+ * 
+ * @author leo
+ * 
+ */
+class PreparedStatementCache
+{
+    private static Logger                                     _logger = Logger.getLogger(PreparedStatementCache.class);
+
+    private final LinkedHashMap<String, PreparedStatement>    statementTable;
+    private final CacheStatistics                             statistics;
+    final int                                                 capacity;
+    /**
+     * version of the database schema when the cached statements are prepared
+     */
+    int                                                       schemaVersion;
+
+    PreparedStatementCache(final int capacity, CacheStatistics statistics, int schemaVersion) {
+        this.capacity = capacity;
+        this.statistics = statistics;
+        this.schemaVersion = schemaVersion;
+        this.statementTable = new LinkedHashMap<String, PreparedStatement>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+                if (size() <= capacity)
+                    return false;
+                close(eldest.getValue());
+                return true;
+            }
+        };
+    }
+
+    /**
+     * @param sql
+     * @return the cached statement for the SQL, or null if not found
+     */
+    PreparedStatement get(String sql) {
+        PreparedStatement statement = statementTable.get(sql);
+        if (statement != null)
+            statistics.hit();
+        else
+            statistics.miss();
+        return statement;
+    }
+
+    void put(String sql, PreparedStatement statement) {
+        PreparedStatement prev = statementTable.put(sql, statement);
+        if (prev != null && prev != statement)
+            close(prev);
+    }
+
+    boolean contains(String sql, PreparedStatement statement) {
+        return statementTable.get(sql) == statement;
+    }
+
+    /**
+     * Removes and closes the statement, e.g., when it fails
+     * 
+     * @param sql
+     */
+    void remove(String sql) {
+        PreparedStatement statement = statementTable.remove(sql);
+        if (statement != null)
+            close(statement);
+    }
+
+    /**
+     * Closes all of the cached statements
+     */
+    void clear() {
+        for (PreparedStatement each : statementTable.values())
+            close(each);
+        statementTable.clear();
+    }
+
+    int size() {
+        return statementTable.size();
+    }
+
+    private void close(PreparedStatement statement) {
+        statistics.evict();
+        try {
+            statement.close();
+        }
+        catch (SQLException e) {
+            _logger.debug(e);
+        }
+    }
+
+}
@@ -0,0 +1,373 @@
+/*--------------------------------------------------------------------------
+ *  Copyright 2011 Taro L. Saito
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *--------------------------------------------------------------------------*/
+//--------------------------------------
+// XerialJ
+//
+// ResultCursor.java
+// Since: 2026/10/17
+//
+// $URL$
+// $Author$
+//--------------------------------------
+package org.xerial.db.sql;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.xerial.core.XerialError;
+import org.xerial.core.XerialException;
+import org.xerial.db.DBErrorCode;
+import org.xerial.db.DBException;
+import org.xerial.lens.JDBCLens;
+import org.xerial.lens.JDBCRowMapper;
+import org.xerial.util.log.Logger;
+
+/**
+ * Cursor over the rows of an SQL query result, each of which is bound to an
+ * object of the row type. Unlike {@link DatabaseAccess#query(String, Class)},
+ * the rows are read from the database while iterating the cursor, so that
+ * large tables can be processed without holding all of the rows in memory.
+ * 
+ * <p>
+ * The cursor holds a connection of the {@link ConnectionPool} until it is
+ * closed. The cursor is closed automatically when all of the rows are read;
+ * otherwise {@link #close()} must be called, e.g., in a finally block. The
+ * rows are read in a transaction, since some JDBC drivers (e.g., PostgreSQL)
+ * stream the rows only when the auto-commit mode is disabled. The auto-commit
+ * mode of the connection is restored when the cursor is closed.
+ * 
+ * <p>
+ * When a prefetch size is given, a background thread reads and binds up to
+ * that number of rows ahead of the consumer. This does not increase the
+ * throughput of reading rows: handing the rows over to the consumer thread
+ * costs more than it saves when the database is local or only one CPU is
+ * available. Use the prefetch to overlap the network wait of a remote
+ * database with the processing of the consumer, which takes a comparable time
+ * for each row.
+ * 
+ * <pre>
+ * ResultCursor&lt;Gene&gt; cursor = dbAccess.cursor(&quot;select * from gene&quot;, Gene.class);
+ * try {
+ *     for (Gene each : cursor) {
+ *         ...
+ *     }
+ * }
+ * finally {
+ *     cursor.close();
+ * }
+ * </pre>
+ * 
+ * Errors while reading rows are reported as {@link XerialError} from
+ * {@link #hasNext()} and {@link #next()}.
+ * 
+ * @author leo
+ * 
+ */
+public class ResultCursor<T> implements Iterator<T>, Iterable<T>
+{
+    private static Logger             _logger         = Logger.getLogger(ResultCursor.class);
+
+    /**
+     * marker of the end of rows in the prefetch queue
+     */
+    private static final Object       END_OF_ROWS     = new Object();
+
+    private final ConnectionPool      connectionPool;
+    private final Connection          connection;
+    private final boolean             restoreAutoCommit;
+    private final Statement           statement;
+    private final ResultSet           resultSet;
+    private final JDBCRowMapper<T>    rowMapper;
+
+    private final Prefetcher          prefetcher;
+
+    private T                         nextRow         = null;
+    private boolean                   hasNextRow      = false;
+    private boolean                   closed          = false;
+
+    /**
+     * Creates a cursor, which takes over the statement and the connection.
+     * 
+     * @param restoreAutoCommit
+     *            enables the auto-commit mode of the connection when the
+     *            cursor is closed
+     */
+    ResultCursor(ConnectionPool connectionPool, Connection connection, boolean restoreAutoCommit,
+            Statement statement, ResultSet resultSet, Class<T> rowType, int prefetchSize) throws SQLException {
+        this.connectionPool = connectionPool;
+        this.connection = connection;
+        this.restoreAutoCommit = restoreAutoCommit;
+        this.statement = statement;
+        this.resultSet = resultSet;
+        this.rowMapper = JDBCLens.getJDBCLens(rowType).getRowMapper(resultSet);
+
+        if (prefetchSize > 0) {
+            prefetcher = new Prefetcher(prefetchSize);
+            prefetcher.start();
+        }
+        else
+            prefetcher = null;
+    }
+
+    public Iterator<T> iterator() {
+        return this;
+    }
+
+    public boolean hasNext() {
+        if (hasNextRow)
+            return true;
+        if (closed)
+            return false;
+
+        try {
+            Object row = (prefetcher != null) ? prefetcher.take() : readRow();
+            if (row == END_OF_ROWS) {
+                close();
+                return false;
+            }
+            nextRow = cast(row);
+            hasNextRow = true;
+            return true;
+        }
+        catch (DBException e) {
+            closeQuietly();
+            throw new XerialError(e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private T cast(Object row) {
+        return (T) row;
+    }
+
+    public T next() {
+        if (!hasNext())
+            throw new NoSuchElementException();
+        T row = nextRow;
+        nextRow = null;
+        hasNextRow = false;
+        return row;
+    }
+
+    public void remove() {
+        throw new UnsupportedOperationException("remove");
+    }
+
+    /**
+     * Reads the next row from the result set
+     * 
+     * @return the bound object, or END_OF_ROWS
+     * @throws DBException
+     */
+    private Object readRow() throws DBException {
+        try {
+            if (!resultSet.next())
+                return END_OF_ROWS;
+            return rowMapper.map(resultSet);
+        }
+        catch (SQLException e) {
+            throw new DBException(DBErrorCode.QueryError, e);
+        }
+        catch (XerialException e) {
+            throw new DBException(DBErrorCode.InvalidBeanClass, e);
+        }
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Closes the result set, ends the transaction of the cursor, and returns
+     * the connection to the pool
+     * 
+     * @throws DBException
+     */
+    public void close() throws DBException {
+        if (closed)
+            return;
+        closed = true;
+        hasNextRow = false;
+        nextRow = null;
+
+        if (prefetcher != null)
+            prefetcher.cancel();
+
+        try {
+            resultSet.close();
+            statement.close();
+        }
+        catch (SQLException e) {
+            throw new DBException(DBErrorCode.QueryError, e);
+        }
+        finally {
+            releaseConnection();
+        }
+    }
+
+    private void releaseConnection() {
+        try {
+            // commits the read-only transaction
+            if (restoreAutoCommit)
+                connection.setAutoCommit(true);
+        }
+        catch (SQLException e) {
+            _logger.error(e);
+        }
+        finally {
+            connectionPool.returnConnection(connection);
+        }
+    }
+
+    private void closeQuietly() {
+        try {
+            close();
+        }
+        catch (DBException e) {
+            _logger.error(e);
+        }
+    }
+
+    /**
+     * Error in the prefetch thread, which is passed to the consumer
+     */
+    private static class Failure
+    {
+        final DBException cause;
+
+        Failure(DBException cause) {
+            this.cause = cause;
+        }
+    }
+
+    /**
+     * Reads the rows in a background thread, and passes them to the consumer
+     * through a bounded queue. The rows are passed in chunks to reduce the
+     * synchronization between the threads. The result set is used only by
+     * this thread until the thread terminates.
+     * 
+     * @author leo
+     * 
+     */
+    private class Prefetcher extends Thread
+    {
+        private static final int                   MAX_CHUNK_SIZE = 64;
+
+        private final int                          chunkSize;
+        private final ArrayBlockingQueue<Object[]> queue;
+        private volatile boolean                   cancelled      = false;
+
+        // used by the consumer thread
+        private Object[]                           chunk          = null;
+        private int                                cursor         = 0;
+
+        Prefetcher(int prefetchSize) {
+            super("xerial-result-cursor");
+            setDaemon(true);
+            chunkSize = Math.min(prefetchSize, MAX_CHUNK_SIZE);
+            queue = new ArrayBlockingQueue<Object[]>(Math.max(1, prefetchSize / chunkSize));
+        }
+
+        @Override
+        public void run() {
+            Object[] buffer = new Object[chunkSize];
+            int size = 0;
+            for (;;) {
+                Object row;
+                try {
+                    row = readRow();
+                }
+                catch (DBException e) {
+                    row = new Failure(e);
+                }
+                catch (RuntimeException e) {
+                    row = new Failure(new DBException(DBErrorCode.QueryError, e));
+                }
+
+                buffer[size++] = row;
+                boolean isLast = (row == END_OF_ROWS || row instanceof Failure);
+                if (size == chunkSize || isLast) {
+                    if (!put(buffer) || isLast)
+                        return;
+                    buffer = new Object[chunkSize];
+                    size = 0;
+                }
+            }
+        }
+
+        /**
+         * @return false if the cursor is cancelled
+         */
+        private boolean put(Object[] rows) {
+            try {
+                while (!cancelled) {
+                    if (queue.offer(rows, 100, TimeUnit.MILLISECONDS))
+                        return true;
+                }
+            }
+            catch (InterruptedException e) {
+                _logger.debug(e);
+            }
+            return false;
+        }
+
+        Object take() throws DBException {
+            try {
+                if (chunk == null || cursor >= chunk.length) {
+                    chunk = queue.take();
+                    cursor = 0;
+                }
+                Object row = chunk[cursor];
+                chunk[cursor++] = null;
+                if (row instanceof Failure)
+                    throw ((Failure) row).cause;
+                return row;
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new DBException(DBErrorCode.ThreadInterruption, e);
+            }
+        }
+
+        /**
+         * Stops the thread before the result set is closed
+         */
+        void cancel() {
+            // Do not interrupt the thread, since some JDBC drivers close the database files when interrupted
+            cancelled = true;
+            boolean interrupted = false;
+            while (isAlive()) {
+                try {
+                    join();
+                }
+                catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            queue.clear();
+            chunk = null;
+            if (interrupted)
+                Thread.currentThread().interrupt();
+        }
+    }
+
+}
@@ -30,7 +30,7 @@ import org.xerial.db.DBException;
 import org.xerial.db.Relation;
 import org.xerial.db.datatype.DataType;
 import org.xerial.db.datatype.TypeName;
-import org.xerial.db.sql.ConnectionPoolImpl;
+import org.xerial.db.sql.ConcurrentConnectionPool;
 import org.xerial.db.sql.DatabaseAccessBase;
 import org.xerial.util.StringUtil;
 
@@ -46,12 +46,12 @@ public class H2Access extends DatabaseAccessBase
      */
     public H2Access() throws DBException
     {
-        super(new ConnectionPoolImpl(DRIVER_NAME, ADDRESS_PREFIX + "mem:"));
+        super(new ConcurrentConnectionPool(DRIVER_NAME, ADDRESS_PREFIX + "mem:"));
     }
 
     public H2Access(String address) throws DBException
     {
-        super(new ConnectionPoolImpl(DRIVER_NAME, ADDRESS_PREFIX + address));
+        super(new ConcurrentConnectionPool(DRIVER_NAME, ADDRESS_PREFIX + address));
     }
 
     @Override
@@ -26,6 +26,7 @@ package org.xerial.db.sql.impl;
 
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.sql.Types;
 import java.text.DateFormat;
 import java.text.ParseException;
 import java.util.ArrayList;
@@ -44,9 +45,11 @@ import org.xerial.db.Relation;
 import org.xerial.db.datatype.DataType;
 import org.xerial.db.sql.DatabaseAccess;
 import org.xerial.db.sql.ObjectStorage;
+import org.xerial.db.sql.PreparedStatementBatchHandler;
 import org.xerial.db.sql.PreparedStatementHandler;
 import org.xerial.db.sql.QueryParam;
 import org.xerial.db.sql.RelationBuilder;
+import org.xerial.db.sql.ResultCursor;
 import org.xerial.db.sql.SQLExpression;
 import org.xerial.util.Pair;
 import org.xerial.util.Predicate;
@@ -102,25 +105,25 @@ public class ObjectStorageImpl implements ObjectStorage
             setCreatedAtTimeStamp(bean, now);
             setModifiedAtTimeStamp(bean, now);
 
-            final Pair<List<Pair<DataType, String>>, List<byte[]>> valueData = retrieveColumnValueAndBlobList(r, bean);
-
-            ArrayList<String> valueList = new ArrayList<String>();
-            for (Pair<DataType, String> pair : valueData.getFirst()) {
-                valueList.add(pair.getSecond());
+            final List<DataType> columnList = new ArrayList<DataType>();
+            ArrayList<String> markList = new ArrayList<String>();
+            for (DataType dt : r.getDataTypeList()) {
+                if (dt.getName().equals("id"))
+                    continue; // skip ID attribute
+                columnList.add(dt);
+                markList.add("?");
             }
 
+            // the values are bound to the prepared statement, so that the statement can be reused
             String sql = SQLExpression.fillTemplate("insert into $1($2) values($3)", tableName,
-                    StringUtil.join(writableAttributeList(r), ", "), StringUtil.join(valueList, ", "));
+                    StringUtil.join(writableAttributeList(r), ", "), StringUtil.join(markList, ", "));
 
+            final T newBean = bean;
             int lastGeneratedID = dbAccess.insertAndRetrieveKeysWithPreparedStatement(sql,
                     new PreparedStatementHandler() {
 
                         public void setup(PreparedStatement preparedStatement) throws SQLException {
-                            int index = 1;
-                            for (byte[] blob : valueData.getSecond()) {
-                                preparedStatement.setBytes(index++, blob);
-                            }
-
+                            bindColumnValues(preparedStatement, columnList, newBean);
                         }
                     });
             setBeanID(bean, lastGeneratedID);
@@ -316,10 +319,10 @@ public class ObjectStorageImpl implements ObjectStorage
 
     public <T> T get(Class<T> classType, int id) throws DBException {
         String tableName = getTableName(classType);
-        String sql = SQLExpression.fillTemplate("select $1 from $2 where id = $3", getSelectColumnList(classType),
-                tableName, id);
+        String sql = SQLExpression.fillTemplate("select $1 from $2 where id = ?", getSelectColumnList(classType),
+                tableName);
 
-        List<T> result = dbAccess.query(sql, classType);
+        List<T> result = queryByID(sql, classType, id);
         if (result.size() > 0)
             return result.get(0);
         else
@@ -343,9 +346,9 @@ public class ObjectStorageImpl implements ObjectStorage
         int startPointID = getBeanID(startPoint);
         String tableName = getTableName(associatedType);
         String parentIDColumnName = getAssociatedIDColumnName(startPoint.getClass());
-        String sql = SQLExpression.fillTemplate("select $1 from $2 u where $3 = $4 order by u.id",
-                getSelectColumnList(associatedType, "u."), tableName, parentIDColumnName, startPointID);
-        return dbAccess.query(sql, associatedType);
+        String sql = SQLExpression.fillTemplate("select $1 from $2 u where $3 = ? order by u.id",
+                getSelectColumnList(associatedType, "u."), tableName, parentIDColumnName);
+        return queryByID(sql, associatedType, startPointID);
     }
 
     public <T, U> List<U> getAll(T startPoint, Class<U> associatedType, QueryParam queryParam) throws DBException {
@@ -356,9 +359,9 @@ public class ObjectStorageImpl implements ObjectStorage
     public <T, U> List<U> getAll(Class<T> startPointClass, int idOfT, Class<U> associtedType) throws DBException {
         String tableName = getTableName(associtedType);
         String parentIDColumnnString = getAssociatedIDColumnName(startPointClass);
-        String sql = SQLExpression.fillTemplate("select $1 from $2 where $3 = $4", getSelectColumnList(associtedType),
-                tableName, parentIDColumnnString, idOfT);
-        return dbAccess.query(sql, associtedType);
+        String sql = SQLExpression.fillTemplate("select $1 from $2 where $3 = ?", getSelectColumnList(associtedType),
+                tableName, parentIDColumnnString);
+        return queryByID(sql, associtedType, idOfT);
     }
 
     public <T, U> List<U> getAll(Class<T> startPointClass, int idOfT, Class<U> associatedType, QueryParam queryParam)
@@ -400,9 +403,9 @@ public class ObjectStorageImpl implements ObjectStorage
         String parentIDColumnName = getAssociatedIDColumnName(startPoint.getClass());
         int parentID = getBeanID(startPoint);
 
-        String sql = SQLExpression.fillTemplate("select $5 from $1 where $2 = $3 and id = $4", tableNameOfU,
-                parentIDColumnName, parentID, idOfU, getSelectColumnList(associatedType));
-        List<U> result = dbAccess.query(sql, associatedType);
+        String sql = SQLExpression.fillTemplate("select $3 from $1 where $2 = ? and id = ?", tableNameOfU,
+                parentIDColumnName, getSelectColumnList(associatedType));
+        List<U> result = queryByID(sql, associatedType, parentID, idOfU);
         if (result.size() > 0)
             return result.get(0);
         else
@@ -429,10 +432,10 @@ public class ObjectStorageImpl implements ObjectStorage
         String parentIDColumnName = getAssociatedIDColumnName(parent);
         String parent2IDColumnName = getAssociatedIDColumnName(parent2);
 
-        String sql = SQLExpression.fillTemplate("select $1 from $2 where $3 = $4 and $5 = $6",
-                getSelectColumnList(objectType), tableNameOfV, parentIDColumnName, idOfT, parent2IDColumnName, idOfU);
+        String sql = SQLExpression.fillTemplate("select $1 from $2 where $3 = ? and $4 = ?",
+                getSelectColumnList(objectType), tableNameOfV, parentIDColumnName, parent2IDColumnName);
 
-        List<V> result = dbAccess.query(sql, objectType);
+        List<V> result = queryByID(sql, objectType, idOfT, idOfU);
         if (result.size() > 0)
             return result.get(0);
         else
@@ -443,9 +446,9 @@ public class ObjectStorageImpl implements ObjectStorage
         String tableNameOfU = getTableName(associatedType);
         String parentIDColumnName = getAssociatedIDColumnName(startPointClass);
 
-        String sql = SQLExpression.fillTemplate("select $1 from $2 where $3 = $4", getSelectColumnList(associatedType),
-                tableNameOfU, parentIDColumnName, idOfT);
-        List<U> result = dbAccess.query(sql, associatedType);
+        String sql = SQLExpression.fillTemplate("select $1 from $2 where $3 = ?", getSelectColumnList(associatedType),
+                tableNameOfU, parentIDColumnName);
+        List<U> result = queryByID(sql, associatedType, idOfT);
         if (result.size() > 0)
             return result.get(0);
         else
@@ -457,9 +460,9 @@ public class ObjectStorageImpl implements ObjectStorage
         String tableNameOfU = getTableName(associatedType);
         String parentIDColumnName = getAssociatedIDColumnName(startPointClass);
 
-        String sql = SQLExpression.fillTemplate("select $1 from $2 where $3 = $4 and id = $5",
-                getSelectColumnList(associatedType), tableNameOfU, parentIDColumnName, idOfT, idOfU);
-        List<U> result = dbAccess.query(sql, associatedType);
+        String sql = SQLExpression.fillTemplate("select $1 from $2 where $3 = ? and id = ?",
+                getSelectColumnList(associatedType), tableNameOfU, parentIDColumnName);
+        List<U> result = queryByID(sql, associatedType, idOfT, idOfU);
         if (result.size() > 0)
             return result.get(0);
         else
@@ -469,9 +472,9 @@ public class ObjectStorageImpl implements ObjectStorage
     public <T, U> T getParent(U child, Class<T> parentType) throws DBException {
         int parentID = getAssociatedBeanID(child, parentType);
         String parentTableName = getTableName(parentType);
-        String sql = SQLExpression.fillTemplate("select $1 from $2 where id = $3", getSelectColumnList(parentType),
-                parentTableName, parentID);
-        List<T> result = dbAccess.query(sql, parentType);
+        String sql = SQLExpression.fillTemplate("select $1 from $2 where id = ?", getSelectColumnList(parentType),
+                parentTableName);
+        List<T> result = queryByID(sql, parentType, parentID);
         if (result == null || result.size() <= 0)
             return null;
         else
@@ -482,9 +485,9 @@ public class ObjectStorageImpl implements ObjectStorage
     public <T, U> T getParent(Class<T> parentClass, Class<U> childClass, int idOfU) throws DBException {
         String parentTableName = getTableName(parentClass);
         String childTableName = getTableName(childClass);
-        String sql = SQLExpression.fillTemplate("select $1 from $2 t, $3 u where u.id = $4",
-                getSelectColumnList(parentClass, "t."), parentTableName, childTableName, idOfU);
-        List<T> result = dbAccess.query(sql, parentClass);
+        String sql = SQLExpression.fillTemplate("select $1 from $2 t, $3 u where u.id = ?",
+                getSelectColumnList(parentClass, "t."), parentTableName, childTableName);
+        List<T> result = queryByID(sql, parentClass, idOfU);
         if (result == null || result.size() <= 0)
             return null;
         else
@@ -492,6 +495,20 @@ public class ObjectStorageImpl implements ObjectStorage
 
     }
 
+    /**
+     * Performs the query whose '?' marks are filled with the IDs. The query
+     * goes through the prepared statement cache, since the SQL text does not
+     * depend on the IDs.
+     */
+    private <T> List<T> queryByID(String sql, Class<T> resultType, final int... ids) throws DBException {
+        return dbAccess.queryWithPreparedStatement(sql, new PreparedStatementHandler() {
+            public void setup(PreparedStatement preparedStatement) throws SQLException {
+                for (int i = 0; i < ids.length; i++)
+                    preparedStatement.setInt(i + 1, ids[i]);
+            }
+        }, resultType);
+    }
+
     public <T, U> void oneToOne(Class<T> from, Class<U> to) throws DBException {
         associatedClassOfOneToOneRelationship.put(from, to);
     }
@@ -621,22 +638,17 @@ public class ObjectStorageImpl implements ObjectStorage
         String tableName = getTableName(beanType);
 
         try {
-            Relation r = getRelation(beanType);
-            int id = getBeanID(bean);
+            final int id = getBeanID(bean);
 
             Date now = getNowDate();
             setModifiedAtTimeStamp(bean, now);
 
-            final Pair<String, List<byte[]>> setValueList = createUpdateStatement(r, bean);
-            String sql = SQLExpression.fillTemplate("update $1 set $2 where id = $3", tableName,
-                    setValueList.getFirst(), id);
-
-            dbAccess.updateWithPreparedStatement(sql, new PreparedStatementHandler() {
+            final List<DataType> columnList = getUpdatableColumnList(beanType);
+            final T updatedBean = bean;
+            dbAccess.updateWithPreparedStatement(createUpdateSQL(tableName, columnList), new PreparedStatementHandler() {
                 public void setup(PreparedStatement preparedStatement) throws SQLException {
-                    int index = 1;
-                    for (byte[] blob : setValueList.getSecond()) {
-                        preparedStatement.setBytes(index++, blob);
-                    }
+                    int index = bindColumnValues(preparedStatement, columnList, updatedBean);
+                    preparedStatement.setInt(index, id);
                 }
             });
 
@@ -648,35 +660,105 @@ public class ObjectStorageImpl implements ObjectStorage
 
     public <T> void saveAll(Class<T> classType, Collection<T> objectList) throws DBException {
         String tableName = getTableName(classType);
-        Date now = getNowDate();
-        try {
-            Relation r = getRelation(classType);
-            dbAccess.update("begin transaction");
-            for (T bean : objectList) {
-                int id = getBeanID(bean);
+        final Date now = getNowDate();
 
-                setModifiedAtTimeStamp(bean, now);
+        final List<DataType> columnList = getUpdatableColumnList(classType);
+        String sql = createUpdateSQL(tableName, columnList);
 
-                final Pair<String, List<byte[]>> setValueList = createUpdateStatement(r, bean);
-                String sql = SQLExpression.fillTemplate("update $1 set $2 where id = $3", tableName,
-                        setValueList.getFirst(), id);
+        // a single prepared statement is reused for all of the objects
+        dbAccess.updateBatch(sql, objectList, new PreparedStatementBatchHandler<T>() {
+            public void setup(PreparedStatement preparedStatement, T bean) throws SQLException, XerialException {
+                int id = getBeanID(bean);
+                setModifiedAtTimeStamp(bean, now);
 
-                dbAccess.updateWithPreparedStatement(sql, new PreparedStatementHandler() {
-                    public void setup(PreparedStatement preparedStatement) throws SQLException {
-                        int index = 1;
-                        for (byte[] blob : setValueList.getSecond()) {
-                            preparedStatement.setBytes(index++, blob);
-                        }
-                    }
-                });
+                int index = bindColumnValues(preparedStatement, columnList, bean);
+                preparedStatement.setInt(index, id);
             }
-            dbAccess.update("commit");
+        });
+    }
+
+    /**
+     * @return the columns to be updated, except the id and createdAt columns
+     */
+    private List<DataType> getUpdatableColumnList(Class< ? > beanType) throws DBException {
+        List<DataType> columnList = new ArrayList<DataType>();
+        for (DataType dt : getRelation(beanType).getDataTypeList()) {
+            if (dt.getName().equals("id") || dt.getName().equalsIgnoreCase("createdAt"))
+                continue;
+            columnList.add(dt);
         }
-        catch (Exception e) {
-            dbAccess.update("rollback");
-            throw new DBException(DBErrorCode.UpdateError, e);
+        return columnList;
+    }
+
+    private static String createUpdateSQL(String tableName, List<DataType> columnList) throws DBException {
+        ArrayList<String> setStatementList = new ArrayList<String>();
+        for (DataType dt : columnList)
+            setStatementList.add(String.format("%s = ?", dt.getName()));
+        return SQLExpression.fillTemplate("update $1 set $2 where id = ?", tableName, StringUtil.join(
+                setStatementList, ", "));
+    }
+
+    /**
+     * Sets the column values of the bean to the prepared statement
+     * 
+     * @return the next parameter index
+     */
+    private static int bindColumnValues(PreparedStatement preparedStatement, List<DataType> columnList, Object bean)
+            throws SQLException {
+        int index = 1;
+        for (DataType dt : columnList) {
+            Object value = null;
+            try {
+                value = getValue(bean, dt.getName());
+            }
+            catch (Exception e) {
+                _logger.error(e);
+            }
+            bindColumnValue(preparedStatement, index++, dt, value);
         }
+        return index;
+    }
 
+    /**
+     * Sets the column value to the prepared statement in the same form with
+     * {@link #retrieveColumnValueAndBlobList(Relation, Object)}
+     * 
+     * @param preparedStatement
+     * @param index
+     * @param dt
+     * @param value
+     * @throws SQLException
+     */
+    private static void bindColumnValue(PreparedStatement preparedStatement, int index, DataType dt, Object value)
+            throws SQLException {
+        switch (dt.getType()) {
+        case INTEGER:
+        case LONG:
+        case DOUBLE:
+            if (value == null)
+                preparedStatement.setNull(index, Types.NULL);
+            else
+                preparedStatement.setObject(index, value);
+            break;
+        case DATETIME:
+            if (value == null)
+                preparedStatement.setNull(index, Types.NULL);
+            else
+                preparedStatement.setString(index, DateFormat.getDateTimeInstance().format(Date.class.cast(value)));
+            break;
+        case BLOB: {
+            byte[] blobData = byte[].class.cast(value);
+            preparedStatement.setBytes(index, blobData != null ? blobData : new byte[0]);
+            break;
+        }
+        case BOOLEAN:
+        case PASSWORD:
+        case STRING:
+        case TEXT:
+        default:
+            preparedStatement.setString(index, value == null ? "" : value.toString());
+            break;
+        }
     }
 
     //    
@@ -705,6 +787,16 @@ public class ObjectStorageImpl implements ObjectStorage
         return dbAccess.query(sql, classType);
     }
 
+    public <T> ResultCursor<T> cursor(Class<T> classType) throws DBException {
+        return cursor(classType, new QueryParam());
+    }
+
+    public <T> ResultCursor<T> cursor(Class<T> classType, QueryParam queryParam) throws DBException {
+        String sql = SQLExpression.fillTemplate("select $1 from $2 $3", getSelectColumnList(classType),
+                getTableName(classType), queryParam.toSQLFragment());
+        return dbAccess.cursor(sql, classType);
+    }
+
     public <T> int count(Class<T> classType) throws DBException {
         return count(classType, new QueryParam());
     }
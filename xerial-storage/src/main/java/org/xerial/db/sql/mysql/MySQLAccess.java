@@ -25,7 +25,7 @@
 package org.xerial.db.sql.mysql;
 
 import org.xerial.db.DBException;
-import org.xerial.db.sql.ConnectionPoolImpl;
+import org.xerial.db.sql.ConcurrentConnectionPool;
 import org.xerial.db.sql.DatabaseAccessBase;
 
 /**
@@ -47,12 +47,12 @@ public class MySQLAccess extends DatabaseAccessBase {
     
     public MySQLAccess(String address, String user, String path) throws DBException
     {
-    	super(new ConnectionPoolImpl(DRIVER_NAME, ADDRESS_PREFIX + address, user, path));
+    	super(new ConcurrentConnectionPool(DRIVER_NAME, ADDRESS_PREFIX + address, user, path));
     }
 
     public MySQLAccess(String address, String user, String path, int numConnections) throws DBException
     {
-    	super(new ConnectionPoolImpl(DRIVER_NAME, ADDRESS_PREFIX + address, user, path, numConnections));
+    	super(new ConcurrentConnectionPool(DRIVER_NAME, ADDRESS_PREFIX + address, user, path, numConnections));
     }
 
 }
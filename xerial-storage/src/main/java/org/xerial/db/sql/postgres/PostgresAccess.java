@@ -25,8 +25,8 @@
 package org.xerial.db.sql.postgres;
 
 import org.xerial.db.DBException;
+import org.xerial.db.sql.ConcurrentConnectionPool;
 import org.xerial.db.sql.ConnectionPool;
-import org.xerial.db.sql.ConnectionPoolImpl;
 import org.xerial.db.sql.DatabaseAccessBase;
 
 /**
@@ -47,23 +47,23 @@ public class PostgresAccess extends DatabaseAccessBase
 
     public PostgresAccess(String address, String user, String path) throws DBException
     {
-        super(new ConnectionPoolImpl(DRIVER_NAME, ADDRESS_PREFIX + address, user, path));
+        super(new ConcurrentConnectionPool(DRIVER_NAME, ADDRESS_PREFIX + address, user, path));
     }
 
     public PostgresAccess(String address, String user, String path, int numConnections) throws DBException
     {
-        super(new ConnectionPoolImpl(DRIVER_NAME, ADDRESS_PREFIX + address, user, path, numConnections));
+        super(new ConcurrentConnectionPool(DRIVER_NAME, ADDRESS_PREFIX + address, user, path, numConnections));
     }
 
     public PostgresAccess(String host, String databaseName, int port, String user, String path) throws DBException
     {
-        super(new ConnectionPoolImpl(DRIVER_NAME, ADDRESS_PREFIX + host + ":" + port + "/" + databaseName, user, path));
+        super(new ConcurrentConnectionPool(DRIVER_NAME, ADDRESS_PREFIX + host + ":" + port + "/" + databaseName, user, path));
     }
 
     public PostgresAccess(String host, String databaseName, int port, String user, String path, int numConnections)
             throws DBException
     {
-        super(new ConnectionPoolImpl(DRIVER_NAME, ADDRESS_PREFIX + host + ":" + port + "/" + databaseName, user, path,
+        super(new ConcurrentConnectionPool(DRIVER_NAME, ADDRESS_PREFIX + host + ":" + port + "/" + databaseName, user, path,
                 numConnections));
     }
 
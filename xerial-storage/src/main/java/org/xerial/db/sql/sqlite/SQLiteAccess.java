@@ -35,8 +35,8 @@ import org.xerial.db.Relation;
 import org.xerial.db.datatype.DataType;
 import org.xerial.db.datatype.DataTypeBase;
 import org.xerial.db.datatype.TypeName;
+import org.xerial.db.sql.ConcurrentConnectionPool;
 import org.xerial.db.sql.ConnectionPool;
-import org.xerial.db.sql.ConnectionPoolImpl;
 import org.xerial.db.sql.DatabaseAccessBase;
 import org.xerial.db.sql.JSONObjectReader;
 import org.xerial.db.sql.JSONValueReader;
@@ -67,11 +67,11 @@ public class SQLiteAccess extends DatabaseAccessBase
      * @throws DBException
      */
     public SQLiteAccess() throws DBException {
-        super(new ConnectionPoolImpl(SQLite.driverName, SQLite.getMemoryDatabaseAddress(), 1));
+        super(new ConcurrentConnectionPool(SQLite.driverName, SQLite.getMemoryDatabaseAddress(), 1));
     }
 
     public SQLiteAccess(String filePath) throws DBException {
-        super(new ConnectionPoolImpl(SQLite.driverName, SQLite.getDatabaseAddress(filePath)));
+        super(new ConcurrentConnectionPool(SQLite.driverName, SQLite.getDatabaseAddress(filePath)));
     }
 
     public SQLiteAccess(ConnectionPool connectionPool) throws DBException {
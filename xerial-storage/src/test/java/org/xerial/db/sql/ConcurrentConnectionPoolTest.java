@@ -0,0 +1,269 @@
+/*--------------------------------------------------------------------------
+ *  Copyright 2011 Taro L. Saito
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *--------------------------------------------------------------------------*/
+//--------------------------------------
+// XerialJ
+//
+// ConcurrentConnectionPoolTest.java
+// Since: 2026/10/17
+//
+// $URL$
+// $Author$
+//--------------------------------------
+package org.xerial.db.sql;
+
+import static org.junit.Assert.*;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+import org.xerial.db.DBErrorCode;
+import org.xerial.db.DBException;
+import org.xerial.db.sql.sqlite.SQLite;
+import org.xerial.db.sql.sqlite.SQLiteAccess;
+import org.xerial.util.StopWatch;
+import org.xerial.util.log.Logger;
+
+public class ConcurrentConnectionPoolTest
+{
+    private static Logger _logger = Logger.getLogger(ConcurrentConnectionPoolTest.class);
+
+    private static ConcurrentConnectionPool newPool(int maxConnections) throws DBException {
+        return new ConcurrentConnectionPool(SQLite.driverName, SQLite.getMemoryDatabaseAddress(), maxConnections);
+    }
+
+    @Test
+    public void borrowAndReturn() throws Exception {
+        ConcurrentConnectionPool pool = newPool(2);
+        assertEquals(1, pool.getNumConnections());
+        assertEquals(1, pool.getNumIdle());
+
+        Connection c1 = pool.getConnection();
+        assertEquals(1, pool.getNumActive());
+        assertEquals(0, pool.getNumIdle());
+        Connection c2 = pool.getConnection();
+        assertNotSame(c1, c2);
+        assertEquals(2, pool.getNumConnections());
+        pool.returnConnection(c2);
+        pool.returnConnection(c1);
+        assertEquals(0, pool.getNumActive());
+        assertEquals(2, pool.getNumIdle());
+
+        // the connection returned last by this thread is borrowed again
+        assertSame(c1, pool.getConnection());
+        pool.returnConnection(c1);
+
+        assertEquals(3, pool.getNumBorrowed());
+        long total = 0;
+        for (long each : pool.getWaitTimeHistogram())
+            total += each;
+        assertEquals(3, total);
+        _logger.debug(pool);
+
+        pool.closeAll();
+        assertTrue(c1.isClosed());
+        assertTrue(c2.isClosed());
+    }
+
+    @Test
+    public void timeout() throws Exception {
+        ConcurrentConnectionPool pool = newPool(1);
+        pool.setBorrowTimeout(100);
+        Connection c = pool.getConnection();
+        try {
+            pool.getConnection();
+            fail("no connection must be available");
+        }
+        catch (DBException e) {
+            assertEquals(DBErrorCode.ConnectionTimeout, e.getErrorCode());
+        }
+        assertEquals(1, pool.getNumTimeouts());
+        pool.returnConnection(c);
+        pool.closeAll();
+    }
+
+    @Test
+    public void handOff() throws Exception {
+        final ConcurrentConnectionPool pool = newPool(1);
+        final Connection c = pool.getConnection();
+
+        ExecutorService threadPool = Executors.newSingleThreadExecutor();
+        Future<Connection> borrowed = threadPool.submit(new Callable<Connection>() {
+            public Connection call() throws Exception {
+                Connection connection = pool.getConnection();
+                pool.returnConnection(connection);
+                return connection;
+            }
+        });
+        while (pool.getNumWaiting() == 0)
+            Thread.sleep(1);
+        pool.returnConnection(c);
+
+        assertSame(c, borrowed.get());
+        threadPool.shutdown();
+        assertEquals(0, pool.getNumWaiting());
+        pool.closeAll();
+    }
+
+    @Test
+    public void validation() throws Exception {
+        ConcurrentConnectionPool pool = newPool(1);
+        pool.setValidationInterval(0);
+        Connection c = pool.getConnection();
+        c.close();
+        pool.returnConnection(c);
+
+        Connection c2 = pool.getConnection();
+        assertNotSame(c, c2);
+        assertFalse(c2.isClosed());
+        assertEquals(1, pool.getNumValidationFailures());
+        assertEquals(1, pool.getNumConnections());
+        pool.returnConnection(c2);
+
+        pool.setValidationQuery("select 1");
+        assertSame(c2, pool.getConnection());
+        pool.returnConnection(c2);
+        pool.closeAll();
+    }
+
+    @Test
+    public void evictIdleConnections() throws Exception {
+        ConcurrentConnectionPool pool = newPool(3);
+        List<Connection> connections = new ArrayList<Connection>();
+        for (int i = 0; i < 3; i++)
+            connections.add(pool.getConnection());
+        for (Connection each : connections)
+            pool.returnConnection(each);
+        assertEquals(3, pool.getNumIdle());
+
+        pool.setIdleTimeout(0);
+        assertEquals(0, pool.evictIdleConnections());
+
+        pool.setIdleTimeout(1);
+        Thread.sleep(10);
+        assertEquals(2, pool.evictIdleConnections());
+        assertEquals(1, pool.getNumConnections());
+        assertEquals(1, pool.getNumIdle());
+        assertEquals(2, pool.getNumEvicted());
+
+        Connection c = pool.getConnection();
+        assertFalse(c.isClosed());
+        pool.returnConnection(c);
+        pool.closeAll();
+    }
+
+    @Test
+    public void closeConnectionInUse() throws Exception {
+        ConcurrentConnectionPool pool = newPool(1);
+        Connection c = pool.getConnection();
+        pool.closeAll();
+        assertFalse(c.isClosed());
+        pool.returnConnection(c);
+        assertTrue(c.isClosed());
+
+        try {
+            pool.getConnection();
+            fail("the pool is closed");
+        }
+        catch (DBException e) {
+            assertEquals(DBErrorCode.JDBCConnectionError, e.getErrorCode());
+        }
+    }
+
+    public static class Person
+    {
+        public int    id;
+        public String name;
+    }
+
+    @Test
+    public void databaseAccess() throws Exception {
+        DatabaseAccess dbAccess = new SQLiteAccess(newPool(1));
+        dbAccess.update("create table person (id integer primary key, name string)");
+        dbAccess.update("insert into person values(1, 'leo')");
+        List<Person> result = dbAccess.query("select * from person", Person.class);
+        assertEquals(1, result.size());
+        assertEquals("leo", result.get(0).name);
+        dbAccess.dispose();
+    }
+
+    private static double borrowConcurrently(final ConnectionPool pool, int numThreads, final int numBorrows)
+            throws Exception {
+        ExecutorService threadPool = Executors.newFixedThreadPool(numThreads);
+        List<Callable<Integer>> tasks = new ArrayList<Callable<Integer>>();
+        for (int i = 0; i < numThreads; i++) {
+            tasks.add(new Callable<Integer>() {
+                public Integer call() throws Exception {
+                    int count = 0;
+                    for (int i = 0; i < numBorrows; i++) {
+                        Connection c = pool.getConnection();
+                        try {
+                            if (i % 100 == 0) {
+                                Statement statement = c.createStatement();
+                                ResultSet rs = statement.executeQuery("select 1");
+                                count += rs.next() ? rs.getInt(1) : 0;
+                                rs.close();
+                                statement.close();
+                            }
+                        }
+                        finally {
+                            pool.returnConnection(c);
+                        }
+                    }
+                    return count;
+                }
+            });
+        }
+
+        StopWatch timer = new StopWatch();
+        for (Future<Integer> each : threadPool.invokeAll(tasks))
+            assertEquals(numBorrows / 100, each.get().intValue());
+        double time = timer.getElapsedTime();
+        threadPool.shutdown();
+        return time;
+    }
+
+    @Test
+    public void performance() throws Exception {
+        final int numThreads = 8;
+        final int numConnections = 4;
+        final int numBorrows = 20000;
+
+        for (int trial = 0; trial < 3; trial++) {
+            ConnectionPool lockedPool = new ConnectionPoolImpl(SQLite.driverName, SQLite.getMemoryDatabaseAddress(),
+                    numConnections);
+            double lockedTime = borrowConcurrently(lockedPool, numThreads, numBorrows);
+            lockedPool.closeAll();
+
+            ConcurrentConnectionPool pool = newPool(numConnections);
+            double time = borrowConcurrently(pool, numThreads, numBorrows);
+            assertEquals(0, pool.getNumActive());
+            assertEquals(numThreads * numBorrows, pool.getNumBorrowed());
+            pool.closeAll();
+
+            _logger.info(String.format("%d threads x %,d borrows. ConnectionPoolImpl: %.3f sec., "
+                    + "ConcurrentConnectionPool: %.3f sec. (%s)", numThreads, numBorrows, lockedTime, time, pool));
+        }
+    }
+
+}
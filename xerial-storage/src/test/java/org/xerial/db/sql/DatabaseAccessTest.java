@@ -25,8 +25,10 @@
 package org.xerial.db.sql;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
-
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
 import java.util.List;
 
 import org.junit.After;
@@ -35,6 +37,7 @@ import org.junit.Test;
 import org.xerial.db.DBException;
 import org.xerial.db.Relation;
 import org.xerial.db.datatype.DataType;
+import org.xerial.db.sql.sqlite.SQLite;
 import org.xerial.db.sql.sqlite.SQLiteAccess;
 import org.xerial.util.log.Logger;
 
@@ -111,4 +114,98 @@ public class DatabaseAccessTest
 
     }
 
+    @Test
+    public void testSchemaCache() throws DBException
+    {
+        DatabaseAccessBase db = (DatabaseAccessBase) dbAccess;
+        db.update("create table student (id integer primary key, name string)");
+        assertEquals(2, db.getRelation("student").getDataTypeList().size());
+        assertEquals(1, db.getPrimaryKeyColumns("student").size());
+        db.getRelation("student");
+        assertEquals(1, db.getSchemaCacheStatistics().getHits());
+
+        // DDL invalidates the cache
+        db.update("drop table student");
+        db.update("create table student (id integer primary key, name string, createdAt datetime)");
+        assertEquals(3, db.getRelation("student").getDataTypeList().size());
+        assertEquals(1, db.getTableNameList().size());
+        db.update("create table report (id integer primary key, data blob)");
+        assertEquals(2, db.getTableNameList().size());
+    }
+
+    @Test
+    public void testStatementCache() throws DBException
+    {
+        DatabaseAccessBase db = (DatabaseAccessBase) dbAccess;
+        db.update("create table person (id integer primary key, name string)");
+        for (int i = 1; i <= 10; i++)
+            db.update(String.format("insert into person values(%d, 'person%d')", i, i));
+
+        db.getStatementCacheStatistics().reset();
+        for (int i = 1; i <= 10; i++)
+        {
+            final int id = i;
+            List<Person> result = db.queryWithPreparedStatement("select * from person where id = ?",
+                    new PreparedStatementHandler() {
+                        public void setup(PreparedStatement preparedStatement) throws SQLException
+                        {
+                            preparedStatement.setInt(1, id);
+                        }
+                    }, Person.class);
+            assertEquals(1, result.size());
+            assertEquals("person" + i, result.get(0).getName());
+        }
+        assertEquals(1, db.getStatementCacheStatistics().getMisses());
+        assertEquals(9, db.getStatementCacheStatistics().getHits());
+
+        // the cached statements are closed before altering the schema
+        db.update("drop table person");
+        db.update("create table person (id integer primary key, name string, age integer)");
+        db.update("insert into person values(1, 'leo', 30)");
+        List<Person> result = db.query("select * from person where id = 1", Person.class);
+        assertEquals("leo", result.get(0).getName());
+
+        db.setStatementCacheSize(0);
+        db.getStatementCacheStatistics().reset();
+        db.query("select * from person where id = 1", Person.class);
+        assertEquals(0, db.getStatementCacheStatistics().getHits() + db.getStatementCacheStatistics().getMisses());
+        assertTrue(DatabaseAccessBase.isDDL("  Create table a (id integer)"));
+        assertTrue(!DatabaseAccessBase.isDDL("select * from person"));
+    }
+
+    @Test
+    public void dropStatementCacheOfEvictedConnection() throws Exception
+    {
+        ConcurrentConnectionPool pool = new ConcurrentConnectionPool(SQLite.driverName, SQLite
+                .getMemoryDatabaseAddress(), 1);
+        DatabaseAccessBase db = new DatabaseAccessBase(pool);
+        assertEquals(1, db.singleColumnQuery("select 1 as id", "id", Integer.class).get(0).intValue());
+        assertEquals(1, db.getNumStatementCaches());
+
+        // the pool closes the idle connection
+        pool.setMinIdle(0);
+        pool.setIdleTimeout(1);
+        Thread.sleep(10);
+        assertEquals(1, pool.evictIdleConnections());
+
+        // the cache of the closed connection is dropped when a new connection is used
+        assertEquals(1, db.singleColumnQuery("select 1 as id", "id", Integer.class).get(0).intValue());
+        assertEquals(1, db.getNumStatementCaches());
+        db.dispose();
+        assertEquals(0, db.getNumStatementCaches());
+    }
+
+    @Test
+    public void dropStatementCacheOfClosedConnection() throws Exception
+    {
+        // NaiveConnectionPool closes the connection when it is returned
+        DatabaseAccessBase db = new DatabaseAccessBase(new NaiveConnectionPool(SQLite.driverName, SQLite
+                .getMemoryDatabaseAddress()));
+        for (int i = 0; i < 10; i++)
+        {
+            assertEquals(i, db.singleColumnQuery("select " + i + " as id", "id", Integer.class).get(0).intValue());
+            assertEquals(1, db.getNumStatementCaches());
+        }
+    }
+
 }
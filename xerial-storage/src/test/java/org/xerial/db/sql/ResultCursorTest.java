@@ -0,0 +1,202 @@
+/*--------------------------------------------------------------------------
+ *  Copyright 2011 Taro L. Saito
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *--------------------------------------------------------------------------*/
+//--------------------------------------
+// XerialJ
+//
+// ResultCursorTest.java
+// Since: 2026/10/17
+//
+// $URL$
+// $Author$
+//--------------------------------------
+package org.xerial.db.sql;
+
+import static org.junit.Assert.*;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.xerial.db.DBException;
+import org.xerial.db.sql.impl.ObjectStorageImpl;
+import org.xerial.db.sql.sqlite.SQLiteAccess;
+import org.xerial.util.StopWatch;
+import org.xerial.util.log.Logger;
+
+public class ResultCursorTest
+{
+    private static Logger _logger = Logger.getLogger(ResultCursorTest.class);
+
+    private DatabaseAccess dbAccess;
+
+    public static class Read
+    {
+        public int    id;
+        public String name;
+        public double score;
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        dbAccess = new SQLiteAccess();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        dbAccess.dispose();
+    }
+
+    private void createReads(final int numRows) throws DBException {
+        dbAccess.update("create table read (id integer primary key, name string, score real)");
+        List<Read> readList = new ArrayList<Read>();
+        for (int i = 0; i < numRows; i++) {
+            Read r = new Read();
+            r.id = i;
+            r.name = "read" + i;
+            r.score = i * 0.5;
+            readList.add(r);
+        }
+        dbAccess.insertAll("read", readList);
+    }
+
+    private static void check(int numRows, ResultCursor<Read> cursor) throws DBException {
+        int count = 0;
+        for (Read each : cursor) {
+            assertEquals(count, each.id);
+            assertEquals("read" + count, each.name);
+            assertEquals(count * 0.5, each.score, 1e-9);
+            count++;
+        }
+        assertEquals(numRows, count);
+        assertTrue(cursor.isClosed());
+        assertFalse(cursor.hasNext());
+    }
+
+    @Test
+    public void iterate() throws Exception {
+        createReads(1000);
+        check(1000, dbAccess.cursor("select * from read order by id", Read.class));
+        // the connection has been returned to the pool
+        check(1000, dbAccess.cursor("select * from read order by id", Read.class, 16));
+        check(0, dbAccess.cursor("select * from read where id < 0", Read.class, 16));
+    }
+
+    @Test
+    public void closeInTheMiddle() throws Exception {
+        createReads(1000);
+        for (int prefetchSize : new int[] { 0, 1, 16 }) {
+            ResultCursor<Read> cursor = dbAccess.cursor("select * from read order by id", Read.class, prefetchSize);
+            try {
+                for (int i = 0; i < 10; i++)
+                    assertEquals(i, cursor.next().id);
+            }
+            finally {
+                cursor.close();
+            }
+            assertFalse(cursor.hasNext());
+            cursor.close();
+        }
+        assertEquals(1000, dbAccess.query("select * from read", Read.class).size());
+    }
+
+    private boolean isAutoCommit() throws Exception {
+        ConnectionPool pool = ((DatabaseAccessBase) dbAccess).getConnectionPool();
+        Connection connection = pool.getConnection();
+        try {
+            return connection.getAutoCommit();
+        }
+        finally {
+            pool.returnConnection(connection);
+        }
+    }
+
+    @Test
+    public void restoreAutoCommit() throws Exception {
+        createReads(100);
+        for (int prefetchSize : new int[] { 0, 16 }) {
+            // read all of the rows, or close in the middle
+            check(100, dbAccess.cursor("select * from read order by id", Read.class, prefetchSize));
+            assertTrue(isAutoCommit());
+            ResultCursor<Read> cursor = dbAccess.cursor("select * from read order by id", Read.class, prefetchSize);
+            assertEquals(0, cursor.next().id);
+            cursor.close();
+            assertTrue(isAutoCommit());
+        }
+
+        // the transaction of the cursor has been ended
+        dbAccess.update("insert into read values(100, 'read100', 50.0)");
+        check(101, dbAccess.cursor("select * from read order by id", Read.class));
+    }
+
+    @Test(expected = DBException.class)
+    public void unknownTable() throws Exception {
+        dbAccess.cursor("select * from unknown", Read.class);
+    }
+
+    @Test
+    public void objectStorage() throws Exception {
+        ObjectStorage storage = new ObjectStorageImpl(dbAccess);
+        for (int i = 0; i < 100; i++)
+            storage.create(new Person("person" + i));
+
+        int count = 0;
+        for (Person each : storage.cursor(Person.class))
+            assertEquals("person" + count++, each.getName());
+        assertEquals(100, count);
+
+        QueryParam q = new QueryParam();
+        q.setWhereCondition("id <= 10");
+        ResultCursor<Person> cursor = storage.cursor(Person.class, q);
+        count = 0;
+        while (cursor.hasNext()) {
+            cursor.next();
+            count++;
+        }
+        assertEquals(10, count);
+    }
+
+    @Test
+    public void performance() throws Exception {
+        final int numRows = 200000;
+        createReads(numRows);
+        final String sql = "select * from read";
+
+        for (int trial = 0; trial < 3; trial++) {
+            StopWatch timer = new StopWatch();
+            double sum = 0;
+            for (Read each : dbAccess.query(sql, Read.class))
+                sum += each.score;
+            double listTime = timer.getElapsedTime();
+
+            double[] time = new double[2];
+            for (int i = 0; i < 2; i++) {
+                timer.reset();
+                double cursorSum = 0;
+                for (Read each : dbAccess.cursor(sql, Read.class, i == 0 ? 0 : 1024))
+                    cursorSum += each.score;
+                time[i] = timer.getElapsedTime();
+                assertEquals(sum, cursorSum, 1e-6);
+            }
+
+            _logger.info(String.format("%,d rows. query: %.3f sec., cursor: %.3f sec., cursor with prefetch: %.3f sec.",
+                    numRows, listTime, time[0], time[1]));
+        }
+    }
+
+}
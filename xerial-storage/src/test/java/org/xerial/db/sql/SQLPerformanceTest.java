@@ -26,7 +26,11 @@ package org.xerial.db.sql;
 
 import static org.junit.Assert.assertEquals;
 
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
 
 import org.junit.Test;
 import org.xerial.db.DBException;
@@ -77,4 +81,110 @@ public class SQLPerformanceTest
         assertEquals(N, storage.count(Person.class));
     }
 
+    @Test
+    public void getByID() throws DBException {
+        final int numPeople = 1000;
+        final int numLookups = 20000;
+
+        SQLiteAccess sqlite = new SQLiteAccess();
+        ObjectStorage storage = new ObjectStorageImpl(sqlite);
+        List<Person> people = new ArrayList<Person>();
+        for (int i = 0; i < numPeople; i++)
+            people.add(storage.create(new Person("person" + i)));
+
+        for (int trial = 0; trial < 3; trial++) {
+            double[] time = new double[2];
+            for (int i = 0; i < 2; i++) {
+                // without and with the prepared statement cache
+                sqlite.setStatementCacheSize(i == 0 ? 0 : 64);
+                sqlite.getStatementCacheStatistics().reset();
+                Random random = new Random(0);
+                StopWatch timer = new StopWatch();
+                for (int n = 0; n < numLookups; n++) {
+                    Person p = people.get(random.nextInt(numPeople));
+                    assertEquals(p.getName(), storage.get(Person.class, p.getId()).getName());
+                }
+                time[i] = timer.getElapsedTime();
+            }
+            _logger.info(String.format("%,d lookups. no statement cache: %.3f sec., statement cache: %.3f sec. (%s)",
+                    numLookups, time[0], time[1], sqlite.getStatementCacheStatistics()));
+        }
+        assertEquals(1.0, sqlite.getStatementCacheStatistics().getHitRate(), 0.001);
+    }
+
+    public static class Alignment
+    {
+        public String name;
+        public String chr;
+        public int    start;
+        public int    stop;
+
+        public Alignment() {}
+
+        public Alignment(int i) {
+            this.name = "read" + i;
+            this.chr = "chr" + (i % 22 + 1);
+            this.start = i * 10;
+            this.stop = i * 10 + 36;
+        }
+    }
+
+    private static int count(DatabaseAccess dbAccess, String tableName) throws DBException {
+        return dbAccess.accumulate("select count(*) from " + tableName, new ResultSetHandler<Integer>() {
+            @Override
+            public Integer handle(ResultSet rs) throws SQLException {
+                return rs.getInt(1);
+            }
+        });
+    }
+
+    public void insertAlignments(String dbName, DatabaseAccess dbAccess) throws DBException {
+        final int numRows = 20000;
+        List<Alignment> alignmentList = new ArrayList<Alignment>();
+        for (int i = 0; i < numRows; i++)
+            alignmentList.add(new Alignment(i));
+
+        for (int trial = 0; trial < 3; trial++) {
+            // upper-case table name, since H2 stores the table names in upper case
+            dbAccess.update("drop table if exists ALIGNMENT");
+            dbAccess.update("create table ALIGNMENT (name varchar(32), chr varchar(8), start integer, stop integer)");
+
+            // one insert statement per row
+            StopWatch timer = new StopWatch();
+            for (Alignment each : alignmentList)
+                dbAccess.insert("ALIGNMENT", each);
+            double insertTime = timer.getElapsedTime();
+            assertEquals(numRows, count(dbAccess, "ALIGNMENT"));
+
+            dbAccess.update("delete from ALIGNMENT");
+            timer.reset();
+            dbAccess.setRowsPerTransaction(5000);
+            assertEquals(numRows, dbAccess.insertAll("ALIGNMENT", alignmentList));
+            double insertAllTime = timer.getElapsedTime();
+            assertEquals(numRows, count(dbAccess, "ALIGNMENT"));
+
+            _logger.info(String.format("%s %,d rows. insert: %,.0f rows/sec., insertAll: %,.0f rows/sec.", dbName,
+                    numRows, numRows / insertTime, numRows / insertAllTime));
+        }
+
+        List<Alignment> result = dbAccess.query("select * from ALIGNMENT where name = 'read123'", Alignment.class);
+        assertEquals(1, result.size());
+        assertEquals("chr14", result.get(0).chr);
+        assertEquals(1230, result.get(0).start);
+        assertEquals(1266, result.get(0).stop);
+    }
+
+    @Test
+    public void insertAllSQLite() throws DBException {
+        DatabaseAccess sqlite = new SQLiteAccess();
+        sqlite.update("pragma synchronous=off");
+        insertAlignments("SQLite", sqlite);
+    }
+
+    @Test
+    public void insertAllH2() throws DBException {
+        DatabaseAccess h2 = new H2Access();
+        insertAlignments("H2", h2);
+    }
+
 }
@@ -33,8 +33,10 @@ import org.xerial.core.XerialErrorCode;
 import org.xerial.core.XerialException;
 import org.xerial.util.ArrayDeque;
 import org.xerial.util.Deque;
+import org.xerial.util.tree.InternedTreeStreamReader;
+import org.xerial.util.tree.NodeNameTable;
 import org.xerial.util.tree.TreeEvent;
-import org.xerial.util.tree.TreeStreamReader;
+import org.xerial.util.tree.TreeEvent.EventType;
 import org.xerial.xml.dom.DOMUtil;
 import org.xerial.xml.impl.TreeEventQueue;
 
@@ -44,10 +46,14 @@ import org.xerial.xml.impl.TreeEventQueue;
  * @author leo
  * 
  */
-public class DOMStreamReader implements TreeStreamReader
+public class DOMStreamReader implements InternedTreeStreamReader
 {
     private TreeEventQueue eventQueue = new TreeEventQueue();
     private Deque<Context> contextStack = new ArrayDeque<Context>();
+    private final NodeNameTable nodeNameTable = new NodeNameTable();
+    // the event at the cursor. The DOM tree is already in memory, so the
+    // cursor simply holds the event returned by next()
+    private TreeEvent current = null;
 
     private static class Context
     {
@@ -107,6 +113,11 @@ public class DOMStreamReader implements TreeStreamReader
         contextStack.addLast(new Context(element));
     }
 
+    public NodeNameTable getNodeNameTable()
+    {
+        return nodeNameTable;
+    }
+
     public TreeEvent peekNext() throws XerialException
     {
         if (!eventQueue.isEmpty())
@@ -153,6 +164,32 @@ public class DOMStreamReader implements TreeStreamReader
         return next();
     }
 
+    public boolean advance() throws XerialException
+    {
+        current = next();
+        return current != null;
+    }
+
+    public EventType getEventType()
+    {
+        return current != null ? current.event : null;
+    }
+
+    public int getNodeId()
+    {
+        return current != null ? current.getNodeId() : NodeNameTable.NO_ID;
+    }
+
+    public String getNodeName()
+    {
+        return current != null ? current.nodeName : null;
+    }
+
+    public String getNodeValue()
+    {
+        return current != null ? current.nodeValue : null;
+    }
+
     public void parse(Context context)
     {
         if (!context.hasVisited())
@@ -181,8 +218,8 @@ public class DOMStreamReader implements TreeStreamReader
                     continue;
                 }
 
-                subEventQueue.addLast(TreeEvent.newVisitEvent(attributeName, attributeValue));
-                subEventQueue.addLast(TreeEvent.newLeaveEvent(attributeName));
+                subEventQueue.addLast(nodeNameTable.newVisitEvent(attributeName, attributeValue));
+                subEventQueue.addLast(nodeNameTable.newLeaveEvent(attributeName));
             }
 
             if (text != null)
@@ -194,13 +231,13 @@ public class DOMStreamReader implements TreeStreamReader
 
             if (nodeValue != null)
             {
-                subEventQueue.addFirst(TreeEvent.newVisitEvent(tagName, nodeValue));
+                subEventQueue.addFirst(nodeNameTable.newVisitEvent(tagName, nodeValue));
                 if (text != null)
-                    subEventQueue.addLast(TreeEvent.newTextEvent(tagName, text));
+                    subEventQueue.addLast(nodeNameTable.newTextEvent(tagName, text));
             }
             else
             {
-                subEventQueue.addFirst(TreeEvent.newVisitEvent(tagName, text));
+                subEventQueue.addFirst(nodeNameTable.newVisitEvent(tagName, text));
             }
 
             eventQueue.push(subEventQueue);
@@ -222,7 +259,7 @@ public class DOMStreamReader implements TreeStreamReader
             else
             {
                 context.setFinished();
-                eventQueue.push(TreeEvent.newLeaveEvent(context.element.getNodeName()));
+                eventQueue.push(nodeNameTable.newLeaveEvent(context.element.getNodeName()));
                 break;
             }
         }
@@ -33,10 +33,13 @@ import org.xerial.core.XerialErrorCode;
 import org.xerial.core.XerialException;
 import org.xerial.util.ArrayDeque;
 import org.xerial.util.Deque;
+import org.xerial.util.tree.InternedTreeStreamReader;
+import org.xerial.util.tree.MutableTreeEvent;
+import org.xerial.util.tree.NodeNameTable;
 import org.xerial.util.tree.TreeEvent;
+import org.xerial.util.tree.TreeEventPool;
 import org.xerial.util.tree.TreeStreamReader;
 import org.xerial.util.tree.TreeEvent.EventType;
-import org.xerial.xml.impl.TreeEventQueue;
 import org.xerial.xml.pullparser.PullParserUtil;
 import org.xmlpull.v1.XmlPullParser;
 import org.xmlpull.v1.XmlPullParserException;
@@ -47,7 +50,7 @@ import org.xmlpull.v1.XmlPullParserException;
  * @author leo
  * 
  */
-public class XMLStreamReader implements TreeStreamReader
+public class XMLStreamReader implements InternedTreeStreamReader
 {
     private final XmlPullParser pullParser;
     private final Deque<StringBuilder> textStack = new ArrayDeque<StringBuilder>();
@@ -57,7 +60,13 @@ public class XMLStreamReader implements TreeStreamReader
     private int parseState = START_DOCUMENT;
     private boolean convertValueAttribute = false;
 
-    private final TreeEventQueue eventQueue = new TreeEventQueue();
+    private final Deque<MutableTreeEvent> eventQueue = new ArrayDeque<MutableTreeEvent>();
+    // the names of the open tags
+    private final Deque<String> tagNameStack = new ArrayDeque<String>();
+    private final NodeNameTable nodeNameTable = new NodeNameTable();
+    private final TreeEventPool eventPool = new TreeEventPool(nodeNameTable, 64);
+    // the event at the cursor
+    private MutableTreeEvent current = null;
 
     public XMLStreamReader(Reader reader)
     {
@@ -73,11 +82,16 @@ public class XMLStreamReader implements TreeStreamReader
         this.convertValueAttribute = enable;
     }
 
+    public NodeNameTable getNodeNameTable()
+    {
+        return nodeNameTable;
+    }
+
     public TreeEvent peekNext() throws XerialException
     {
         if (!eventQueue.isEmpty())
         {
-            return eventQueue.peekFirst();
+            return eventQueue.peekFirst().toTreeEvent();
         }
 
         if (parseState == END_DOCUMENT)
@@ -90,17 +104,52 @@ public class XMLStreamReader implements TreeStreamReader
 
     public TreeEvent next() throws XerialException
     {
-        if (!eventQueue.isEmpty())
-        {
-            return eventQueue.pop();
-        }
-
-        if (parseState == END_DOCUMENT)
+        MutableTreeEvent e = nextEvent();
+        if (e == null)
             return null;
 
-        readNext();
+        TreeEvent result = e.toTreeEvent();
+        eventPool.release(e);
+        return result;
+    }
+
+    public boolean advance() throws XerialException
+    {
+        eventPool.release(current);
+        current = nextEvent();
+        return current != null;
+    }
+
+    public EventType getEventType()
+    {
+        return current != null ? current.getEventType() : null;
+    }
+
+    public int getNodeId()
+    {
+        return current != null ? current.getNodeId() : NodeNameTable.NO_ID;
+    }
 
-        return next();
+    public String getNodeName()
+    {
+        return current != null ? current.getNodeName() : null;
+    }
+
+    public String getNodeValue()
+    {
+        return current != null ? current.getNodeValue() : null;
+    }
+
+    private MutableTreeEvent nextEvent() throws XerialException
+    {
+        while (eventQueue.isEmpty())
+        {
+            if (parseState == END_DOCUMENT)
+                return null;
+
+            readNext();
+        }
+        return eventQueue.removeFirst();
     }
 
     public void readNext() throws XerialException
@@ -120,7 +169,10 @@ public class XMLStreamReader implements TreeStreamReader
                 String tagName = pullParser.getName();
                 String immediateNodeValue = null;
 
-                Deque<TreeEvent> startEventQueue = new ArrayDeque<TreeEvent>(pullParser.getAttributeCount() + 1);
+                // push a new start tag event, whose value is set later
+                MutableTreeEvent startEvent = eventPool.newVisitEvent(tagName, null);
+                eventQueue.addLast(startEvent);
+                tagNameStack.addLast(tagName);
                 // read attributes
                 for (int i = 0; i < pullParser.getAttributeCount(); i++)
                 {
@@ -134,13 +186,10 @@ public class XMLStreamReader implements TreeStreamReader
                         continue;
                     }
 
-                    startEventQueue.addLast(TreeEvent.newVisitEvent(attributeName, attributeValue));
-                    startEventQueue.addLast(TreeEvent.newLeaveEvent(attributeName));
+                    eventQueue.addLast(eventPool.newVisitEvent(attributeName, attributeValue));
+                    eventQueue.addLast(eventPool.newLeaveEvent(attributeName));
                 }
-
-                // push a new start tag event to the front of the queue
-                startEventQueue.addFirst(TreeEvent.newVisitEvent(tagName, immediateNodeValue));
-                eventQueue.push(startEventQueue);
+                startEvent.setNodeValue(immediateNodeValue);
 
                 // pre-fetch the next event
                 readNext();
@@ -150,23 +199,23 @@ public class XMLStreamReader implements TreeStreamReader
             {
                 if (textStack.getLast() == EMPTY_STRING)
                 {
-                    eventQueue.push(TreeEvent.newLeaveEvent(pullParser.getName()));
+                    eventQueue.addLast(eventPool.newLeaveEvent(pullParser.getName()));
                 }
                 else
                 {
                     StringBuilder textBuffer = textStack.getLast();
-                    if (!eventQueue.isEmpty() && eventQueue.peekLast().event == EventType.VISIT)
+                    if (!eventQueue.isEmpty() && eventQueue.peekLast().getEventType() == EventType.VISIT)
                     {
                         // attach the text value to the the previous visit event
-                        eventQueue.replaceLast(TreeEvent.newVisitEvent(pullParser.getName(), sanitize(textBuffer
-                                .toString())));
+                        eventQueue.peekLast().setNodeValue(sanitize(textBuffer.toString()));
                     }
                     else
                         reportTextEvent(textBuffer);
 
-                    eventQueue.push(TreeEvent.newLeaveEvent(pullParser.getName()));
+                    eventQueue.addLast(eventPool.newLeaveEvent(pullParser.getName()));
                 }
                 textStack.removeLast();
+                tagNameStack.removeLast();
             }
                 break;
             case TEXT:
@@ -191,7 +240,7 @@ public class XMLStreamReader implements TreeStreamReader
                 }
                 textBuffer.append(textData);
 
-                boolean needPrefetch = eventQueue.isEmpty() ? false : eventQueue.peekLast().event == EventType.VISIT;
+                boolean needPrefetch = eventQueue.isEmpty() ? false : eventQueue.peekLast().getEventType() == EventType.VISIT;
                 if (needPrefetch)
                     readNext();
             }
@@ -236,7 +285,7 @@ public class XMLStreamReader implements TreeStreamReader
         textData = sanitize(textData);
 
         if (textData.length() > 0)
-            eventQueue.push(TreeEvent.newTextEvent(eventQueue.getContextNodeName(), textData));
+            eventQueue.addLast(eventPool.newTextEvent(tagNameStack.getLast(), textData));
     }
 
 }
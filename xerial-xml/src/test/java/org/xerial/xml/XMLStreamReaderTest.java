@@ -33,6 +33,7 @@ import org.junit.Before;
 import org.junit.Test;
 import org.xerial.util.FileResource;
 import org.xerial.util.log.Logger;
+import org.xerial.util.tree.NodeNameTable;
 import org.xerial.util.tree.TreeEvent;
 
 public class XMLStreamReaderTest {
@@ -77,4 +78,39 @@ public class XMLStreamReaderTest {
 
     }
 
+    @Test
+    public void nodeNameTable() throws Exception {
+        for (String xml : new String[] { "skip.xml", "simple.xml", "sample.xml" }) {
+            XMLStreamReader reader = new XMLStreamReader(FileResource.open(XMLStreamReaderTest.class,
+                    xml));
+            NodeNameTable table = reader.getNodeNameTable();
+            int count = 0;
+            TreeEvent e;
+            while ((e = reader.next()) != null) {
+                assertEquals(e.nodeName, table.getName(e.getNodeId()));
+                count++;
+            }
+            assertTrue(count > 0);
+        }
+    }
+
+    @Test
+    public void cursor() throws Exception {
+        for (String xml : new String[] { "skip.xml", "simple.xml", "sample.xml" }) {
+            XMLStreamReader reader = new XMLStreamReader(FileResource.open(XMLStreamReaderTest.class,
+                    xml));
+            XMLStreamReader cursor = new XMLStreamReader(FileResource.open(XMLStreamReaderTest.class,
+                    xml));
+            TreeEvent e;
+            while ((e = reader.next()) != null) {
+                assertTrue(cursor.advance());
+                assertEquals(e.event, cursor.getEventType());
+                assertEquals(e.getNodeId(), cursor.getNodeId());
+                assertEquals(e.nodeName, cursor.getNodeName());
+                assertEquals(e.nodeValue, cursor.getNodeValue());
+            }
+            assertFalse(cursor.advance());
+        }
+    }
+
 }